@@ -0,0 +1,136 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.SpringOpenAiApplication;
+import com.puhovin.springopenai.dto.ChatRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens {@code streams} concurrent {@code POST /chat/stream} answers against a running application
+ * whose upstream is an in-process stub that paces its chunks like a model, once over HTTP/1.1 and
+ * once over h2c. The client may open at most {@code connections} connections, so {@code 6} models a
+ * browser's per-origin limit and {@code 256} a gateway's pool; over HTTP/1.1 every stream needs a
+ * connection of its own, while h2c multiplexes all of them. Throughput is answers per second and
+ * sample time gives the latency percentiles of a whole batch. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class Http2StreamingBenchmark {
+
+    private static final String CHUNK = "data: {\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion.chunk\","
+            + "\"created\":1730000000,\"model\":\"stub-model\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{\"content\":\"token%d \"},\"finish_reason\":null}]}\n\n";
+    private static final String LAST_CHUNK = "data: {\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion.chunk\","
+            + "\"created\":1730000000,\"model\":\"stub-model\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{},\"finish_reason\":\"stop\"}]}\n\ndata: [DONE]\n\n";
+    private static final ChatRequest REQUEST = new ChatRequest("benchmark");
+    private static final int CHUNKS = 32;
+    private static final Duration CHUNK_INTERVAL = Duration.ofMillis(2);
+
+    @Param({"http1.1", "h2c"})
+    private String protocol;
+
+    @Param({"16", "256"})
+    private int streams;
+
+    @Param({"6", "256"})
+    private int connections;
+
+    private DisposableServer upstream;
+    private ConfigurableApplicationContext application;
+    private ConnectionProvider provider;
+    private WebClient webClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upstream = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/v1/chat/completions", (request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                        .sendString(request.receive().then()
+                                .thenMany(Flux.range(0, CHUNKS)
+                                        .delayElements(CHUNK_INTERVAL)
+                                        .map(CHUNK::formatted)
+                                        .concatWithValues(LAST_CHUNK)))))
+                .bindNow();
+        application = new SpringApplicationBuilder(SpringOpenAiApplication.class)
+                .properties(
+                        "spring.ai.openai.api-key=benchmark",
+                        "spring.ai.openai.base-url=http://127.0.0.1:" + upstream.port(),
+                        "server.port=0",
+                        "server.http2.enabled=true",
+                        "spring.rsocket.server.port=0",
+                        "springdoc.api-docs.enabled=false",
+                        "springdoc.swagger-ui.enabled=false",
+                        "management.tracing.enabled=false",
+                        "chat.tracing.enabled=false",
+                        "chat.overload.enabled=false",
+                        "chat.usage.snapshot-file=",
+                        "chat.priority.max-concurrency=512")
+                .run();
+        int port = ((ReactiveWebServerApplicationContext) application).getWebServer().getPort();
+        provider = ConnectionProvider.builder("benchmark")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(provider)
+                .protocol(protocol.equals("h2c") ? HttpProtocol.H2C : HttpProtocol.HTTP11);
+        webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + port)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        provider.disposeLater().block();
+        application.close();
+        upstream.disposeNow();
+    }
+
+    @Benchmark
+    public Long streamAnswers() {
+        return Flux.range(0, streams)
+                .flatMap(i -> webClient.post()
+                        .uri("/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .bodyValue(REQUEST)
+                        .retrieve()
+                        .bodyToFlux(String.class), streams)
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,136 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.SpringOpenAiApplication;
+import com.puhovin.springopenai.dto.ChatRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Streams the same stubbed answer through {@code POST /chat/stream} and through the
+ * {@code chat.stream} RSocket route over TCP and WebSocket, against a running application whose
+ * upstream is an in-process stub. One operation is {@code streams} concurrent answers of
+ * {@code chunks} chunks each. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransportThroughputBenchmark {
+
+    private static final String CHUNK = "data: {\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion.chunk\","
+            + "\"created\":1730000000,\"model\":\"stub-model\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{\"content\":\"token%d \"},\"finish_reason\":null}]}\n\n";
+    private static final String LAST_CHUNK = "data: {\"id\":\"chatcmpl-bench\",\"object\":\"chat.completion.chunk\","
+            + "\"created\":1730000000,\"model\":\"stub-model\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{},\"finish_reason\":\"stop\"}]}\n\ndata: [DONE]\n\n";
+    private static final ChatRequest REQUEST = new ChatRequest("benchmark");
+
+    @Param({"http-sse", "rsocket-tcp", "rsocket-websocket"})
+    private String transport;
+
+    @Param({"64", "512"})
+    private int chunks;
+
+    @Param({"1", "16"})
+    private int streams;
+
+    private DisposableServer upstream;
+    private ConfigurableApplicationContext application;
+    private RSocketRequester requester;
+    private Supplier<Flux<String>> answer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        upstream = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/v1/chat/completions", (request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                        .sendString(request.receive().then()
+                                .thenMany(Flux.range(0, chunks).map(CHUNK::formatted).concatWithValues(LAST_CHUNK)))))
+                .bindNow();
+        application = new SpringApplicationBuilder(SpringOpenAiApplication.class)
+                .properties(
+                        "spring.ai.openai.api-key=benchmark",
+                        "spring.ai.openai.base-url=http://127.0.0.1:" + upstream.port(),
+                        "server.port=0",
+                        "spring.rsocket.server.port=0",
+                        "springdoc.api-docs.enabled=false",
+                        "springdoc.swagger-ui.enabled=false",
+                        "management.tracing.enabled=false",
+                        "chat.tracing.enabled=false",
+                        "chat.overload.enabled=false",
+                        "chat.usage.snapshot-file=")
+                .run();
+        int httpPort = ((ReactiveWebServerApplicationContext) application).getWebServer().getPort();
+        RSocketRequester.Builder requesterBuilder = RSocketRequester.builder()
+                .rsocketStrategies(application.getBean(RSocketStrategies.class))
+                .dataMimeType(MediaType.APPLICATION_CBOR);
+        switch (transport) {
+            case "rsocket-tcp" -> {
+                requester = requesterBuilder.tcp("127.0.0.1",
+                        application.getEnvironment().getRequiredProperty("local.rsocket.server.port", Integer.class));
+                answer = () -> requester.route("chat.stream").data(REQUEST).retrieveFlux(String.class);
+            }
+            case "rsocket-websocket" -> {
+                requester = requesterBuilder.websocket(URI.create("ws://127.0.0.1:" + httpPort + "/rsocket"));
+                answer = () -> requester.route("chat.stream").data(REQUEST).retrieveFlux(String.class);
+            }
+            default -> {
+                WebClient webClient = WebClient.create("http://127.0.0.1:" + httpPort);
+                answer = () -> webClient.post()
+                        .uri("/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .bodyValue(REQUEST)
+                        .retrieve()
+                        .bodyToFlux(String.class);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (requester != null) {
+            requester.dispose();
+        }
+        application.close();
+        upstream.disposeNow();
+    }
+
+    @Benchmark
+    public Long streamAnswers() {
+        return Flux.range(0, streams)
+                .flatMap(i -> answer.get(), streams)
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,91 @@
+package com.puhovin.springopenai.output;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the latency the output filter adds to each streamed chunk: one invocation runs a whole
+ * answer of {@value #CHUNKS} model-sized chunks through a fresh session, and the score is per
+ * chunk. Modes are {@code off} (chunks passed through untouched), {@code terms} (an automaton of
+ * {@code terms} generated words plus one that occurs in the answer) and {@code terms-regex} (the
+ * same automaton plus an API-key and an e-mail pattern). Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputFilterBenchmark {
+
+    private static final int CHUNKS = 256;
+    private static final String[] WORDS = {
+            "the ", "service ", "returns ", "a ", "streamed ", "answer ", "for ", "each ", "request ",
+            "and ", "project-phoenix ", "contact ", "ops@example.com ", "key ", "sk-abc123def456 ", "ok. "
+    };
+
+    @Param({"off", "terms", "terms-regex"})
+    private String mode;
+
+    @Param({"100", "10000"})
+    private int terms;
+
+    private String[] chunks;
+    private AhoCorasick automaton;
+    private Pattern pattern;
+    private Counter redactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        chunks = new String[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            chunks[i] = WORDS[random.nextInt(WORDS.length)];
+        }
+        List<String> dictionary = new ArrayList<>(terms);
+        for (int i = 1; i < terms; i++) {
+            dictionary.add(Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+        }
+        dictionary.add("project-phoenix");
+        automaton = AhoCorasick.build(dictionary, true);
+        pattern = Pattern.compile("(?:sk-[A-Za-z0-9]{8,48})|(?:[\\w.+-]{1,32}@[\\w-]{1,32}\\.[a-z]{2,8})");
+        redactions = new SimpleMeterRegistry().counter("chat.output.redactions");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNKS)
+    public void filterAnswer(Blackhole blackhole) {
+        if (mode.equals("off")) {
+            for (String chunk : chunks) {
+                blackhole.consume(chunk);
+            }
+            return;
+        }
+        OutputFilter.Session session = new StreamRedactor(automaton,
+                mode.equals("terms-regex") ? pattern.matcher("") : null, 96, "[REDACTED]", redactions);
+        for (String chunk : chunks) {
+            blackhole.consume(session.next(chunk));
+        }
+        blackhole.consume(session.finish());
+    }
+}
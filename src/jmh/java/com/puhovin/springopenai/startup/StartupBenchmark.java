@@ -0,0 +1,141 @@
+package com.puhovin.springopenai.startup;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the application repeatedly as a separate process and reports the time from process
+ * start to the first successful {@code POST /chat}, answered by an in-process stub upstream. Run
+ * with {@code ./gradlew startupBenchmark}; after {@code ./gradlew cdsArchive} a CDS variant is
+ * measured as well, and with {@code -Paot} the AOT-processed code is used.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final String COMPLETION = """
+            {"id":"chatcmpl-startup","object":"chat.completion","created":0,"model":"stub",\
+            "choices":[{"index":0,"message":{"role":"assistant","content":"pong"},"finish_reason":"stop"}],\
+            "usage":{"prompt_tokens":1,"completion_tokens":1,"total_tokens":2}}""";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = 5;
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        List<String> current = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--iterations".equals(args[i])) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if ("--variant".equals(args[i])) {
+                current = new ArrayList<>();
+                variants.put(args[++i], current);
+            } else if (current != null) {
+                current.add(args[i]);
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+        }
+        if (variants.isEmpty()) {
+            throw new IllegalArgumentException("Usage: --iterations N --variant name command... [--variant ...]");
+        }
+
+        HttpServer upstream = startUpstream();
+        try {
+            String baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+            System.out.printf("%-10s %10s %10s %10s%n", "variant", "min ms", "median ms", "max ms");
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                List<Long> samples = new ArrayList<>(iterations);
+                for (int i = 0; i < iterations; i++) {
+                    samples.add(timeToFirstChat(variant.getValue(), baseUrl));
+                }
+                samples.sort(null);
+                System.out.printf("%-10s %10d %10d %10d%n", variant.getKey(),
+                        samples.get(0), samples.get(samples.size() / 2), samples.get(samples.size() - 1));
+            }
+        } finally {
+            upstream.stop(0);
+        }
+    }
+
+    private static long timeToFirstChat(List<String> command, String upstreamUrl) throws Exception {
+        int port = freePort();
+        List<String> processCommand = new ArrayList<>(command);
+        processCommand.add("--server.port=" + port);
+        processCommand.add("--spring.ai.openai.base-url=" + upstreamUrl);
+        processCommand.add("--spring.ai.openai.api-key=startup-benchmark");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/chat"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"message\":\"ping\"}"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(processCommand)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - startNanos < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                    }
+                } catch (ConnectException ex) {
+                    // not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("Application did not serve /chat within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static HttpServer startUpstream() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        byte[] body = COMPLETION.getBytes(StandardCharsets.UTF_8);
+        server.createContext("/v1/chat/completions", exchange -> {
+            try (InputStream in = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+                in.readAllBytes();
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
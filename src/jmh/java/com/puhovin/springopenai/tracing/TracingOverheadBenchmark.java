@@ -0,0 +1,134 @@
+package com.puhovin.springopenai.tracing;
+
+import com.puhovin.springopenai.config.TracingProperties;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the chat observations add to one streamed answer: a generation observation with
+ * one upstream observation below it, the same shape as {@code OpenAiStreamService}. Modes are
+ * {@code off} ({@code chat.tracing.enabled=false}), {@code metrics} (observation timers only),
+ * {@code unsampled} (tracing with the head sampler dropping every trace), {@code tail} (dropped by
+ * the head sampler but recorded for the slow-trace check) and {@code sampled} (every span exported
+ * to a no-op exporter). Run with {@code ./gradlew jmh}; compare
+ * {@code off} and {@code unsampled} for the cost of sampling being off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TracingOverheadBenchmark {
+
+    private static final KeyValues GENERATION_KEYS = KeyValues.of(
+            "chat.mode", "stream", "chat.tier", "standard", "chat.path", "chat-model");
+    private static final KeyValues UPSTREAM_KEYS = KeyValues.of("chat.round", "1");
+
+    @Param({"off", "metrics", "unsampled", "tail", "sampled"})
+    private String mode;
+
+    @Param({"64", "512"})
+    private int chunks;
+
+    private SdkTracerProvider tracerProvider;
+    private ChatObservations observations;
+    private String[] payloads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        payloads = new String[chunks];
+        for (int i = 0; i < chunks; i++) {
+            payloads[i] = " token" + i;
+        }
+        TracingProperties properties = new TracingProperties(!"off".equals(mode), Duration.ofMinutes(1),
+                1000, 256, Duration.ofMinutes(5));
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(new SimpleMeterRegistry()));
+        switch (mode) {
+            case "unsampled" -> tracing(registry, new SlowTraceSampler(Sampler.alwaysOff(), false),
+                    SpanProcessor.composite());
+            case "tail" -> tracing(registry, new SlowTraceSampler(Sampler.alwaysOff(), true),
+                    new SlowTraceSpanProcessor(new NoopSpanExporter(), properties, new SimpleMeterRegistry()));
+            case "sampled" -> tracing(registry, new SlowTraceSampler(Sampler.alwaysOn(), false),
+                    SimpleSpanProcessor.create(new NoopSpanExporter()));
+            default -> {
+            }
+        }
+        observations = new ChatObservations(registry, properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    @Benchmark
+    public Long streamAnswer() {
+        return observations.flux(ChatObservations.GENERATION, GENERATION_KEYS,
+                        generation -> observations.flux(ChatObservations.UPSTREAM, UPSTREAM_KEYS,
+                                upstream -> Flux.fromArray(payloads)))
+                .count()
+                .block();
+    }
+
+    private void tracing(ObservationRegistry registry, Sampler sampler, SpanProcessor processor) {
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(sampler)
+                .addSpanProcessor(processor)
+                .build();
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("benchmark"), new OtelCurrentTraceContext(), event -> {
+        });
+        registry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+    }
+
+    private static final class NoopSpanExporter implements SpanExporter {
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.puhovin.springopenai.upstream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding one streamed answer through the Spring AI object graph (chunk record, then
+ * {@link ChatResponse}) with {@link CompletionChunkDecoder}. Run with {@code ./gradlew jmh}; the
+ * {@code gc} profiler reports {@code gc.alloc.rate.norm} per answer for both paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingPathBenchmark {
+
+    private static final String FRAME = "data: {\"id\":\"chatcmpl-1\",\"object\":\"chat.completion.chunk\","
+            + "\"created\":1730000000,\"model\":\"gpt-5-2025-08-07\",\"system_fingerprint\":\"fp_1\","
+            + "\"choices\":[{\"index\":0,\"delta\":{\"content\":\" token%d\"},\"logprobs\":null,\"finish_reason\":null}]}\n\n";
+
+    @Param({"64", "512"})
+    private int chunks;
+
+    private final ObjectMapper objectMapper = ModelOptionsUtils.OBJECT_MAPPER;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private byte[][] frames;
+    private String[] payloads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        frames = new byte[chunks][];
+        payloads = new String[chunks];
+        for (int i = 0; i < chunks; i++) {
+            String frame = FRAME.formatted(i);
+            frames[i] = frame.getBytes(StandardCharsets.UTF_8);
+            payloads[i] = frame.substring("data: ".length()).trim();
+        }
+    }
+
+    @Benchmark
+    public void chatResponsePath(Blackhole blackhole) throws Exception {
+        for (String payload : payloads) {
+            OpenAiApi.ChatCompletionChunk chunk = objectMapper.readValue(payload, OpenAiApi.ChatCompletionChunk.class);
+            OpenAiApi.ChatCompletionChunk.ChunkChoice choice = chunk.choices().get(0);
+            AssistantMessage message = new AssistantMessage(choice.delta().content());
+            ChatGenerationMetadata generationMetadata = ChatGenerationMetadata.builder()
+                    .finishReason(choice.finishReason() != null ? choice.finishReason().name() : "")
+                    .build();
+            ChatResponse response = new ChatResponse(
+                    List.of(new Generation(message, generationMetadata)),
+                    ChatResponseMetadata.builder().id(chunk.id()).model(chunk.model()).build());
+            blackhole.consume(response.getResult().getOutput().getText());
+        }
+    }
+
+    @Benchmark
+    public void directDecoderPath(Blackhole blackhole) {
+        CompletionChunkDecoder decoder = new CompletionChunkDecoder(jsonFactory);
+        for (byte[] frame : frames) {
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(frame);
+            for (CompletionChunk chunk : decoder.decode(buffer)) {
+                blackhole.consume(chunk.content());
+            }
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.puhovin.springopenai;
 
+import com.puhovin.springopenai.config.ChatRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(ChatRuntimeHints.class)
 public class SpringOpenAiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,15 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.broadcast")
+public record BroadcastProperties(
+        @DefaultValue("1024") int replayLimit,
+        @DefaultValue("256") int subscriberBuffer,
+        @DefaultValue("30s") Duration idleTimeout,
+        @DefaultValue("60s") Duration retention,
+        @DefaultValue("1000") int maxActive
+) {}
@@ -0,0 +1,69 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = BulkheadProperties.PREFIX)
+public record BulkheadProperties(
+        @DefaultValue("true") boolean enabled,
+        Path configFile,
+        @DefaultValue("10s") Duration reloadInterval,
+        @DefaultValue("60s") Duration poolDisposeTimeout,
+        @DefaultValue Limits defaults,
+        Map<String, Tenant> tenants
+) {
+
+    public static final String PREFIX = "chat.bulkhead";
+
+    public BulkheadProperties {
+        tenants = tenants != null ? tenants : Map.of();
+    }
+
+    public boolean reloadsFromFile() {
+        return configFile != null && !configFile.toString().isBlank();
+    }
+
+    public Limits limits(String tenant) {
+        Tenant settings = tenants.get(tenant);
+        return settings != null ? settings.limits(defaults) : defaults;
+    }
+
+    public record Limits(
+            @DefaultValue("8") int maxConcurrency,
+            @DefaultValue("50") int maxQueueDepth,
+            @DefaultValue("10s") Duration maxQueueWait
+    ) {}
+
+    /**
+     * Unset limits fall back to {@link BulkheadProperties#defaults()}. Setting an API key, base URL
+     * or connection limit gives the tenant its own chat model; a connection limit also gives it its
+     * own connection pool.
+     */
+    public record Tenant(
+            Integer maxConcurrency,
+            Integer maxQueueDepth,
+            Duration maxQueueWait,
+            String apiKey,
+            String baseUrl,
+            Integer maxConnections,
+            Duration pendingAcquireTimeout
+    ) {
+
+        public Limits limits(Limits defaults) {
+            return new Limits(
+                    maxConcurrency != null ? maxConcurrency : defaults.maxConcurrency(),
+                    maxQueueDepth != null ? maxQueueDepth : defaults.maxQueueDepth(),
+                    maxQueueWait != null ? maxQueueWait : defaults.maxQueueWait());
+        }
+
+        public boolean dedicated() {
+            return (apiKey != null && !apiKey.isBlank())
+                    || (baseUrl != null && !baseUrl.isBlank())
+                    || maxConnections != null;
+        }
+    }
+}
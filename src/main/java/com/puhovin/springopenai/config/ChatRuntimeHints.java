@@ -0,0 +1,21 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.dto.JsonFragment;
+import com.puhovin.springopenai.tool.ToolEvent;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Registers Jackson binding hints for payloads that are serialized from inside
+ * {@code ServerSentEvent<Object>} bodies, where AOT cannot infer them from controller signatures.
+ */
+public class ChatRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), ToolEvent.class, JsonFragment.class);
+    }
+}
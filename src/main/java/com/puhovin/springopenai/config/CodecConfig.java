@@ -0,0 +1,26 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Sizes the server codecs' in-memory buffer to {@code chat.ingestion.max-request-size}, so a JSON
+ * body the size filter accepts is never refused by the decoder. This is deliberately not
+ * {@code spring.codec.max-in-memory-size}, which would also resize the WebClient codecs that read
+ * upstream responses.
+ */
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+    private final IngestionProperties properties;
+
+    public CodecConfig(IngestionProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.defaultCodecs().maxInMemorySize(Math.toIntExact(properties.maxRequestSize().toBytes()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "chat.compression")
+public record CompressionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("6") int level,
+        @DefaultValue("64") int maxPooledDeflaters
+) {}
@@ -0,0 +1,13 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.deadline")
+public record DeadlineProperties(
+        @DefaultValue("800ms") Duration initialExpectedTtft,
+        @DefaultValue("0.2") double ttftSmoothing,
+        @DefaultValue("10s") Duration estimateDecayHalfLife
+) {}
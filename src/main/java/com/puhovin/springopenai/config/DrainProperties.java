@@ -0,0 +1,13 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.drain")
+public record DrainProperties(
+        @DefaultValue("25s") Duration gracePeriod,
+        @DefaultValue("100ms") Duration pollInterval,
+        @DefaultValue("1s") Duration reconnectDelay
+) {}
@@ -0,0 +1,13 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.embedding")
+public record EmbeddingProperties(
+        @DefaultValue("128") int maxBatchSize,
+        @DefaultValue("5ms") Duration maxWait,
+        @DefaultValue("30s") Duration requestTimeout
+) {}
@@ -0,0 +1,13 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.heartbeat")
+public record HeartbeatProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("15s") Duration interval,
+        @DefaultValue("100ms") Duration tickDuration
+) {}
@@ -0,0 +1,29 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP/2 settings for the embedded server; Boot already offers h2c (prior knowledge or upgrade) in
+ * cleartext and h2 through ALPN when {@code server.ssl} is enabled, with HTTP/1.1 as the fallback.
+ * Every {@code /chat/stream} answer is a long-lived stream, so the concurrent-stream limit is raised
+ * well above a browser's handful of parallel requests, and the per-stream receive window is widened
+ * so that a document upload is not throttled by window updates. Outbound SSE is flushed per event
+ * and paced by the client's window for that stream alone, so a slow reader never stalls the others
+ * sharing its connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.http2.enabled", havingValue = "true")
+public class Http2Config {
+
+    @Bean
+    public NettyServerCustomizer http2Settings(Http2Properties properties) {
+        return server -> server.http2Settings(settings -> settings
+                .maxConcurrentStreams(properties.maxConcurrentStreams())
+                .initialWindowSize(Math.toIntExact(properties.initialWindowSize().toBytes()))
+                .maxFrameSize(Math.toIntExact(properties.maxFrameSize().toBytes()))
+                .maxHeaderListSize(properties.maxHeaderListSize().toBytes()));
+    }
+}
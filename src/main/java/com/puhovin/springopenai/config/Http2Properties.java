@@ -0,0 +1,13 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "chat.http2")
+public record Http2Properties(
+        @DefaultValue("256") long maxConcurrentStreams,
+        @DefaultValue("1MB") DataSize initialWindowSize,
+        @DefaultValue("16KB") DataSize maxFrameSize,
+        @DefaultValue("16KB") DataSize maxHeaderListSize
+) {}
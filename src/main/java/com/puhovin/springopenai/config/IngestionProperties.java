@@ -0,0 +1,12 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "chat.ingestion")
+public record IngestionProperties(
+        @DefaultValue("1MB") DataSize maxRequestSize,
+        @DefaultValue("4MB") DataSize maxDocumentSize,
+        @DefaultValue("128000") long maxPromptTokens
+) {}
@@ -0,0 +1,23 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "chat.output-filter")
+public record OutputFilterProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue List<String> terms,
+        Path termsFile,
+        @DefaultValue("true") boolean ignoreCase,
+        @DefaultValue List<String> patterns,
+        @DefaultValue("64") int maxPatternLength,
+        @DefaultValue("[REDACTED]") String replacement
+) {
+
+    public boolean hasTermsFile() {
+        return termsFile != null && !termsFile.toString().isBlank();
+    }
+}
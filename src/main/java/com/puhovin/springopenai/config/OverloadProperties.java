@@ -0,0 +1,20 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.overload")
+public record OverloadProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100ms") Duration sampleInterval,
+        @DefaultValue("250ms") Duration maxEventLoopLag,
+        @DefaultValue("50ms") Duration recoverEventLoopLag,
+        @DefaultValue("10000") long maxPendingTasks,
+        @DefaultValue("1000") long recoverPendingTasks,
+        @DefaultValue("0.90") double maxHeapAfterGc,
+        @DefaultValue("0.75") double recoverHeapAfterGc,
+        @DefaultValue("5s") Duration recoveryPeriod,
+        @DefaultValue("5s") Duration retryAfter
+) {}
@@ -0,0 +1,35 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.context.PriorityClass;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "chat.priority")
+public record PriorityProperties(
+        @DefaultValue("INTERACTIVE") PriorityClass defaultClass,
+        @DefaultValue("32") int maxConcurrency,
+        Map<String, PriorityClass> clients,
+        Map<PriorityClass, ClassLimits> classes
+) {
+
+    public PriorityProperties {
+        clients = clients != null ? clients : Map.of();
+        classes = classes != null ? classes : Map.of();
+    }
+
+    public ClassLimits limits(PriorityClass priority) {
+        return classes.getOrDefault(priority, ClassLimits.DEFAULT);
+    }
+
+    public record ClassLimits(
+            @DefaultValue("1") int weight,
+            @DefaultValue("100") int maxQueueDepth,
+            @DefaultValue("30s") Duration maxQueueWait
+    ) {
+
+        public static final ClassLimits DEFAULT = new ClassLimits(1, 100, Duration.ofSeconds(30));
+    }
+}
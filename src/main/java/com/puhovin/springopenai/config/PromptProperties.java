@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "chat.prompt")
+public record PromptProperties(
+        @DefaultValue("") String systemPrompt,
+        @DefaultValue("8") int historyBlockSize,
+        @DefaultValue("32") int maxHistoryMessages
+) {}
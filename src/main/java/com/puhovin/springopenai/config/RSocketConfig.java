@@ -0,0 +1,58 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.web.ChatRequestContextFilter;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.ServerTransport;
+import io.rsocket.transport.netty.WebsocketRouteTransport;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.rsocket.RSocketMessageHandlerCustomizer;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.util.MimeType;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+@Configuration
+public class RSocketConfig {
+
+    public static final MimeType CLIENT_ID_MIME_TYPE = MimeType.valueOf("message/x.chat.client-id");
+    public static final MimeType PRIORITY_MIME_TYPE = MimeType.valueOf("message/x.chat.priority");
+    public static final MimeType DEADLINE_MIME_TYPE = MimeType.valueOf("message/x.chat.deadline");
+    public static final MimeType TIMEOUT_MIME_TYPE = MimeType.valueOf("message/x.chat.timeout-ms");
+
+    @Bean
+    public RSocketStrategiesCustomizer chatMetadataExtractors() {
+        return strategies -> strategies.metadataExtractorRegistry(registry -> {
+            registry.metadataToExtract(CLIENT_ID_MIME_TYPE, String.class, ChatRequestContextFilter.CLIENT_ID_HEADER);
+            registry.metadataToExtract(PRIORITY_MIME_TYPE, String.class, ChatRequestContextFilter.PRIORITY_HEADER);
+            registry.metadataToExtract(DEADLINE_MIME_TYPE, String.class, ChatRequestContextFilter.DEADLINE_HEADER);
+            registry.metadataToExtract(TIMEOUT_MIME_TYPE, String.class, ChatRequestContextFilter.TIMEOUT_HEADER);
+        });
+    }
+
+    @Bean
+    public RSocketMessageHandlerCustomizer chatPayloadValidation(Validator validator) {
+        return handler -> handler.setValidator(new SpringValidatorAdapter(validator));
+    }
+
+    @Bean
+    public RSocketServerCustomizer chatInboundPayloadLimit(IngestionProperties ingestion) {
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, ingestion.maxRequestSize().toBytes());
+        return server -> server.maxInboundPayloadSize(maxBytes);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "chat.rsocket.websocket-enabled", havingValue = "true", matchIfMissing = true)
+    public NettyRouteProvider rsocketWebSocketRoute(RSocketMessageHandler messageHandler,
+                                                    RSocketProperties properties,
+                                                    RSocketServerCustomizer chatInboundPayloadLimit) {
+        RSocketServer server = RSocketServer.create(messageHandler.responder());
+        chatInboundPayloadLimit.customize(server);
+        ServerTransport.ConnectionAcceptor acceptor = server.asConnectionAcceptor();
+        return routes -> routes.ws(properties.websocketPath(), WebsocketRouteTransport.newHandler(acceptor));
+    }
+}
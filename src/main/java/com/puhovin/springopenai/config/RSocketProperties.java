@@ -0,0 +1,10 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "chat.rsocket")
+public record RSocketProperties(
+        @DefaultValue("true") boolean websocketEnabled,
+        @DefaultValue("/rsocket") String websocketPath
+) {}
@@ -0,0 +1,30 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.replay.RecordingChatModel;
+import com.puhovin.springopenai.replay.RecordingStore;
+import com.puhovin.springopenai.replay.ReplayChatModel;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+public class ReplayConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "chat.replay.mode", havingValue = "record")
+    public ChatModel recordingChatModel(OpenAiChatModel openAiChatModel, ReplayProperties properties) {
+        return new RecordingChatModel(openAiChatModel, new RecordingStore(properties.directory()));
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "chat.replay.mode", havingValue = "replay")
+    public ChatModel replayChatModel(OpenAiChatModel openAiChatModel, ReplayProperties properties) {
+        return new ReplayChatModel(new RecordingStore(properties.directory()), properties.timeScale(),
+                openAiChatModel.getDefaultOptions());
+    }
+}
@@ -0,0 +1,18 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+@ConfigurationProperties(prefix = "chat.replay")
+public record ReplayProperties(
+        @DefaultValue("off") Mode mode,
+        @DefaultValue("recordings") Path directory,
+        @DefaultValue("1.0") double timeScale
+) {
+
+    public enum Mode {
+        OFF, RECORD, REPLAY
+    }
+}
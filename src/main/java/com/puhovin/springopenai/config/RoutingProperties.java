@@ -0,0 +1,30 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.routing.ModelTier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "chat.routing")
+public record RoutingProperties(
+        @DefaultValue("") String fastModel,
+        @DefaultValue("") String standardModel,
+        @DefaultValue("256") int fastMaxTokens,
+        @DefaultValue("4") int fastMaxHistory,
+        @DefaultValue({"explain", "analyze", "analyse", "compare", "step by step", "prove", "design",
+                "refactor", "debug", "implement", "optimize", "```"}) List<String> complexKeywords
+) {
+
+    public RoutingProperties {
+        complexKeywords = complexKeywords != null ? List.copyOf(complexKeywords) : List.of();
+    }
+
+    public boolean enabled() {
+        return !fastModel.isBlank();
+    }
+
+    public String model(ModelTier tier) {
+        return tier == ModelTier.FAST ? fastModel : standardModel;
+    }
+}
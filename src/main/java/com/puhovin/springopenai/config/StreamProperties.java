@@ -0,0 +1,10 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "chat.stream")
+public record StreamProperties(
+        @DefaultValue("false") boolean directEnabled,
+        @DefaultValue("/v1/chat/completions") String completionsPath
+) {}
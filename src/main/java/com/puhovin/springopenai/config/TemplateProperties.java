@@ -0,0 +1,30 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "chat.templates")
+public record TemplateProperties(
+        Path directory,
+        @DefaultValue("5s") Duration reloadInterval,
+        Map<String, Definition> definitions
+) {
+
+    public TemplateProperties {
+        definitions = definitions != null ? definitions : Map.of();
+    }
+
+    public boolean loadsFromDirectory() {
+        return directory != null && !directory.toString().isBlank();
+    }
+
+    /**
+     * {@code system} is sent as a system message right after {@code chat.prompt.system-prompt};
+     * {@code user}, when set, replaces the request message and can embed it as {@code {message}}.
+     */
+    public record Definition(String system, String user) {}
+}
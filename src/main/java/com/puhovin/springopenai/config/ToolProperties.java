@@ -0,0 +1,37 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "chat.tools")
+public record ToolProperties(
+        @DefaultValue("4") int maxConcurrency,
+        @DefaultValue("10s") Duration defaultTimeout,
+        @DefaultValue("5") int maxRounds,
+        @DefaultValue("5m") Duration cacheTtl,
+        @DefaultValue("1000") int cacheMaxEntries,
+        Map<String, ToolSettings> tools
+) {
+
+    public ToolProperties {
+        tools = tools != null ? tools : Map.of();
+    }
+
+    public Duration timeout(String toolName) {
+        ToolSettings settings = tools.get(toolName);
+        return settings != null && settings.timeout() != null ? settings.timeout() : defaultTimeout;
+    }
+
+    public boolean idempotent(String toolName) {
+        ToolSettings settings = tools.get(toolName);
+        return settings != null && settings.idempotent();
+    }
+
+    public record ToolSettings(
+            Duration timeout,
+            @DefaultValue("false") boolean idempotent
+    ) {}
+}
@@ -0,0 +1,43 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.tracing.SlowTraceSampler;
+import com.puhovin.springopenai.tracing.SlowTraceSpanProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.tracing.ConditionalOnEnabledTracing;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(SdkTracerProvider.class)
+@ConditionalOnEnabledTracing
+public class TracingConfig {
+
+    @Bean
+    public Sampler slowTraceSampler(TracingProperties properties,
+                                    ObjectProvider<SpanExporter> spanExporters,
+                                    @Value("${management.tracing.sampling.probability:0.1}") double probability) {
+        return new SlowTraceSampler(Sampler.traceIdRatioBased(probability), tailSampling(properties, spanExporters));
+    }
+
+    @Bean
+    public SpanProcessor slowTraceSpanProcessor(TracingProperties properties,
+                                                ObjectProvider<SpanExporter> spanExporters,
+                                                MeterRegistry meterRegistry) {
+        if (!tailSampling(properties, spanExporters)) {
+            return SpanProcessor.composite();
+        }
+        return new SlowTraceSpanProcessor(SpanExporter.composite(spanExporters.orderedStream().toList()),
+                properties, meterRegistry);
+    }
+
+    private static boolean tailSampling(TracingProperties properties, ObjectProvider<SpanExporter> spanExporters) {
+        return properties.tailSamplingEnabled() && spanExporters.orderedStream().findAny().isPresent();
+    }
+}
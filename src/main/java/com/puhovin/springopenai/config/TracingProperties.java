@@ -0,0 +1,20 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "chat.tracing")
+public record TracingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("5s") Duration slowThreshold,
+        @DefaultValue("1000") int maxPendingTraces,
+        @DefaultValue("256") int maxSpansPerTrace,
+        @DefaultValue("5m") Duration pendingTraceTtl
+) {
+
+    public boolean tailSamplingEnabled() {
+        return slowThreshold != null && slowThreshold.isPositive();
+    }
+}
@@ -0,0 +1,45 @@
+package com.puhovin.springopenai.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "chat.usage")
+public record UsageProperties(
+        Path snapshotFile,
+        @DefaultValue("60s") Duration snapshotInterval,
+        Map<String, Price> prices
+) {
+
+    private static final Price FREE = new Price(0, 0, 0);
+
+    public UsageProperties {
+        prices = prices != null ? prices : Map.of();
+    }
+
+    public boolean snapshotsEnabled() {
+        return snapshotFile != null && !snapshotFile.toString().isBlank();
+    }
+
+    public Price price(String model) {
+        return prices.getOrDefault(model, FREE);
+    }
+
+    /**
+     * Prices in the billing currency per million tokens.
+     */
+    public record Price(
+            @DefaultValue("0") double input,
+            @DefaultValue("0") double cachedInput,
+            @DefaultValue("0") double output
+    ) {
+
+        public double cost(long promptTokens, long cachedTokens, long completionTokens) {
+            long uncached = Math.max(0, promptTokens - cachedTokens);
+            return (uncached * input + cachedTokens * cachedInput + completionTokens * output) / 1_000_000d;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.puhovin.springopenai.context;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public record ChatRequestContext(
+        String clientId,
+        PriorityClass priority,
+        Instant deadline
+) {
+
+    public static final String ANONYMOUS_CLIENT = "anonymous";
+    public static final ChatRequestContext DEFAULT = new ChatRequestContext(ANONYMOUS_CLIENT, PriorityClass.INTERACTIVE, null);
+
+    public static ChatRequestContext from(ContextView contextView) {
+        return contextView.getOrDefault(ChatRequestContext.class, DEFAULT);
+    }
+
+    public boolean hasDeadline() {
+        return deadline != null;
+    }
+
+    public Duration remaining(Instant now) {
+        return Duration.between(now, deadline);
+    }
+}
@@ -0,0 +1,6 @@
+package com.puhovin.springopenai.context;
+
+public enum PriorityClass {
+    INTERACTIVE,
+    BATCH
+}
@@ -0,0 +1,133 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.prompt.DocumentReader;
+import com.puhovin.springopenai.service.OpenAiStreamService;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import io.micrometer.common.KeyValues;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Both upload forms are decoded straight from the request body. Multipart uploads are read as
+ * {@link PartEvent}s rather than {@code Part}s, so the document part is never spooled to memory or
+ * disk by the multipart reader; the message part may arrive before or after it.
+ */
+@RestController
+@RequestMapping("/chat/document")
+@Tag(name = "Chat", description = "Chat API for OpenAI interactions with both blocking and streaming modes")
+public class DocumentChatController {
+
+    private static final String DOCUMENT_PART = "document";
+    private static final String MESSAGE_PART = "message";
+
+    private final OpenAiStreamService streamService;
+    private final DocumentReader documentReader;
+    private final ChatObservations observations;
+
+    public DocumentChatController(OpenAiStreamService streamService,
+                                  DocumentReader documentReader,
+                                  ChatObservations observations) {
+        this.streamService = streamService;
+        this.documentReader = documentReader;
+        this.observations = observations;
+    }
+
+    @Operation(
+            summary = "Stream a chat response about an uploaded plain-text document",
+            description = "Reads the request body as a UTF-8 document chunk by chunk, appends it to the optional instruction "
+                    + "and streams back the response as text chunks",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully streaming response",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = String.class))),
+                    @ApiResponse(responseCode = "400", description = "Empty document"),
+                    @ApiResponse(responseCode = "413", description = "Document exceeds the byte or token limit")
+            }
+    )
+    @PostMapping(consumes = MediaType.TEXT_PLAIN_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> streamText(@Parameter(description = "Instruction placed before the document")
+                                   @RequestParam(defaultValue = "") String message,
+                                   @RequestBody Flux<DataBuffer> document,
+                                   ServerHttpRequest request) {
+        return stream(documentReader.read(document, request.getHeaders().getContentLength())
+                .map(text -> new Upload(message, text)));
+    }
+
+    @Operation(
+            summary = "Stream a chat response about a document uploaded as multipart form data",
+            description = "Reads the document part as UTF-8 chunk by chunk, appends it to the optional message part "
+                    + "and streams back the response as text chunks",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully streaming response",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = String.class))),
+                    @ApiResponse(responseCode = "400", description = "Missing or empty document"),
+                    @ApiResponse(responseCode = "413", description = "Document exceeds the byte or token limit")
+            }
+    )
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<String> streamMultipart(@RequestBody Flux<PartEvent> parts) {
+        return stream(parts.windowUntil(PartEvent::isLast)
+                .concatMap(this::read)
+                .reduce(new Upload(null, null), Upload::merge)
+                .flatMap(upload -> upload.document() != null
+                        ? Mono.just(upload)
+                        : Mono.error(new ServerWebInputException("Missing document part"))));
+    }
+
+    private Flux<String> stream(Mono<Upload> upload) {
+        return observations.flux(ChatObservations.REQUEST, KeyValues.of("chat.endpoint", "document"),
+                observation -> upload.flatMapMany(received -> {
+                    if (received.document().isBlank()) {
+                        return Flux.error(new ServerWebInputException("Document is empty"));
+                    }
+                    return streamService.streamChat(new ChatRequest(prompt(received.message(), received.document())));
+                }));
+    }
+
+    private Flux<Upload> read(Flux<PartEvent> part) {
+        return part.switchOnFirst((first, events) -> {
+            PartEvent event = first.get();
+            if (event != null && DOCUMENT_PART.equals(event.name())) {
+                return documentReader.read(events.map(PartEvent::content), -1).map(text -> new Upload(null, text));
+            }
+            Mono<Void> skipped = events.doOnNext(skippedEvent -> DataBufferUtils.release(skippedEvent.content())).then();
+            if (event instanceof FormPartEvent form && MESSAGE_PART.equals(form.name())) {
+                return skipped.thenReturn(new Upload(form.value(), null));
+            }
+            return skipped.then(Mono.<Upload>empty());
+        });
+    }
+
+    static String prompt(String message, String document) {
+        if (message == null || message.isBlank()) {
+            return document;
+        }
+        return message.strip() + "\n\n" + document;
+    }
+
+    private record Upload(String message, String document) {
+
+        Upload merge(Upload other) {
+            return new Upload(other.message() != null ? other.message() : message,
+                    other.document() != null ? other.document() : document);
+        }
+    }
+}
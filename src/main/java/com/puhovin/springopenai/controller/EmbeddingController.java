@@ -0,0 +1,58 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.dto.EmbeddingsRequest;
+import com.puhovin.springopenai.dto.EmbeddingsResponse;
+import com.puhovin.springopenai.service.OpenAiEmbeddingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/embeddings")
+@Tag(name = "Embeddings", description = "Text embeddings with server-side micro-batching")
+public class EmbeddingController {
+
+    private final OpenAiEmbeddingService embeddingService;
+
+    public EmbeddingController(OpenAiEmbeddingService embeddingService) {
+        this.embeddingService = embeddingService;
+    }
+
+    @Operation(
+            summary = "Embed texts",
+            description = "Returns one float vector per input text; concurrent requests are merged into shared upstream calls",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully embedded",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = EmbeddingsResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request")
+            }
+    )
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<EmbeddingsResponse> embed(@RequestBody @Validated EmbeddingsRequest request) {
+        return embeddingService.embed(request);
+    }
+
+    @Operation(
+            summary = "Embed texts (binary)",
+            description = "Selected with ?format=binary. Same vectors as the JSON variant, encoded little-endian: "
+                    + "int32 vector count, int32 dimensions, then count x dimensions float32 values",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully embedded",
+                            content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)),
+                    @ApiResponse(responseCode = "400", description = "Invalid request")
+            }
+    )
+    @PostMapping(params = "format=binary", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Mono<byte[]> embedBinary(@RequestBody @Validated EmbeddingsRequest request) {
+        return embeddingService.embedBinary(request);
+    }
+}
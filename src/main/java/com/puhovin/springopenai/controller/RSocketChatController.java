@@ -0,0 +1,104 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.dto.ChatTurnChunk;
+import com.puhovin.springopenai.service.OpenAiChatService;
+import com.puhovin.springopenai.service.OpenAiStreamService;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import com.puhovin.springopenai.web.ChatRequestContextFilter;
+import com.puhovin.springopenai.web.RSocketAdmission;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.HttpHeaders;
+import org.springframework.messaging.handler.annotation.Headers;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@Controller
+public class RSocketChatController {
+
+    private static final List<String> CONTEXT_HEADERS = List.of(
+            ChatRequestContextFilter.CLIENT_ID_HEADER,
+            ChatRequestContextFilter.PRIORITY_HEADER,
+            ChatRequestContextFilter.DEADLINE_HEADER,
+            ChatRequestContextFilter.TIMEOUT_HEADER);
+
+    private final OpenAiStreamService streamService;
+    private final OpenAiChatService chatService;
+    private final ChatRequestContextFilter contextFilter;
+    private final ChatObservations observations;
+    private final RSocketAdmission admission;
+
+    public RSocketChatController(OpenAiStreamService streamService,
+                                 OpenAiChatService chatService,
+                                 ChatRequestContextFilter contextFilter,
+                                 ChatObservations observations,
+                                 RSocketAdmission admission) {
+        this.streamService = streamService;
+        this.chatService = chatService;
+        this.contextFilter = contextFilter;
+        this.observations = observations;
+        this.admission = admission;
+    }
+
+    @MessageMapping("chat")
+    public Mono<String> chat(@Payload @Validated ChatRequest request, @Headers Map<String, Object> metadata) {
+        ChatRequestContext context = contextFilter.resolve(contextHeaders(metadata));
+        return observations.mono(ChatObservations.REQUEST, endpoint("rsocket.chat"),
+                        observation -> Mono.defer(() -> {
+                            admission.admit(request);
+                            return chatService.chat(request);
+                        }))
+                .contextWrite(ctx -> ctx.put(ChatRequestContext.class, context));
+    }
+
+    @MessageMapping("chat.stream")
+    public Flux<String> stream(@Payload @Validated ChatRequest request, @Headers Map<String, Object> metadata) {
+        ChatRequestContext context = contextFilter.resolve(contextHeaders(metadata));
+        return observations.flux(ChatObservations.REQUEST, endpoint("rsocket.stream"),
+                        observation -> Flux.defer(() -> {
+                            admission.admit(request);
+                            return streamService.streamChat(request);
+                        }))
+                .contextWrite(ctx -> ctx.put(ChatRequestContext.class, context));
+    }
+
+    @MessageMapping("chat.channel")
+    public Flux<ChatTurnChunk> channel(@Payload @Validated Flux<ChatRequest> requests,
+                                       @Headers Map<String, Object> metadata) {
+        HttpHeaders headers = contextHeaders(metadata);
+        return requests.index().concatMap(turn -> {
+            long index = turn.getT1();
+            ChatRequestContext context = contextFilter.resolve(headers);
+            return observations.flux(ChatObservations.REQUEST, endpoint("rsocket.channel"),
+                            observation -> Flux.defer(() -> {
+                                admission.admit(turn.getT2());
+                                return streamService.streamChat(turn.getT2());
+                            }))
+                    .map(text -> new ChatTurnChunk(index, text, false))
+                    .concatWith(Mono.fromSupplier(() -> new ChatTurnChunk(index, "", true)))
+                    .contextWrite(ctx -> ctx.put(ChatRequestContext.class, context));
+        });
+    }
+
+    private static HttpHeaders contextHeaders(Map<String, Object> metadata) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : CONTEXT_HEADERS) {
+            if (metadata.get(name) instanceof String value) {
+                headers.set(name, value);
+            }
+        }
+        return headers;
+    }
+
+    private static KeyValues endpoint(String endpoint) {
+        return KeyValues.of("chat.endpoint", endpoint);
+    }
+}
@@ -1,23 +1,36 @@
 package com.puhovin.springopenai.controller;
 
 import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.dto.JsonFragment;
+import com.puhovin.springopenai.dto.SharedStreamResponse;
 import com.puhovin.springopenai.service.OpenAiChatService;
+import com.puhovin.springopenai.service.OpenAiJsonStreamService;
 import com.puhovin.springopenai.service.OpenAiStreamService;
+import com.puhovin.springopenai.stream.ChatStreamEvent;
+import com.puhovin.springopenai.stream.SharedGenerationRegistry;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import io.micrometer.common.KeyValues;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Locale;
+
 @RestController
 @RequestMapping("/chat")
 @Tag(name = "Chat", description = "Chat API for OpenAI interactions with both blocking and streaming modes")
@@ -25,10 +38,20 @@ public class StreamChatController {
 
     private final OpenAiStreamService streamService;
     private final OpenAiChatService chatService;
+    private final SharedGenerationRegistry sharedGenerations;
+    private final OpenAiJsonStreamService jsonStreamService;
+    private final ChatObservations observations;
 
-    public StreamChatController(OpenAiStreamService streamService, OpenAiChatService chatService) {
+    public StreamChatController(OpenAiStreamService streamService,
+                                OpenAiChatService chatService,
+                                SharedGenerationRegistry sharedGenerations,
+                                OpenAiJsonStreamService jsonStreamService,
+                                ChatObservations observations) {
         this.streamService = streamService;
         this.chatService = chatService;
+        this.sharedGenerations = sharedGenerations;
+        this.jsonStreamService = jsonStreamService;
+        this.observations = observations;
     }
 
     @Operation(
@@ -42,40 +65,141 @@ public class StreamChatController {
     )
     @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<String> chat(@RequestBody @Validated ChatRequest request) {
-        return chatService.chat(request.message());
+        return observations.mono(ChatObservations.REQUEST, endpoint("chat"), observation -> chatService.chat(request));
     }
 
     @Operation(
             summary = "Stream chat response",
-            description = "Sends a message to OpenAI and streams back the response as text chunks",
+            description = "Sends a message to OpenAI and streams back the response as text chunks; "
+                    + "a stream cut short by a shutdown is aborted instead of completing normally",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully streaming response",
                             content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = String.class))),
-                    @ApiResponse(responseCode = "400", description = "Invalid request")
+                    @ApiResponse(responseCode = "400", description = "Invalid request"),
+                    @ApiResponse(responseCode = "503", description = "Instance is shutting down")
             }
     )
     @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<String> streamChat(@RequestBody @Validated ChatRequest request) {
-        return streamService.streamChat(request.message());
+        return observations.flux(ChatObservations.REQUEST, endpoint("stream"),
+                observation -> streamService.streamChat(request));
     }
 
     @Operation(
             summary = "Stream chat response with Server-Sent Events",
-            description = "Sends a message to OpenAI and streams back the response as structured Server-Sent Events with event IDs",
+            description = "Sends a message to OpenAI and streams back the response as structured Server-Sent Events with event IDs; "
+                    + "tool calls are reported as tool.started, tool.completed and tool.failed events while they run; "
+                    + "a stream cut short by a shutdown ends with a stream.reconnect event",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully streaming SSE response",
                             content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
-                    @ApiResponse(responseCode = "400", description = "Invalid request")
+                    @ApiResponse(responseCode = "400", description = "Invalid request"),
+                    @ApiResponse(responseCode = "503", description = "Instance is shutting down")
             }
     )
     @PostMapping(value = "/stream-sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<String>> streamChatSse(@RequestBody @Validated ChatRequest request) {
-        return streamService.streamChat(request.message())
-                .index()
-                .map(tuple -> ServerSentEvent.<String>builder()
-                        .id(String.valueOf(tuple.getT1()))
+    public Flux<ServerSentEvent<Object>> streamChatSse(@RequestBody @Validated ChatRequest request) {
+        return observations.flux(ChatObservations.REQUEST, endpoint("stream-sse"),
+                observation -> streamService.streamEvents(request)
+                        .index()
+                        .map(tuple -> toServerSentEvent(tuple.getT1(), tuple.getT2())));
+    }
+
+    @Operation(
+            summary = "Stream structured JSON output as NDJSON",
+            description = "Parses the model's JSON answer while it is generated and emits one line per completed top-level field or top-level array element",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully streaming JSON fragments",
+                            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = JsonFragment.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request"),
+                    @ApiResponse(responseCode = "502", description = "Model output is not valid JSON")
+            }
+    )
+    @PostMapping(value = "/stream-json", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<JsonFragment> streamJson(@RequestBody @Validated ChatRequest request) {
+        return observations.flux(ChatObservations.REQUEST, endpoint("stream-json"),
+                observation -> jsonStreamService.streamJson(request));
+    }
+
+    @Operation(
+            summary = "Stream structured JSON output with Server-Sent Events",
+            description = "Same as the NDJSON variant, but each completed fragment is sent as a json.fragment event",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully streaming SSE response",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+                    @ApiResponse(responseCode = "400", description = "Invalid request"),
+                    @ApiResponse(responseCode = "502", description = "Model output is not valid JSON")
+            }
+    )
+    @PostMapping(value = "/stream-json-sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<JsonFragment>> streamJsonSse(@RequestBody @Validated ChatRequest request) {
+        return observations.flux(ChatObservations.REQUEST, endpoint("stream-json-sse"),
+                observation -> jsonStreamService.streamJson(request)
+                        .index()
+                        .map(tuple -> ServerSentEvent.<JsonFragment>builder()
+                                .id(String.valueOf(tuple.getT1()))
+                                .event("json.fragment")
+                                .data(tuple.getT2())
+                                .build()));
+    }
+
+    @Operation(
+            summary = "Start a shared chat stream",
+            description = "Starts a single generation that any number of viewers can watch through GET /chat/stream/{streamId}",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Generation started",
+                            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = SharedStreamResponse.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid request"),
+                    @ApiResponse(responseCode = "429", description = "Too many active shared generations")
+            }
+    )
+    @PostMapping(value = "/stream/shared", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<SharedStreamResponse> startSharedStream(@RequestBody @Validated ChatRequest request) {
+        return sharedGenerations.start(request).map(SharedStreamResponse::new);
+    }
+
+    @Operation(
+            summary = "Attach to a shared chat stream",
+            description = "Streams a shared generation as Server-Sent Events; late joiners first receive the retained chunks",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Successfully streaming SSE response",
+                            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)),
+                    @ApiResponse(responseCode = "404", description = "Unknown or expired stream id")
+            }
+    )
+    @GetMapping(value = "/stream/{streamId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> attachSharedStream(@PathVariable String streamId) {
+        return sharedGenerations.attach(streamId)
+                .map(chunk -> ServerSentEvent.<String>builder()
+                        .id(String.valueOf(chunk.index()))
                         .event("chat.message")
-                        .data(tuple.getT2())
+                        .data(chunk.text())
                         .build());
     }
-}
\ No newline at end of file
+
+    private static KeyValues endpoint(String endpoint) {
+        return KeyValues.of("chat.endpoint", endpoint);
+    }
+
+    private static ServerSentEvent<Object> toServerSentEvent(long index, ChatStreamEvent event) {
+        return switch (event) {
+            case ChatStreamEvent.Text text -> ServerSentEvent.<Object>builder()
+                    .id(String.valueOf(index))
+                    .event("chat.message")
+                    .data(text.content())
+                    .build();
+            case ChatStreamEvent.Tool tool -> ServerSentEvent.<Object>builder()
+                    .id(String.valueOf(index))
+                    .event("tool." + tool.event().stage().name().toLowerCase(Locale.ROOT))
+                    .data(tool.event())
+                    .build();
+            case ChatStreamEvent.Reconnect reconnect -> ServerSentEvent.<Object>builder()
+                    .id(String.valueOf(index))
+                    .event("stream.reconnect")
+                    .retry(reconnect.retryAfter())
+                    .data("draining")
+                    .build();
+        };
+    }
+}
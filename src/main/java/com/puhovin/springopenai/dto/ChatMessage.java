@@ -0,0 +1,21 @@
+package com.puhovin.springopenai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Previous conversation turn sent along with the current message")
+public record ChatMessage(
+        @Schema(description = "Author of the turn", example = "USER")
+        @NotNull(message = "must not be null")
+        Role role,
+
+        @Schema(description = "Text of the turn", example = "What is Spring AI?")
+        @NotNull(message = "must not be null")
+        String content
+) {
+
+    public enum Role {
+        USER,
+        ASSISTANT
+    }
+}
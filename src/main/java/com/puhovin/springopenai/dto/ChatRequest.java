@@ -1,11 +1,39 @@
 package com.puhovin.springopenai.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.List;
+import java.util.Map;
+
 @Schema(description = "Chat request containing a message to be sent to OpenAI")
 public record ChatRequest(
         @Schema(description = "The message content to send to OpenAI", example = "Hello, chat!")
         @NotBlank(message = "must not be blank")
-        String message
-) {}
+        String message,
+
+        @Schema(description = "Previous conversation turns, oldest first")
+        List<@Valid ChatMessage> history,
+
+        @Schema(description = "Id of a server-side prompt template whose instructions are sent ahead of the message",
+                example = "support-triage")
+        String template,
+
+        @Schema(description = "Values for the template's {name} placeholders; {message} is always the message itself")
+        Map<String, String> variables
+) {
+
+    public ChatRequest {
+        history = history != null ? history : List.of();
+        variables = variables != null ? variables : Map.of();
+    }
+
+    public ChatRequest(String message) {
+        this(message, List.of());
+    }
+
+    public ChatRequest(String message, List<ChatMessage> history) {
+        this(message, history, null, Map.of());
+    }
+}
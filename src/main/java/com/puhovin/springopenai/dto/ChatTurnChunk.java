@@ -0,0 +1,15 @@
+package com.puhovin.springopenai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Part of an answer sent on the chat.channel RSocket route")
+public record ChatTurnChunk(
+        @Schema(description = "Zero-based index of the request on the channel this answer belongs to", example = "0")
+        long turn,
+
+        @Schema(description = "Generated text; empty on the closing chunk", example = "Hello")
+        String text,
+
+        @Schema(description = "Whether this chunk closes the answer to the turn")
+        boolean last
+) {}
@@ -0,0 +1,16 @@
+package com.puhovin.springopenai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Texts to embed")
+public record EmbeddingsRequest(
+        @Schema(description = "Texts to embed, in order", example = "[\"first document\", \"second document\"]")
+        @NotEmpty(message = "must not be empty")
+        @Size(max = 256, message = "must contain at most 256 texts")
+        List<@NotBlank(message = "must not be blank") String> input
+) {}
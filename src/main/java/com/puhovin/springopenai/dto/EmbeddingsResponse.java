@@ -0,0 +1,14 @@
+package com.puhovin.springopenai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Embeddings in the same order as the request input")
+public record EmbeddingsResponse(
+        @Schema(description = "Number of dimensions of every vector", example = "1536")
+        int dimensions,
+
+        @Schema(description = "One float vector per input text")
+        List<float[]> data
+) {}
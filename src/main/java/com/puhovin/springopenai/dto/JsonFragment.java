@@ -0,0 +1,13 @@
+package com.puhovin.springopenai.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Completed part of a JSON document emitted while the model is still generating it")
+public record JsonFragment(
+        @Schema(description = "JSONPath of the completed value", example = "$.items[0]")
+        String path,
+
+        @Schema(description = "The completed value")
+        JsonNode value
+) {}
@@ -0,0 +1,9 @@
+package com.puhovin.springopenai.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Handle of a shared generation that any number of viewers can attach to")
+public record SharedStreamResponse(
+        @Schema(description = "Stream id to pass to GET /chat/stream/{streamId}", example = "3f0c6a4e-8d1b-4f7e-9a51-2b8f0c3d9e11")
+        String streamId
+) {}
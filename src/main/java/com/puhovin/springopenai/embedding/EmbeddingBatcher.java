@@ -0,0 +1,183 @@
+package com.puhovin.springopenai.embedding;
+
+import com.puhovin.springopenai.config.EmbeddingProperties;
+import com.puhovin.springopenai.upstream.DeadlineExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges embedding requests that arrive within {@code chat.embedding.max-wait} of each other into
+ * a single upstream call, flushing early once {@code chat.embedding.max-batch-size} texts are
+ * pending. A request that would overflow the pending batch flushes it first, and a request larger
+ * than the batch size is split across several batches. Callers that cancel before their batch is
+ * dispatched are removed from it. Each caller receives exactly the vectors for its own texts, in order.
+ */
+@Component
+public class EmbeddingBatcher {
+
+    private final EmbeddingModel embeddingModel;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Duration requestTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final DistributionSummary batchTexts;
+    private final DistributionSummary batchRequests;
+    private final Timer upstreamTimer;
+
+    private List<Pending> pending = new ArrayList<>();
+    private int pendingTexts;
+    private Disposable scheduledFlush;
+
+    public EmbeddingBatcher(EmbeddingModel embeddingModel,
+                            EmbeddingProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.maxBatchSize = Math.max(1, properties.maxBatchSize());
+        this.maxWaitNanos = properties.maxWait().toNanos();
+        this.requestTimeout = properties.requestTimeout();
+        this.batchTexts = DistributionSummary.builder("chat.embedding.batch.texts")
+                .description("Texts per upstream embedding call")
+                .register(meterRegistry);
+        this.batchRequests = DistributionSummary.builder("chat.embedding.batch.requests")
+                .description("Client requests merged into one upstream embedding call")
+                .register(meterRegistry);
+        this.upstreamTimer = Timer.builder("chat.embedding.upstream")
+                .description("Latency of upstream embedding calls")
+                .register(meterRegistry);
+    }
+
+    public Mono<List<float[]>> embed(List<String> texts) {
+        if (texts.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        if (texts.size() <= maxBatchSize) {
+            return enqueue(List.copyOf(texts));
+        }
+        List<List<String>> parts = new ArrayList<>();
+        for (int from = 0; from < texts.size(); from += maxBatchSize) {
+            parts.add(List.copyOf(texts.subList(from, Math.min(from + maxBatchSize, texts.size()))));
+        }
+        return Flux.fromIterable(parts)
+                .flatMapSequential(this::enqueue)
+                .collect(ArrayList<float[]>::new, List::addAll)
+                .map(List::copyOf);
+    }
+
+    private Mono<List<float[]>> enqueue(List<String> texts) {
+        return Mono.create(sink -> {
+            Pending request = new Pending(texts, sink);
+            sink.onCancel(() -> remove(request));
+            add(request).forEach(this::dispatch);
+        });
+    }
+
+    private List<List<Pending>> add(Pending request) {
+        List<List<Pending>> ready = new ArrayList<>(2);
+        lock.lock();
+        try {
+            if (!pending.isEmpty() && pendingTexts + request.texts().size() > maxBatchSize) {
+                ready.add(drain());
+            }
+            pending.add(request);
+            pendingTexts += request.texts().size();
+            if (pendingTexts >= maxBatchSize || maxWaitNanos <= 0) {
+                ready.add(drain());
+            } else if (scheduledFlush == null) {
+                scheduledFlush = Schedulers.parallel().schedule(this::flushScheduled, maxWaitNanos, TimeUnit.NANOSECONDS);
+            }
+            return ready;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Pending request) {
+        lock.lock();
+        try {
+            if (pending.removeIf(candidate -> candidate == request)) {
+                pendingTexts -= request.texts().size();
+                if (pending.isEmpty() && scheduledFlush != null) {
+                    scheduledFlush.dispose();
+                    scheduledFlush = null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushScheduled() {
+        List<Pending> ready;
+        lock.lock();
+        try {
+            scheduledFlush = null;
+            ready = drain();
+        } finally {
+            lock.unlock();
+        }
+        if (!ready.isEmpty()) {
+            dispatch(ready);
+        }
+    }
+
+    private List<Pending> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.dispose();
+            scheduledFlush = null;
+        }
+        List<Pending> ready = pending;
+        pending = new ArrayList<>();
+        pendingTexts = 0;
+        return ready;
+    }
+
+    private void dispatch(List<Pending> batch) {
+        List<String> inputs = new ArrayList<>();
+        for (Pending request : batch) {
+            inputs.addAll(request.texts());
+        }
+        batchTexts.record(inputs.size());
+        batchRequests.record(batch.size());
+        long startNanos = System.nanoTime();
+        Mono.fromCallable(() -> embeddingModel.embed(inputs))
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(requestTimeout)
+                .onErrorMap(TimeoutException.class, error -> new DeadlineExceededException(
+                        "Embedding model did not respond within " + requestTimeout))
+                .doFinally(signal -> upstreamTimer.record(Duration.ofNanos(System.nanoTime() - startNanos)))
+                .subscribe(vectors -> fanOut(batch, inputs.size(), vectors),
+                        error -> batch.forEach(request -> request.sink().error(error)));
+    }
+
+    private static void fanOut(List<Pending> batch, int expected, List<float[]> vectors) {
+        if (vectors.size() != expected) {
+            IllegalStateException error = new IllegalStateException(
+                    "Embedding model returned " + vectors.size() + " vectors for " + expected + " inputs");
+            batch.forEach(request -> request.sink().error(error));
+            return;
+        }
+        int offset = 0;
+        for (Pending request : batch) {
+            int size = request.texts().size();
+            request.sink().success(List.copyOf(vectors.subList(offset, offset + size)));
+            offset += size;
+        }
+    }
+
+    private record Pending(List<String> texts, MonoSink<List<float[]>> sink) {}
+}
@@ -0,0 +1,81 @@
+package com.puhovin.springopenai.metrics;
+
+import com.puhovin.springopenai.routing.ModelTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+@Component
+public class ModelTierMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public ModelTierMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordDecision(ModelTier tier) {
+        Counter.builder("chat.routing.decisions")
+                .description("Requests routed to each model tier")
+                .tag("tier", tag(tier))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordLatency(ModelTier tier, String mode, Duration latency) {
+        Timer.builder("chat.routing.latency")
+                .description("End-to-end upstream latency per model tier")
+                .tag("tier", tag(tier))
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .record(latency);
+    }
+
+    public void recordTimeToFirstToken(ModelTier tier, Duration ttft) {
+        Timer.builder("chat.routing.ttft")
+                .description("Time to first streamed token per model tier")
+                .tag("tier", tag(tier))
+                .register(meterRegistry)
+                .record(ttft);
+    }
+
+    public void recordUsage(ModelTier tier, ChatResponse chatResponse) {
+        if (chatResponse == null || chatResponse.getMetadata() == null) {
+            return;
+        }
+        Usage usage = chatResponse.getMetadata().getUsage();
+        if (usage == null) {
+            return;
+        }
+        recordUsage(tier,
+                usage.getPromptTokens() != null ? usage.getPromptTokens() : 0,
+                usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+    }
+
+    public void recordUsage(ModelTier tier, int promptTokens, int completionTokens) {
+        if (promptTokens > 0) {
+            tokens(tier, "prompt").increment(promptTokens);
+        }
+        if (completionTokens > 0) {
+            tokens(tier, "completion").increment(completionTokens);
+        }
+    }
+
+    private Counter tokens(ModelTier tier, String type) {
+        return Counter.builder("chat.routing.tokens")
+                .description("Tokens consumed per model tier")
+                .tag("tier", tag(tier))
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static String tag(ModelTier tier) {
+        return tier.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.puhovin.springopenai.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class PromptCacheMetrics {
+
+    private final Counter promptTokens;
+    private final Counter cachedTokens;
+    private final DistributionSummary cacheHitRatio;
+    private final Timer timeToFirstToken;
+
+    public PromptCacheMetrics(MeterRegistry meterRegistry) {
+        this.promptTokens = Counter.builder("chat.prompt.tokens")
+                .description("Prompt tokens reported by the provider")
+                .register(meterRegistry);
+        this.cachedTokens = Counter.builder("chat.prompt.cached.tokens")
+                .description("Prompt tokens served from the provider-side prompt cache")
+                .register(meterRegistry);
+        this.cacheHitRatio = DistributionSummary.builder("chat.prompt.cache.hit.ratio")
+                .description("Share of prompt tokens served from the provider-side prompt cache")
+                .register(meterRegistry);
+        this.timeToFirstToken = Timer.builder("chat.stream.ttft")
+                .description("Time from subscription to the first streamed content chunk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void record(ChatResponse chatResponse) {
+        if (chatResponse == null || chatResponse.getMetadata() == null) {
+            return;
+        }
+        Usage usage = chatResponse.getMetadata().getUsage();
+        if (usage == null || usage.getPromptTokens() == null || usage.getPromptTokens() <= 0) {
+            return;
+        }
+        record(usage.getPromptTokens(), cachedTokens(usage));
+    }
+
+    public void record(int prompt, int cached) {
+        if (prompt <= 0) {
+            return;
+        }
+        promptTokens.increment(prompt);
+        cachedTokens.increment(cached);
+        cacheHitRatio.record((double) cached / prompt);
+    }
+
+    public void recordTimeToFirstToken(Duration duration) {
+        timeToFirstToken.record(duration);
+    }
+
+    public static int cachedTokens(Usage usage) {
+        if (usage.getNativeUsage() instanceof OpenAiApi.Usage nativeUsage
+                && nativeUsage.promptTokensDetails() != null
+                && nativeUsage.promptTokensDetails().cachedTokens() != null) {
+            return nativeUsage.promptTokensDetails().cachedTokens();
+        }
+        return 0;
+    }
+}
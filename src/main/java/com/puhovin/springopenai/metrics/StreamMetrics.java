@@ -0,0 +1,29 @@
+package com.puhovin.springopenai.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+@Component
+public class StreamMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public StreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordFinishReason(String finishReason, String path) {
+        if (finishReason == null || finishReason.isEmpty()) {
+            return;
+        }
+        Counter.builder("chat.stream.finished")
+                .description("Completed upstream generations by finish reason")
+                .tag("reason", finishReason.toLowerCase(Locale.ROOT))
+                .tag("path", path)
+                .register(meterRegistry)
+                .increment();
+    }
+}
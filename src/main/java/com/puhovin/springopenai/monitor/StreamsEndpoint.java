@@ -0,0 +1,44 @@
+package com.puhovin.springopenai.monitor;
+
+import com.puhovin.springopenai.stream.ActiveStreamRegistry;
+import com.puhovin.springopenai.stream.ActiveStreamSnapshot;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "streams")
+public class StreamsEndpoint {
+
+    private final ActiveStreamRegistry activeStreams;
+
+    public StreamsEndpoint(ActiveStreamRegistry activeStreams) {
+        this.activeStreams = activeStreams;
+    }
+
+    @ReadOperation
+    public List<ActiveStreamSnapshot> streams() {
+        return activeStreams.list();
+    }
+
+    @ReadOperation
+    public ActiveStreamSnapshot stream(@Selector String id) {
+        return activeStreams.get(id).orElse(null);
+    }
+
+    @DeleteOperation
+    public CancelledStreams cancel(@Selector String id) {
+        return new CancelledStreams(activeStreams.cancel(id) ? 1 : 0);
+    }
+
+    @DeleteOperation
+    public CancelledStreams cancelClient(String client) {
+        return new CancelledStreams(activeStreams.cancelClient(client));
+    }
+
+    public record CancelledStreams(int cancelled) {}
+}
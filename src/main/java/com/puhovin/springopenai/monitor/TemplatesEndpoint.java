@@ -0,0 +1,31 @@
+package com.puhovin.springopenai.monitor;
+
+import com.puhovin.springopenai.prompt.PromptTemplates;
+import com.puhovin.springopenai.prompt.TemplateSnapshot;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "templates")
+public class TemplatesEndpoint {
+
+    private final PromptTemplates templates;
+
+    public TemplatesEndpoint(PromptTemplates templates) {
+        this.templates = templates;
+    }
+
+    @ReadOperation
+    public List<TemplateSnapshot> templates() {
+        return templates.snapshot();
+    }
+
+    @WriteOperation
+    public List<TemplateSnapshot> reload() {
+        return templates.reload();
+    }
+}
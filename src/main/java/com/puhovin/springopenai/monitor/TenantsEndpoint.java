@@ -0,0 +1,31 @@
+package com.puhovin.springopenai.monitor;
+
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import com.puhovin.springopenai.tenant.TenantSnapshot;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "tenants")
+public class TenantsEndpoint {
+
+    private final TenantBulkheads bulkheads;
+
+    public TenantsEndpoint(TenantBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @ReadOperation
+    public List<TenantSnapshot> tenants() {
+        return bulkheads.snapshot();
+    }
+
+    @WriteOperation
+    public List<TenantSnapshot> reload() {
+        return bulkheads.reload();
+    }
+}
@@ -0,0 +1,40 @@
+package com.puhovin.springopenai.monitor;
+
+import com.puhovin.springopenai.usage.UsageEntry;
+import com.puhovin.springopenai.usage.UsageLedger;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "usage")
+public class UsageEndpoint {
+
+    private final UsageLedger usageLedger;
+
+    public UsageEndpoint(UsageLedger usageLedger) {
+        this.usageLedger = usageLedger;
+    }
+
+    @ReadOperation
+    public UsageReport usage() {
+        return UsageReport.of(usageLedger.entries());
+    }
+
+    @ReadOperation
+    public UsageReport clientUsage(@Selector String client) {
+        return UsageReport.of(usageLedger.entries().stream()
+                .filter(entry -> entry.client().equals(client))
+                .toList());
+    }
+
+    public record UsageReport(double totalCost, List<UsageEntry> entries) {
+
+        static UsageReport of(List<UsageEntry> entries) {
+            return new UsageReport(entries.stream().mapToDouble(UsageEntry::cost).sum(), entries);
+        }
+    }
+}
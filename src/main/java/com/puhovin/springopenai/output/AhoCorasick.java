@@ -0,0 +1,131 @@
+package com.puhovin.springopenai.output;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton over characters, frozen into flat arrays so that stepping it allocates
+ * nothing. Each state keeps its outgoing edges as a sorted key array, its failure link, its depth
+ * (the length of the longest pattern prefix the text currently ends with, which is exactly what a
+ * streaming caller has to hold back) and the length of the longest pattern ending there.
+ */
+final class AhoCorasick {
+
+    static final int ROOT = 0;
+
+    private final boolean ignoreCase;
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[] depth;
+    private final int[] matchLength;
+
+    private AhoCorasick(boolean ignoreCase, char[][] keys, int[][] targets, int[] fail, int[] depth, int[] matchLength) {
+        this.ignoreCase = ignoreCase;
+        this.keys = keys;
+        this.targets = targets;
+        this.fail = fail;
+        this.depth = depth;
+        this.matchLength = matchLength;
+    }
+
+    static AhoCorasick build(Collection<String> patterns, boolean ignoreCase) {
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        depths.add(0);
+        lengths.add(0);
+        for (String pattern : patterns) {
+            if (pattern == null || pattern.isEmpty()) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = fold(pattern.charAt(i), ignoreCase);
+                Integer next = edges.get(state).get(c);
+                if (next == null) {
+                    next = edges.size();
+                    edges.add(new TreeMap<>());
+                    depths.add(depths.get(state) + 1);
+                    lengths.add(0);
+                    edges.get(state).put(c, next);
+                }
+                state = next;
+            }
+            lengths.set(state, pattern.length());
+        }
+
+        int size = edges.size();
+        char[][] keys = new char[size][];
+        int[][] targets = new int[size][];
+        int[] depth = new int[size];
+        int[] matchLength = new int[size];
+        for (int state = 0; state < size; state++) {
+            TreeMap<Character, Integer> out = edges.get(state);
+            keys[state] = new char[out.size()];
+            targets[state] = new int[out.size()];
+            int i = 0;
+            for (var edge : out.entrySet()) {
+                keys[state][i] = edge.getKey();
+                targets[state][i++] = edge.getValue();
+            }
+            depth[state] = depths.get(state);
+            matchLength[state] = lengths.get(state);
+        }
+
+        int[] fail = new int[size];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            queue.add(child);
+        }
+        AhoCorasick automaton = new AhoCorasick(ignoreCase, keys, targets, fail, depth, matchLength);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < keys[state].length; i++) {
+                int child = targets[state][i];
+                fail[child] = automaton.step(fail[state], keys[state][i]);
+                matchLength[child] = Math.max(matchLength[child], matchLength[fail[child]]);
+                queue.add(child);
+            }
+        }
+        return automaton;
+    }
+
+    boolean isEmpty() {
+        return keys[ROOT].length == 0;
+    }
+
+    int next(int state, char c) {
+        return step(state, fold(c, ignoreCase));
+    }
+
+    int depth(int state) {
+        return depth[state];
+    }
+
+    int matchLength(int state) {
+        return matchLength[state];
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int index = Arrays.binarySearch(keys[state], c);
+            if (index >= 0) {
+                return targets[state][index];
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private static char fold(char c, boolean ignoreCase) {
+        return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+    }
+}
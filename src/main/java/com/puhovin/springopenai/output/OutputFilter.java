@@ -0,0 +1,18 @@
+package com.puhovin.springopenai.output;
+
+/**
+ * A stage that rewrites generated text while it streams. Every answer gets its own
+ * {@link Session}, which may hold text back until it can decide about it; whatever it still holds
+ * is released by {@link Session#finish()}.
+ */
+public interface OutputFilter {
+
+    Session start();
+
+    interface Session {
+
+        String next(String chunk);
+
+        String finish();
+    }
+}
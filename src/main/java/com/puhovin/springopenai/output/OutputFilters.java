@@ -0,0 +1,82 @@
+package com.puhovin.springopenai.output;
+
+import com.puhovin.springopenai.stream.ChatStreamEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Component
+public class OutputFilters {
+
+    private final List<OutputFilter> filters;
+
+    public OutputFilters(ObjectProvider<OutputFilter> filters) {
+        this.filters = filters.orderedStream().toList();
+    }
+
+    public Flux<ChatStreamEvent> apply(Flux<ChatStreamEvent> events) {
+        if (filters.isEmpty()) {
+            return events;
+        }
+        return Flux.defer(() -> {
+            OutputFilter.Session session = start();
+            return events
+                    .<ChatStreamEvent>handle((event, sink) -> {
+                        if (!(event instanceof ChatStreamEvent.Text text)) {
+                            sink.next(event);
+                            return;
+                        }
+                        String filtered = session.next(text.content());
+                        if (!filtered.isEmpty()) {
+                            sink.next(new ChatStreamEvent.Text(filtered));
+                        }
+                    })
+                    .concatWith(Mono.fromSupplier(() -> {
+                        String rest = session.finish();
+                        return rest.isEmpty() ? null : new ChatStreamEvent.Text(rest);
+                    }));
+        });
+    }
+
+    public String filter(String text) {
+        if (filters.isEmpty()) {
+            return text;
+        }
+        OutputFilter.Session session = start();
+        return session.next(text) + session.finish();
+    }
+
+    private OutputFilter.Session start() {
+        if (filters.size() == 1) {
+            return filters.get(0).start();
+        }
+        return new Chain(filters.stream().map(OutputFilter::start).toArray(OutputFilter.Session[]::new));
+    }
+
+    private record Chain(OutputFilter.Session[] sessions) implements OutputFilter.Session {
+
+        @Override
+        public String next(String chunk) {
+            return next(chunk, 0);
+        }
+
+        @Override
+        public String finish() {
+            StringBuilder rest = new StringBuilder();
+            for (int i = 0; i < sessions.length; i++) {
+                rest.append(next(sessions[i].finish(), i + 1));
+            }
+            return rest.toString();
+        }
+
+        private String next(String chunk, int from) {
+            for (int i = from; i < sessions.length && !chunk.isEmpty(); i++) {
+                chunk = sessions[i].next(chunk);
+            }
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.puhovin.springopenai.output;
+
+import com.puhovin.springopenai.config.OutputFilterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "chat.output-filter.enabled", havingValue = "true")
+public class RedactingOutputFilter implements OutputFilter {
+
+    private final AhoCorasick terms;
+    private final Pattern pattern;
+    private final int maxPatternLength;
+    private final String replacement;
+    private final Counter redactions;
+
+    public RedactingOutputFilter(OutputFilterProperties properties, MeterRegistry meterRegistry) {
+        this.terms = AhoCorasick.build(terms(properties), properties.ignoreCase());
+        this.pattern = properties.patterns().isEmpty()
+                ? null
+                : Pattern.compile(properties.patterns().stream()
+                        .map(regex -> "(?:" + regex + ")")
+                        .collect(Collectors.joining("|")));
+        this.maxPatternLength = properties.maxPatternLength();
+        this.replacement = properties.replacement();
+        this.redactions = Counter.builder("chat.output.redactions")
+                .description("Spans of generated text replaced by the output filter")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Session start() {
+        return new StreamRedactor(terms, pattern != null ? pattern.matcher("") : null, maxPatternLength,
+                replacement, redactions);
+    }
+
+    private static List<String> terms(OutputFilterProperties properties) {
+        List<String> terms = new ArrayList<>(properties.terms());
+        if (properties.hasTermsFile()) {
+            try {
+                Files.readAllLines(properties.termsFile(), StandardCharsets.UTF_8).stream()
+                        .map(String::strip)
+                        .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                        .forEach(terms::add);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read output filter terms from " + properties.termsFile(), ex);
+            }
+        }
+        return terms;
+    }
+}
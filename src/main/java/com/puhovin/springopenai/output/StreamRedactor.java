@@ -0,0 +1,155 @@
+package com.puhovin.springopenai.output;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+
+/**
+ * Redacts one streamed answer. Term matches come from stepping the {@link AhoCorasick} automaton
+ * once per character, carrying its state across chunks, so a term split over two chunks is still
+ * found; only the characters that form the automaton's current depth have to be held back.
+ * Regex matches are found by rescanning the held-back tail: a match that touched the end of the
+ * input ({@link Matcher#hitEnd()}) could still grow and is held, and when nothing matched, the
+ * last {@code maxPatternLength - 1} characters are held because a match may start there.
+ * Overlapping and adjacent matches are merged, and a merged match is never split by a chunk
+ * boundary in the output.
+ */
+final class StreamRedactor implements OutputFilter.Session {
+
+    private final AhoCorasick terms;
+    private final Matcher matcher;
+    private final int maxPatternLength;
+    private final String replacement;
+    private final Counter redactions;
+
+    private final StringBuilder pending = new StringBuilder();
+    private final StringBuilder output = new StringBuilder();
+    private long base;
+    private long regexFrom;
+    private int state = AhoCorasick.ROOT;
+    private long[] starts = new long[4];
+    private long[] ends = new long[4];
+    private int intervals;
+
+    StreamRedactor(AhoCorasick terms, Matcher matcher, int maxPatternLength, String replacement, Counter redactions) {
+        this.terms = terms;
+        this.matcher = matcher;
+        this.maxPatternLength = Math.max(1, maxPatternLength);
+        this.replacement = replacement;
+        this.redactions = redactions;
+        if (matcher != null) {
+            matcher.useTransparentBounds(true).useAnchoringBounds(false);
+        }
+    }
+
+    @Override
+    public String next(String chunk) {
+        long chunkStart = base + pending.length();
+        pending.append(chunk);
+        for (int i = 0; i < chunk.length(); i++) {
+            state = terms.next(state, chunk.charAt(i));
+            int length = terms.matchLength(state);
+            if (length > 0) {
+                long end = chunkStart + i + 1;
+                mark(end - length, end);
+            }
+        }
+        long end = base + pending.length();
+        long safe = end - terms.depth(state);
+        if (matcher != null) {
+            safe = Math.min(safe, scan(end, false));
+        }
+        return emit(safe);
+    }
+
+    @Override
+    public String finish() {
+        long end = base + pending.length();
+        if (matcher != null) {
+            scan(end, true);
+        }
+        state = AhoCorasick.ROOT;
+        return emit(end);
+    }
+
+    private long scan(long end, boolean finished) {
+        int from = (int) (regexFrom - base);
+        matcher.reset(pending).region(from, pending.length());
+        long hold = end;
+        boolean found;
+        while ((found = matcher.find())) {
+            if (!finished && matcher.hitEnd() && pending.length() - matcher.start() < maxPatternLength) {
+                hold = base + matcher.start();
+                break;
+            }
+            if (matcher.end() > matcher.start()) {
+                mark(base + matcher.start(), base + matcher.end());
+            }
+        }
+        if (!found && !finished && matcher.hitEnd()) {
+            hold = Math.max(base + from, end - maxPatternLength + 1);
+        }
+        regexFrom = hold;
+        return hold;
+    }
+
+    private void mark(long start, long end) {
+        int first = 0;
+        while (first < intervals && ends[first] < start) {
+            first++;
+        }
+        int last = first;
+        while (last < intervals && starts[last] <= end) {
+            start = Math.min(start, starts[last]);
+            end = Math.max(end, ends[last]);
+            last++;
+        }
+        int removed = last - first;
+        if (removed == 0) {
+            if (intervals == starts.length) {
+                starts = Arrays.copyOf(starts, intervals * 2);
+                ends = Arrays.copyOf(ends, intervals * 2);
+            }
+            System.arraycopy(starts, first, starts, first + 1, intervals - first);
+            System.arraycopy(ends, first, ends, first + 1, intervals - first);
+            intervals++;
+        } else if (removed > 1) {
+            System.arraycopy(starts, last, starts, first + 1, intervals - last);
+            System.arraycopy(ends, last, ends, first + 1, intervals - last);
+            intervals -= removed - 1;
+        }
+        starts[first] = start;
+        ends[first] = end;
+    }
+
+    private String emit(long safe) {
+        for (int i = 0; i < intervals; i++) {
+            if (starts[i] < safe && ends[i] > safe) {
+                safe = starts[i];
+                break;
+            }
+        }
+        if (safe <= base) {
+            return "";
+        }
+        output.setLength(0);
+        long cursor = base;
+        int done = 0;
+        while (done < intervals && ends[done] <= safe) {
+            output.append(pending, (int) (cursor - base), (int) (starts[done] - base)).append(replacement);
+            cursor = ends[done++];
+            redactions.increment();
+        }
+        output.append(pending, (int) (cursor - base), (int) (safe - base));
+        if (done > 0) {
+            System.arraycopy(starts, done, starts, 0, intervals - done);
+            System.arraycopy(ends, done, ends, 0, intervals - done);
+            intervals -= done;
+        }
+        pending.delete(0, (int) (safe - base));
+        base = safe;
+        regexFrom = Math.max(regexFrom, base);
+        return output.isEmpty() ? "" : output.toString();
+    }
+}
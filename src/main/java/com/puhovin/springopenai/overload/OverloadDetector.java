@@ -0,0 +1,141 @@
+package com.puhovin.springopenai.overload;
+
+import com.puhovin.springopenai.config.OverloadProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether this instance is saturated. It enters the overloaded state as soon as any signal
+ * crosses its {@code max-*} threshold and leaves it only after every signal has stayed below its
+ * {@code recover-*} threshold for {@code recovery-period}, so a pod near the limit does not flap.
+ */
+@Component
+public class OverloadDetector implements SmartLifecycle {
+
+    private static final long CALM_NONE = Long.MIN_VALUE;
+
+    private final OverloadProperties properties;
+    private final Supplier<Supplier<OverloadSample>> samplerFactory;
+    private final Counter transitions;
+    private volatile OverloadSample lastSample = new OverloadSample(0, 0, 0);
+    private volatile boolean overloaded;
+    private volatile String reason;
+    private long calmSince = CALM_NONE;
+    private Disposable sampling;
+
+    public OverloadDetector(OverloadProperties properties,
+                            ObjectProvider<ReactorResourceFactory> resourceFactory,
+                            MeterRegistry meterRegistry) {
+        this(properties, () -> {
+            ReactorResourceFactory factory = resourceFactory.getIfAvailable();
+            return new RuntimeOverloadSampler(factory != null ? factory.getLoopResources().onServer(true) : null);
+        }, meterRegistry);
+    }
+
+    OverloadDetector(OverloadProperties properties,
+                     Supplier<Supplier<OverloadSample>> samplerFactory,
+                     MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.samplerFactory = samplerFactory;
+        Gauge.builder("chat.overload.state", this, detector -> detector.overloaded ? 1 : 0)
+                .description("1 while new requests are being shed")
+                .register(meterRegistry);
+        Gauge.builder("chat.overload.event.loop.lag", this, detector -> detector.lastSample.eventLoopLagNanos() / 1e6)
+                .description("Worst scheduling lag across the server event loops")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("chat.overload.event.loop.pending", this, detector -> detector.lastSample.pendingTasks())
+                .description("Tasks queued on the server event loops")
+                .register(meterRegistry);
+        Gauge.builder("chat.overload.heap.after.gc", this, detector -> detector.lastSample.heapAfterGc())
+                .description("Highest post-GC occupancy of any heap pool")
+                .register(meterRegistry);
+        this.transitions = Counter.builder("chat.overload.transitions")
+                .description("Times the instance entered the overloaded state")
+                .register(meterRegistry);
+    }
+
+    public boolean overloaded() {
+        return overloaded;
+    }
+
+    public String reason() {
+        return reason;
+    }
+
+    synchronized void evaluate(OverloadSample sample, long nowNanos) {
+        lastSample = sample;
+        if (!overloaded) {
+            String exceeded = exceeded(sample);
+            if (exceeded != null) {
+                reason = exceeded;
+                overloaded = true;
+                calmSince = CALM_NONE;
+                transitions.increment();
+            }
+            return;
+        }
+        if (!recovered(sample)) {
+            calmSince = CALM_NONE;
+        } else if (calmSince == CALM_NONE) {
+            calmSince = nowNanos;
+        } else if (nowNanos - calmSince >= properties.recoveryPeriod().toNanos()) {
+            overloaded = false;
+            reason = null;
+            calmSince = CALM_NONE;
+        }
+    }
+
+    private String exceeded(OverloadSample sample) {
+        if (sample.eventLoopLagNanos() > properties.maxEventLoopLag().toNanos()) {
+            return "event-loop-lag";
+        }
+        if (sample.pendingTasks() > properties.maxPendingTasks()) {
+            return "event-loop-pending-tasks";
+        }
+        if (sample.heapAfterGc() > properties.maxHeapAfterGc()) {
+            return "heap-after-gc";
+        }
+        return null;
+    }
+
+    private boolean recovered(OverloadSample sample) {
+        return sample.eventLoopLagNanos() <= properties.recoverEventLoopLag().toNanos()
+                && sample.pendingTasks() <= properties.recoverPendingTasks()
+                && sample.heapAfterGc() <= properties.recoverHeapAfterGc();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.enabled() || sampling != null) {
+            return;
+        }
+        Supplier<OverloadSample> sampler = samplerFactory.get();
+        long intervalNanos = properties.sampleInterval().toNanos();
+        sampling = Schedulers.parallel().schedulePeriodically(
+                () -> evaluate(sampler.get(), System.nanoTime()), intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (sampling != null) {
+            sampling.dispose();
+            sampling = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return sampling != null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.puhovin.springopenai.overload;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+@Component("overload")
+public class OverloadHealthIndicator implements HealthIndicator {
+
+    private final OverloadDetector detector;
+
+    public OverloadHealthIndicator(OverloadDetector detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    public Health health() {
+        return detector.overloaded()
+                ? Health.outOfService().withDetail("reason", String.valueOf(detector.reason())).build()
+                : Health.up().build();
+    }
+}
@@ -0,0 +1,7 @@
+package com.puhovin.springopenai.overload;
+
+record OverloadSample(
+        long eventLoopLagNanos,
+        long pendingTasks,
+        double heapAfterGc
+) {}
@@ -0,0 +1,93 @@
+package com.puhovin.springopenai.overload;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Samples the server event loops and the heap. Lag is measured by posting a no-op task to each
+ * loop and timing how long it waits; while a probe is still queued the lag is the time it has
+ * waited so far, so a stalled loop is reported without piling up probes. Heap pressure is the
+ * highest post-GC occupancy of any heap pool, which is what is left once the collector has run.
+ */
+class RuntimeOverloadSampler implements Supplier<OverloadSample> {
+
+    private static final long IDLE = Long.MIN_VALUE;
+
+    private final List<LoopProbe> probes = new ArrayList<>();
+    private final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported())
+            .toList();
+
+    RuntimeOverloadSampler(EventLoopGroup eventLoops) {
+        if (eventLoops != null) {
+            for (EventExecutor executor : eventLoops) {
+                probes.add(new LoopProbe(executor));
+            }
+        }
+    }
+
+    @Override
+    public OverloadSample get() {
+        long now = System.nanoTime();
+        long maxLag = 0;
+        long pendingTasks = 0;
+        for (LoopProbe probe : probes) {
+            maxLag = Math.max(maxLag, probe.lag(now));
+            pendingTasks += probe.pendingTasks();
+        }
+        return new OverloadSample(maxLag, pendingTasks, heapAfterGc());
+    }
+
+    private double heapAfterGc() {
+        double occupancy = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0) {
+                occupancy = Math.max(occupancy, (double) usage.getUsed() / usage.getMax());
+            }
+        }
+        return occupancy;
+    }
+
+    private static final class LoopProbe {
+
+        private final EventExecutor executor;
+        private volatile long queuedAt = IDLE;
+        private volatile long lastLag;
+
+        private LoopProbe(EventExecutor executor) {
+            this.executor = executor;
+        }
+
+        long lag(long now) {
+            long since = queuedAt;
+            if (since != IDLE) {
+                return Math.max(lastLag, now - since);
+            }
+            queuedAt = now;
+            try {
+                executor.execute(() -> {
+                    lastLag = System.nanoTime() - now;
+                    queuedAt = IDLE;
+                });
+            } catch (RejectedExecutionException ex) {
+                queuedAt = IDLE;
+            }
+            return lastLag;
+        }
+
+        long pendingTasks() {
+            return executor instanceof SingleThreadEventExecutor loop ? loop.pendingTasks() : 0;
+        }
+    }
+}
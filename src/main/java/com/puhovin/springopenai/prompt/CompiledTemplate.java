@@ -0,0 +1,85 @@
+package com.puhovin.springopenai.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A prompt template parsed once into alternating literal and placeholder segments. A placeholder
+ * is {@code {name}} with a name of letters, digits, {@code _}, {@code -} and {@code .}; any other
+ * brace is literal, so JSON examples in instructions need no escaping. Rendering sizes its buffer
+ * exactly from the literal length plus the values and copies every segment once; values are never
+ * scanned, so braces inside them are inserted verbatim. A template without placeholders renders to
+ * the same string instance every time.
+ */
+final class CompiledTemplate {
+
+    static final String MESSAGE = "message";
+
+    private final String id;
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private CompiledTemplate(String id, String[] literals, String[] names, int literalLength) {
+        this.id = id;
+        this.literals = literals;
+        this.names = names;
+        this.literalLength = literalLength;
+    }
+
+    static CompiledTemplate compile(String id, String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int open = text.indexOf('{');
+        while (open >= 0) {
+            int close = open + 1;
+            while (close < text.length() && isNameChar(text.charAt(close))) {
+                close++;
+            }
+            if (close > open + 1 && close < text.length() && text.charAt(close) == '}') {
+                literals.add(text.substring(literalStart, open));
+                names.add(text.substring(open + 1, close));
+                literalStart = close + 1;
+            }
+            open = text.indexOf('{', open + 1);
+        }
+        literals.add(text.substring(literalStart));
+        int literalLength = literals.stream().mapToInt(String::length).sum();
+        return new CompiledTemplate(id, literals.toArray(String[]::new), names.toArray(String[]::new), literalLength);
+    }
+
+    String render(Map<String, String> variables, String message) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+        int length = literalLength;
+        for (String name : names) {
+            length += value(name, variables, message).length();
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]).append(value(names[i], variables, message));
+        }
+        return out.append(literals[names.length]).toString();
+    }
+
+    Set<String> variables() {
+        return new TreeSet<>(List.of(names));
+    }
+
+    private String value(String name, Map<String, String> variables, String message) {
+        String value = name.equals(MESSAGE) ? message : variables.get(name);
+        if (value == null) {
+            throw new PromptTemplateException(id, "is missing variable " + name);
+        }
+        return value;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.';
+    }
+}
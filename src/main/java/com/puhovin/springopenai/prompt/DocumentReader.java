@@ -0,0 +1,106 @@
+package com.puhovin.springopenai.prompt;
+
+import com.puhovin.springopenai.config.IngestionProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes an uploaded UTF-8 document chunk by chunk into prompt text. Each buffer is released as
+ * soon as it is decoded, so the body is never joined into one byte array; a character split
+ * across two buffers is carried over in a four-byte scratch buffer.
+ */
+@Component
+public class DocumentReader {
+
+    private static final int DEFAULT_CAPACITY = 16 * 1024;
+    private static final int CHAR_CHUNK = 8 * 1024;
+
+    private final long maxDocumentBytes;
+
+    public DocumentReader(IngestionProperties properties) {
+        this.maxDocumentBytes = properties.maxDocumentSize().toBytes();
+    }
+
+    public Mono<String> read(Flux<DataBuffer> content, long sizeHint) {
+        return Mono.defer(() -> {
+            int capacity = (int) Math.min(sizeHint > 0 ? sizeHint : DEFAULT_CAPACITY,
+                    Math.min(maxDocumentBytes, Integer.MAX_VALUE - 8));
+            Utf8Text text = new Utf8Text(capacity);
+            return content
+                    .doOnNext(text::append)
+                    .then(Mono.fromSupplier(text::finish));
+        });
+    }
+
+    private static final class Utf8Text {
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer carry = ByteBuffer.allocate(4);
+        private final CharBuffer output = CharBuffer.allocate(CHAR_CHUNK);
+        private final StringBuilder text;
+
+        private Utf8Text(int capacity) {
+            this.text = new StringBuilder(capacity);
+        }
+
+        void append(DataBuffer buffer) {
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    append(iterator.next());
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        String finish() {
+            carry.flip();
+            decode(carry, true);
+            while (decoder.flush(output) == CoderResult.OVERFLOW) {
+                drain();
+            }
+            drain();
+            return text.toString();
+        }
+
+        private void append(ByteBuffer input) {
+            while (carry.position() > 0 && input.hasRemaining()) {
+                carry.put(input.get());
+                carry.flip();
+                decode(carry, false);
+                if (carry.hasRemaining()) {
+                    carry.compact();
+                } else {
+                    carry.clear();
+                }
+            }
+            decode(input, false);
+            carry.put(input);
+        }
+
+        private void decode(ByteBuffer input, boolean endOfInput) {
+            while (decoder.decode(input, output, endOfInput) == CoderResult.OVERFLOW) {
+                drain();
+            }
+            drain();
+        }
+
+        private void drain() {
+            output.flip();
+            text.append(output);
+            output.clear();
+        }
+    }
+}
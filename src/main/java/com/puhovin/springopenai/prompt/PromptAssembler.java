@@ -0,0 +1,102 @@
+package com.puhovin.springopenai.prompt;
+
+import com.puhovin.springopenai.config.PromptProperties;
+import com.puhovin.springopenai.dto.ChatMessage;
+import com.puhovin.springopenai.dto.ChatRequest;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds prompts whose leading messages are byte-identical across requests, so that the
+ * provider-side prompt cache can reuse them: the system prompt always comes first, history keeps
+ * its original order, and old history is dropped only in whole blocks. A request that names a
+ * template gets the template's system part right after the system prompt, ahead of any history.
+ * The template is rendered once per request; {@link #routingView} hands the rendered text to the
+ * model router, so templated requests are classified by what is actually sent.
+ */
+@Component
+public class PromptAssembler {
+
+    private final PromptTemplates templates;
+    private final SystemMessage systemMessage;
+    private final int historyBlockSize;
+    private final int maxHistoryMessages;
+
+    public PromptAssembler(PromptProperties properties, PromptTemplates templates) {
+        this.templates = templates;
+        String systemPrompt = normalize(properties.systemPrompt()).strip();
+        this.systemMessage = systemPrompt.isEmpty() ? null : new SystemMessage(systemPrompt);
+        this.historyBlockSize = Math.max(1, properties.historyBlockSize());
+        this.maxHistoryMessages = Math.max(0, properties.maxHistoryMessages());
+    }
+
+    public Prompt assemble(ChatRequest request) {
+        return assemble(request, render(request));
+    }
+
+    public Prompt assemble(ChatRequest request, PromptTemplates.Rendered rendered) {
+        return new Prompt(messages(request, rendered));
+    }
+
+    public PromptTemplates.Rendered render(ChatRequest request) {
+        return request.template() != null
+                ? templates.render(request.template(), request.variables(), request.message())
+                : null;
+    }
+
+    public ChatRequest routingView(ChatRequest request, PromptTemplates.Rendered rendered) {
+        if (rendered == null) {
+            return request;
+        }
+        String text = rendered.system() != null ? rendered.system() + "\n\n" + rendered.user() : rendered.user();
+        return new ChatRequest(text, request.history());
+    }
+
+    List<Message> messages(ChatRequest request) {
+        return messages(request, render(request));
+    }
+
+    private List<Message> messages(ChatRequest request, PromptTemplates.Rendered rendered) {
+        List<ChatMessage> history = compact(request.history());
+        List<Message> messages = new ArrayList<>(history.size() + 3);
+        if (systemMessage != null) {
+            messages.add(systemMessage);
+        }
+        String message = request.message();
+        if (rendered != null) {
+            if (rendered.system() != null) {
+                messages.add(new SystemMessage(rendered.system()));
+            }
+            message = rendered.user();
+        }
+        for (ChatMessage turn : history) {
+            String content = normalize(turn.content());
+            messages.add(turn.role() == ChatMessage.Role.ASSISTANT
+                    ? new AssistantMessage(content)
+                    : new UserMessage(content));
+        }
+        messages.add(new UserMessage(message));
+        return messages;
+    }
+
+    List<ChatMessage> compact(List<ChatMessage> history) {
+        int overflow = history.size() - maxHistoryMessages;
+        if (overflow <= 0) {
+            return history;
+        }
+        int droppedBlocks = (overflow + historyBlockSize - 1) / historyBlockSize;
+        int dropped = Math.min(history.size(), droppedBlocks * historyBlockSize);
+        return history.subList(dropped, history.size());
+    }
+
+    private static String normalize(String text) {
+        return text.indexOf('\r') < 0 ? text : text.replace("\r\n", "\n");
+    }
+}
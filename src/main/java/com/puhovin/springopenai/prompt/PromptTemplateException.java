@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.prompt;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class PromptTemplateException extends ResponseStatusException {
+
+    public PromptTemplateException(String template, String reason) {
+        super(HttpStatus.BAD_REQUEST, "Prompt template " + template + " " + reason);
+    }
+}
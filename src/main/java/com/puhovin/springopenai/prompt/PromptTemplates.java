@@ -0,0 +1,217 @@
+package com.puhovin.springopenai.prompt;
+
+import com.puhovin.springopenai.config.TemplateProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Prompt templates referenced by id from {@code ChatRequest.template}. Templates come from
+ * {@code chat.templates.definitions} and from {@code <id>.st} (system part) and
+ * {@code <id>.user.st} (user part) files in {@code chat.templates.directory}, where a file replaces
+ * the configured part of the same id. Everything is compiled once per load into a
+ * {@link CompiledTemplate}; the directory is polled and the whole set is swapped atomically when a
+ * file is added, changed or removed, and a load that fails keeps the previous set. The render timer
+ * of a template that disappears is removed with it.
+ */
+@Component
+public class PromptTemplates implements SmartLifecycle {
+
+    private static final String EXTENSION = ".st";
+    private static final String USER_SUFFIX = ".user";
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final Map<String, TemplateProperties.Definition> definitions;
+    private final Path directory;
+    private final long reloadIntervalNanos;
+    private final MeterRegistry meterRegistry;
+    private volatile Map<String, Template> templates;
+    private volatile Map<Path, FileTime> files = Map.of();
+    private Disposable reloads;
+    private boolean running;
+
+    public PromptTemplates(TemplateProperties properties, MeterRegistry meterRegistry) {
+        this.definitions = properties.definitions();
+        this.directory = properties.loadsFromDirectory() ? properties.directory() : null;
+        this.reloadIntervalNanos = properties.reloadInterval().toNanos();
+        this.meterRegistry = meterRegistry;
+        this.templates = load();
+        Gauge.builder("chat.templates", this, registry -> registry.templates.size())
+                .description("Prompt templates currently loaded")
+                .register(meterRegistry);
+    }
+
+    public Rendered render(String id, Map<String, String> variables, String message) {
+        Template template = templates.get(id);
+        if (template == null) {
+            throw new PromptTemplateException(id, "does not exist");
+        }
+        long start = System.nanoTime();
+        Rendered rendered = new Rendered(
+                template.system() != null ? template.system().render(variables, message) : null,
+                template.user() != null ? template.user().render(variables, message) : message);
+        template.renderTime().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return rendered;
+    }
+
+    public synchronized List<TemplateSnapshot> reload() {
+        Map<String, Template> previous = templates;
+        templates = load();
+        previous.forEach((id, template) -> {
+            if (!templates.containsKey(id)) {
+                meterRegistry.remove(template.renderTime());
+            }
+        });
+        meterRegistry.counter("chat.template.reloads", "outcome", "applied").increment();
+        return snapshot();
+    }
+
+    public List<TemplateSnapshot> snapshot() {
+        List<TemplateSnapshot> snapshots = new ArrayList<>();
+        for (Template template : new TreeMap<>(templates).values()) {
+            TreeSet<String> variables = new TreeSet<>();
+            if (template.system() != null) {
+                variables.addAll(template.system().variables());
+            }
+            if (template.user() != null) {
+                variables.addAll(template.user().variables());
+            }
+            snapshots.add(new TemplateSnapshot(template.id(), variables,
+                    template.system() != null, template.user() != null));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (directory != null) {
+            reloads = Schedulers.boundedElastic().schedulePeriodically(
+                    this::reloadIfChanged, reloadIntervalNanos, reloadIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (reloads != null) {
+            reloads.dispose();
+            reloads = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    void reloadIfChanged() {
+        try {
+            if (!scan().equals(files)) {
+                reload();
+            }
+        } catch (IOException | RuntimeException ex) {
+            meterRegistry.counter("chat.template.reloads", "outcome", "failed").increment();
+        }
+    }
+
+    private Map<String, Template> load() {
+        Map<String, String> system = new HashMap<>();
+        Map<String, String> user = new HashMap<>();
+        definitions.forEach((id, definition) -> {
+            if (definition.system() != null) {
+                system.put(id, definition.system());
+            }
+            if (definition.user() != null) {
+                user.put(id, definition.user());
+            }
+        });
+        Map<Path, FileTime> loaded = Map.of();
+        if (directory != null) {
+            try {
+                loaded = scan();
+                for (Path file : loaded.keySet()) {
+                    String name = file.getFileName().toString();
+                    String id = name.substring(0, name.length() - EXTENSION.length());
+                    String text = Files.readString(file, StandardCharsets.UTF_8);
+                    if (id.endsWith(USER_SUFFIX)) {
+                        user.put(id.substring(0, id.length() - USER_SUFFIX.length()), text);
+                    } else {
+                        system.put(id, text);
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read prompt templates from " + directory, ex);
+            }
+        }
+
+        TreeSet<String> ids = new TreeSet<>(system.keySet());
+        ids.addAll(user.keySet());
+        Map<String, Template> compiled = new HashMap<>();
+        for (String id : ids) {
+            compiled.put(id, new Template(id,
+                    compile(id, system.get(id)),
+                    compile(id, user.get(id)),
+                    Timer.builder("chat.template.render")
+                            .description("Time to render a prompt template")
+                            .tag("template", id)
+                            .register(meterRegistry)));
+        }
+        files = loaded;
+        return Map.copyOf(compiled);
+    }
+
+    private Map<Path, FileTime> scan() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Map.of();
+        }
+        Map<Path, FileTime> found = new HashMap<>();
+        try (Stream<Path> entries = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) entries::iterator) {
+                if (file.getFileName().toString().endsWith(EXTENSION) && Files.isRegularFile(file)) {
+                    found.put(file, Files.getLastModifiedTime(file));
+                }
+            }
+        }
+        return found;
+    }
+
+    private static CompiledTemplate compile(String id, String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = (text.indexOf('\r') < 0 ? text : text.replace("\r\n", "\n")).strip();
+        return normalized.isEmpty() ? null : CompiledTemplate.compile(id, normalized);
+    }
+
+    public record Rendered(String system, String user) {}
+
+    private record Template(String id, CompiledTemplate system, CompiledTemplate user, Timer renderTime) {}
+}
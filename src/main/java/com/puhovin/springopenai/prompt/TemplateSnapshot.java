@@ -0,0 +1,10 @@
+package com.puhovin.springopenai.prompt;
+
+import java.util.Set;
+
+public record TemplateSnapshot(
+        String template,
+        Set<String> variables,
+        boolean systemPart,
+        boolean userPart
+) {}
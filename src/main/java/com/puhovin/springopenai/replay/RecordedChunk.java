@@ -0,0 +1,9 @@
+package com.puhovin.springopenai.replay;
+
+public record RecordedChunk(
+        long delayMicros,
+        String text,
+        String finishReason,
+        Integer promptTokens,
+        Integer completionTokens
+) {}
@@ -0,0 +1,79 @@
+package com.puhovin.springopenai.replay;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Passes every call through to the real model and stores the response chunks together with the
+ * time between them. Only streams that complete are stored. Tool calls are not captured.
+ */
+public class RecordingChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final RecordingStore store;
+
+    public RecordingChatModel(ChatModel delegate, RecordingStore store) {
+        this.delegate = delegate;
+        this.store = store;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        long startNanos = System.nanoTime();
+        ChatResponse response = delegate.call(prompt);
+        store.save(prompt, List.of(toChunk(response, elapsedMicros(startNanos))));
+        return response;
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            List<RecordedChunk> chunks = new ArrayList<>();
+            long[] lastNanos = {System.nanoTime()};
+            return delegate.stream(prompt)
+                    .doOnNext(response -> {
+                        long now = System.nanoTime();
+                        chunks.add(toChunk(response, TimeUnit.NANOSECONDS.toMicros(now - lastNanos[0])));
+                        lastNanos[0] = now;
+                    })
+                    .concatWith(Mono.<ChatResponse>fromRunnable(() -> store.save(prompt, chunks))
+                            .subscribeOn(Schedulers.boundedElastic()));
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private static RecordedChunk toChunk(ChatResponse response, long delayMicros) {
+        Generation generation = response.getResult();
+        String text = generation != null ? generation.getOutput().getText() : null;
+        String finishReason = generation != null && generation.getMetadata() != null
+                ? generation.getMetadata().getFinishReason()
+                : null;
+        Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+        Integer promptTokens = usage != null && usage.getPromptTokens() != null && usage.getPromptTokens() > 0
+                ? usage.getPromptTokens()
+                : null;
+        Integer completionTokens = usage != null && usage.getCompletionTokens() != null && usage.getCompletionTokens() > 0
+                ? usage.getCompletionTokens()
+                : null;
+        return new RecordedChunk(delayMicros, text, finishReason, promptTokens, completionTokens);
+    }
+
+    private static long elapsedMicros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,108 @@
+package com.puhovin.springopenai.replay;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary recording format: the magic {@code CRR1}, a chunk count, then per chunk the delay since
+ * the previous chunk in microseconds, a presence bitmask and the present fields. Strings are
+ * length-prefixed UTF-8, integers are variable-length encoded.
+ */
+final class RecordingCodec {
+
+    private static final int MAGIC = 0x43525231;
+    private static final int HAS_TEXT = 1;
+    private static final int HAS_FINISH_REASON = 1 << 1;
+    private static final int HAS_PROMPT_TOKENS = 1 << 2;
+    private static final int HAS_COMPLETION_TOKENS = 1 << 3;
+
+    private RecordingCodec() {
+    }
+
+    static void write(List<RecordedChunk> chunks, OutputStream target) throws IOException {
+        DataOutputStream out = new DataOutputStream(target);
+        out.writeInt(MAGIC);
+        writeVarLong(out, chunks.size());
+        for (RecordedChunk chunk : chunks) {
+            writeVarLong(out, chunk.delayMicros());
+            int flags = (chunk.text() != null ? HAS_TEXT : 0)
+                    | (chunk.finishReason() != null ? HAS_FINISH_REASON : 0)
+                    | (chunk.promptTokens() != null ? HAS_PROMPT_TOKENS : 0)
+                    | (chunk.completionTokens() != null ? HAS_COMPLETION_TOKENS : 0);
+            out.writeByte(flags);
+            if (chunk.text() != null) {
+                writeString(out, chunk.text());
+            }
+            if (chunk.finishReason() != null) {
+                writeString(out, chunk.finishReason());
+            }
+            if (chunk.promptTokens() != null) {
+                writeVarLong(out, chunk.promptTokens());
+            }
+            if (chunk.completionTokens() != null) {
+                writeVarLong(out, chunk.completionTokens());
+            }
+        }
+        out.flush();
+    }
+
+    static List<RecordedChunk> read(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(source);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a chat recording");
+        }
+        int count = (int) readVarLong(in);
+        List<RecordedChunk> chunks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long delayMicros = readVarLong(in);
+            int flags = in.readUnsignedByte();
+            String text = (flags & HAS_TEXT) != 0 ? readString(in) : null;
+            String finishReason = (flags & HAS_FINISH_REASON) != 0 ? readString(in) : null;
+            Integer promptTokens = (flags & HAS_PROMPT_TOKENS) != 0 ? (int) readVarLong(in) : null;
+            Integer completionTokens = (flags & HAS_COMPLETION_TOKENS) != 0 ? (int) readVarLong(in) : null;
+            chunks.add(new RecordedChunk(delayMicros, text, finishReason, promptTokens, completionTokens));
+        }
+        return chunks;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        if (value < 0) {
+            throw new IOException("Negative values are not supported: " + value);
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
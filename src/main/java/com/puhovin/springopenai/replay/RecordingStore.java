@@ -0,0 +1,80 @@
+package com.puhovin.springopenai.replay;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+public class RecordingStore {
+
+    private static final String EXTENSION = ".crr";
+
+    private final Path directory;
+
+    public RecordingStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Optional<List<RecordedChunk>> load(Prompt prompt) {
+        Path file = fileFor(prompt);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return Optional.of(RecordingCodec.read(in));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read recording " + file, ex);
+        }
+    }
+
+    public void save(Prompt prompt, List<RecordedChunk> chunks) {
+        Path file = fileFor(prompt);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "recording", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                RecordingCodec.write(chunks, out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write recording " + file, ex);
+        }
+    }
+
+    Path fileFor(Prompt prompt) {
+        return directory.resolve(key(prompt) + EXTENSION);
+    }
+
+    static String key(Prompt prompt) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        if (prompt.getOptions() != null && prompt.getOptions().getModel() != null) {
+            digest.update(prompt.getOptions().getModel().getBytes(StandardCharsets.UTF_8));
+        }
+        for (Message message : prompt.getInstructions()) {
+            digest.update((byte) 0);
+            digest.update(message.getMessageType().name().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (message.getText() != null) {
+                digest.update(message.getText().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+}
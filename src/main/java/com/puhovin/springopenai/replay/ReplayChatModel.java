@@ -0,0 +1,100 @@
+package com.puhovin.springopenai.replay;
+
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Plays recordings made by {@link RecordingChatModel} back without network access. Delays are
+ * multiplied by the time scale: {@code 1.0} reproduces the recorded timing, {@code 0.5} plays
+ * twice as fast and {@code 0} emits everything at once.
+ */
+public class ReplayChatModel implements ChatModel {
+
+    private final RecordingStore store;
+    private final double timeScale;
+    private final ChatOptions defaultOptions;
+
+    public ReplayChatModel(RecordingStore store, double timeScale, ChatOptions defaultOptions) {
+        if (timeScale < 0) {
+            throw new IllegalArgumentException("timeScale must not be negative");
+        }
+        this.store = store;
+        this.timeScale = timeScale;
+        this.defaultOptions = defaultOptions;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        List<RecordedChunk> chunks = recording(prompt);
+        long totalMicros = chunks.stream().mapToLong(RecordedChunk::delayMicros).sum();
+        Duration delay = scaled(totalMicros);
+        if (!delay.isZero()) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while replaying", ex);
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        String finishReason = null;
+        Integer promptTokens = null;
+        Integer completionTokens = null;
+        for (RecordedChunk chunk : chunks) {
+            if (chunk.text() != null) {
+                text.append(chunk.text());
+            }
+            finishReason = chunk.finishReason() != null ? chunk.finishReason() : finishReason;
+            promptTokens = chunk.promptTokens() != null ? chunk.promptTokens() : promptTokens;
+            completionTokens = chunk.completionTokens() != null ? chunk.completionTokens() : completionTokens;
+        }
+        return toResponse(text.toString(), finishReason, promptTokens, completionTokens);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.defer(() -> Flux.fromIterable(recording(prompt)))
+                .concatMap(chunk -> {
+                    Mono<ChatResponse> response = Mono.fromSupplier(() -> toResponse(chunk.text(), chunk.finishReason(),
+                            chunk.promptTokens(), chunk.completionTokens()));
+                    Duration delay = scaled(chunk.delayMicros());
+                    return delay.isZero() ? response : response.delaySubscription(delay);
+                });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return defaultOptions;
+    }
+
+    private List<RecordedChunk> recording(Prompt prompt) {
+        return store.load(prompt).orElseThrow(() -> new IllegalStateException(
+                "No recording for prompt " + RecordingStore.key(prompt)));
+    }
+
+    private Duration scaled(long micros) {
+        return Duration.ofNanos(Math.round(micros * 1_000L * timeScale));
+    }
+
+    private static ChatResponse toResponse(String text, String finishReason, Integer promptTokens, Integer completionTokens) {
+        Generation generation = new Generation(new AssistantMessage(text != null ? text : ""),
+                ChatGenerationMetadata.builder().finishReason(finishReason).build());
+        ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder();
+        if (promptTokens != null || completionTokens != null) {
+            metadata.usage(new DefaultUsage(promptTokens, completionTokens));
+        }
+        return new ChatResponse(List.of(generation), metadata.build());
+    }
+}
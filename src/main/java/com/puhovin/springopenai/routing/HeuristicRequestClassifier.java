@@ -0,0 +1,47 @@
+package com.puhovin.springopenai.routing;
+
+import com.puhovin.springopenai.config.RoutingProperties;
+import com.puhovin.springopenai.dto.ChatMessage;
+import com.puhovin.springopenai.dto.ChatRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+final class HeuristicRequestClassifier implements RequestClassifier {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final int fastMaxTokens;
+    private final int fastMaxHistory;
+    private final List<String> complexKeywords;
+
+    HeuristicRequestClassifier(RoutingProperties properties) {
+        this.fastMaxTokens = properties.fastMaxTokens();
+        this.fastMaxHistory = properties.fastMaxHistory();
+        this.complexKeywords = properties.complexKeywords().stream()
+                .map(keyword -> keyword.toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    @Override
+    public ModelTier classify(ChatRequest request) {
+        if (request.history().size() > fastMaxHistory || estimateTokens(request) > fastMaxTokens) {
+            return ModelTier.STANDARD;
+        }
+        String message = request.message().toLowerCase(Locale.ROOT);
+        for (String keyword : complexKeywords) {
+            if (message.contains(keyword)) {
+                return ModelTier.STANDARD;
+            }
+        }
+        return ModelTier.FAST;
+    }
+
+    static int estimateTokens(ChatRequest request) {
+        long chars = request.message().length();
+        for (ChatMessage turn : request.history()) {
+            chars += turn.content().length();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN);
+    }
+}
@@ -0,0 +1,61 @@
+package com.puhovin.springopenai.routing;
+
+import com.puhovin.springopenai.config.RoutingProperties;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.metrics.ModelTierMetrics;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Picks a model tier per request. Routing is only active when {@code chat.routing.fast-model} is
+ * set; otherwise every request stays on the standard tier and the configured default model.
+ */
+@Component
+public class ModelRouter {
+
+    private final RoutingProperties properties;
+    private final List<RequestClassifier> classifiers;
+    private final RequestClassifier heuristic;
+    private final ModelTierMetrics metrics;
+
+    public ModelRouter(RoutingProperties properties,
+                       ObjectProvider<RequestClassifier> classifiers,
+                       ModelTierMetrics metrics) {
+        this.properties = properties;
+        this.classifiers = classifiers.orderedStream().toList();
+        this.heuristic = new HeuristicRequestClassifier(properties);
+        this.metrics = metrics;
+    }
+
+    public ModelTier route(ChatRequest request) {
+        ModelTier tier = properties.enabled() ? classify(request) : ModelTier.STANDARD;
+        metrics.recordDecision(tier);
+        return tier;
+    }
+
+    public Prompt apply(ModelTier tier, Prompt prompt) {
+        String model = properties.model(tier);
+        if (model.isBlank()) {
+            return prompt;
+        }
+        OpenAiChatOptions options = prompt.getOptions() instanceof OpenAiChatOptions existing
+                ? existing.copy()
+                : new OpenAiChatOptions();
+        options.setModel(model);
+        return new Prompt(prompt.getInstructions(), options);
+    }
+
+    private ModelTier classify(ChatRequest request) {
+        for (RequestClassifier classifier : classifiers) {
+            ModelTier tier = classifier.classify(request);
+            if (tier != null) {
+                return tier;
+            }
+        }
+        return heuristic.classify(request);
+    }
+}
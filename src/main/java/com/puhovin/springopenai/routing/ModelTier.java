@@ -0,0 +1,6 @@
+package com.puhovin.springopenai.routing;
+
+public enum ModelTier {
+    FAST,
+    STANDARD
+}
@@ -0,0 +1,14 @@
+package com.puhovin.springopenai.routing;
+
+import com.puhovin.springopenai.dto.ChatRequest;
+
+/**
+ * Pluggable request classifier. Beans of this type are consulted in order before the built-in
+ * heuristic; returning {@code null} defers to the next classifier. A request that names a template
+ * is classified on its rendered text, with the template's system part ahead of the message.
+ */
+@FunctionalInterface
+public interface RequestClassifier {
+
+    ModelTier classify(ChatRequest request);
+}
@@ -1,26 +1,125 @@
 package com.puhovin.springopenai.service;
 
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.metrics.ModelTierMetrics;
+import com.puhovin.springopenai.metrics.PromptCacheMetrics;
+import com.puhovin.springopenai.output.OutputFilters;
+import com.puhovin.springopenai.prompt.PromptAssembler;
+import com.puhovin.springopenai.prompt.PromptTemplates;
+import com.puhovin.springopenai.routing.ModelRouter;
+import com.puhovin.springopenai.routing.ModelTier;
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import com.puhovin.springopenai.tool.ToolEvent;
+import com.puhovin.springopenai.tool.ToolExecutor;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import com.puhovin.springopenai.upstream.DeadlineGuard;
+import com.puhovin.springopenai.upstream.WeightedFairQueue;
+import com.puhovin.springopenai.usage.UsageLedger;
+import io.micrometer.common.KeyValues;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
 @Service
 public class OpenAiChatService {
 
-    private final OpenAiChatModel chatModel;
+    private final ChatModel chatModel;
+    private final PromptAssembler promptAssembler;
+    private final PromptCacheMetrics promptCacheMetrics;
+    private final WeightedFairQueue fairQueue;
+    private final DeadlineGuard deadlineGuard;
+    private final ToolExecutor toolExecutor;
+    private final ModelRouter modelRouter;
+    private final ModelTierMetrics tierMetrics;
+    private final UsageLedger usageLedger;
+    private final ChatObservations observations;
+    private final TenantBulkheads bulkheads;
+    private final OutputFilters outputFilters;
 
-    public OpenAiChatService(OpenAiChatModel chatModel) {
+    public OpenAiChatService(ChatModel chatModel,
+                             PromptAssembler promptAssembler,
+                             PromptCacheMetrics promptCacheMetrics,
+                             WeightedFairQueue fairQueue,
+                             DeadlineGuard deadlineGuard,
+                             ToolExecutor toolExecutor,
+                             ModelRouter modelRouter,
+                             ModelTierMetrics tierMetrics,
+                             UsageLedger usageLedger,
+                             ChatObservations observations,
+                             TenantBulkheads bulkheads,
+                             OutputFilters outputFilters) {
         this.chatModel = chatModel;
+        this.promptAssembler = promptAssembler;
+        this.promptCacheMetrics = promptCacheMetrics;
+        this.fairQueue = fairQueue;
+        this.deadlineGuard = deadlineGuard;
+        this.toolExecutor = toolExecutor;
+        this.modelRouter = modelRouter;
+        this.tierMetrics = tierMetrics;
+        this.usageLedger = usageLedger;
+        this.observations = observations;
+        this.bulkheads = bulkheads;
+        this.outputFilters = outputFilters;
+    }
+
+    public Mono<String> chat(ChatRequest request) {
+        return Mono.deferContextual(ctx -> {
+            ChatRequestContext context = ChatRequestContext.from(ctx);
+            PromptTemplates.Rendered rendered = promptAssembler.render(request);
+            ModelTier tier = modelRouter.route(promptAssembler.routingView(request, rendered));
+            Prompt prompt = toolExecutor.withTools(modelRouter.apply(tier, promptAssembler.assemble(request, rendered)));
+            KeyValues keyValues = KeyValues.of(
+                    "chat.mode", "blocking",
+                    "chat.tier", tier.name().toLowerCase(Locale.ROOT),
+                    "chat.path", "chat-model");
+
+            return observations.mono(ChatObservations.GENERATION, keyValues, observation -> {
+                Mono<String> upstream = Mono.defer(() -> {
+                    observation.event(ChatObservations.QUEUE_ACQUIRED);
+                    long startNanos = System.nanoTime();
+                    return deadlineGuard.observeResponse(call(prompt, tier, context, 1), content -> !content.isEmpty())
+                            .map(outputFilters::filter)
+                            .doOnSuccess(content -> tierMetrics.recordLatency(tier, "chat",
+                                    Duration.ofNanos(System.nanoTime() - startNanos)));
+                });
+
+                return deadlineGuard.guard(context,
+                        bulkheads.enqueue(context.clientId(), fairQueue.enqueue(context.priority(), upstream)));
+            });
+        });
+    }
+
+    private Mono<String> call(Prompt prompt, ModelTier tier, ChatRequestContext context, int round) {
+        return observations.mono(ChatObservations.UPSTREAM, round(round),
+                        observation -> deadlineGuard.bound(context, Mono.fromCallable(() -> {
+                                    var chatResponse = bulkheads.chatModel(context.clientId(), chatModel).call(prompt);
+                                    promptCacheMetrics.record(chatResponse);
+                                    tierMetrics.recordUsage(tier, chatResponse);
+                                    usageLedger.record(context.clientId(), prompt, chatResponse);
+                                    return chatResponse.getResult().getOutput();
+                                })
+                                .subscribeOn(Schedulers.boundedElastic())))
+                .flatMap(output -> {
+                    if (output.hasToolCalls() && round < toolExecutor.maxRounds()) {
+                        return observations.flux(ChatObservations.TOOL_ROUND, round(round),
+                                        observation -> toolExecutor.execute(output.getToolCalls()))
+                                .filter(ToolEvent::finished)
+                                .collectList()
+                                .flatMap(results -> call(toolExecutor.followUp(prompt, List.of(output), results), tier, context, round + 1));
+                    }
+                    String content = output.getText();
+                    return Mono.just(content != null ? content : "");
+                });
     }
 
-    public Mono<String> chat(String message) {
-        return Mono.fromCallable(() -> {
-            Prompt prompt = new Prompt(message);
-            var chatResponse = chatModel.call(prompt);
-            String content = chatResponse.getResult().getOutput().getText();
-            return content != null ? content : "";
-        }).subscribeOn(Schedulers.boundedElastic());
+    private static KeyValues round(int round) {
+        return KeyValues.of("chat.round", Integer.toString(round));
     }
 }
@@ -0,0 +1,49 @@
+package com.puhovin.springopenai.service;
+
+import com.puhovin.springopenai.dto.EmbeddingsRequest;
+import com.puhovin.springopenai.dto.EmbeddingsResponse;
+import com.puhovin.springopenai.embedding.EmbeddingBatcher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+@Service
+public class OpenAiEmbeddingService {
+
+    private final EmbeddingBatcher batcher;
+
+    public OpenAiEmbeddingService(EmbeddingBatcher batcher) {
+        this.batcher = batcher;
+    }
+
+    public Mono<EmbeddingsResponse> embed(EmbeddingsRequest request) {
+        return batcher.embed(request.input())
+                .map(vectors -> new EmbeddingsResponse(dimensions(vectors), vectors));
+    }
+
+    public Mono<byte[]> embedBinary(EmbeddingsRequest request) {
+        return batcher.embed(request.input()).map(OpenAiEmbeddingService::encodeFloat32);
+    }
+
+    static byte[] encodeFloat32(List<float[]> vectors) {
+        int dimensions = dimensions(vectors);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + vectors.size() * dimensions * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(vectors.size()).putInt(dimensions);
+        for (float[] vector : vectors) {
+            if (vector.length != dimensions) {
+                throw new IllegalStateException("Embedding vectors have different dimensions");
+            }
+            buffer.asFloatBuffer().put(vector);
+            buffer.position(buffer.position() + vector.length * Float.BYTES);
+        }
+        return buffer.array();
+    }
+
+    private static int dimensions(List<float[]> vectors) {
+        return vectors.isEmpty() ? 0 : vectors.get(0).length;
+    }
+}
@@ -0,0 +1,29 @@
+package com.puhovin.springopenai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.dto.JsonFragment;
+import com.puhovin.springopenai.stream.IncrementalJsonParser;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+public class OpenAiJsonStreamService {
+
+    private final OpenAiStreamService streamService;
+    private final ObjectMapper objectMapper;
+
+    public OpenAiJsonStreamService(OpenAiStreamService streamService, ObjectMapper objectMapper) {
+        this.streamService = streamService;
+        this.objectMapper = objectMapper;
+    }
+
+    public Flux<JsonFragment> streamJson(ChatRequest request) {
+        return Flux.defer(() -> {
+            IncrementalJsonParser parser = new IncrementalJsonParser(objectMapper);
+            return streamService.streamChat(request)
+                    .concatMapIterable(parser::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(parser.finish())));
+        });
+    }
+}
@@ -1,24 +1,265 @@
 package com.puhovin.springopenai.service;
 
+import com.puhovin.springopenai.config.StreamProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.metrics.ModelTierMetrics;
+import com.puhovin.springopenai.metrics.PromptCacheMetrics;
+import com.puhovin.springopenai.metrics.StreamMetrics;
+import com.puhovin.springopenai.output.OutputFilters;
+import com.puhovin.springopenai.prompt.PromptAssembler;
+import com.puhovin.springopenai.prompt.PromptTemplates;
+import com.puhovin.springopenai.routing.ModelRouter;
+import com.puhovin.springopenai.routing.ModelTier;
+import com.puhovin.springopenai.stream.ActiveStreamRegistry;
+import com.puhovin.springopenai.stream.ChatStreamEvent;
+import com.puhovin.springopenai.stream.StreamDrainedException;
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import com.puhovin.springopenai.tool.ToolEvent;
+import com.puhovin.springopenai.tool.ToolExecutor;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import com.puhovin.springopenai.upstream.CancellationTracker;
+import com.puhovin.springopenai.upstream.CompletionChunk;
+import com.puhovin.springopenai.upstream.DeadlineGuard;
+import com.puhovin.springopenai.upstream.DirectCompletionStreamClient;
+import com.puhovin.springopenai.upstream.WeightedFairQueue;
+import com.puhovin.springopenai.usage.UsageLedger;
+import io.micrometer.common.KeyValues;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 public class OpenAiStreamService {
 
-    private final OpenAiChatModel chatModel;
+    private final ChatModel chatModel;
+    private final DirectCompletionStreamClient directClient;
+    private final PromptAssembler promptAssembler;
+    private final PromptCacheMetrics promptCacheMetrics;
+    private final StreamMetrics streamMetrics;
+    private final CancellationTracker cancellationTracker;
+    private final WeightedFairQueue fairQueue;
+    private final DeadlineGuard deadlineGuard;
+    private final ToolExecutor toolExecutor;
+    private final ModelRouter modelRouter;
+    private final ModelTierMetrics tierMetrics;
+    private final ActiveStreamRegistry activeStreams;
+    private final UsageLedger usageLedger;
+    private final ChatObservations observations;
+    private final TenantBulkheads bulkheads;
+    private final OutputFilters outputFilters;
+    private final boolean directEnabled;
 
-    public OpenAiStreamService(OpenAiChatModel chatModel) {
+    public OpenAiStreamService(ChatModel chatModel,
+                               DirectCompletionStreamClient directClient,
+                               PromptAssembler promptAssembler,
+                               PromptCacheMetrics promptCacheMetrics,
+                               StreamMetrics streamMetrics,
+                               CancellationTracker cancellationTracker,
+                               WeightedFairQueue fairQueue,
+                               DeadlineGuard deadlineGuard,
+                               ToolExecutor toolExecutor,
+                               ModelRouter modelRouter,
+                               ModelTierMetrics tierMetrics,
+                               ActiveStreamRegistry activeStreams,
+                               UsageLedger usageLedger,
+                               ChatObservations observations,
+                               TenantBulkheads bulkheads,
+                               OutputFilters outputFilters,
+                               StreamProperties streamProperties) {
         this.chatModel = chatModel;
+        this.directClient = directClient;
+        this.promptAssembler = promptAssembler;
+        this.promptCacheMetrics = promptCacheMetrics;
+        this.streamMetrics = streamMetrics;
+        this.cancellationTracker = cancellationTracker;
+        this.fairQueue = fairQueue;
+        this.deadlineGuard = deadlineGuard;
+        this.toolExecutor = toolExecutor;
+        this.modelRouter = modelRouter;
+        this.tierMetrics = tierMetrics;
+        this.activeStreams = activeStreams;
+        this.usageLedger = usageLedger;
+        this.observations = observations;
+        this.bulkheads = bulkheads;
+        this.outputFilters = outputFilters;
+        this.directEnabled = streamProperties.directEnabled();
+    }
+
+    public Flux<String> streamChat(ChatRequest request) {
+        return streamEvents(request)
+                .<String>handle((event, sink) -> {
+                    if (event instanceof ChatStreamEvent.Text text) {
+                        sink.next(text.content());
+                    } else if (event instanceof ChatStreamEvent.Reconnect reconnect) {
+                        sink.error(new StreamDrainedException(reconnect.retryAfter()));
+                    }
+                });
+    }
+
+    public Flux<ChatStreamEvent> streamEvents(ChatRequest request) {
+        return Flux.deferContextual(ctx -> {
+            ChatRequestContext context = ChatRequestContext.from(ctx);
+            PromptTemplates.Rendered rendered = promptAssembler.render(request);
+            ModelTier tier = modelRouter.route(promptAssembler.routingView(request, rendered));
+            Prompt prompt = modelRouter.apply(tier, promptAssembler.assemble(request, rendered));
+            long startNanos = System.nanoTime();
+            AtomicBoolean firstToken = new AtomicBoolean();
+            CancellationTracker.Generation generation = cancellationTracker.start();
+            ActiveStreamRegistry.ActiveStream active = activeStreams.register(context.clientId(),
+                    prompt.getOptions() != null ? prompt.getOptions().getModel() : null);
+
+            boolean direct = directEnabled && !toolExecutor.hasTools() && !bulkheads.dedicated(context.clientId());
+            KeyValues keyValues = KeyValues.of(
+                    "chat.mode", "stream",
+                    "chat.tier", tier.name().toLowerCase(Locale.ROOT),
+                    "chat.path", direct ? "direct" : "chat-model");
+
+            return observations.flux(ChatObservations.GENERATION, keyValues, observation -> {
+                Flux<ChatStreamEvent> upstream = Flux.defer(() -> {
+                    observation.event(ChatObservations.QUEUE_ACQUIRED);
+                    active.state(ActiveStreamRegistry.UpstreamState.STREAMING);
+                    Flux<ChatStreamEvent> events = direct
+                            ? streamDirect(prompt, tier, context.clientId(), generation).map(ChatStreamEvent.Text::new)
+                            : streamChatResponses(toolExecutor.withTools(prompt), tier, context.clientId(), generation, 1);
+                    return deadlineGuard.observeFirstContent(events,
+                            event -> event instanceof ChatStreamEvent.Text text && !text.content().isEmpty());
+                }).doOnNext(event -> {
+                    if (event instanceof ChatStreamEvent.Text) {
+                        active.state(ActiveStreamRegistry.UpstreamState.STREAMING);
+                    } else {
+                        active.state(ActiveStreamRegistry.UpstreamState.RUNNING_TOOLS);
+                    }
+                });
+
+                return outputFilters.apply(deadlineGuard.guard(context,
+                                        bulkheads.enqueue(context.clientId(), fairQueue.enqueue(context.priority(), upstream)))
+                                .takeUntilOther(active.cancelled()))
+                        .doOnNext(event -> {
+                            if (event instanceof ChatStreamEvent.Text text && !text.content().isEmpty()) {
+                                active.received();
+                            }
+                        })
+                        .concatWith(Mono.fromSupplier(() -> active.reconnectDelay() != null
+                                ? new ChatStreamEvent.Reconnect(active.reconnectDelay())
+                                : null))
+                        .filter(event -> !(event instanceof ChatStreamEvent.Text text) || !text.content().isEmpty())
+                        .doOnNext(event -> {
+                            if (event instanceof ChatStreamEvent.Text text) {
+                                if (firstToken.compareAndSet(false, true)) {
+                                    Duration ttft = Duration.ofNanos(System.nanoTime() - startNanos);
+                                    promptCacheMetrics.recordTimeToFirstToken(ttft);
+                                    tierMetrics.recordTimeToFirstToken(tier, ttft);
+                                    observation.event(ChatObservations.FIRST_TOKEN);
+                                }
+                                generation.emitted(text.content());
+                                active.sent(text.content());
+                            }
+                        })
+                        .doOnComplete(() -> tierMetrics.recordLatency(tier, "stream",
+                                Duration.ofNanos(System.nanoTime() - startNanos)))
+                        .doOnCancel(generation::clientCancelled)
+                        .doFinally(signal -> active.close());
+            });
+        });
     }
 
-    public Flux<String> streamChat(String message) {
-        Prompt prompt = new Prompt(message);
+    private Flux<ChatStreamEvent> streamChatResponses(Prompt prompt,
+                                                      ModelTier tier,
+                                                      String clientId,
+                                                      CancellationTracker.Generation generation,
+                                                      int round) {
+        List<AssistantMessage> toolCallMessages = new ArrayList<>(1);
+        Flux<ChatStreamEvent> text = observations.flux(ChatObservations.UPSTREAM, round(round),
+                        observation -> bulkheads.chatModel(clientId, chatModel).stream(prompt))
+                .doFinally(generation::upstreamTerminated)
+                .doOnNext(chatResponse -> recordCompletion(prompt, chatResponse, tier, clientId))
+                .mapNotNull(chatResponse -> {
+                    if (chatResponse.getResult() == null) {
+                        return null;
+                    }
+                    AssistantMessage output = chatResponse.getResult().getOutput();
+                    if (output.hasToolCalls()) {
+                        toolCallMessages.add(output);
+                    }
+                    return output.getText() != null ? new ChatStreamEvent.Text(output.getText()) : null;
+                });
+        return text.concatWith(Flux.defer(() -> toolCallMessages.isEmpty() || round >= toolExecutor.maxRounds()
+                ? Flux.empty()
+                : runTools(prompt, tier, clientId, toolCallMessages, generation, round)));
+    }
+
+    private Flux<ChatStreamEvent> runTools(Prompt prompt,
+                                           ModelTier tier,
+                                           String clientId,
+                                           List<AssistantMessage> toolCallMessages,
+                                           CancellationTracker.Generation generation,
+                                           int round) {
+        List<AssistantMessage.ToolCall> calls = toolCallMessages.stream()
+                .flatMap(message -> message.getToolCalls().stream())
+                .toList();
+        List<ToolEvent> results = new ArrayList<>(calls.size());
+        return observations.flux(ChatObservations.TOOL_ROUND, round(round),
+                        observation -> toolExecutor.execute(calls))
+                .doOnNext(event -> {
+                    if (event.finished()) {
+                        results.add(event);
+                    }
+                })
+                .<ChatStreamEvent>map(ChatStreamEvent.Tool::new)
+                .concatWith(Flux.defer(() -> streamChatResponses(
+                        toolExecutor.followUp(prompt, toolCallMessages, results), tier, clientId, generation, round + 1)));
+    }
+
+    private Flux<String> streamDirect(Prompt prompt,
+                                      ModelTier tier,
+                                      String clientId,
+                                      CancellationTracker.Generation generation) {
+        return observations.flux(ChatObservations.UPSTREAM, round(1), observation -> directClient.stream(prompt))
+                .doFinally(generation::upstreamTerminated)
+                .doOnNext(chunk -> {
+                    if (chunk.hasUsage()) {
+                        int completionTokens = chunk.completionTokens() != null ? chunk.completionTokens() : 0;
+                        int cachedTokens = chunk.cachedTokens() != null ? chunk.cachedTokens() : 0;
+                        promptCacheMetrics.record(chunk.promptTokens(), cachedTokens);
+                        cancellationTracker.recordCompletion(completionTokens);
+                        tierMetrics.recordUsage(tier, chunk.promptTokens(), completionTokens);
+                        usageLedger.record(clientId, prompt, chunk.promptTokens(), cachedTokens, completionTokens);
+                    }
+                    streamMetrics.recordFinishReason(chunk.finishReason(), "direct");
+                })
+                .mapNotNull(CompletionChunk::content);
+    }
+
+    private void recordCompletion(Prompt prompt, ChatResponse chatResponse, ModelTier tier, String clientId) {
+        promptCacheMetrics.record(chatResponse);
+        tierMetrics.recordUsage(tier, chatResponse);
+        usageLedger.record(clientId, prompt, chatResponse);
+        if (chatResponse.getMetadata() != null) {
+            Usage usage = chatResponse.getMetadata().getUsage();
+            if (usage != null && usage.getCompletionTokens() != null) {
+                cancellationTracker.recordCompletion(usage.getCompletionTokens());
+            }
+        }
+        Generation generation = chatResponse.getResult();
+        if (generation != null && generation.getMetadata() != null) {
+            streamMetrics.recordFinishReason(generation.getMetadata().getFinishReason(), "chat-model");
+        }
+    }
 
-        return chatModel.stream(prompt)
-                .mapNotNull(chatResponse -> chatResponse.getResult().getOutput().getText())
-                .filter(content -> content != null && !content.isEmpty());
+    private static KeyValues round(int round) {
+        return KeyValues.of("chat.round", Integer.toString(round));
     }
 }
@@ -0,0 +1,200 @@
+package com.puhovin.springopenai.stream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks every open chat stream so operators can inspect and cancel them. Registration happens
+ * once per stream; the per-chunk path only touches the stream's own counters, each of which has a
+ * single writer (Reactor serializes {@code onNext}), so they are published with release stores
+ * instead of read-modify-write atomics.
+ */
+@Component
+public class ActiveStreamRegistry {
+
+    private final Map<String, ActiveStream> streams = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Clock clock;
+    private final String defaultModel;
+    private final Counter operatorCancelled;
+    private volatile boolean draining;
+
+    public ActiveStreamRegistry(MeterRegistry meterRegistry,
+                                Clock clock,
+                                @Value("${spring.ai.openai.chat.options.model:}") String defaultModel) {
+        this.clock = clock;
+        this.defaultModel = defaultModel;
+        Gauge.builder("chat.stream.active", streams, Map::size)
+                .description("Chat streams currently open")
+                .register(meterRegistry);
+        this.operatorCancelled = Counter.builder("chat.stream.operator.cancelled")
+                .description("Chat streams cancelled through the streams endpoint")
+                .register(meterRegistry);
+    }
+
+    public ActiveStream register(String clientId, String model) {
+        if (draining) {
+            throw new DrainingException();
+        }
+        String id = Long.toString(sequence.incrementAndGet(), 36);
+        ActiveStream stream = new ActiveStream(id, clientId,
+                model != null && !model.isBlank() ? model : defaultModel, clock.instant());
+        streams.put(id, stream);
+        return stream;
+    }
+
+    public int size() {
+        return streams.size();
+    }
+
+    public List<ActiveStreamSnapshot> list() {
+        return streams.values().stream()
+                .map(ActiveStream::snapshot)
+                .sorted(Comparator.comparing(ActiveStreamSnapshot::startedAt))
+                .toList();
+    }
+
+    public Optional<ActiveStreamSnapshot> get(String id) {
+        return Optional.ofNullable(streams.get(id)).map(ActiveStream::snapshot);
+    }
+
+    public boolean cancel(String id) {
+        ActiveStream stream = streams.get(id);
+        return stream != null && cancel(stream);
+    }
+
+    public int cancelClient(String clientId) {
+        int cancelled = 0;
+        for (ActiveStream stream : streams.values()) {
+            if (stream.clientId.equals(clientId) && cancel(stream)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    public void startDraining() {
+        draining = true;
+    }
+
+    public boolean draining() {
+        return draining;
+    }
+
+    public int drainAll(Duration reconnectDelay) {
+        int drained = 0;
+        for (ActiveStream stream : streams.values()) {
+            stream.reconnectDelay = reconnectDelay;
+            if (stream.cancelSignal.tryEmitEmpty().isSuccess()) {
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    private boolean cancel(ActiveStream stream) {
+        boolean cancelled = stream.cancelSignal.tryEmitEmpty().isSuccess();
+        if (cancelled) {
+            operatorCancelled.increment();
+        }
+        return cancelled;
+    }
+
+    public enum UpstreamState {
+        QUEUED,
+        STREAMING,
+        RUNNING_TOOLS
+    }
+
+    public final class ActiveStream {
+
+        private final String id;
+        private final String clientId;
+        private final String model;
+        private final Instant startedAt;
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicLong chunksSent = new AtomicLong();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final Sinks.Empty<Void> cancelSignal = Sinks.empty();
+        private volatile UpstreamState state = UpstreamState.QUEUED;
+        private volatile Duration reconnectDelay;
+
+        private ActiveStream(String id, String clientId, String model, Instant startedAt) {
+            this.id = id;
+            this.clientId = clientId;
+            this.model = model;
+            this.startedAt = startedAt;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public void received() {
+            received.setRelease(received.getPlain() + 1);
+        }
+
+        public void sent(String content) {
+            chunksSent.setRelease(chunksSent.getPlain() + 1);
+            bytesSent.setRelease(bytesSent.getPlain() + utf8Length(content));
+        }
+
+        public void state(UpstreamState state) {
+            if (this.state != state) {
+                this.state = state;
+            }
+        }
+
+        public Mono<Void> cancelled() {
+            return cancelSignal.asMono();
+        }
+
+        public Duration reconnectDelay() {
+            return reconnectDelay;
+        }
+
+        public void close() {
+            streams.remove(id, this);
+        }
+
+        ActiveStreamSnapshot snapshot() {
+            long sent = chunksSent.getAcquire();
+            return new ActiveStreamSnapshot(id, clientId, model, startedAt, sent, bytesSent.getAcquire(),
+                    Math.max(0, received.getAcquire() - sent), state);
+        }
+    }
+
+    static int utf8Length(String text) {
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,14 @@
+package com.puhovin.springopenai.stream;
+
+import java.time.Instant;
+
+public record ActiveStreamSnapshot(
+        String id,
+        String client,
+        String model,
+        Instant startedAt,
+        long chunksSent,
+        long bytesSent,
+        long bufferDepth,
+        ActiveStreamRegistry.UpstreamState upstreamState
+) {}
@@ -0,0 +1,14 @@
+package com.puhovin.springopenai.stream;
+
+import com.puhovin.springopenai.tool.ToolEvent;
+
+import java.time.Duration;
+
+public sealed interface ChatStreamEvent {
+
+    record Text(String content) implements ChatStreamEvent {}
+
+    record Tool(ToolEvent event) implements ChatStreamEvent {}
+
+    record Reconnect(Duration retryAfter) implements ChatStreamEvent {}
+}
@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class DrainingException extends ResponseStatusException {
+
+    public DrainingException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Instance is shutting down and accepts no new streams");
+    }
+}
@@ -0,0 +1,195 @@
+package com.puhovin.springopenai.stream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.puhovin.springopenai.dto.JsonFragment;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Resumable parser for a JSON document that arrives as model tokens. Top-level fields are
+ * emitted as soon as they close, and top-level arrays (the root array or an array field of the
+ * root object) are emitted element by element, or as one empty array fragment when they have no
+ * elements. Text before the first {@code {} or {@code [}, such as a Markdown code fence, and
+ * anything after the root value are ignored. Not thread-safe.
+ */
+public final class IncrementalJsonParser {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<Container> containers = new ArrayDeque<>();
+    private boolean started;
+    private boolean finished;
+    private TokenBuffer capture;
+    private String capturePath;
+    private int captureDepth;
+
+    public IncrementalJsonParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot create non-blocking JSON parser", ex);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public List<JsonFragment> feed(String chunk) {
+        if (finished || chunk.isEmpty()) {
+            return List.of();
+        }
+        String input = chunk;
+        if (!started) {
+            int rootStart = indexOfRootStart(chunk);
+            if (rootStart < 0) {
+                return List.of();
+            }
+            started = true;
+            input = chunk.substring(rootStart);
+        }
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        List<JsonFragment> fragments = new ArrayList<>(2);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain(fragments);
+        } catch (IOException ex) {
+            throw invalid(ex.getOriginalMessage());
+        }
+        return fragments;
+    }
+
+    public List<JsonFragment> finish() {
+        if (finished) {
+            return List.of();
+        }
+        if (!started) {
+            throw invalid("model output contains no JSON value");
+        }
+        List<JsonFragment> fragments = new ArrayList<>(1);
+        try {
+            feeder.endOfInput();
+            drain(fragments);
+        } catch (IOException ex) {
+            throw invalid(ex.getOriginalMessage());
+        }
+        if (!finished) {
+            throw invalid("model output ended before the JSON value was complete");
+        }
+        return fragments;
+    }
+
+    private void drain(List<JsonFragment> fragments) throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token, fragments);
+        }
+    }
+
+    private void handle(JsonToken token, List<JsonFragment> fragments) throws IOException {
+        if (capture != null) {
+            capture.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                captureDepth++;
+            } else if (token.isStructEnd() && --captureDepth == 0) {
+                completeCapture(fragments);
+            }
+            return;
+        }
+        if (token == JsonToken.FIELD_NAME) {
+            containers.peek().fieldName = parser.currentName();
+            return;
+        }
+        if (token.isStructEnd()) {
+            Container closed = containers.pop();
+            if (closed.array && closed.index == 0) {
+                fragments.add(new JsonFragment(closed.path, objectMapper.createArrayNode()));
+            }
+            finished = containers.isEmpty();
+            return;
+        }
+        if (shouldCapture(token)) {
+            capture = new TokenBuffer(objectMapper, false);
+            capturePath = currentPath();
+            capture.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                captureDepth = 1;
+            } else {
+                completeCapture(fragments);
+            }
+            return;
+        }
+        containers.push(new Container(token == JsonToken.START_ARRAY, currentPath()));
+    }
+
+    private boolean shouldCapture(JsonToken token) {
+        if (containers.isEmpty()) {
+            return token.isScalarValue();
+        }
+        Container parent = containers.peek();
+        if (containers.size() == 1) {
+            return parent.array || token != JsonToken.START_ARRAY;
+        }
+        return true;
+    }
+
+    private void completeCapture(List<JsonFragment> fragments) throws IOException {
+        JsonNode value = objectMapper.readTree(capture.asParser());
+        fragments.add(new JsonFragment(capturePath, value));
+        capture = null;
+        capturePath = null;
+        Container parent = containers.peek();
+        if (parent == null) {
+            finished = true;
+        } else if (parent.array) {
+            parent.index++;
+        }
+    }
+
+    private String currentPath() {
+        Container parent = containers.peek();
+        if (parent == null) {
+            return "$";
+        }
+        return parent.array
+                ? parent.path + "[" + parent.index + "]"
+                : parent.path + "." + parent.fieldName;
+    }
+
+    private static int indexOfRootStart(String chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (c == '{' || c == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ResponseStatusException invalid(String detail) {
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Model output is not valid JSON: " + detail);
+    }
+
+    private static final class Container {
+        private final boolean array;
+        private final String path;
+        private String fieldName;
+        private int index;
+
+        private Container(boolean array, String path) {
+            this.array = array;
+            this.path = path;
+        }
+    }
+}
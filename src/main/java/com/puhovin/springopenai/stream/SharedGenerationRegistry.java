@@ -0,0 +1,143 @@
+package com.puhovin.springopenai.stream;
+
+import com.puhovin.springopenai.config.BroadcastProperties;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.service.OpenAiStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one upstream generation per stream id and fans it out to every attached viewer. Viewers
+ * read from a bounded replay buffer at their own pace; a viewer that falls more than
+ * {@code subscriber-buffer} chunks behind is disconnected instead of slowing the others.
+ */
+@Component
+public class SharedGenerationRegistry {
+
+    private final OpenAiStreamService streamService;
+    private final BroadcastProperties properties;
+    private final Scheduler scheduler;
+    private final Map<String, SharedGeneration> generations = new ConcurrentHashMap<>();
+    private final AtomicInteger viewers = new AtomicInteger();
+    private final Counter droppedViewers;
+
+    public SharedGenerationRegistry(OpenAiStreamService streamService,
+                                    BroadcastProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.streamService = streamService;
+        this.properties = properties;
+        this.scheduler = Schedulers.parallel();
+        Gauge.builder("chat.broadcast.active", generations, Map::size)
+                .description("Shared generations that can still be attached to")
+                .register(meterRegistry);
+        Gauge.builder("chat.broadcast.viewers", viewers, AtomicInteger::get)
+                .description("Viewers attached to shared generations")
+                .register(meterRegistry);
+        this.droppedViewers = Counter.builder("chat.broadcast.viewers.dropped")
+                .description("Viewers disconnected for falling too far behind a shared generation")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> start(ChatRequest request) {
+        return Mono.deferContextual(ctx -> {
+            if (generations.size() >= properties.maxActive()) {
+                return Mono.error(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Too many active shared generations"));
+            }
+            SharedGeneration generation = new SharedGeneration(UUID.randomUUID().toString());
+            generations.put(generation.id, generation);
+            generation.connect(streamService.streamChat(request).contextWrite(Context.of(ctx)));
+            return Mono.just(generation.id);
+        });
+    }
+
+    public Flux<StreamChunk> attach(String streamId) {
+        SharedGeneration generation = generations.get(streamId);
+        if (generation == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown stream id " + streamId));
+        }
+        return generation.attach();
+    }
+
+    private final class SharedGeneration {
+        private final String id;
+        private final Sinks.Many<StreamChunk> sink = Sinks.many().replay().limit(properties.replayLimit());
+        private final Disposable.Swap upstream = Disposables.swap();
+        private final Disposable.Swap idleTimer = Disposables.swap();
+        private final AtomicInteger subscribers = new AtomicInteger();
+        private long nextIndex;
+        private volatile boolean terminated;
+
+        private SharedGeneration(String id) {
+            this.id = id;
+        }
+
+        private void connect(Flux<String> source) {
+            scheduleIdleCheck();
+            upstream.update(source.subscribe(
+                    text -> sink.tryEmitNext(new StreamChunk(nextIndex++, text)),
+                    error -> {
+                        sink.tryEmitError(error);
+                        terminate();
+                    },
+                    () -> {
+                        sink.tryEmitComplete();
+                        terminate();
+                    }));
+        }
+
+        private Flux<StreamChunk> attach() {
+            return sink.asFlux()
+                    .onBackpressureBuffer(properties.subscriberBuffer())
+                    .doOnError(Exceptions::isOverflow, error -> droppedViewers.increment())
+                    .doOnSubscribe(subscription -> {
+                        subscribers.incrementAndGet();
+                        viewers.incrementAndGet();
+                        idleTimer.update(Disposables.disposed());
+                    })
+                    .doFinally(signal -> {
+                        viewers.decrementAndGet();
+                        if (subscribers.decrementAndGet() == 0 && !terminated) {
+                            scheduleIdleCheck();
+                        }
+                    });
+        }
+
+        private void scheduleIdleCheck() {
+            idleTimer.update(scheduler.schedule(() -> {
+                if (subscribers.get() == 0 && !terminated) {
+                    upstream.dispose();
+                    sink.tryEmitError(new ResponseStatusException(HttpStatus.GONE,
+                            "Shared generation " + id + " was abandoned by all viewers"));
+                    terminate();
+                }
+            }, properties.idleTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        }
+
+        private void terminate() {
+            terminated = true;
+            idleTimer.dispose();
+            scheduler.schedule(() -> generations.remove(id, this),
+                    properties.retention().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
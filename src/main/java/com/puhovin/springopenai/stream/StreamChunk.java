@@ -0,0 +1,6 @@
+package com.puhovin.springopenai.stream;
+
+public record StreamChunk(
+        long index,
+        String text
+) {}
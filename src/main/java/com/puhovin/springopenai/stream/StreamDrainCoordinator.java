@@ -0,0 +1,109 @@
+package com.puhovin.springopenai.stream;
+
+import com.puhovin.springopenai.config.DrainProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Drains open chat streams when the context shuts down. It stops before the web server's graceful
+ * shutdown phase: readiness flips to refusing traffic, new streams are rejected with 503, and open
+ * streams get {@code chat.drain.grace-period} to finish. Whatever is still running at the deadline
+ * ends with a reconnect event, after which the web server closes the now idle connections.
+ */
+@Component
+public class StreamDrainCoordinator implements SmartLifecycle {
+
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 512;
+
+    private final ActiveStreamRegistry activeStreams;
+    private final DrainProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter finishedStreams;
+    private final Counter interruptedStreams;
+    private final Timer drainDuration;
+    private volatile boolean running;
+
+    public StreamDrainCoordinator(ActiveStreamRegistry activeStreams,
+                                  DrainProperties properties,
+                                  ApplicationEventPublisher eventPublisher,
+                                  MeterRegistry meterRegistry) {
+        this.activeStreams = activeStreams;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        Gauge.builder("chat.drain.active", activeStreams, registry -> registry.draining() ? 1 : 0)
+                .description("1 while open streams are being drained for shutdown")
+                .register(meterRegistry);
+        Gauge.builder("chat.drain.remaining", activeStreams, registry -> registry.draining() ? registry.size() : 0)
+                .description("Streams still open during a drain")
+                .register(meterRegistry);
+        this.finishedStreams = Counter.builder("chat.drain.streams")
+                .description("Streams open when a drain started, by how they ended")
+                .tag("outcome", "finished")
+                .register(meterRegistry);
+        this.interruptedStreams = Counter.builder("chat.drain.streams")
+                .description("Streams open when a drain started, by how they ended")
+                .tag("outcome", "reconnect")
+                .register(meterRegistry);
+        this.drainDuration = Timer.builder("chat.drain.duration")
+                .description("Time from the start of a drain until no stream was left open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drain().block();
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        drain().doFinally(signal -> callback.run()).subscribe();
+    }
+
+    Mono<Void> drain() {
+        if (!running) {
+            return Mono.empty();
+        }
+        running = false;
+        activeStreams.startDraining();
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        int open = activeStreams.size();
+        long startNanos = System.nanoTime();
+        return Flux.interval(Duration.ZERO, properties.pollInterval(), Schedulers.parallel())
+                .filter(tick -> activeStreams.size() == 0)
+                .next()
+                .timeout(properties.gracePeriod(), Mono.empty())
+                .then(Mono.fromRunnable(() -> {
+                    int interrupted = activeStreams.drainAll(properties.reconnectDelay());
+                    interruptedStreams.increment(interrupted);
+                    finishedStreams.increment(Math.max(0, open - interrupted));
+                    drainDuration.record(Duration.ofNanos(System.nanoTime() - startNanos));
+                }));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,21 @@
+package com.puhovin.springopenai.stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+public class StreamDrainedException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public StreamDrainedException(Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE,
+                "Instance is shutting down and cut the stream short, reconnect after " + retryAfter.toSeconds() + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,18 @@
+package com.puhovin.springopenai.tenant;
+
+import com.puhovin.springopenai.config.BulkheadProperties;
+import org.springframework.ai.chat.model.ChatModel;
+import reactor.netty.resources.ConnectionProvider;
+
+public record DedicatedChatModel(
+        BulkheadProperties.Tenant settings,
+        ChatModel chatModel,
+        ConnectionProvider connectionProvider
+) {
+
+    public void close() {
+        if (connectionProvider != null) {
+            connectionProvider.disposeLater().subscribe();
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.puhovin.springopenai.tenant;
+
+import com.puhovin.springopenai.config.BulkheadProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Per-tenant bulkheads in front of the global upstream queue. Every client id gets its own
+ * concurrency cap and FIFO queue, so a tenant with long generations only ever holds its own permits
+ * and, through them, its own share of upstream connections and {@code boundedElastic} threads.
+ * Configured tenants keep their bulkhead; any other client gets one with the default limits that is
+ * retired as soon as it is idle. Requests without a client id all share
+ * {@link ChatRequestContext#ANONYMOUS_CLIENT}, so that id skips the bulkheads and is bounded only by
+ * the global upstream queue unless it is configured as a tenant explicitly. Limits and dedicated
+ * models are re-bound from the environment plus the optional config file by {@link #reload()}, which
+ * runs on demand and whenever the file changes; permits already granted are kept when a cap shrinks.
+ */
+@Component
+public class TenantBulkheads implements SmartLifecycle {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final Environment environment;
+    private final TenantChatModelFactory modelFactory;
+    private final MeterRegistry meterRegistry;
+    private final Path configFile;
+    private final long reloadIntervalNanos;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, DedicatedChatModel> models = new ConcurrentHashMap<>();
+    private final Set<String> meteredTenants = ConcurrentHashMap.newKeySet();
+    private volatile BulkheadProperties properties;
+    private volatile FileTime configFileModified;
+    private Disposable reloads;
+    private boolean running;
+
+    public TenantBulkheads(BulkheadProperties properties,
+                           Environment environment,
+                           TenantChatModelFactory modelFactory,
+                           MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.modelFactory = modelFactory;
+        this.meterRegistry = meterRegistry;
+        this.configFile = properties.reloadsFromFile() ? properties.configFile() : null;
+        this.reloadIntervalNanos = properties.reloadInterval().toNanos();
+        apply(configFile != null ? bind() : properties);
+    }
+
+    public <T> Mono<T> enqueue(String clientId, Mono<T> call) {
+        if (exempt(clientId)) {
+            return call;
+        }
+        return acquire(clientId).flatMap(permit -> call.doFinally(signal -> permit.release()));
+    }
+
+    public <T> Flux<T> enqueue(String clientId, Flux<T> call) {
+        if (exempt(clientId)) {
+            return call;
+        }
+        return acquire(clientId).flatMapMany(permit -> call.doFinally(signal -> permit.release()));
+    }
+
+    public ChatModel chatModel(String clientId, ChatModel fallback) {
+        DedicatedChatModel dedicated = models.get(clientId);
+        return dedicated != null ? dedicated.chatModel() : fallback;
+    }
+
+    public boolean dedicated(String clientId) {
+        return models.containsKey(clientId);
+    }
+
+    public String metricTenant(String clientId) {
+        return properties.tenants().containsKey(clientId) ? clientId : DEFAULT_TENANT;
+    }
+
+    public synchronized List<TenantSnapshot> reload() {
+        apply(bind());
+        meterRegistry.counter("chat.tenant.reloads", "outcome", "applied").increment();
+        return snapshot();
+    }
+
+    public List<TenantSnapshot> snapshot() {
+        BulkheadProperties current = properties;
+        List<TenantSnapshot> snapshots = new ArrayList<>(current.tenants().size() + 1);
+        for (String tenant : current.tenants().keySet()) {
+            snapshots.add(snapshot(tenant, current.limits(tenant)));
+        }
+        snapshots.add(snapshot(DEFAULT_TENANT, current.defaults()));
+        return snapshots;
+    }
+
+    int trackedClients() {
+        return bulkheads.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        if (configFile != null) {
+            reloads = Schedulers.boundedElastic().schedulePeriodically(
+                    this::reloadIfChanged, reloadIntervalNanos, reloadIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (reloads != null) {
+            reloads.dispose();
+            reloads = null;
+        }
+        models.values().forEach(DedicatedChatModel::close);
+        models.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    void reloadIfChanged() {
+        try {
+            FileTime modified = Files.exists(configFile) ? Files.getLastModifiedTime(configFile) : null;
+            if (modified != null && !modified.equals(configFileModified)) {
+                reload();
+            }
+        } catch (IOException | RuntimeException ex) {
+            meterRegistry.counter("chat.tenant.reloads", "outcome", "failed").increment();
+        }
+    }
+
+    private BulkheadProperties bind() {
+        List<ConfigurationPropertySource> sources = new ArrayList<>();
+        if (configFile != null && Files.exists(configFile)) {
+            Properties file = new Properties();
+            try (Reader reader = Files.newBufferedReader(configFile)) {
+                configFileModified = Files.getLastModifiedTime(configFile);
+                file.load(reader);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read tenant config " + configFile, ex);
+            }
+            sources.add(new MapConfigurationPropertySource(file));
+        }
+        ConfigurationPropertySources.get(environment).forEach(sources::add);
+        return new Binder(sources).bindOrCreate(BulkheadProperties.PREFIX, BulkheadProperties.class);
+    }
+
+    private synchronized void apply(BulkheadProperties next) {
+        properties = next;
+        meter(DEFAULT_TENANT);
+        next.tenants().keySet().forEach(this::meter);
+        bulkheads.forEach((clientId, bulkhead) -> bulkhead.resize(next.limits(clientId)));
+
+        next.tenants().forEach((tenant, settings) -> {
+            DedicatedChatModel existing = models.get(tenant);
+            if (!settings.dedicated()) {
+                return;
+            }
+            if (existing == null || !existing.settings().equals(settings)) {
+                models.put(tenant, modelFactory.create(tenant, settings));
+                if (existing != null) {
+                    existing.close();
+                }
+            }
+        });
+        models.entrySet().removeIf(entry -> {
+            BulkheadProperties.Tenant settings = next.tenants().get(entry.getKey());
+            if (settings != null && settings.dedicated()) {
+                return false;
+            }
+            entry.getValue().close();
+            return true;
+        });
+    }
+
+    private boolean exempt(String clientId) {
+        return !properties.enabled()
+                || (ChatRequestContext.ANONYMOUS_CLIENT.equals(clientId) && !properties.tenants().containsKey(clientId));
+    }
+
+    private Mono<Permit> acquire(String clientId) {
+        BulkheadProperties.Limits limits = properties.limits(clientId);
+        String tenant = metricTenant(clientId);
+        Mono<Permit> admission = Mono.create(sink -> {
+            while (true) {
+                Bulkhead bulkhead = bulkheads.computeIfAbsent(clientId, id -> new Bulkhead(id, properties.limits(id)));
+                Waiter waiter = new Waiter(bulkhead, sink);
+                Admission outcome = bulkhead.admit(waiter);
+                if (outcome == Admission.RETIRED) {
+                    bulkheads.remove(clientId, bulkhead);
+                } else if (outcome == Admission.FULL) {
+                    rejected(tenant, "full");
+                    sink.error(new TenantRejectedException(HttpStatus.TOO_MANY_REQUESTS, clientId, "is full"));
+                    return;
+                } else if (outcome == Admission.ADMITTED) {
+                    waiter.grant();
+                    return;
+                } else {
+                    sink.onCancel(waiter::cancel);
+                    return;
+                }
+            }
+        });
+        return admission
+                .timeout(limits.maxQueueWait(), Mono.defer(() -> {
+                    rejected(tenant, "timeout");
+                    return Mono.error(new TenantRejectedException(HttpStatus.SERVICE_UNAVAILABLE, clientId,
+                            "timed out after " + limits.maxQueueWait()));
+                }))
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private void rejected(String tenant, String reason) {
+        Counter.builder("chat.tenant.rejected")
+                .description("Requests rejected by a tenant bulkhead")
+                .tag("tenant", tenant)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void meter(String tenant) {
+        if (!meteredTenants.add(tenant)) {
+            return;
+        }
+        Gauge.builder("chat.tenant.in.flight", this, self -> self.sum(tenant, Bulkhead::inFlight))
+                .description("Upstream calls holding a tenant permit")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        Gauge.builder("chat.tenant.queue.depth", this, self -> self.sum(tenant, Bulkhead::depth))
+                .description("Requests waiting for a tenant permit")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+        Gauge.builder("chat.tenant.saturation", this, self -> self.saturation(tenant))
+                .description("Share of the tenant concurrency cap in use; the busiest client for the default tenant")
+                .tag("tenant", tenant)
+                .register(meterRegistry);
+    }
+
+    private TenantSnapshot snapshot(String tenant, BulkheadProperties.Limits limits) {
+        int clients = 0;
+        for (Map.Entry<String, Bulkhead> entry : bulkheads.entrySet()) {
+            if (metricTenant(entry.getKey()).equals(tenant)) {
+                clients++;
+            }
+        }
+        return new TenantSnapshot(tenant, clients, limits.maxConcurrency(), limits.maxQueueDepth(),
+                (int) sum(tenant, Bulkhead::inFlight), (int) sum(tenant, Bulkhead::depth), saturation(tenant),
+                models.containsKey(tenant));
+    }
+
+    private double sum(String tenant, ToIntFunction<Bulkhead> value) {
+        long total = 0;
+        for (Map.Entry<String, Bulkhead> entry : bulkheads.entrySet()) {
+            if (metricTenant(entry.getKey()).equals(tenant)) {
+                total += value.applyAsInt(entry.getValue());
+            }
+        }
+        return total;
+    }
+
+    private double saturation(String tenant) {
+        double max = 0;
+        for (Map.Entry<String, Bulkhead> entry : bulkheads.entrySet()) {
+            if (metricTenant(entry.getKey()).equals(tenant)) {
+                max = Math.max(max, entry.getValue().saturation());
+            }
+        }
+        return max;
+    }
+
+    private enum Admission {
+        ADMITTED,
+        QUEUED,
+        FULL,
+        RETIRED
+    }
+
+    private final class Bulkhead {
+        private final String clientId;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private BulkheadProperties.Limits limits;
+        private int inFlight;
+        private boolean retired;
+
+        private Bulkhead(String clientId, BulkheadProperties.Limits limits) {
+            this.clientId = clientId;
+            this.limits = limits;
+        }
+
+        private Admission admit(Waiter waiter) {
+            lock.lock();
+            try {
+                if (retired) {
+                    return Admission.RETIRED;
+                }
+                if (inFlight < Math.max(1, limits.maxConcurrency()) && waiters.isEmpty()) {
+                    inFlight++;
+                    return Admission.ADMITTED;
+                }
+                if (waiters.size() >= limits.maxQueueDepth()) {
+                    return Admission.FULL;
+                }
+                waiters.addLast(waiter);
+                return Admission.QUEUED;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release() {
+            List<Waiter> granted = new ArrayList<>(1);
+            boolean retire;
+            lock.lock();
+            try {
+                inFlight--;
+                grantLocked(granted);
+                retire = inFlight == 0 && waiters.isEmpty() && !properties.tenants().containsKey(clientId);
+                retired = retire;
+            } finally {
+                lock.unlock();
+            }
+            granted.forEach(Waiter::grant);
+            if (retire) {
+                bulkheads.remove(clientId, this);
+            }
+        }
+
+        private void resize(BulkheadProperties.Limits next) {
+            List<Waiter> granted = new ArrayList<>();
+            lock.lock();
+            try {
+                limits = next;
+                grantLocked(granted);
+            } finally {
+                lock.unlock();
+            }
+            granted.forEach(Waiter::grant);
+        }
+
+        private void grantLocked(List<Waiter> granted) {
+            while (inFlight < Math.max(1, limits.maxConcurrency())) {
+                Waiter next = waiters.pollFirst();
+                if (next == null) {
+                    break;
+                }
+                inFlight++;
+                granted.add(next);
+            }
+        }
+
+        private void remove(Waiter waiter) {
+            lock.lock();
+            try {
+                waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int inFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int depth() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double saturation() {
+            lock.lock();
+            try {
+                return (double) inFlight / Math.max(1, limits.maxConcurrency());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Bulkhead bulkhead;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAtNanos = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(Bulkhead bulkhead, MonoSink<Permit> sink) {
+            this.bulkhead = bulkhead;
+            this.sink = sink;
+        }
+
+        private void grant() {
+            Permit permit = new Permit(bulkhead);
+            if (state.compareAndSet(WAITING, GRANTED)) {
+                Timer.builder("chat.tenant.queue.time")
+                        .description("Time spent waiting for a tenant permit")
+                        .tag("tenant", metricTenant(bulkhead.clientId))
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - enqueuedAtNanos, TimeUnit.NANOSECONDS);
+                sink.success(permit);
+            } else {
+                permit.release();
+            }
+        }
+
+        private void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                bulkhead.remove(this);
+            }
+        }
+    }
+
+    private static final class Permit {
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.puhovin.springopenai.tenant;
+
+import com.puhovin.springopenai.config.BulkheadProperties;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.ReactorClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Component
+public class TenantChatModelFactory {
+
+    private final OpenAiChatModel defaultModel;
+    private final WebClient.Builder webClientBuilder;
+    private final ObservationRegistry observationRegistry;
+    private final Duration poolDisposeTimeout;
+    private final String baseUrl;
+    private final String apiKey;
+
+    public TenantChatModelFactory(OpenAiChatModel defaultModel,
+                                  WebClient.Builder webClientBuilder,
+                                  ObservationRegistry observationRegistry,
+                                  BulkheadProperties properties,
+                                  @Value("${spring.ai.openai.base-url}") String baseUrl,
+                                  @Value("${spring.ai.openai.api-key}") String apiKey) {
+        this.defaultModel = defaultModel;
+        this.webClientBuilder = webClientBuilder;
+        this.observationRegistry = observationRegistry;
+        this.poolDisposeTimeout = properties.poolDisposeTimeout();
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+    }
+
+    public DedicatedChatModel create(String tenant, BulkheadProperties.Tenant settings) {
+        RestClient.Builder restClient = RestClient.builder();
+        WebClient.Builder webClient = webClientBuilder.clone();
+        ConnectionProvider connectionProvider = null;
+        if (settings.maxConnections() != null) {
+            ConnectionProvider.Builder pool = ConnectionProvider.builder("openai-" + tenant)
+                    .maxConnections(Math.max(1, settings.maxConnections()))
+                    .disposeTimeout(poolDisposeTimeout)
+                    .metrics(true);
+            if (settings.pendingAcquireTimeout() != null) {
+                pool.pendingAcquireTimeout(settings.pendingAcquireTimeout());
+            }
+            connectionProvider = pool.build();
+            HttpClient httpClient = HttpClient.create(connectionProvider);
+            restClient.requestFactory(new ReactorClientHttpRequestFactory(httpClient));
+            webClient.clientConnector(new ReactorClientHttpConnector(httpClient));
+        }
+        OpenAiApi openAiApi = OpenAiApi.builder()
+                .baseUrl(settings.baseUrl() != null && !settings.baseUrl().isBlank() ? settings.baseUrl() : baseUrl)
+                .apiKey(settings.apiKey() != null && !settings.apiKey().isBlank() ? settings.apiKey() : apiKey)
+                .restClientBuilder(restClient)
+                .webClientBuilder(webClient)
+                .build();
+        OpenAiChatModel chatModel = OpenAiChatModel.builder()
+                .openAiApi(openAiApi)
+                .defaultOptions(OpenAiChatOptions.fromOptions((OpenAiChatOptions) defaultModel.getDefaultOptions()))
+                .observationRegistry(observationRegistry)
+                .build();
+        return new DedicatedChatModel(settings, chatModel, connectionProvider);
+    }
+}
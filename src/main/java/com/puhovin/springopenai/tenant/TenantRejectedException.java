@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class TenantRejectedException extends ResponseStatusException {
+
+    public TenantRejectedException(HttpStatus status, String tenant, String reason) {
+        super(status, "Bulkhead for tenant " + tenant + " " + reason);
+    }
+}
@@ -0,0 +1,12 @@
+package com.puhovin.springopenai.tenant;
+
+public record TenantSnapshot(
+        String tenant,
+        int clients,
+        int maxConcurrency,
+        int maxQueueDepth,
+        int inFlight,
+        int queued,
+        double saturation,
+        boolean dedicatedModel
+) {}
@@ -0,0 +1,39 @@
+package com.puhovin.springopenai.tool;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ToolEvent(
+        Stage stage,
+        String callId,
+        String tool,
+        Long elapsedMs,
+        Boolean cached,
+        String error,
+        @JsonIgnore ToolResponseMessage.ToolResponse response
+) {
+
+    public enum Stage {
+        STARTED, COMPLETED, FAILED
+    }
+
+    static ToolEvent started(String callId, String tool) {
+        return new ToolEvent(Stage.STARTED, callId, tool, null, null, null, null);
+    }
+
+    static ToolEvent completed(String callId, String tool, long elapsedMs, boolean cached, String result) {
+        return new ToolEvent(Stage.COMPLETED, callId, tool, elapsedMs, cached, null,
+                new ToolResponseMessage.ToolResponse(callId, tool, result));
+    }
+
+    static ToolEvent failed(String callId, String tool, long elapsedMs, String error, String result) {
+        return new ToolEvent(Stage.FAILED, callId, tool, elapsedMs, null, error,
+                new ToolResponseMessage.ToolResponse(callId, tool, result));
+    }
+
+    public boolean finished() {
+        return stage != Stage.STARTED;
+    }
+}
@@ -0,0 +1,166 @@
+package com.puhovin.springopenai.tool;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.puhovin.springopenai.config.ToolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the tool calls of one model turn concurrently. Every {@link ToolCallback} bean is offered to
+ * the model with Spring AI's internal execution disabled, so that calls from the same turn can be
+ * fanned out here with bounded parallelism, per-tool timeouts and a result cache for tools that
+ * are configured as idempotent. Failures are reported back to the model as tool results instead of
+ * failing the whole request.
+ */
+@Component
+public class ToolExecutor {
+
+    private static final String UNKNOWN_TOOL_TAG = "unknown";
+
+    private final Map<String, ToolCallback> callbacks;
+    private final ToolProperties properties;
+    private final ToolResultCache cache;
+    private final MeterRegistry meterRegistry;
+
+    public ToolExecutor(ObjectProvider<ToolCallback> toolCallbacks,
+                        ToolProperties properties,
+                        MeterRegistry meterRegistry) {
+        Map<String, ToolCallback> byName = new LinkedHashMap<>();
+        toolCallbacks.orderedStream()
+                .forEach(callback -> byName.putIfAbsent(callback.getToolDefinition().name(), callback));
+        this.callbacks = Map.copyOf(byName);
+        this.properties = properties;
+        this.cache = new ToolResultCache(properties.cacheTtl(), properties.cacheMaxEntries());
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean hasTools() {
+        return !callbacks.isEmpty();
+    }
+
+    public int maxRounds() {
+        return properties.maxRounds();
+    }
+
+    public Prompt withTools(Prompt prompt) {
+        if (!hasTools()) {
+            return prompt;
+        }
+        OpenAiChatOptions options = prompt.getOptions() instanceof OpenAiChatOptions existing
+                ? existing.copy()
+                : new OpenAiChatOptions();
+        options.setToolCallbacks(List.copyOf(callbacks.values()));
+        options.setInternalToolExecutionEnabled(false);
+        return new Prompt(prompt.getInstructions(), options);
+    }
+
+    public Prompt followUp(Prompt prompt, List<AssistantMessage> toolCallMessages, List<ToolEvent> results) {
+        List<Message> messages = new ArrayList<>(prompt.getInstructions().size() + toolCallMessages.size() + 1);
+        messages.addAll(prompt.getInstructions());
+        messages.addAll(toolCallMessages);
+        messages.add(responseMessage(toolCallMessages, results));
+        return new Prompt(messages, prompt.getOptions());
+    }
+
+    public Flux<ToolEvent> execute(List<AssistantMessage.ToolCall> calls) {
+        return Flux.fromIterable(calls)
+                .flatMap(this::execute, Math.max(1, properties.maxConcurrency()));
+    }
+
+    private Flux<ToolEvent> execute(AssistantMessage.ToolCall call) {
+        ToolCallback callback = callbacks.get(call.name());
+        if (callback == null) {
+            record(UNKNOWN_TOOL_TAG, "failure", 0);
+            return Flux.just(ToolEvent.failed(call.id(), call.name(), 0, "Unknown tool",
+                    errorResult("Unknown tool: " + call.name())));
+        }
+        boolean idempotent = properties.idempotent(call.name());
+        if (idempotent) {
+            String cached = cache.get(call.name(), call.arguments());
+            if (cached != null) {
+                record(call.name(), "cached", 0);
+                return Flux.just(ToolEvent.completed(call.id(), call.name(), 0, true, cached));
+            }
+        }
+        Duration timeout = properties.timeout(call.name());
+        Mono<ToolEvent> result = Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return Mono.fromCallable(() -> callback.call(call.arguments()))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .timeout(timeout)
+                    .map(output -> {
+                        long elapsedNanos = System.nanoTime() - startNanos;
+                        if (idempotent) {
+                            cache.put(call.name(), call.arguments(), output);
+                        }
+                        record(call.name(), "success", elapsedNanos);
+                        return ToolEvent.completed(call.id(), call.name(), toMillis(elapsedNanos), false, output);
+                    })
+                    .onErrorResume(ex -> {
+                        long elapsedNanos = System.nanoTime() - startNanos;
+                        boolean timedOut = ex instanceof TimeoutException;
+                        String error = timedOut
+                                ? "Timed out after " + timeout.toMillis() + " ms"
+                                : String.valueOf(ex.getMessage());
+                        record(call.name(), timedOut ? "timeout" : "failure", elapsedNanos);
+                        return Mono.just(ToolEvent.failed(call.id(), call.name(), toMillis(elapsedNanos),
+                                error, errorResult(error)));
+                    });
+        });
+        return Flux.concat(Mono.just(ToolEvent.started(call.id(), call.name())), result);
+    }
+
+    private static ToolResponseMessage responseMessage(List<AssistantMessage> toolCallMessages, List<ToolEvent> results) {
+        Map<String, ToolResponseMessage.ToolResponse> byCallId = new HashMap<>();
+        for (ToolEvent result : results) {
+            if (result.response() != null) {
+                byCallId.put(result.callId(), result.response());
+            }
+        }
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(byCallId.size());
+        for (AssistantMessage message : toolCallMessages) {
+            for (AssistantMessage.ToolCall call : message.getToolCalls()) {
+                ToolResponseMessage.ToolResponse response = byCallId.get(call.id());
+                responses.add(response != null
+                        ? response
+                        : new ToolResponseMessage.ToolResponse(call.id(), call.name(), errorResult("No result")));
+            }
+        }
+        return new ToolResponseMessage(responses);
+    }
+
+    private void record(String tool, String outcome, long elapsedNanos) {
+        Timer.builder("chat.tool.execution")
+                .tag("tool", tool)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsedNanos));
+    }
+
+    private static long toMillis(long nanos) {
+        return Duration.ofNanos(nanos).toMillis();
+    }
+
+    private static String errorResult(String error) {
+        return "{\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(error)) + "\"}";
+    }
+}
@@ -0,0 +1,51 @@
+package com.puhovin.springopenai.tool;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class ToolResultCache {
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    ToolResultCache(Duration ttl, int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    String get(String tool, String arguments) {
+        Key key = new Key(tool, arguments);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.result();
+    }
+
+    void put(String tool, String arguments, String result) {
+        if (maxEntries <= 0 || ttlNanos <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(new Key(tool, arguments), new Entry(result, System.nanoTime() + ttlNanos));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Key(String tool, String arguments) {}
+
+    private record Entry(String result, long expiresAtNanos) {}
+}
@@ -0,0 +1,125 @@
+package com.puhovin.springopenai.tracing;
+
+import com.puhovin.springopenai.config.TracingProperties;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Opens the chat pipeline's observations when a publisher is subscribed and closes them on its
+ * terminal signal or cancel, before that signal travels on, so children close ahead of parents.
+ * Observations start while the publisher is assembled at subscription rather than in
+ * {@code doOnSubscribe}, which fires upstream-first and would start children before their parent.
+ * The current observation is kept in the Reactor context under the key the server, WebClient and
+ * Spring AI observations read, so a trace nests as
+ * {@code http.server.requests > chat.request > chat.generation > chat.upstream | chat.tool.round}
+ * with the outbound {@code http.client.requests} and model spans under {@code chat.upstream}.
+ * Elements are counted into a {@link ChunkSummary} instead of getting spans of their own. With
+ * {@code chat.tracing.enabled=false} the publisher is returned untouched.
+ */
+@Component
+public class ChatObservations {
+
+    public static final String REQUEST = "chat.request";
+    public static final String GENERATION = "chat.generation";
+    public static final String UPSTREAM = "chat.upstream";
+    public static final String TOOL_ROUND = "chat.tool.round";
+
+    public static final Observation.Event QUEUE_ACQUIRED = Observation.Event.of("queue.acquired",
+            "Upstream permit granted");
+    public static final Observation.Event FIRST_TOKEN = Observation.Event.of("first.token",
+            "First token sent to the client");
+
+    static final String OUTCOME = "chat.outcome";
+
+    private final ObservationRegistry registry;
+
+    public ChatObservations(ObservationRegistry observationRegistry, TracingProperties properties) {
+        this.registry = properties.enabled() ? observationRegistry : ObservationRegistry.NOOP;
+    }
+
+    public <T> Flux<T> flux(String name, KeyValues lowCardinality, Function<Observation, Flux<T>> body) {
+        if (registry.isNoop()) {
+            return body.apply(Observation.NOOP);
+        }
+        return Flux.deferContextual(ctx -> {
+            Observation observation = start(name, lowCardinality, ctx);
+            ChunkSummary summary = new ChunkSummary(System.nanoTime());
+            AtomicBoolean stopped = new AtomicBoolean();
+            Flux<T> observed;
+            try {
+                observed = body.apply(observation);
+            } catch (RuntimeException ex) {
+                fail(observation, summary, stopped, ex);
+                throw ex;
+            }
+            return observed
+                    .doOnNext(element -> summary.chunk(System.nanoTime()))
+                    .doOnComplete(() -> stop(observation, summary, stopped, SignalType.ON_COMPLETE))
+                    .doOnError(error -> fail(observation, summary, stopped, error))
+                    .doOnCancel(() -> stop(observation, summary, stopped, SignalType.CANCEL))
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    public <T> Mono<T> mono(String name, KeyValues lowCardinality, Function<Observation, Mono<T>> body) {
+        if (registry.isNoop()) {
+            return body.apply(Observation.NOOP);
+        }
+        return Mono.deferContextual(ctx -> {
+            Observation observation = start(name, lowCardinality, ctx);
+            AtomicBoolean stopped = new AtomicBoolean();
+            Mono<T> observed;
+            try {
+                observed = body.apply(observation);
+            } catch (RuntimeException ex) {
+                fail(observation, null, stopped, ex);
+                throw ex;
+            }
+            return observed
+                    .doOnSuccess(value -> stop(observation, null, stopped, SignalType.ON_COMPLETE))
+                    .doOnError(error -> fail(observation, null, stopped, error))
+                    .doOnCancel(() -> stop(observation, null, stopped, SignalType.CANCEL))
+                    .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    private Observation start(String name, KeyValues lowCardinality, ContextView ctx) {
+        Observation parent = ctx.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        return Observation.createNotStarted(name, registry)
+                .parentObservation(parent)
+                .lowCardinalityKeyValues(lowCardinality)
+                .start();
+    }
+
+    private static void fail(Observation observation, ChunkSummary summary, AtomicBoolean stopped, Throwable error) {
+        if (!stopped.get()) {
+            observation.error(error);
+        }
+        stop(observation, summary, stopped, SignalType.ON_ERROR);
+    }
+
+    private static void stop(Observation observation, ChunkSummary summary, AtomicBoolean stopped, SignalType signal) {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        if (summary != null) {
+            observation.highCardinalityKeyValues(summary.keyValues());
+        }
+        observation.lowCardinalityKeyValue(OUTCOME, switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "completed";
+        });
+        observation.stop();
+    }
+}
@@ -0,0 +1,46 @@
+package com.puhovin.springopenai.tracing;
+
+import io.micrometer.common.KeyValues;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds the elements of an observed stream into a handful of key values so a streamed answer costs
+ * one span rather than one per chunk. Updated only from {@code onNext}, which Reactor serializes.
+ */
+final class ChunkSummary {
+
+    static final String CHUNKS = "chat.chunks";
+    static final String FIRST_CHUNK = "chat.first.chunk.ms";
+    static final String MAX_GAP = "chat.max.chunk.gap.ms";
+
+    private final long startNanos;
+    private long firstNanos;
+    private long lastNanos;
+    private long maxGapNanos;
+    private long chunks;
+
+    ChunkSummary(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    void chunk(long nowNanos) {
+        if (chunks == 0) {
+            firstNanos = nowNanos;
+        } else {
+            maxGapNanos = Math.max(maxGapNanos, nowNanos - lastNanos);
+        }
+        lastNanos = nowNanos;
+        chunks++;
+    }
+
+    KeyValues keyValues() {
+        if (chunks == 0) {
+            return KeyValues.of(CHUNKS, "0");
+        }
+        return KeyValues.of(
+                CHUNKS, Long.toString(chunks),
+                FIRST_CHUNK, Long.toString(TimeUnit.NANOSECONDS.toMillis(firstNanos - startNanos)),
+                MAX_GAP, Long.toString(TimeUnit.NANOSECONDS.toMillis(maxGapNanos)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.puhovin.springopenai.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.util.List;
+
+/**
+ * Head sampling with a tail fallback. Local roots are sampled by the head sampler; with tail
+ * sampling on, the roots it drops are still recorded (but not sampled) and their local children
+ * follow the parent's recording state, so {@link SlowTraceSpanProcessor} can export the whole trace
+ * once the root turns out to be slow. Remote parents keep their own decision, and with tail sampling
+ * off unsampled traces are dropped outright and cost nothing beyond a non-recording span.
+ */
+public class SlowTraceSampler implements Sampler {
+
+    private final Sampler head;
+    private final boolean tailSampling;
+
+    public SlowTraceSampler(Sampler head, boolean tailSampling) {
+        this.head = head;
+        this.tailSampling = tailSampling;
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext,
+                                       String traceId,
+                                       String name,
+                                       SpanKind spanKind,
+                                       Attributes attributes,
+                                       List<LinkData> parentLinks) {
+        Span parentSpan = Span.fromContext(parentContext);
+        SpanContext parent = parentSpan.getSpanContext();
+        if (parent.isValid()) {
+            if (parent.isSampled()) {
+                return SamplingResult.recordAndSample();
+            }
+            return tailSampling && !parent.isRemote() && parentSpan.isRecording()
+                    ? SamplingResult.recordOnly()
+                    : SamplingResult.drop();
+        }
+        SamplingResult decision = head.shouldSample(parentContext, traceId, name, spanKind, attributes, parentLinks);
+        return tailSampling && decision.getDecision() == SamplingDecision.DROP
+                ? SamplingResult.recordOnly()
+                : decision;
+    }
+
+    @Override
+    public String getDescription() {
+        return "SlowTraceSampler{head=" + head.getDescription() + ", tail=" + tailSampling + "}";
+    }
+}
@@ -0,0 +1,150 @@
+package com.puhovin.springopenai.tracing;
+
+import com.puhovin.springopenai.config.TracingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Tail half of {@link SlowTraceSampler}: buffers the recorded-but-unsampled spans of each trace
+ * until its local root ends, then exports the trace if the root took at least the slow threshold
+ * and drops it otherwise. Sampled spans are left to the regular batch processor. The buffer is
+ * bounded by trace count and spans per trace; entries whose root never ends locally are swept once
+ * they outlive the pending TTL and the buffer is full.
+ */
+public class SlowTraceSpanProcessor implements SpanProcessor {
+
+    private final SpanExporter exporter;
+    private final long thresholdNanos;
+    private final int maxPendingTraces;
+    private final int maxSpansPerTrace;
+    private final long pendingTtlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, PendingTrace> pending = new ConcurrentHashMap<>();
+    private final Counter exported;
+    private final Counter discarded;
+    private final Counter droppedSpans;
+
+    public SlowTraceSpanProcessor(SpanExporter exporter, TracingProperties properties, MeterRegistry meterRegistry) {
+        this(exporter, properties, meterRegistry, System::nanoTime);
+    }
+
+    SlowTraceSpanProcessor(SpanExporter exporter,
+                           TracingProperties properties,
+                           MeterRegistry meterRegistry,
+                           LongSupplier nanoClock) {
+        this.exporter = exporter;
+        this.thresholdNanos = properties.slowThreshold().toNanos();
+        this.maxPendingTraces = Math.max(1, properties.maxPendingTraces());
+        this.maxSpansPerTrace = Math.max(1, properties.maxSpansPerTrace());
+        this.pendingTtlNanos = properties.pendingTraceTtl().toNanos();
+        this.nanoClock = nanoClock;
+        this.exported = Counter.builder("chat.tracing.tail.traces")
+                .description("Unsampled traces exported or dropped by the slow-trace tail sampler")
+                .tag("outcome", "exported")
+                .register(meterRegistry);
+        this.discarded = Counter.builder("chat.tracing.tail.traces")
+                .description("Unsampled traces exported or dropped by the slow-trace tail sampler")
+                .tag("outcome", "discarded")
+                .register(meterRegistry);
+        this.droppedSpans = Counter.builder("chat.tracing.tail.spans.dropped")
+                .description("Spans not buffered because the pending trace buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("chat.tracing.tail.pending", pending, Map::size)
+                .description("Traces waiting for their local root span to end")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onStart(Context parentContext, ReadWriteSpan span) {
+    }
+
+    @Override
+    public boolean isStartRequired() {
+        return false;
+    }
+
+    @Override
+    public void onEnd(ReadableSpan span) {
+        SpanContext spanContext = span.getSpanContext();
+        if (spanContext.isSampled()) {
+            return;
+        }
+        SpanContext parent = span.getParentSpanContext();
+        if (parent.isValid() && !parent.isRemote()) {
+            buffer(spanContext.getTraceId(), span);
+            return;
+        }
+        PendingTrace trace = pending.remove(spanContext.getTraceId());
+        if (span.getLatencyNanos() < thresholdNanos) {
+            discarded.increment();
+            return;
+        }
+        List<SpanData> spans = trace != null ? trace.drain() : new ArrayList<>(1);
+        spans.add(span.toSpanData());
+        exporter.export(spans);
+        exported.increment();
+    }
+
+    @Override
+    public boolean isEndRequired() {
+        return true;
+    }
+
+    int pendingTraces() {
+        return pending.size();
+    }
+
+    private void buffer(String traceId, ReadableSpan span) {
+        PendingTrace trace = pending.get(traceId);
+        if (trace == null) {
+            long now = nanoClock.getAsLong();
+            if (pending.size() >= maxPendingTraces) {
+                pending.values().removeIf(candidate -> now - candidate.createdNanos > pendingTtlNanos);
+                if (pending.size() >= maxPendingTraces) {
+                    droppedSpans.increment();
+                    return;
+                }
+            }
+            trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(now));
+        }
+        if (!trace.add(span.toSpanData(), maxSpansPerTrace)) {
+            droppedSpans.increment();
+        }
+    }
+
+    private static final class PendingTrace {
+
+        private final long createdNanos;
+        private final List<SpanData> spans = new ArrayList<>();
+
+        private PendingTrace(long createdNanos) {
+            this.createdNanos = createdNanos;
+        }
+
+        synchronized boolean add(SpanData span, int limit) {
+            if (spans.size() >= limit) {
+                return false;
+            }
+            spans.add(span);
+            return true;
+        }
+
+        synchronized List<SpanData> drain() {
+            return new ArrayList<>(spans);
+        }
+    }
+}
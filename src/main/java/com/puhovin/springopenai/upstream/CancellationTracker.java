@@ -0,0 +1,84 @@
+package com.puhovin.springopenai.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class CancellationTracker {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final int maxTokens;
+    private final Counter cancelledGenerations;
+    private final Counter tokensAvoided;
+    private final Timer cancelPropagation;
+    private final LongAdder completedGenerations = new LongAdder();
+    private final LongAdder completedTokens = new LongAdder();
+
+    public CancellationTracker(MeterRegistry meterRegistry,
+                               @Value("${spring.ai.openai.chat.options.max-tokens:0}") int maxTokens) {
+        this.maxTokens = maxTokens;
+        this.cancelledGenerations = Counter.builder("chat.stream.cancelled")
+                .description("Generations cancelled because the client went away")
+                .register(meterRegistry);
+        this.tokensAvoided = Counter.builder("chat.stream.cancelled.tokens.avoided")
+                .description("Estimated completion tokens not generated thanks to upstream cancellation")
+                .register(meterRegistry);
+        this.cancelPropagation = Timer.builder("chat.stream.cancelled.propagation")
+                .description("Time from client disconnect until the cancel signal reaches the upstream subscription; connection teardown is not included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public Generation start() {
+        return new Generation();
+    }
+
+    public void recordCompletion(int completionTokens) {
+        if (completionTokens > 0) {
+            completedGenerations.increment();
+            completedTokens.add(completionTokens);
+        }
+    }
+
+    long expectedCompletionTokens() {
+        long generations = completedGenerations.sum();
+        long average = generations > 0 ? completedTokens.sum() / generations : maxTokens;
+        return maxTokens > 0 ? Math.min(average, maxTokens) : average;
+    }
+
+    public final class Generation {
+
+        private final AtomicLong emittedChars = new AtomicLong();
+        private volatile long cancelledAtNanos;
+
+        private Generation() {
+        }
+
+        public void emitted(String content) {
+            emittedChars.addAndGet(content.length());
+        }
+
+        public void clientCancelled() {
+            cancelledAtNanos = System.nanoTime();
+            cancelledGenerations.increment();
+            long emittedTokens = emittedChars.get() / CHARS_PER_TOKEN;
+            tokensAvoided.increment(Math.max(0, expectedCompletionTokens() - emittedTokens));
+        }
+
+        public void upstreamTerminated(SignalType signal) {
+            long cancelledAt = cancelledAtNanos;
+            if (signal == SignalType.CANCEL && cancelledAt != 0) {
+                cancelPropagation.record(System.nanoTime() - cancelledAt, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.puhovin.springopenai.upstream;
+
+public record CompletionChunk(
+        String content,
+        String finishReason,
+        Integer promptTokens,
+        Integer completionTokens,
+        Integer cachedTokens
+) {
+
+    public boolean hasUsage() {
+        return promptTokens != null;
+    }
+}
@@ -0,0 +1,191 @@
+package com.puhovin.springopenai.upstream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decodes {@code chat.completion.chunk} SSE frames straight from the response buffers, pulling out
+ * only the delta content, finish reason and usage with a streaming JSON parser. Not thread-safe:
+ * create one instance per upstream response.
+ */
+public final class CompletionChunkDecoder {
+
+    private static final byte[] DATA_FIELD = {'d', 'a', 't', 'a', ':'};
+    private static final byte[] DONE = {'[', 'D', 'O', 'N', 'E', ']'};
+
+    private final JsonFactory jsonFactory;
+    private byte[] pending = new byte[4096];
+    private int pendingLength;
+    private int scanFrom;
+
+    public CompletionChunkDecoder(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    public List<CompletionChunk> decode(DataBuffer dataBuffer) {
+        try {
+            append(dataBuffer);
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+
+        List<CompletionChunk> chunks = new ArrayList<>(2);
+        int lineStart = 0;
+        for (int i = scanFrom; i < pendingLength; i++) {
+            if (pending[i] == '\n') {
+                int lineEnd = i > lineStart && pending[i - 1] == '\r' ? i - 1 : i;
+                decodeLine(lineStart, lineEnd, chunks);
+                lineStart = i + 1;
+            }
+        }
+        discard(lineStart);
+        return chunks;
+    }
+
+    private void append(DataBuffer dataBuffer) {
+        int readable = dataBuffer.readableByteCount();
+        if (pendingLength + readable > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + readable));
+        }
+        dataBuffer.read(pending, pendingLength, readable);
+        pendingLength += readable;
+    }
+
+    private void discard(int consumed) {
+        if (consumed > 0) {
+            System.arraycopy(pending, consumed, pending, 0, pendingLength - consumed);
+            pendingLength -= consumed;
+        }
+        scanFrom = pendingLength;
+    }
+
+    private void decodeLine(int start, int end, List<CompletionChunk> chunks) {
+        if (!startsWith(start, end, DATA_FIELD)) {
+            return;
+        }
+        int payloadStart = start + DATA_FIELD.length;
+        if (payloadStart < end && pending[payloadStart] == ' ') {
+            payloadStart++;
+        }
+        if (payloadStart == end || startsWith(payloadStart, end, DONE)) {
+            return;
+        }
+        try {
+            CompletionChunk chunk = parse(payloadStart, end - payloadStart);
+            if (chunk != null) {
+                chunks.add(chunk);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Malformed chat.completion.chunk frame", ex);
+        }
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (pending[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CompletionChunk parse(int offset, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(pending, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            ChunkFields fields = new ChunkFields();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(name) && value == JsonToken.START_ARRAY) {
+                    parseChoices(parser, fields);
+                } else if ("usage".equals(name) && value == JsonToken.START_OBJECT) {
+                    parseUsage(parser, fields);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return fields.toChunk();
+        }
+    }
+
+    private static void parseChoices(JsonParser parser, ChunkFields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("delta".equals(name) && value == JsonToken.START_OBJECT) {
+                    parseDelta(parser, fields);
+                } else if ("finish_reason".equals(name) && value == JsonToken.VALUE_STRING) {
+                    fields.finishReason = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    private static void parseDelta(JsonParser parser, ChunkFields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("content".equals(name) && value == JsonToken.VALUE_STRING) {
+                fields.content = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void parseUsage(JsonParser parser, ChunkFields fields) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("prompt_tokens".equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                fields.promptTokens = parser.getIntValue();
+            } else if ("completion_tokens".equals(name) && value == JsonToken.VALUE_NUMBER_INT) {
+                fields.completionTokens = parser.getIntValue();
+            } else if ("prompt_tokens_details".equals(name) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String detail = parser.currentName();
+                    JsonToken detailValue = parser.nextToken();
+                    if ("cached_tokens".equals(detail) && detailValue == JsonToken.VALUE_NUMBER_INT) {
+                        fields.cachedTokens = parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static final class ChunkFields {
+        private String content;
+        private String finishReason;
+        private Integer promptTokens;
+        private Integer completionTokens;
+        private Integer cachedTokens;
+
+        private CompletionChunk toChunk() {
+            if (content == null && finishReason == null && promptTokens == null) {
+                return null;
+            }
+            return new CompletionChunk(content, finishReason, promptTokens, completionTokens, cachedTokens);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.upstream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class DeadlineExceededException extends ResponseStatusException {
+
+    public DeadlineExceededException(String reason) {
+        super(HttpStatus.GATEWAY_TIMEOUT, reason);
+    }
+}
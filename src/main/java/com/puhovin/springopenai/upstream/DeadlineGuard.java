@@ -0,0 +1,167 @@
+package com.puhovin.springopenai.upstream;
+
+import com.puhovin.springopenai.config.DeadlineProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Sheds requests whose remaining budget is below the time the upstream usually needs, and bounds
+ * admitted calls by the deadline. Two estimates are smoothed separately: time to first content for
+ * streams and time to the whole answer for blocking calls. Both are measured from admission, so
+ * time spent in the fair queue or a bulkhead never inflates them, and only chunks with content
+ * stop the stream clock. Shed requests never produce a sample, so an estimate above the initial
+ * value decays back toward it with {@code chat.deadline.estimate-decay-half-life} since the last
+ * sample; otherwise one slow period could keep shedding every deadline below it indefinitely.
+ */
+@Component
+public class DeadlineGuard {
+
+    private final Clock clock;
+    private final double ttftSmoothing;
+    private final long initialNanos;
+    private final long decayHalfLifeMillis;
+    private final Estimate expectedTtft;
+    private final Estimate expectedResponse;
+    private final Counter shed;
+    private final Counter exceeded;
+
+    public DeadlineGuard(DeadlineProperties properties, Clock clock, MeterRegistry meterRegistry) {
+        this.clock = clock;
+        this.ttftSmoothing = properties.ttftSmoothing();
+        this.initialNanos = properties.initialExpectedTtft().toNanos();
+        this.decayHalfLifeMillis = properties.estimateDecayHalfLife().toMillis();
+        this.expectedTtft = new Estimate();
+        this.expectedResponse = new Estimate();
+        this.shed = Counter.builder("chat.deadline.shed")
+                .description("Requests rejected before the upstream call because their budget was below expected TTFT")
+                .register(meterRegistry);
+        this.exceeded = Counter.builder("chat.deadline.exceeded")
+                .description("Requests whose deadline expired while queued or generating")
+                .register(meterRegistry);
+        Gauge.builder("chat.deadline.expected.ttft", expectedTtft, estimate -> estimate.nanos() / 1_000_000.0)
+                .description("Smoothed time to first token used for shedding streams, in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("chat.deadline.expected.response", expectedResponse, estimate -> estimate.nanos() / 1_000_000.0)
+                .description("Smoothed time to a whole blocking answer used for shedding, in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> guard(ChatRequestContext context, Mono<T> call) {
+        if (!context.hasDeadline()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Duration remaining = context.remaining(clock.instant());
+            if (remaining.toNanos() < expectedResponse.nanos()) {
+                return Mono.error(shed(remaining, "response time", expectedResponse()));
+            }
+            return call.timeout(remaining)
+                    .onErrorMap(TimeoutException.class, ex -> exceeded());
+        });
+    }
+
+    public <T> Flux<T> guard(ChatRequestContext context, Flux<T> call) {
+        if (!context.hasDeadline()) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            Duration remaining = context.remaining(clock.instant());
+            if (remaining.toNanos() < expectedTtft.nanos()) {
+                return Flux.error(shed(remaining, "time to first token", expectedTtft()));
+            }
+            return call
+                    .timeout(Mono.delay(remaining), item -> Mono.delay(remainingUntil(context.deadline())))
+                    .onErrorMap(TimeoutException.class, ex -> exceeded());
+        });
+    }
+
+    public <T> Mono<T> bound(ChatRequestContext context, Mono<T> upstream) {
+        if (!context.hasDeadline()) {
+            return upstream;
+        }
+        return Mono.defer(() -> upstream.timeout(remainingUntil(context.deadline())))
+                .onErrorMap(TimeoutException.class, ex -> exceeded());
+    }
+
+    public <T> Mono<T> observeResponse(Mono<T> admitted, Predicate<? super T> hasContent) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return admitted.doOnNext(item -> {
+                if (hasContent.test(item)) {
+                    expectedResponse.observe(System.nanoTime() - startNanos);
+                }
+            });
+        });
+    }
+
+    public <T> Flux<T> observeFirstContent(Flux<T> admitted, Predicate<? super T> hasContent) {
+        return Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicBoolean seen = new AtomicBoolean();
+            return admitted.doOnNext(item -> {
+                if (hasContent.test(item) && seen.compareAndSet(false, true)) {
+                    expectedTtft.observe(System.nanoTime() - startNanos);
+                }
+            });
+        });
+    }
+
+    Duration expectedTtft() {
+        return Duration.ofNanos(expectedTtft.nanos());
+    }
+
+    Duration expectedResponse() {
+        return Duration.ofNanos(expectedResponse.nanos());
+    }
+
+    private Duration remainingUntil(Instant deadline) {
+        Duration remaining = Duration.between(clock.instant(), deadline);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private DeadlineExceededException shed(Duration remaining, String estimate, Duration expected) {
+        shed.increment();
+        return new DeadlineExceededException("Remaining budget " + remaining.toMillis()
+                + "ms is below expected " + estimate + " " + expected.toMillis() + "ms");
+    }
+
+    private DeadlineExceededException exceeded() {
+        exceeded.increment();
+        return new DeadlineExceededException("Request deadline exceeded");
+    }
+
+    private final class Estimate {
+
+        private long smoothedNanos = initialNanos;
+        private long sampledAtMillis = clock.millis();
+
+        synchronized long nanos() {
+            if (smoothedNanos <= initialNanos || decayHalfLifeMillis <= 0) {
+                return smoothedNanos;
+            }
+            long idleMillis = Math.max(0, clock.millis() - sampledAtMillis);
+            double weight = Math.pow(0.5, (double) idleMillis / decayHalfLifeMillis);
+            return initialNanos + (long) ((smoothedNanos - initialNanos) * weight);
+        }
+
+        synchronized void observe(long nanos) {
+            long current = nanos();
+            smoothedNanos = (long) (current + ttftSmoothing * (nanos - current));
+            sampledAtMillis = clock.millis();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.puhovin.springopenai.upstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.puhovin.springopenai.config.StreamProperties;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+
+@Component
+public class DirectCompletionStreamClient {
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final OpenAiChatModel chatModel;
+
+    public DirectCompletionStreamClient(WebClient.Builder webClientBuilder,
+                                        ObjectMapper objectMapper,
+                                        OpenAiChatModel chatModel,
+                                        StreamProperties streamProperties,
+                                        @Value("${spring.ai.openai.base-url}") String baseUrl,
+                                        @Value("${spring.ai.openai.api-key}") String apiKey) {
+        this.webClient = webClientBuilder.clone()
+                .baseUrl(baseUrl + streamProperties.completionsPath())
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .build();
+        this.objectMapper = objectMapper;
+        this.chatModel = chatModel;
+    }
+
+    public Flux<CompletionChunk> stream(Prompt prompt) {
+        return Flux.defer(() -> {
+            CompletionChunkDecoder decoder = new CompletionChunkDecoder(objectMapper.getFactory());
+            return webClient.post()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(requestBody(prompt))
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .concatMapIterable(decoder::decode);
+        });
+    }
+
+    ObjectNode requestBody(Prompt prompt) {
+        ChatOptions defaultOptions = chatModel.getDefaultOptions();
+        ObjectNode body = objectMapper.createObjectNode();
+        ChatOptions promptOptions = prompt.getOptions();
+        body.put("model", promptOptions != null && promptOptions.getModel() != null
+                ? promptOptions.getModel()
+                : defaultOptions.getModel());
+        if (defaultOptions.getTemperature() != null) {
+            body.put("temperature", defaultOptions.getTemperature());
+        }
+        if (defaultOptions.getMaxTokens() != null) {
+            body.put("max_tokens", defaultOptions.getMaxTokens());
+        }
+        body.put("stream", true);
+        body.putObject("stream_options").put("include_usage", true);
+
+        ArrayNode messages = body.putArray("messages");
+        for (Message message : prompt.getInstructions()) {
+            messages.addObject()
+                    .put("role", message.getMessageType().name().toLowerCase(Locale.ROOT))
+                    .put("content", message.getText());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,12 @@
+package com.puhovin.springopenai.upstream;
+
+import com.puhovin.springopenai.context.PriorityClass;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class QueueRejectedException extends ResponseStatusException {
+
+    public QueueRejectedException(HttpStatus status, PriorityClass priority, String reason) {
+        super(status, "Upstream queue for " + priority + " requests " + reason);
+    }
+}
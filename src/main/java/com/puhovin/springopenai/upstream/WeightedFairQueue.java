@@ -0,0 +1,244 @@
+package com.puhovin.springopenai.upstream;
+
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.context.PriorityClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits upstream calls up to a global concurrency limit and, once saturated, dispatches waiting
+ * calls across priority classes by stride scheduling: each class advances its pass by
+ * {@code 1 / weight} per dispatch and the class with the smallest pass goes next.
+ */
+@Component
+public class WeightedFairQueue {
+
+    private static final long STRIDE_UNIT = 1L << 20;
+
+    private final int maxConcurrency;
+    private final Map<PriorityClass, ClassQueue> queues = new EnumMap<>(PriorityClass.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private int inFlight;
+    private long virtualTime;
+
+    public WeightedFairQueue(PriorityProperties properties, MeterRegistry meterRegistry) {
+        this.maxConcurrency = Math.max(1, properties.maxConcurrency());
+        for (PriorityClass priority : PriorityClass.values()) {
+            queues.put(priority, new ClassQueue(priority, properties.limits(priority), meterRegistry));
+        }
+        Gauge.builder("chat.queue.in.flight", this, WeightedFairQueue::inFlight)
+                .description("Upstream calls currently holding a permit")
+                .register(meterRegistry);
+    }
+
+    public <T> Mono<T> enqueue(PriorityClass priority, Mono<T> upstreamCall) {
+        return acquire(priority).flatMap(permit -> upstreamCall.doFinally(signal -> permit.release()));
+    }
+
+    public <T> Flux<T> enqueue(PriorityClass priority, Flux<T> upstreamCall) {
+        return acquire(priority).flatMapMany(permit -> upstreamCall.doFinally(signal -> permit.release()));
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Mono<Permit> acquire(PriorityClass priority) {
+        ClassQueue queue = queues.get(priority);
+        Mono<Permit> admission = Mono.create(sink -> {
+            Waiter waiter = new Waiter(queue, sink);
+            boolean admitted;
+            lock.lock();
+            try {
+                admitted = inFlight < maxConcurrency && allQueuesEmpty();
+                if (admitted) {
+                    inFlight++;
+                } else if (queue.waiters.size() >= queue.limits.maxQueueDepth()) {
+                    queue.rejectedFull.increment();
+                    sink.error(new QueueRejectedException(HttpStatus.TOO_MANY_REQUESTS, priority, "is full"));
+                    return;
+                } else {
+                    if (queue.waiters.isEmpty()) {
+                        queue.pass = Math.max(queue.pass, virtualTime);
+                    }
+                    queue.waiters.addLast(waiter);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (admitted) {
+                waiter.grant();
+            } else {
+                sink.onCancel(waiter::cancel);
+            }
+        });
+        return admission
+                .timeout(queue.limits.maxQueueWait(), Mono.defer(() -> {
+                    queue.rejectedTimeout.increment();
+                    return Mono.error(new QueueRejectedException(HttpStatus.SERVICE_UNAVAILABLE, priority,
+                            "timed out after " + queue.limits.maxQueueWait()));
+                }))
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    private boolean allQueuesEmpty() {
+        for (ClassQueue queue : queues.values()) {
+            if (!queue.waiters.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void release() {
+        List<Waiter> granted = new ArrayList<>(1);
+        lock.lock();
+        try {
+            inFlight--;
+            while (inFlight < maxConcurrency) {
+                Waiter next = pollNext();
+                if (next == null) {
+                    break;
+                }
+                inFlight++;
+                granted.add(next);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Waiter waiter : granted) {
+            waiter.grant();
+        }
+    }
+
+    private Waiter pollNext() {
+        ClassQueue selected = null;
+        for (ClassQueue queue : queues.values()) {
+            if (!queue.waiters.isEmpty() && (selected == null || queue.pass < selected.pass)) {
+                selected = queue;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        virtualTime = selected.pass;
+        selected.pass += selected.stride;
+        return selected.waiters.pollFirst();
+    }
+
+    private void remove(Waiter waiter) {
+        lock.lock();
+        try {
+            waiter.queue.waiters.remove(waiter);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class ClassQueue {
+        private final PriorityProperties.ClassLimits limits;
+        private final long stride;
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private final Timer queueTime;
+        private final Counter rejectedFull;
+        private final Counter rejectedTimeout;
+        private long pass;
+
+        private ClassQueue(PriorityClass priority, PriorityProperties.ClassLimits limits, MeterRegistry meterRegistry) {
+            this.limits = limits;
+            this.stride = STRIDE_UNIT / Math.max(1, limits.weight());
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            this.queueTime = Timer.builder("chat.queue.time")
+                    .description("Time spent waiting for an upstream permit")
+                    .tag("class", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejectedFull = Counter.builder("chat.queue.rejected")
+                    .tag("class", tag)
+                    .tag("reason", "full")
+                    .register(meterRegistry);
+            this.rejectedTimeout = Counter.builder("chat.queue.rejected")
+                    .tag("class", tag)
+                    .tag("reason", "timeout")
+                    .register(meterRegistry);
+            Gauge.builder("chat.queue.depth", this, queue -> queue.depth())
+                    .description("Requests waiting for an upstream permit")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+        }
+
+        private int depth() {
+            lock.lock();
+            try {
+                return waiters.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final ClassQueue queue;
+        private final MonoSink<Permit> sink;
+        private final long enqueuedAtNanos = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(ClassQueue queue, MonoSink<Permit> sink) {
+            this.queue = queue;
+            this.sink = sink;
+        }
+
+        private void grant() {
+            Permit permit = new Permit();
+            if (state.compareAndSet(WAITING, GRANTED)) {
+                queue.queueTime.record(System.nanoTime() - enqueuedAtNanos, TimeUnit.NANOSECONDS);
+                sink.success(permit);
+            } else {
+                permit.release();
+            }
+        }
+
+        private void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                remove(this);
+            }
+        }
+    }
+
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                WeightedFairQueue.this.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.usage;
+
+public record UsageEntry(
+        String client,
+        String model,
+        long calls,
+        long promptTokens,
+        long cachedTokens,
+        long completionTokens,
+        double cost
+) {}
@@ -0,0 +1,261 @@
+package com.puhovin.springopenai.usage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puhovin.springopenai.config.UsageProperties;
+import com.puhovin.springopenai.metrics.PromptCacheMetrics;
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates provider-reported token usage per tenant and model for chargeback. Recording is a
+ * map lookup plus {@link LongAdder} increments, so concurrent streams of the same tenant never
+ * contend on one counter. Cost is derived from the totals at read time using the configured price
+ * table, and totals are snapshotted to {@code chat.usage.snapshot-file} so they survive restarts.
+ * Usage is accounted to the configured tenant of the client, and every unconfigured
+ * {@code X-Client-Id} shares {@link TenantBulkheads#DEFAULT_TENANT}, so arbitrary client ids grow
+ * neither the ledger nor the number of time series. A snapshot that cannot be read or written is
+ * counted and skipped; an unreadable one is moved aside instead of being overwritten.
+ */
+@Component
+public class UsageLedger implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UsageLedger.class);
+    private static final TypeReference<List<UsageEntry>> SNAPSHOT_TYPE = new TypeReference<>() {};
+
+    private final Map<Key, Account> accounts = new ConcurrentHashMap<>();
+    private final UsageProperties properties;
+    private final TenantBulkheads tenants;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final String defaultModel;
+    private Disposable snapshots;
+
+    public UsageLedger(UsageProperties properties,
+                       TenantBulkheads tenants,
+                       MeterRegistry meterRegistry,
+                       ObjectMapper objectMapper,
+                       @Value("${spring.ai.openai.chat.options.model:}") String defaultModel) {
+        this.properties = properties;
+        this.tenants = tenants;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.defaultModel = defaultModel;
+        restore();
+    }
+
+    public void record(String clientId, Prompt prompt, ChatResponse chatResponse) {
+        if (chatResponse == null || chatResponse.getMetadata() == null) {
+            return;
+        }
+        Usage usage = chatResponse.getMetadata().getUsage();
+        if (usage == null) {
+            return;
+        }
+        String model = chatResponse.getMetadata().getModel();
+        record(clientId, model != null && !model.isBlank() ? model : model(prompt),
+                usage.getPromptTokens() != null ? usage.getPromptTokens() : 0,
+                PromptCacheMetrics.cachedTokens(usage),
+                usage.getCompletionTokens() != null ? usage.getCompletionTokens() : 0);
+    }
+
+    public void record(String clientId, Prompt prompt, int promptTokens, int cachedTokens, int completionTokens) {
+        record(clientId, model(prompt), promptTokens, cachedTokens, completionTokens);
+    }
+
+    void record(String clientId, String model, long promptTokens, long cachedTokens, long completionTokens) {
+        if (promptTokens <= 0 && completionTokens <= 0) {
+            return;
+        }
+        add(clientId, model, 1, promptTokens, cachedTokens, completionTokens);
+    }
+
+    public List<UsageEntry> entries() {
+        return accounts.entrySet().stream()
+                .map(entry -> entry.getValue().toEntry(entry.getKey()))
+                .sorted(Comparator.comparing(UsageEntry::client).thenComparing(UsageEntry::model))
+                .toList();
+    }
+
+    public void snapshot() {
+        if (!properties.snapshotsEnabled()) {
+            return;
+        }
+        Path file = properties.snapshotFile();
+        Path temp = null;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "usage", ".tmp");
+            objectMapper.writeValue(temp.toFile(), entries());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            meterRegistry.counter("chat.usage.snapshots", "operation", "write", "outcome", "written").increment();
+        } catch (IOException | RuntimeException ex) {
+            meterRegistry.counter("chat.usage.snapshots", "operation", "write", "outcome", "failed").increment();
+            log.warn("Cannot write usage snapshot {}", file, ex);
+            deleteQuietly(temp);
+        }
+    }
+
+    private void restore() {
+        Path file = properties.snapshotFile();
+        if (!properties.snapshotsEnabled() || !Files.exists(file)) {
+            return;
+        }
+        try {
+            List<UsageEntry> entries = objectMapper.readValue(file.toFile(), SNAPSHOT_TYPE);
+            for (UsageEntry entry : entries) {
+                add(entry.client(), entry.model(), entry.calls(), entry.promptTokens(),
+                        entry.cachedTokens(), entry.completionTokens());
+            }
+            meterRegistry.counter("chat.usage.snapshots", "operation", "restore", "outcome", "restored").increment();
+        } catch (IOException | RuntimeException ex) {
+            meterRegistry.counter("chat.usage.snapshots", "operation", "restore", "outcome", "failed").increment();
+            log.warn("Cannot read usage snapshot {}, starting from empty totals", file, ex);
+            quarantine(file);
+        }
+    }
+
+    private void quarantine(Path file) {
+        Path target = file.resolveSibling(file.getFileName() + ".corrupt-" + System.currentTimeMillis());
+        try {
+            Files.move(file, target);
+            log.warn("Moved unreadable usage snapshot to {}", target);
+        } catch (IOException ex) {
+            log.warn("Cannot move unreadable usage snapshot {}", file, ex);
+        }
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void add(String clientId, String model, long calls, long promptTokens, long cachedTokens,
+                     long completionTokens) {
+        account(new Key(tenants.metricTenant(clientId), model))
+                .add(calls, promptTokens, cachedTokens, completionTokens);
+    }
+
+    private String model(Prompt prompt) {
+        String model = prompt != null && prompt.getOptions() != null ? prompt.getOptions().getModel() : null;
+        return model != null && !model.isBlank() ? model : defaultModel;
+    }
+
+    private Account account(Key key) {
+        Account account = accounts.get(key);
+        if (account != null) {
+            return account;
+        }
+        return accounts.computeIfAbsent(key, this::register);
+    }
+
+    private Account register(Key key) {
+        Account account = new Account(properties.price(key.model()));
+        tokens(key, "prompt", account.promptTokens);
+        tokens(key, "cached", account.cachedTokens);
+        tokens(key, "completion", account.completionTokens);
+        FunctionCounter.builder("chat.usage.calls", account.calls, LongAdder::sum)
+                .description("Upstream calls with reported usage per tenant and model")
+                .tag("client", key.client())
+                .tag("model", key.model())
+                .register(meterRegistry);
+        FunctionCounter.builder("chat.usage.cost", account, Account::cost)
+                .description("Cost of the reported usage per tenant and model at configured prices")
+                .tag("client", key.client())
+                .tag("model", key.model())
+                .register(meterRegistry);
+        return account;
+    }
+
+    private void tokens(Key key, String type, LongAdder adder) {
+        FunctionCounter.builder("chat.usage.tokens", adder, LongAdder::sum)
+                .description("Provider-reported tokens per tenant and model")
+                .tag("client", key.client())
+                .tag("model", key.model())
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.snapshotsEnabled() || snapshots != null) {
+            return;
+        }
+        long intervalNanos = properties.snapshotInterval().toNanos();
+        snapshots = Schedulers.boundedElastic().schedulePeriodically(
+                this::snapshot, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (snapshots != null) {
+            snapshots.dispose();
+            snapshots = null;
+            snapshot();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return snapshots != null;
+    }
+
+    private record Key(String client, String model) {}
+
+    private static final class Account {
+
+        private final UsageProperties.Price price;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder cachedTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+
+        private Account(UsageProperties.Price price) {
+            this.price = price;
+        }
+
+        void add(long calls, long promptTokens, long cachedTokens, long completionTokens) {
+            this.calls.add(calls);
+            this.promptTokens.add(promptTokens);
+            this.cachedTokens.add(cachedTokens);
+            this.completionTokens.add(completionTokens);
+        }
+
+        double cost() {
+            return price.cost(promptTokens.sum(), cachedTokens.sum(), completionTokens.sum());
+        }
+
+        UsageEntry toEntry(Key key) {
+            return new UsageEntry(key.client(), key.model(), calls.sum(), promptTokens.sum(),
+                    cachedTokens.sum(), completionTokens.sum(), cost());
+        }
+    }
+}
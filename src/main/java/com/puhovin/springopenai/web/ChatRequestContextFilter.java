@@ -0,0 +1,88 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.context.PriorityClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Locale;
+
+@Component
+public class ChatRequestContextFilter implements WebFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    public static final String PRIORITY_HEADER = "X-Priority";
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final PriorityProperties priorityProperties;
+    private final Clock clock;
+
+    public ChatRequestContextFilter(PriorityProperties priorityProperties, Clock clock) {
+        this.priorityProperties = priorityProperties;
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith("/chat")) {
+            return chain.filter(exchange);
+        }
+        ChatRequestContext context = resolve(exchange.getRequest().getHeaders());
+        return chain.filter(exchange)
+                .contextWrite(ctx -> ctx.put(ChatRequestContext.class, context));
+    }
+
+    public ChatRequestContext resolve(HttpHeaders headers) {
+        String clientId = headers.getFirst(CLIENT_ID_HEADER);
+        if (!StringUtils.hasText(clientId)) {
+            clientId = ChatRequestContext.ANONYMOUS_CLIENT;
+        }
+        PriorityClass priority = parsePriority(headers.getFirst(PRIORITY_HEADER));
+        if (priority == null) {
+            priority = priorityProperties.clients().getOrDefault(clientId, priorityProperties.defaultClass());
+        }
+        return new ChatRequestContext(clientId, priority, resolveDeadline(headers));
+    }
+
+    private Instant resolveDeadline(HttpHeaders headers) {
+        Long deadlineMillis = parseMillis(headers.getFirst(DEADLINE_HEADER));
+        Long timeoutMillis = parseMillis(headers.getFirst(TIMEOUT_HEADER));
+        Instant deadline = deadlineMillis != null ? Instant.ofEpochMilli(deadlineMillis) : null;
+        if (timeoutMillis != null) {
+            Instant relative = clock.instant().plusMillis(timeoutMillis);
+            deadline = deadline == null || relative.isBefore(deadline) ? relative : deadline;
+        }
+        return deadline;
+    }
+
+    private static Long parseMillis(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static PriorityClass parsePriority(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return PriorityClass.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.puhovin.springopenai.web;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Keeps reset {@link Deflater} instances for reuse. Each deflater owns a native zlib stream, so
+ * creating one per response churns off-heap memory; instances beyond the pool size are ended.
+ */
+class DeflaterPool {
+
+    private final int level;
+    private final ArrayBlockingQueue<Deflater> idle;
+
+    DeflaterPool(int level, int maxPooled) {
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    Deflater acquire() {
+        Deflater deflater = idle.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    int idle() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class OverloadRejectedException extends ResponseStatusException {
+
+    public OverloadRejectedException(String retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Instance is overloaded, retry after " + retryAfterSeconds + "s");
+    }
+}
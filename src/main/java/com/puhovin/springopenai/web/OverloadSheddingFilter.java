@@ -0,0 +1,51 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.OverloadProperties;
+import com.puhovin.springopenai.overload.OverloadDetector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OverloadSheddingFilter implements WebFilter {
+
+    private final OverloadDetector detector;
+    private final String retryAfterSeconds;
+    private final String managementPath;
+    private final Counter rejected;
+
+    public OverloadSheddingFilter(OverloadDetector detector,
+                                  OverloadProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${management.endpoints.web.base-path:/actuator}") String managementPath) {
+        this.detector = detector;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, properties.retryAfter().toSeconds()));
+        this.managementPath = managementPath;
+        this.rejected = Counter.builder("chat.overload.rejected")
+                .description("Requests rejected with 503 while the instance was overloaded")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!detector.overloaded() || exchange.getRequest().getPath().value().startsWith(managementPath)) {
+            return chain.filter(exchange);
+        }
+        rejected.increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,69 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.IngestionProperties;
+import com.puhovin.springopenai.config.OverloadProperties;
+import com.puhovin.springopenai.dto.ChatMessage;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.overload.OverloadDetector;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * The checks {@link OverloadSheddingFilter} and {@link RequestSizeLimitFilter} apply to HTTP, for
+ * RSocket requests, which never pass through the web filter chain. Payload bytes are capped by the
+ * RSocket servers' inbound payload limit before decoding; this class sheds while overloaded and
+ * rejects decoded requests whose prompt estimate exceeds {@code chat.ingestion.max-prompt-tokens}.
+ */
+@Component
+public class RSocketAdmission {
+
+    private final OverloadDetector detector;
+    private final String retryAfterSeconds;
+    private final long maxPromptTokens;
+    private final Counter overloadRejected;
+    private final Counter tokensRejected;
+
+    public RSocketAdmission(OverloadDetector detector,
+                            OverloadProperties overload,
+                            IngestionProperties ingestion,
+                            MeterRegistry meterRegistry) {
+        this.detector = detector;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, overload.retryAfter().toSeconds()));
+        this.maxPromptTokens = ingestion.maxPromptTokens();
+        this.overloadRejected = Counter.builder("chat.overload.rejected")
+                .description("Requests rejected with 503 while the instance was overloaded")
+                .register(meterRegistry);
+        this.tokensRejected = Counter.builder("chat.request.rejected")
+                .description("Request bodies rejected with 413 by size or token limit")
+                .tag("kind", "rsocket")
+                .tag("limit", "tokens")
+                .register(meterRegistry);
+    }
+
+    public void admit(ChatRequest request) {
+        if (detector.overloaded()) {
+            overloadRejected.increment();
+            throw new OverloadRejectedException(retryAfterSeconds);
+        }
+        if (RequestSizeLimitFilter.estimateTokens(chars(request)) > maxPromptTokens) {
+            tokensRejected.increment();
+            throw new RequestTooLargeException("tokens", maxPromptTokens);
+        }
+    }
+
+    private static long chars(ChatRequest request) {
+        long chars = length(request.message()) + length(request.template());
+        for (ChatMessage turn : request.history()) {
+            chars += length(turn.content());
+        }
+        for (var variable : request.variables().entrySet()) {
+            chars += length(variable.getKey()) + length(variable.getValue());
+        }
+        return chars;
+    }
+
+    private static long length(String value) {
+        return value != null ? value.codePointCount(0, value.length()) : 0;
+    }
+}
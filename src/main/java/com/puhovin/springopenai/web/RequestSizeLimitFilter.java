@@ -0,0 +1,171 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.IngestionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Enforces byte and prompt-token limits on {@code /chat} request bodies while they stream in, so
+ * an oversized body is answered with 413 before it is buffered: a declared {@code Content-Length}
+ * above the limit is rejected without reading the body, anything else fails as soon as the
+ * running count crosses a limit. Tokens are estimated as four characters each, counting UTF-8
+ * characters inside JSON strings for JSON bodies and all characters for uploaded documents.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class RequestSizeLimitFilter implements WebFilter {
+
+    public static final String DOCUMENT_PATH = "/chat/document";
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private final long maxRequestBytes;
+    private final long maxDocumentBytes;
+    private final long maxPromptTokens;
+    private final MeterRegistry meterRegistry;
+
+    public RequestSizeLimitFilter(IngestionProperties properties, MeterRegistry meterRegistry) {
+        this.maxRequestBytes = properties.maxRequestSize().toBytes();
+        this.maxDocumentBytes = properties.maxDocumentSize().toBytes();
+        this.maxPromptTokens = properties.maxPromptTokens();
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        if (!HttpMethod.POST.equals(request.getMethod()) || !path.startsWith("/chat")) {
+            return chain.filter(exchange);
+        }
+        String kind = path.startsWith(DOCUMENT_PATH) ? "document" : "json";
+        long maxBytes = kind.equals("document") ? maxDocumentBytes : maxRequestBytes;
+        long declared = request.getHeaders().getContentLength();
+        if (declared > maxBytes) {
+            size(kind).record(declared);
+            rejected(kind, "bytes").increment();
+            exchange.getResponse().setStatusCode(HttpStatusCode.valueOf(413));
+            return exchange.getResponse().setComplete();
+        }
+        boolean json = MediaType.APPLICATION_JSON.isCompatibleWith(request.getHeaders().getContentType());
+        return chain.filter(exchange.mutate().request(new LimitedRequest(request, kind, maxBytes, json)).build());
+    }
+
+    static long estimateTokens(long chars) {
+        return (chars + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    private DistributionSummary size(String kind) {
+        return DistributionSummary.builder("chat.request.size")
+                .description("Size of /chat request bodies")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary tokens(String kind) {
+        return DistributionSummary.builder("chat.request.tokens")
+                .description("Estimated prompt tokens of /chat request bodies")
+                .baseUnit("tokens")
+                .tag("kind", kind)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter rejected(String kind, String limit) {
+        return Counter.builder("chat.request.rejected")
+                .description("Request bodies rejected with 413 by size or token limit")
+                .tag("kind", kind)
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    private final class LimitedRequest extends ServerHttpRequestDecorator {
+
+        private final String kind;
+        private final long maxBytes;
+        private final boolean json;
+        private long bytes;
+        private long chars;
+        private boolean inString;
+        private boolean escaped;
+
+        private LimitedRequest(ServerHttpRequest delegate, String kind, long maxBytes, boolean json) {
+            super(delegate);
+            this.kind = kind;
+            this.maxBytes = maxBytes;
+            this.json = json;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return super.getBody()
+                    .<DataBuffer>handle((buffer, sink) -> {
+                        RequestTooLargeException exceeded = count(buffer);
+                        if (exceeded == null) {
+                            sink.next(buffer);
+                            return;
+                        }
+                        DataBufferUtils.release(buffer);
+                        sink.error(exceeded);
+                    })
+                    .doOnComplete(() -> {
+                        size(kind).record(bytes);
+                        tokens(kind).record(estimateTokens(chars));
+                    });
+        }
+
+        private RequestTooLargeException count(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            bytes += readable;
+            if (bytes > maxBytes) {
+                rejected(kind, "bytes").increment();
+                return new RequestTooLargeException("bytes", maxBytes);
+            }
+            int start = buffer.readPosition();
+            for (int i = start; i < start + readable; i++) {
+                count(buffer.getByte(i));
+            }
+            if (estimateTokens(chars) > maxPromptTokens) {
+                rejected(kind, "tokens").increment();
+                return new RequestTooLargeException("tokens", maxPromptTokens);
+            }
+            return null;
+        }
+
+        private void count(byte b) {
+            boolean charStart = (b & 0xC0) != 0x80;
+            if (!json) {
+                chars += charStart ? 1 : 0;
+            } else if (!inString) {
+                inString = b == '"';
+            } else if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+                chars++;
+            } else if (b == '"') {
+                inString = false;
+            } else if (charStart) {
+                chars++;
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.puhovin.springopenai.web;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+public class RequestTooLargeException extends ResponseStatusException {
+
+    public RequestTooLargeException(String limit, long max) {
+        super(HttpStatusCode.valueOf(413), "Request exceeds " + max + " " + limit);
+    }
+}
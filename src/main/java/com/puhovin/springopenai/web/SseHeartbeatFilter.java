@@ -0,0 +1,143 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.HeartbeatProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes an SSE comment on {@code /chat} event streams that have been idle for
+ * {@code chat.heartbeat.interval}, so proxies keep the connection open while the model is still
+ * thinking. Every stream shares one hashed timer wheel and holds at most one pending timeout, which
+ * is re-armed for the remaining idle time instead of per event. Heartbeats are merged in between
+ * whole events, never inside one, and carry no data, so clients never see them as messages.
+ */
+@Component
+public class SseHeartbeatFilter implements WebFilter, DisposableBean {
+
+    private static final byte[] HEARTBEAT = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final HashedWheelTimer timer;
+    private final Counter heartbeats;
+
+    public SseHeartbeatFilter(HeartbeatProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.intervalNanos = properties.interval().toNanos();
+        this.timer = new HashedWheelTimer(new DefaultThreadFactory("sse-heartbeat", true),
+                properties.tickDuration().toNanos(), TimeUnit.NANOSECONDS);
+        this.heartbeats = Counter.builder("chat.stream.heartbeats")
+                .description("SSE keep-alive comments written to idle streams")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || !exchange.getRequest().getPath().value().startsWith("/chat")) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new HeartbeatResponse(exchange.getResponse())).build());
+    }
+
+    @Override
+    public void destroy() {
+        timer.stop();
+    }
+
+    private final class HeartbeatResponse extends ServerHttpResponseDecorator {
+
+        private HeartbeatResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (!MediaType.TEXT_EVENT_STREAM.isCompatibleWith(getHeaders().getContentType())) {
+                return super.writeAndFlushWith(body);
+            }
+            return Mono.defer(() -> {
+                Heartbeat heartbeat = new Heartbeat(bufferFactory());
+                Flux<Publisher<? extends DataBuffer>> events = Flux.<Publisher<? extends DataBuffer>>from(body)
+                        .doOnSubscribe(subscription -> heartbeat.start())
+                        .doOnNext(event -> heartbeat.touch())
+                        .doFinally(signal -> heartbeat.stop());
+                return super.writeAndFlushWith(Flux.merge(events, heartbeat.beats()));
+            });
+        }
+    }
+
+    private final class Heartbeat implements TimerTask {
+
+        private final Sinks.Many<Publisher<? extends DataBuffer>> beats = Sinks.many().unicast().onBackpressureBuffer();
+        private final DataBufferFactory bufferFactory;
+        private volatile long lastActivityNanos = System.nanoTime();
+        private volatile Timeout timeout;
+        private boolean stopped;
+
+        private Heartbeat(DataBufferFactory bufferFactory) {
+            this.bufferFactory = bufferFactory;
+        }
+
+        Flux<Publisher<? extends DataBuffer>> beats() {
+            return beats.asFlux();
+        }
+
+        void start() {
+            timeout = timer.newTimeout(this, intervalNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void touch() {
+            lastActivityNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run(Timeout expired) {
+            long idleNanos = System.nanoTime() - lastActivityNanos;
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                if (idleNanos >= intervalNanos) {
+                    if (beats.tryEmitNext(Mono.fromSupplier(() -> bufferFactory.wrap(HEARTBEAT))).isSuccess()) {
+                        heartbeats.increment();
+                    }
+                    touch();
+                    idleNanos = 0;
+                }
+                timeout = timer.newTimeout(this, intervalNanos - idleNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void stop() {
+            synchronized (this) {
+                stopped = true;
+                beats.tryEmitComplete();
+            }
+            Timeout pending = timeout;
+            if (pending != null) {
+                pending.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.CompressionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzips {@code /chat} SSE and NDJSON responses for clients that accept it without adding latency.
+ * Every event the writer flushes is deflated with {@link Deflater#SYNC_FLUSH}, which ends the
+ * compressed block on a byte boundary, so the client can inflate each event as soon as it
+ * arrives; the dictionary carries over between events, so later chunks still compress well.
+ * Ordered ahead of the other response decorators so that everything they add is compressed too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class StreamingCompressionFilter implements WebFilter {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int OUTPUT_CHUNK = 512;
+
+    private final boolean enabled;
+    private final DeflaterPool deflaters;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final DistributionSummary ratio;
+    private final Timer compressionTime;
+
+    public StreamingCompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.deflaters = new DeflaterPool(properties.level(), properties.maxPooledDeflaters());
+        this.bytesIn = Counter.builder("chat.compression.bytes")
+                .description("Bytes of streamed responses before and after compression")
+                .baseUnit("bytes")
+                .tag("stage", "in")
+                .register(meterRegistry);
+        this.bytesOut = Counter.builder("chat.compression.bytes")
+                .description("Bytes of streamed responses before and after compression")
+                .baseUnit("bytes")
+                .tag("stage", "out")
+                .register(meterRegistry);
+        this.ratio = DistributionSummary.builder("chat.compression.ratio")
+                .description("Compressed size divided by original size per streamed response")
+                .register(meterRegistry);
+        this.compressionTime = Timer.builder("chat.compression.time")
+                .description("Time spent deflating per streamed response")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled
+                || !exchange.getRequest().getPath().value().startsWith("/chat")
+                || !acceptsGzip(exchange.getRequest().getHeaders())) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new GzipResponse(exchange.getResponse())).build());
+    }
+
+    static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : StringUtils.tokenizeToStringArray(value, ",")) {
+                String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+                if (parts.length == 0 || !parts[0].toLowerCase(Locale.ROOT).equals("gzip")) {
+                    continue;
+                }
+                if (parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isStreaming(MediaType contentType) {
+        return MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType);
+    }
+
+    private static void writeIntLe(byte[] target, int offset, int value) {
+        target[offset] = (byte) value;
+        target[offset + 1] = (byte) (value >>> 8);
+        target[offset + 2] = (byte) (value >>> 16);
+        target[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private final class GzipResponse extends ServerHttpResponseDecorator {
+
+        private GzipResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            HttpHeaders headers = getHeaders();
+            if (!isStreaming(headers.getContentType()) || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                return super.writeAndFlushWith(body);
+            }
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return Mono.defer(() -> {
+                GzipStream gzip = new GzipStream();
+                Flux<Publisher<? extends DataBuffer>> events = Flux.<Publisher<? extends DataBuffer>>from(body)
+                        .map(event -> DataBufferUtils.join(event).map(gzip::compress));
+                Flux<Publisher<? extends DataBuffer>> compressed = Flux.concat(
+                                Mono.just(Mono.fromSupplier(() -> bufferFactory().wrap(GZIP_HEADER))),
+                                events,
+                                Mono.fromSupplier(() -> Mono.fromSupplier(gzip::finish)))
+                        .doFinally(signal -> gzip.release());
+                return super.writeAndFlushWith(compressed);
+            });
+        }
+
+        private final class GzipStream {
+
+            private final CRC32 crc = new CRC32();
+            private final byte[] output = new byte[OUTPUT_CHUNK];
+            private Deflater deflater = deflaters.acquire();
+            private long totalIn;
+            private long totalOut = GZIP_HEADER.length;
+            private long nanos;
+
+            synchronized DataBuffer compress(DataBuffer event) {
+                byte[] input = new byte[event.readableByteCount()];
+                event.read(input);
+                DataBufferUtils.release(event);
+                if (deflater == null) {
+                    return bufferFactory().wrap(new byte[0]);
+                }
+                long start = System.nanoTime();
+                crc.update(input);
+                deflater.setInput(input);
+                byte[] compressed = drain(Deflater.SYNC_FLUSH);
+                nanos += System.nanoTime() - start;
+                totalIn += input.length;
+                bytesIn.increment(input.length);
+                bytesOut.increment(compressed.length);
+                return bufferFactory().wrap(compressed);
+            }
+
+            synchronized DataBuffer finish() {
+                if (deflater == null) {
+                    return bufferFactory().wrap(new byte[0]);
+                }
+                long start = System.nanoTime();
+                deflater.finish();
+                byte[] tail = drain(Deflater.NO_FLUSH);
+                byte[] trailer = new byte[tail.length + 8];
+                System.arraycopy(tail, 0, trailer, 0, tail.length);
+                writeIntLe(trailer, tail.length, (int) crc.getValue());
+                writeIntLe(trailer, tail.length + 4, (int) totalIn);
+                nanos += System.nanoTime() - start;
+                totalOut += 8;
+                bytesOut.increment(trailer.length);
+                return bufferFactory().wrap(trailer);
+            }
+
+            synchronized void release() {
+                if (deflater == null) {
+                    return;
+                }
+                deflaters.release(deflater);
+                deflater = null;
+                compressionTime.record(nanos, TimeUnit.NANOSECONDS);
+                if (totalIn > 0) {
+                    ratio.record((double) totalOut / totalIn);
+                }
+            }
+
+            private byte[] drain(int flush) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(OUTPUT_CHUNK);
+                int written;
+                do {
+                    written = deflater.deflate(output, 0, output.length, flush);
+                    out.write(output, 0, written);
+                } while (written == output.length || (flush == Deflater.NO_FLUSH && !deflater.finished()));
+                totalOut += out.size();
+                return out.toByteArray();
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.puhovin.springopenai.config;
+
+import com.puhovin.springopenai.dto.JsonFragment;
+import com.puhovin.springopenai.tool.ToolEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChatRuntimeHints Tests")
+class ChatRuntimeHintsTest {
+
+    @Test
+    @DisplayName("Should register binding hints for SSE payloads")
+    void shouldRegisterBindingHints_forSsePayloads() {
+        RuntimeHints hints = new RuntimeHints();
+
+        new ChatRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(ToolEvent.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(JsonFragment.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ToolEvent.Stage.class)).accepts(hints);
+    }
+}
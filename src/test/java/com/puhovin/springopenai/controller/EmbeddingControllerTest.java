@@ -0,0 +1,57 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.dto.EmbeddingsRequest;
+import com.puhovin.springopenai.dto.EmbeddingsResponse;
+import com.puhovin.springopenai.service.OpenAiEmbeddingService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmbeddingController Unit Tests")
+class EmbeddingControllerTest {
+
+    @Mock
+    private OpenAiEmbeddingService embeddingService;
+
+    @InjectMocks
+    private EmbeddingController controller;
+
+    @Test
+    @DisplayName("Should return JSON embeddings from the service")
+    void shouldReturnJsonEmbeddings() {
+        EmbeddingsRequest request = new EmbeddingsRequest(List.of("hello"));
+        EmbeddingsResponse response = new EmbeddingsResponse(2, List.of(new float[]{0.1f, 0.2f}));
+        doReturn(Mono.just(response)).when(embeddingService).embed(request);
+
+        StepVerifier.create(controller.embed(request))
+                .expectNext(response)
+                .verifyComplete();
+
+        verify(embeddingService).embed(request);
+    }
+
+    @Test
+    @DisplayName("Should return binary embeddings from the service")
+    void shouldReturnBinaryEmbeddings() {
+        EmbeddingsRequest request = new EmbeddingsRequest(List.of("hello"));
+        byte[] body = {1, 0, 0, 0};
+        doReturn(Mono.just(body)).when(embeddingService).embedBinary(request);
+
+        StepVerifier.create(controller.embedBinary(request))
+                .expectNext(body)
+                .verifyComplete();
+
+        verify(embeddingService).embedBinary(request);
+    }
+}
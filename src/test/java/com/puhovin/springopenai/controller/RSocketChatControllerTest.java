@@ -0,0 +1,203 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.config.IngestionProperties;
+import com.puhovin.springopenai.config.OverloadProperties;
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.config.TracingProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.context.PriorityClass;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.dto.ChatTurnChunk;
+import com.puhovin.springopenai.overload.OverloadDetector;
+import com.puhovin.springopenai.service.OpenAiChatService;
+import com.puhovin.springopenai.service.OpenAiStreamService;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import com.puhovin.springopenai.web.ChatRequestContextFilter;
+import com.puhovin.springopenai.web.OverloadRejectedException;
+import com.puhovin.springopenai.web.RSocketAdmission;
+import com.puhovin.springopenai.web.RequestTooLargeException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RSocketChatController Unit Tests")
+class RSocketChatControllerTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    private OpenAiStreamService streamService;
+
+    @Mock
+    private OpenAiChatService chatService;
+
+    @Mock
+    private OverloadDetector overloadDetector;
+
+    private final List<ChatRequestContext> contexts = new CopyOnWriteArrayList<>();
+
+    private RSocketChatController controller;
+
+    @BeforeEach
+    void setUp() {
+        ChatRequestContextFilter contextFilter = new ChatRequestContextFilter(new PriorityProperties(
+                PriorityClass.INTERACTIVE, 32, Map.of("indexer", PriorityClass.BATCH), Map.of()),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        ChatObservations observations = new ChatObservations(ObservationRegistry.NOOP,
+                new TracingProperties(true, Duration.ofSeconds(5), 1000, 256, Duration.ofMinutes(5)));
+        RSocketAdmission admission = new RSocketAdmission(overloadDetector,
+                new OverloadProperties(true, Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(50),
+                        10_000, 1_000, 0.9, 0.75, Duration.ofSeconds(5), Duration.ofSeconds(5)),
+                new IngestionProperties(DataSize.ofMegabytes(1), DataSize.ofMegabytes(4), 8),
+                new SimpleMeterRegistry());
+        controller = new RSocketChatController(streamService, chatService, contextFilter, observations, admission);
+    }
+
+    private <T> Flux<T> capturing(Flux<T> answer) {
+        return Flux.deferContextual(ctx -> {
+            contexts.add(ChatRequestContext.from(ctx));
+            return answer;
+        });
+    }
+
+    @Nested
+    @DisplayName("chat route tests")
+    class ChatRouteTests {
+
+        @Test
+        @DisplayName("Should answer with the blocking chat result")
+        void shouldAnswerWithChatResult() {
+            ChatRequest request = new ChatRequest("Hello");
+            doReturn(Mono.just("Hi there")).when(chatService).chat(request);
+
+            StepVerifier.create(controller.chat(request, Map.of()))
+                    .expectNext("Hi there")
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("chat.stream route tests")
+    class StreamRouteTests {
+
+        @Test
+        @DisplayName("Should stream chunks with the context taken from metadata")
+        void shouldStreamChunks_withContextFromMetadata() {
+            ChatRequest request = new ChatRequest("Hello");
+            doReturn(capturing(Flux.just("Hel", "lo"))).when(streamService).streamChat(request);
+
+            StepVerifier.create(controller.stream(request, Map.of(
+                            ChatRequestContextFilter.CLIENT_ID_HEADER, "indexer",
+                            ChatRequestContextFilter.TIMEOUT_HEADER, "1500")))
+                    .expectNext("Hel", "lo")
+                    .verifyComplete();
+
+            assertThat(contexts).containsExactly(
+                    new ChatRequestContext("indexer", PriorityClass.BATCH, NOW.plusMillis(1500)));
+        }
+
+        @Test
+        @DisplayName("Should fall back to the anonymous client without metadata")
+        void shouldUseAnonymousClient_whenNoMetadata() {
+            ChatRequest request = new ChatRequest("Hello");
+            doReturn(capturing(Flux.just("Hi"))).when(streamService).streamChat(request);
+
+            StepVerifier.create(controller.stream(request, Map.of()))
+                    .expectNext("Hi")
+                    .verifyComplete();
+
+            assertThat(contexts).containsExactly(
+                    new ChatRequestContext(ChatRequestContext.ANONYMOUS_CLIENT, PriorityClass.INTERACTIVE, null));
+        }
+
+        @Test
+        @DisplayName("Should pass the requested amount to the service without prefetching in the controller")
+        void shouldPassDemandThrough() {
+            ChatRequest request = new ChatRequest("Hello");
+            List<Long> requested = new CopyOnWriteArrayList<>();
+            doReturn(Flux.range(0, 100).map(String::valueOf).doOnRequest(requested::add))
+                    .when(streamService).streamChat(request);
+
+            StepVerifier.create(controller.stream(request, Map.of()), 2)
+                    .expectNext("0", "1")
+                    .thenRequest(3)
+                    .expectNext("2", "3", "4")
+                    .thenCancel()
+                    .verify();
+
+            assertThat(requested).containsExactly(2L, 3L);
+        }
+
+        @Test
+        @DisplayName("Should shed without calling the service while overloaded")
+        void shouldShed_whenOverloaded() {
+            doReturn(true).when(overloadDetector).overloaded();
+
+            StepVerifier.create(controller.stream(new ChatRequest("Hello"), Map.of()))
+                    .expectError(OverloadRejectedException.class)
+                    .verify();
+
+            verify(streamService, never()).streamChat(any());
+        }
+
+        @Test
+        @DisplayName("Should reject a request above the prompt token limit")
+        void shouldReject_whenPromptTooLarge() {
+            StepVerifier.create(controller.stream(new ChatRequest("x".repeat(64)), Map.of()))
+                    .expectError(RequestTooLargeException.class)
+                    .verify();
+
+            verify(streamService, never()).streamChat(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("chat.channel route tests")
+    class ChannelRouteTests {
+
+        @Test
+        @DisplayName("Should answer each request in turn and close every answer")
+        void shouldAnswerEachTurn() {
+            ChatRequest first = new ChatRequest("first");
+            ChatRequest second = new ChatRequest("second");
+            doReturn(capturing(Flux.just("a", "b"))).when(streamService).streamChat(first);
+            doReturn(capturing(Flux.just("c"))).when(streamService).streamChat(second);
+
+            StepVerifier.create(controller.channel(Flux.just(first, second),
+                            Map.of(ChatRequestContextFilter.CLIENT_ID_HEADER, "indexer")))
+                    .expectNext(new ChatTurnChunk(0, "a", false))
+                    .expectNext(new ChatTurnChunk(0, "b", false))
+                    .expectNext(new ChatTurnChunk(0, "", true))
+                    .expectNext(new ChatTurnChunk(1, "c", false))
+                    .expectNext(new ChatTurnChunk(1, "", true))
+                    .verifyComplete();
+
+            assertThat(contexts).extracting(ChatRequestContext::clientId).containsExactly("indexer", "indexer");
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package com.puhovin.springopenai.controller;
 
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.puhovin.springopenai.config.TracingProperties;
 import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.dto.JsonFragment;
+import com.puhovin.springopenai.dto.SharedStreamResponse;
 import com.puhovin.springopenai.service.OpenAiChatService;
+import com.puhovin.springopenai.service.OpenAiJsonStreamService;
 import com.puhovin.springopenai.service.OpenAiStreamService;
+import com.puhovin.springopenai.stream.ChatStreamEvent;
+import com.puhovin.springopenai.stream.SharedGenerationRegistry;
+import com.puhovin.springopenai.stream.StreamChunk;
+import com.puhovin.springopenai.tool.ToolEvent;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.codec.ServerSentEvent;
 import reactor.core.publisher.Flux;
@@ -16,6 +28,8 @@ import reactor.test.StepVerifier;
 
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
@@ -30,6 +44,16 @@ class StreamChatControllerTest {
     @Mock
     private OpenAiChatService chatService;
 
+    @Mock
+    private SharedGenerationRegistry sharedGenerations;
+
+    @Mock
+    private OpenAiJsonStreamService jsonStreamService;
+
+    @Spy
+    private ChatObservations observations = new ChatObservations(ObservationRegistry.NOOP,
+            new TracingProperties(true, Duration.ofSeconds(5), 1000, 256, Duration.ofMinutes(5)));
+
     @InjectMocks
     private StreamChatController controller;
 
@@ -42,7 +66,7 @@ class StreamChatControllerTest {
         void shouldReturnStreamingResponse_whenValidRequestProvided() {
             ChatRequest request = new ChatRequest("Hello, chat!");
             Flux<String> expectedResponse = Flux.just("Hello", " there", "!");
-            doReturn(expectedResponse).when(streamService).streamChat(request.message());
+            doReturn(expectedResponse).when(streamService).streamChat(request);
 
             Flux<String> actualResponse = controller.streamChat(request);
 
@@ -52,7 +76,7 @@ class StreamChatControllerTest {
                     .expectNext("!")
                     .verifyComplete();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamChat(request);
         }
 
         @Test
@@ -60,14 +84,14 @@ class StreamChatControllerTest {
         void shouldReturnEmptyFlux_whenServiceReturnsEmptyStream() {
             ChatRequest request = new ChatRequest("Empty query");
             Flux<String> emptyResponse = Flux.empty();
-            doReturn(emptyResponse).when(streamService).streamChat(request.message());
+            doReturn(emptyResponse).when(streamService).streamChat(request);
 
             Flux<String> actualResponse = controller.streamChat(request);
 
             StepVerifier.create(actualResponse)
                     .verifyComplete();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamChat(request);
         }
 
         @Test
@@ -75,7 +99,7 @@ class StreamChatControllerTest {
         void shouldPropagateError_whenServiceThrowsException() {
             ChatRequest request = new ChatRequest("Error query");
             RuntimeException expectedException = new RuntimeException("Service error");
-            doReturn(Flux.error(expectedException)).when(streamService).streamChat(request.message());
+            doReturn(Flux.error(expectedException)).when(streamService).streamChat(request);
 
             Flux<String> actualResponse = controller.streamChat(request);
 
@@ -85,7 +109,7 @@ class StreamChatControllerTest {
                             throwable.getMessage().equals("Service error"))
                     .verify();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamChat(request);
         }
     }
 
@@ -97,10 +121,10 @@ class StreamChatControllerTest {
         @DisplayName("Should return SSE with sequential IDs and event type")
         void shouldReturnSseWithSequentialIds_whenValidRequestProvided() {
             ChatRequest request = new ChatRequest("Hello, chat!");
-            Flux<String> serviceResponse = Flux.just("Hello", " there", "!");
-            doReturn(serviceResponse).when(streamService).streamChat(request.message());
+            Flux<ChatStreamEvent> serviceResponse = Flux.just(text("Hello"), text(" there"), text("!"));
+            doReturn(serviceResponse).when(streamService).streamEvents(request);
 
-            Flux<ServerSentEvent<String>> actualResponse = controller.streamChatSse(request);
+            Flux<ServerSentEvent<Object>> actualResponse = controller.streamChatSse(request);
 
             StepVerifier.create(actualResponse)
                     .assertNext(event -> {
@@ -120,22 +144,22 @@ class StreamChatControllerTest {
                     })
                     .verifyComplete();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamEvents(request);
         }
 
         @Test
         @DisplayName("Should return empty SSE flux when service returns empty stream")
         void shouldReturnEmptySseFlux_whenServiceReturnsEmptyStream() {
             ChatRequest request = new ChatRequest("Empty query");
-            Flux<String> emptyResponse = Flux.empty();
-            doReturn(emptyResponse).when(streamService).streamChat(request.message());
+            Flux<ChatStreamEvent> emptyResponse = Flux.empty();
+            doReturn(emptyResponse).when(streamService).streamEvents(request);
 
-            Flux<ServerSentEvent<String>> actualResponse = controller.streamChatSse(request);
+            Flux<ServerSentEvent<Object>> actualResponse = controller.streamChatSse(request);
 
             StepVerifier.create(actualResponse)
                     .verifyComplete();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamEvents(request);
         }
 
         @Test
@@ -143,9 +167,9 @@ class StreamChatControllerTest {
         void shouldPropagateError_whenServiceThrowsExceptionInSseMode() {
             ChatRequest request = new ChatRequest("Error query");
             RuntimeException expectedException = new RuntimeException("SSE service error");
-            doReturn(Flux.error(expectedException)).when(streamService).streamChat(request.message());
+            doReturn(Flux.error(expectedException)).when(streamService).streamEvents(request);
 
-            Flux<ServerSentEvent<String>> actualResponse = controller.streamChatSse(request);
+            Flux<ServerSentEvent<Object>> actualResponse = controller.streamChatSse(request);
 
             StepVerifier.create(actualResponse)
                     .expectErrorMatches(throwable ->
@@ -153,17 +177,17 @@ class StreamChatControllerTest {
                             throwable.getMessage().equals("SSE service error"))
                     .verify();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamEvents(request);
         }
 
         @Test
         @DisplayName("Should handle single message with correct SSE structure")
         void shouldHandleSingleMessage_withCorrectSseStructure() {
             ChatRequest request = new ChatRequest("Single message");
-            Flux<String> singleMessageResponse = Flux.just("Single response");
-            doReturn(singleMessageResponse).when(streamService).streamChat(request.message());
+            Flux<ChatStreamEvent> singleMessageResponse = Flux.just(text("Single response"));
+            doReturn(singleMessageResponse).when(streamService).streamEvents(request);
 
-            Flux<ServerSentEvent<String>> actualResponse = controller.streamChatSse(request);
+            Flux<ServerSentEvent<Object>> actualResponse = controller.streamChatSse(request);
 
             StepVerifier.create(actualResponse)
                     .assertNext(event -> {
@@ -173,7 +197,52 @@ class StreamChatControllerTest {
                     })
                     .verifyComplete();
 
-            verify(streamService).streamChat(request.message());
+            verify(streamService).streamEvents(request);
+        }
+
+        @Test
+        @DisplayName("Should map tool progress to tool.* SSE events between text chunks")
+        void shouldMapToolProgress_toToolSseEvents() {
+            ChatRequest request = new ChatRequest("Weather in Paris?");
+            ToolEvent started = new ToolEvent(ToolEvent.Stage.STARTED, "call-1", "weather", null, null, null, null);
+            ToolEvent completed = new ToolEvent(ToolEvent.Stage.COMPLETED, "call-1", "weather", 12L, false, null, null);
+            doReturn(Flux.just(new ChatStreamEvent.Tool(started), new ChatStreamEvent.Tool(completed), text("Sunny")))
+                    .when(streamService).streamEvents(request);
+
+            StepVerifier.create(controller.streamChatSse(request))
+                    .assertNext(event -> {
+                        assertThat(event.id()).isEqualTo("0");
+                        assertThat(event.event()).isEqualTo("tool.started");
+                        assertThat(event.data()).isEqualTo(started);
+                    })
+                    .assertNext(event -> assertThat(event.event()).isEqualTo("tool.completed"))
+                    .assertNext(event -> {
+                        assertThat(event.id()).isEqualTo("2");
+                        assertThat(event.event()).isEqualTo("chat.message");
+                        assertThat(event.data()).isEqualTo("Sunny");
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should map a drain cut-off to a stream.reconnect event with a retry hint")
+        void shouldMapReconnect_toStreamReconnectEvent() {
+            ChatRequest request = new ChatRequest("Hello");
+            doReturn(Flux.just(text("Partial"), new ChatStreamEvent.Reconnect(Duration.ofSeconds(1))))
+                    .when(streamService).streamEvents(request);
+
+            StepVerifier.create(controller.streamChatSse(request))
+                    .assertNext(event -> assertThat(event.event()).isEqualTo("chat.message"))
+                    .assertNext(event -> {
+                        assertThat(event.id()).isEqualTo("1");
+                        assertThat(event.event()).isEqualTo("stream.reconnect");
+                        assertThat(event.retry()).isEqualTo(Duration.ofSeconds(1));
+                    })
+                    .verifyComplete();
+        }
+
+        private ChatStreamEvent text(String content) {
+            return new ChatStreamEvent.Text(content);
         }
     }
 
@@ -186,7 +255,7 @@ class StreamChatControllerTest {
         void shouldReturnCompleteResponse_whenValidRequestProvided() {
             ChatRequest request = new ChatRequest("Hello, chat!");
             String expectedResponse = "Hello! How can I help you today?";
-            doReturn(Mono.just(expectedResponse)).when(chatService).chat(request.message());
+            doReturn(Mono.just(expectedResponse)).when(chatService).chat(request);
 
             Mono<String> actualResponse = controller.chat(request);
 
@@ -194,14 +263,14 @@ class StreamChatControllerTest {
                     .expectNext(expectedResponse)
                     .verifyComplete();
 
-            verify(chatService).chat(request.message());
+            verify(chatService).chat(request);
         }
 
         @Test
         @DisplayName("Should return empty string when service returns empty")
         void shouldReturnEmptyString_whenServiceReturnsEmpty() {
             ChatRequest request = new ChatRequest("Empty query");
-            doReturn(Mono.just("")).when(chatService).chat(request.message());
+            doReturn(Mono.just("")).when(chatService).chat(request);
 
             Mono<String> actualResponse = controller.chat(request);
 
@@ -209,7 +278,7 @@ class StreamChatControllerTest {
                     .expectNext("")
                     .verifyComplete();
 
-            verify(chatService).chat(request.message());
+            verify(chatService).chat(request);
         }
 
         @Test
@@ -217,7 +286,7 @@ class StreamChatControllerTest {
         void shouldPropagateError_whenServiceThrowsException() {
             ChatRequest request = new ChatRequest("Error query");
             RuntimeException expectedException = new RuntimeException("Service error");
-            doReturn(Mono.error(expectedException)).when(chatService).chat(request.message());
+            doReturn(Mono.error(expectedException)).when(chatService).chat(request);
 
             Mono<String> actualResponse = controller.chat(request);
 
@@ -227,7 +296,7 @@ class StreamChatControllerTest {
                             throwable.getMessage().equals("Service error"))
                     .verify();
 
-            verify(chatService).chat(request.message());
+            verify(chatService).chat(request);
         }
 
         @Test
@@ -235,7 +304,7 @@ class StreamChatControllerTest {
         void shouldHandleLongResponse_correctly() {
             ChatRequest request = new ChatRequest("Long query");
             String longResponse = "Long response ".repeat(100);
-            doReturn(Mono.just(longResponse)).when(chatService).chat(request.message());
+            doReturn(Mono.just(longResponse)).when(chatService).chat(request);
 
             Mono<String> actualResponse = controller.chat(request);
 
@@ -243,7 +312,7 @@ class StreamChatControllerTest {
                     .expectNext(longResponse)
                     .verifyComplete();
 
-            verify(chatService).chat(request.message());
+            verify(chatService).chat(request);
         }
 
         @Test
@@ -251,7 +320,7 @@ class StreamChatControllerTest {
         void shouldHandleSpecialCharacters_inResponse() {
             ChatRequest request = new ChatRequest("Special chars query");
             String responseWithSpecialChars = "Response with special chars: !@#$%^&*()_+-=[]{}|;':\"<>?,./";
-            doReturn(Mono.just(responseWithSpecialChars)).when(chatService).chat(request.message());
+            doReturn(Mono.just(responseWithSpecialChars)).when(chatService).chat(request);
 
             Mono<String> actualResponse = controller.chat(request);
 
@@ -259,7 +328,78 @@ class StreamChatControllerTest {
                     .expectNext(responseWithSpecialChars)
                     .verifyComplete();
 
-            verify(chatService).chat(request.message());
+            verify(chatService).chat(request);
+        }
+    }
+
+    @Nested
+    @DisplayName("shared stream tests")
+    class SharedStreamTests {
+
+        @Test
+        @DisplayName("Should return stream id when shared stream is started")
+        void shouldReturnStreamId_whenSharedStreamStarted() {
+            ChatRequest request = new ChatRequest("Shared question");
+            doReturn(Mono.just("stream-1")).when(sharedGenerations).start(request);
+
+            StepVerifier.create(controller.startSharedStream(request))
+                    .expectNext(new SharedStreamResponse("stream-1"))
+                    .verifyComplete();
+
+            verify(sharedGenerations).start(request);
+        }
+
+        @Test
+        @DisplayName("Should map shared chunks to SSE events keyed by chunk index")
+        void shouldMapSharedChunks_toSseEvents() {
+            doReturn(Flux.just(new StreamChunk(4, "late"), new StreamChunk(5, " joiner")))
+                    .when(sharedGenerations).attach("stream-1");
+
+            StepVerifier.create(controller.attachSharedStream("stream-1"))
+                    .assertNext(event -> {
+                        assertThat(event.id()).isEqualTo("4");
+                        assertThat(event.event()).isEqualTo("chat.message");
+                        assertThat(event.data()).isEqualTo("late");
+                    })
+                    .assertNext(event -> assertThat(event.id()).isEqualTo("5"))
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("streamJson() tests")
+    class StreamJsonTests {
+
+        @Test
+        @DisplayName("Should return JSON fragments as NDJSON items")
+        void shouldReturnJsonFragments_whenValidRequestProvided() {
+            ChatRequest request = new ChatRequest("Answer in JSON");
+            JsonFragment fragment = new JsonFragment("$.title", TextNode.valueOf("Dune"));
+            doReturn(Flux.just(fragment)).when(jsonStreamService).streamJson(request);
+
+            StepVerifier.create(controller.streamJson(request))
+                    .expectNext(fragment)
+                    .verifyComplete();
+
+            verify(jsonStreamService).streamJson(request);
+        }
+
+        @Test
+        @DisplayName("Should map JSON fragments to json.fragment SSE events")
+        void shouldMapJsonFragments_toSseEvents() {
+            ChatRequest request = new ChatRequest("Answer in JSON");
+            JsonFragment first = new JsonFragment("$.items[0]", TextNode.valueOf("a"));
+            JsonFragment second = new JsonFragment("$.items[1]", TextNode.valueOf("b"));
+            doReturn(Flux.just(first, second)).when(jsonStreamService).streamJson(request);
+
+            StepVerifier.create(controller.streamJsonSse(request))
+                    .assertNext(event -> {
+                        assertThat(event.id()).isEqualTo("0");
+                        assertThat(event.event()).isEqualTo("json.fragment");
+                        assertThat(event.data()).isEqualTo(first);
+                    })
+                    .assertNext(event -> assertThat(event.id()).isEqualTo("1"))
+                    .verifyComplete();
         }
     }
 }
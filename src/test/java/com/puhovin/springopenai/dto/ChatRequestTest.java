@@ -13,6 +13,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -82,4 +83,23 @@ class ChatRequestTest {
                 "Hello 世界 🌍 مرحبا"                   // Unicode characters
         );
     }
+
+    @Test
+    @DisplayName("Should default history to empty list when not provided")
+    void shouldDefaultHistoryToEmptyList_whenNotProvided() {
+        ChatRequest request = new ChatRequest("Hello", null);
+
+        assertThat(request.history()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should fail validation when history turn has no role")
+    void shouldFailValidation_whenHistoryTurnHasNoRole() {
+        ChatRequest request = new ChatRequest("Hello", List.of(new ChatMessage(null, "Earlier")));
+
+        Set<ConstraintViolation<ChatRequest>> violations = validator.validate(request);
+
+        assertThat(violations).hasSize(1);
+        assertThat(violations.iterator().next().getPropertyPath().toString()).isEqualTo("history[0].role");
+    }
 }
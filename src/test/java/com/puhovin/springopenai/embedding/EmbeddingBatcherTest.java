@@ -0,0 +1,185 @@
+package com.puhovin.springopenai.embedding;
+
+import com.puhovin.springopenai.config.EmbeddingProperties;
+import com.puhovin.springopenai.upstream.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmbeddingBatcher Unit Tests")
+class EmbeddingBatcherTest {
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should merge requests arriving within the window into one upstream call")
+    void shouldMergeConcurrentRequests_intoOneUpstreamCall() {
+        stubLengthVectors();
+        EmbeddingBatcher batcher = createBatcher(100, Duration.ofMillis(100));
+
+        StepVerifier.create(Mono.zip(batcher.embed(List.of("a")), batcher.embed(List.of("bb", "ccc"))))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).extracting(vector -> vector[0]).containsExactly(1f);
+                    assertThat(results.getT2()).extracting(vector -> vector[0]).containsExactly(2f, 3f);
+                })
+                .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> inputs = ArgumentCaptor.forClass(List.class);
+        verify(embeddingModel, times(1)).embed(inputs.capture());
+        assertThat(inputs.getValue()).containsExactly("a", "bb", "ccc");
+        assertThat(meterRegistry.get("chat.embedding.batch.requests").summary().max()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Should flush without waiting once the batch is full")
+    void shouldFlushImmediately_whenBatchIsFull() {
+        stubLengthVectors();
+        EmbeddingBatcher batcher = createBatcher(2, Duration.ofHours(1));
+
+        StepVerifier.create(batcher.embed(List.of("a", "bb")))
+                .assertNext(vectors -> assertThat(vectors).hasSize(2))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should flush the pending batch before a request would overflow it")
+    void shouldFlushPendingBatch_beforeOverflow() {
+        stubLengthVectors();
+        EmbeddingBatcher batcher = createBatcher(3, Duration.ofMillis(50));
+
+        StepVerifier.create(Mono.zip(batcher.embed(List.of("a", "bb")), batcher.embed(List.of("ccc", "dddd"))))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).extracting(vector -> vector[0]).containsExactly(1f, 2f);
+                    assertThat(results.getT2()).extracting(vector -> vector[0]).containsExactly(3f, 4f);
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> inputs = ArgumentCaptor.forClass(List.class);
+        verify(embeddingModel, times(2)).embed(inputs.capture());
+        assertThat(inputs.getAllValues()).containsExactly(List.of("a", "bb"), List.of("ccc", "dddd"));
+    }
+
+    @Test
+    @DisplayName("Should split a request larger than the batch size and keep its order")
+    void shouldSplitOversizedRequest_acrossBatches() {
+        stubLengthVectors();
+        EmbeddingBatcher batcher = createBatcher(2, Duration.ofMillis(50));
+
+        StepVerifier.create(batcher.embed(List.of("a", "bb", "ccc", "dddd", "eeeee")))
+                .assertNext(vectors -> assertThat(vectors).extracting(vector -> vector[0])
+                        .containsExactly(1f, 2f, 3f, 4f, 5f))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> inputs = ArgumentCaptor.forClass(List.class);
+        verify(embeddingModel, times(3)).embed(inputs.capture());
+        assertThat(inputs.getAllValues()).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("Should not send texts of a caller that cancelled before dispatch")
+    void shouldDropCancelledRequest_beforeDispatch() {
+        stubLengthVectors();
+        EmbeddingBatcher batcher = createBatcher(100, Duration.ofMillis(100));
+
+        Disposable cancelled = batcher.embed(List.of("a")).subscribe();
+        cancelled.dispose();
+
+        StepVerifier.create(batcher.embed(List.of("bb")))
+                .assertNext(vectors -> assertThat(vectors).extracting(vector -> vector[0]).containsExactly(2f))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> inputs = ArgumentCaptor.forClass(List.class);
+        verify(embeddingModel, times(1)).embed(inputs.capture());
+        assertThat(inputs.getValue()).containsExactly("bb");
+    }
+
+    @Test
+    @DisplayName("Should fail the batch when the upstream call exceeds the request timeout")
+    void shouldFailBatch_whenUpstreamTimesOut() {
+        doAnswer(invocation -> {
+            Thread.sleep(1000);
+            return List.of(new float[]{1f});
+        }).when(embeddingModel).embed(anyList());
+        EmbeddingBatcher batcher = new EmbeddingBatcher(embeddingModel,
+                new EmbeddingProperties(100, Duration.ZERO, Duration.ofMillis(50)), meterRegistry);
+
+        StepVerifier.create(batcher.embed(List.of("a")))
+                .expectError(DeadlineExceededException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a batch when the upstream call fails")
+    void shouldFailEveryCaller_whenUpstreamFails() {
+        doThrow(new IllegalStateException("provider down")).when(embeddingModel).embed(anyList());
+        EmbeddingBatcher batcher = createBatcher(100, Duration.ofMillis(50));
+
+        Mono<List<float[]>> first = batcher.embed(List.of("a"));
+        Mono<List<float[]>> second = batcher.embed(List.of("b"));
+
+        StepVerifier.create(Mono.zipDelayError(first, second))
+                .expectErrorSatisfies(error -> assertThat(error).hasMessageContaining("provider down"))
+                .verify(Duration.ofSeconds(5));
+        verify(embeddingModel, times(1)).embed(anyList());
+    }
+
+    @Test
+    @DisplayName("Should complete empty input without calling the provider")
+    void shouldCompleteEmptyInput_withoutUpstreamCall() {
+        EmbeddingBatcher batcher = createBatcher(100, Duration.ofMillis(50));
+
+        StepVerifier.create(batcher.embed(List.of()))
+                .expectNext(List.of())
+                .verifyComplete();
+
+        verifyNoInteractions(embeddingModel);
+    }
+
+    private void stubLengthVectors() {
+        doAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            return texts.stream().map(text -> new float[]{text.length()}).toList();
+        }).when(embeddingModel).embed(anyList());
+    }
+
+    private EmbeddingBatcher createBatcher(int maxBatchSize, Duration maxWait) {
+        return new EmbeddingBatcher(embeddingModel, new EmbeddingProperties(maxBatchSize, maxWait, Duration.ofSeconds(5)), meterRegistry);
+    }
+}
@@ -0,0 +1,69 @@
+package com.puhovin.springopenai.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.openai.api.OpenAiApi;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("PromptCacheMetrics Unit Tests")
+class PromptCacheMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromptCacheMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new PromptCacheMetrics(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should record prompt and cached tokens from OpenAI usage")
+    void shouldRecordPromptAndCachedTokens() {
+        OpenAiApi.Usage nativeUsage = new OpenAiApi.Usage(
+                20, 100, 120, new OpenAiApi.Usage.PromptTokensDetails(null, 80), null);
+
+        metrics.record(chatResponse(new DefaultUsage(100, 20, 120, nativeUsage)));
+
+        assertThat(meterRegistry.get("chat.prompt.tokens").counter().count()).isEqualTo(100);
+        assertThat(meterRegistry.get("chat.prompt.cached.tokens").counter().count()).isEqualTo(80);
+        assertThat(meterRegistry.get("chat.prompt.cache.hit.ratio").summary().mean()).isEqualTo(0.8);
+    }
+
+    @Test
+    @DisplayName("Should treat missing native usage as zero cached tokens")
+    void shouldTreatMissingNativeUsageAsZeroCached() {
+        metrics.record(chatResponse(new DefaultUsage(50, 10, 60, null)));
+
+        assertThat(meterRegistry.get("chat.prompt.tokens").counter().count()).isEqualTo(50);
+        assertThat(meterRegistry.get("chat.prompt.cached.tokens").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should ignore responses without usage metadata")
+    void shouldIgnoreResponsesWithoutUsage() {
+        metrics.record(mock(ChatResponse.class));
+        metrics.record(null);
+
+        assertThat(meterRegistry.get("chat.prompt.tokens").counter().count()).isZero();
+        assertThat(meterRegistry.get("chat.prompt.cache.hit.ratio").summary().count()).isZero();
+    }
+
+    private static ChatResponse chatResponse(DefaultUsage usage) {
+        return new ChatResponse(
+                List.of(new Generation(new AssistantMessage("ok"))),
+                ChatResponseMetadata.builder().usage(usage).build()
+        );
+    }
+}
@@ -0,0 +1,155 @@
+package com.puhovin.springopenai.output;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StreamRedactor Unit Tests")
+class StreamRedactorTest {
+
+    private Counter redactions;
+
+    @BeforeEach
+    void setUp() {
+        redactions = new SimpleMeterRegistry().counter("redactions");
+    }
+
+    private StreamRedactor terms(String... terms) {
+        return new StreamRedactor(AhoCorasick.build(List.of(terms), true), null, 64, "***", redactions);
+    }
+
+    private StreamRedactor regex(String regex, int maxPatternLength) {
+        return new StreamRedactor(AhoCorasick.build(List.of(), true), Pattern.compile(regex).matcher(""),
+                maxPatternLength, "***", redactions);
+    }
+
+    private static String run(StreamRedactor redactor, String... chunks) {
+        StringBuilder out = new StringBuilder();
+        for (String chunk : chunks) {
+            out.append(redactor.next(chunk));
+        }
+        return out.append(redactor.finish()).toString();
+    }
+
+    private static List<String> splitEverywhere(String text, int at) {
+        List<String> chunks = new ArrayList<>();
+        chunks.add(text.substring(0, at));
+        chunks.add(text.substring(at));
+        return chunks;
+    }
+
+    @Nested
+    @DisplayName("Term matching tests")
+    class TermTests {
+
+        @Test
+        @DisplayName("Should redact a term at every possible chunk boundary")
+        void shouldRedactTerm_atEveryBoundary() {
+            String text = "my password is hunter2 ok";
+            for (int at = 0; at <= text.length(); at++) {
+                List<String> chunks = splitEverywhere(text, at);
+                assertThat(run(terms("hunter2"), chunks.toArray(String[]::new)))
+                        .as("split at %d", at)
+                        .isEqualTo("my password is *** ok");
+            }
+        }
+
+        @Test
+        @DisplayName("Should hold back only the prefix of a possible match")
+        void shouldHoldBackOnlyPossiblePrefix() {
+            StreamRedactor redactor = terms("secret");
+
+            assertThat(redactor.next("this is a sec")).isEqualTo("this is a ");
+            assertThat(redactor.next("ond try")).isEqualTo("second try");
+            assertThat(redactor.finish()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should emit text without any term prefix immediately")
+        void shouldEmitImmediately_whenNoPrefixPending() {
+            assertThat(terms("secret").next("nothing to see")).isEqualTo("nothing to see");
+        }
+
+        @Test
+        @DisplayName("Should merge overlapping matches into one replacement")
+        void shouldMergeOverlappingMatches() {
+            assertThat(run(terms("abc", "bcd"), "xab", "cdx")).isEqualTo("x***x");
+            assertThat(redactions.count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should prefer the longest term that shares a prefix")
+        void shouldPreferLongestTerm() {
+            assertThat(run(terms("ab", "abcd"), "ab", "cd!")).isEqualTo("***!");
+        }
+
+        @Test
+        @DisplayName("Should match terms ignoring case")
+        void shouldMatchIgnoringCase() {
+            assertThat(run(terms("Banned"), "a BAN", "nEd word")).isEqualTo("a *** word");
+        }
+
+        @Test
+        @DisplayName("Should release a dangling prefix when the stream ends")
+        void shouldReleasePrefix_onFinish() {
+            StreamRedactor redactor = terms("hunter2");
+
+            assertThat(redactor.next("hunt")).isEmpty();
+            assertThat(redactor.finish()).isEqualTo("hunt");
+        }
+    }
+
+    @Nested
+    @DisplayName("Pattern matching tests")
+    class PatternTests {
+
+        @Test
+        @DisplayName("Should redact a pattern match split across chunks")
+        void shouldRedactPattern_acrossChunks() {
+            String text = "card 4111 1111 1111 1111 expires soon";
+            for (int at = 0; at <= text.length(); at++) {
+                List<String> chunks = splitEverywhere(text, at);
+                assertThat(run(regex("\\b(?:\\d{4} ?){3}\\d{4}\\b", 24), chunks.toArray(String[]::new)))
+                        .as("split at %d", at)
+                        .isEqualTo("card *** expires soon");
+            }
+        }
+
+        @Test
+        @DisplayName("Should hold a match that could still grow")
+        void shouldHoldGrowingMatch() {
+            StreamRedactor redactor = regex("sk-[a-z0-9]{4,16}", 20);
+
+            assertThat(redactor.next("key sk-abcd")).isEqualTo("key ");
+            assertThat(redactor.next("ef1 then")).isEmpty();
+            assertThat(redactor.finish()).isEqualTo("*** then");
+        }
+
+        @Test
+        @DisplayName("Should bound the held-back tail by the maximum pattern length")
+        void shouldBoundHeldTail() {
+            StreamRedactor redactor = regex("sk-[a-z0-9]{4,16}", 8);
+
+            assertThat(redactor.next("plain text only")).isEqualTo("plain te");
+        }
+
+        @Test
+        @DisplayName("Should combine terms and patterns")
+        void shouldCombineTermsAndPatterns() {
+            StreamRedactor redactor = new StreamRedactor(AhoCorasick.build(List.of("internal"), true),
+                    Pattern.compile("[\\w.]+@[\\w.]+\\.com").matcher(""), 32, "***", redactions);
+
+            assertThat(run(redactor, "mail bob@example", ".com about the INTER", "NAL plan"))
+                    .isEqualTo("mail *** about the *** plan");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.puhovin.springopenai.overload;
+
+import com.puhovin.springopenai.config.OverloadProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("OverloadDetector Unit Tests")
+class OverloadDetectorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final OverloadSample CALM = new OverloadSample(5 * MS, 10, 0.4);
+
+    private SimpleMeterRegistry meterRegistry;
+    private OverloadDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        detector = new OverloadDetector(new OverloadProperties(true, Duration.ofMillis(100),
+                Duration.ofMillis(250), Duration.ofMillis(50), 10_000, 1_000, 0.9, 0.75,
+                Duration.ofSeconds(5), Duration.ofSeconds(5)), () -> () -> CALM, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should enter the overloaded state when event-loop lag crosses the limit")
+    void shouldEnterOverload_whenLagCrossesLimit() {
+        detector.evaluate(CALM, 0);
+        assertThat(detector.overloaded()).isFalse();
+
+        detector.evaluate(new OverloadSample(300 * MS, 10, 0.4), 100 * MS);
+
+        assertThat(detector.overloaded()).isTrue();
+        assertThat(detector.reason()).isEqualTo("event-loop-lag");
+        assertThat(meterRegistry.get("chat.overload.state").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.overload.transitions").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report pending tasks and heap pressure as reasons")
+    void shouldReportPendingTasksAndHeapPressure() {
+        detector.evaluate(new OverloadSample(0, 20_000, 0.4), 0);
+        assertThat(detector.reason()).isEqualTo("event-loop-pending-tasks");
+
+        OverloadDetector heapDetector = new OverloadDetector(new OverloadProperties(true, Duration.ofMillis(100),
+                Duration.ofMillis(250), Duration.ofMillis(50), 10_000, 1_000, 0.9, 0.75,
+                Duration.ofSeconds(5), Duration.ofSeconds(5)), () -> () -> CALM, new SimpleMeterRegistry());
+        heapDetector.evaluate(new OverloadSample(0, 0, 0.95), 0);
+        assertThat(heapDetector.reason()).isEqualTo("heap-after-gc");
+    }
+
+    @Test
+    @DisplayName("Should stay overloaded between the recover and max thresholds")
+    void shouldStayOverloaded_betweenThresholds() {
+        detector.evaluate(new OverloadSample(300 * MS, 10, 0.4), 0);
+
+        for (long t = 1; t <= 100; t++) {
+            detector.evaluate(new OverloadSample(100 * MS, 10, 0.4), t * 100 * MS);
+        }
+
+        assertThat(detector.overloaded()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should recover only after signals stay calm for the whole recovery period")
+    void shouldRecover_afterCalmRecoveryPeriod() {
+        detector.evaluate(new OverloadSample(300 * MS, 10, 0.4), 0);
+        detector.evaluate(CALM, 1_000 * MS);
+        detector.evaluate(CALM, 5_000 * MS);
+        detector.evaluate(new OverloadSample(80 * MS, 10, 0.4), 5_500 * MS);
+        detector.evaluate(CALM, 6_000 * MS);
+        detector.evaluate(CALM, 10_000 * MS);
+        assertThat(detector.overloaded()).isTrue();
+
+        detector.evaluate(CALM, 11_000 * MS);
+
+        assertThat(detector.overloaded()).isFalse();
+        assertThat(detector.reason()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should report OUT_OF_SERVICE to the readiness group while overloaded")
+    void shouldReportOutOfService_whileOverloaded() {
+        OverloadHealthIndicator indicator = new OverloadHealthIndicator(detector);
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+
+        detector.evaluate(new OverloadSample(300 * MS, 10, 0.4), 0);
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        assertThat(indicator.health().getDetails()).containsEntry("reason", "event-loop-lag");
+    }
+}
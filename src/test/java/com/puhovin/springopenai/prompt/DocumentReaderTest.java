@@ -0,0 +1,92 @@
+package com.puhovin.springopenai.prompt;
+
+import com.puhovin.springopenai.config.IngestionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@DisplayName("DocumentReader Unit Tests")
+class DocumentReaderTest {
+
+    private DocumentReader reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = new DocumentReader(new IngestionProperties(DataSize.ofMegabytes(1), DataSize.ofMegabytes(4), 128_000));
+    }
+
+    @Test
+    @DisplayName("Should decode a document spread over several buffers")
+    void shouldDecodeDocument_fromSeveralBuffers() {
+        StepVerifier.create(reader.read(Flux.just(buffer("first part, "), buffer("second part")), -1))
+                .expectNext("first part, second part")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should keep characters split across buffer boundaries intact")
+    void shouldKeepSplitCharactersIntact() {
+        String text = "naïve café — 日本語 🙂 done";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        for (int chunkSize = 1; chunkSize <= 5; chunkSize++) {
+            StepVerifier.create(reader.read(Flux.fromIterable(chunks(bytes, chunkSize)), bytes.length))
+                    .expectNext(text)
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    @DisplayName("Should decode documents larger than the output chunk")
+    void shouldDecodeLargeDocument() {
+        String text = "line of text\n".repeat(5_000);
+
+        StepVerifier.create(reader.read(Flux.just(buffer(text)), text.length()))
+                .expectNext(text)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should replace a truncated trailing character")
+    void shouldReplaceTruncatedTrailingCharacter() {
+        byte[] euro = "€".getBytes(StandardCharsets.UTF_8);
+
+        StepVerifier.create(reader.read(Flux.just(buffer("price "), buffer(Arrays.copyOf(euro, 2))), -1))
+                .expectNext("price �")
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should return an empty string for an empty body")
+    void shouldReturnEmpty_forEmptyBody() {
+        StepVerifier.create(reader.read(Flux.empty(), 0))
+                .expectNext("")
+                .verifyComplete();
+    }
+
+    private static List<DataBuffer> chunks(byte[] bytes, int chunkSize) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            buffers.add(buffer(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + chunkSize))));
+        }
+        return buffers;
+    }
+
+    private static DataBuffer buffer(String text) {
+        return buffer(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static DataBuffer buffer(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+}
@@ -0,0 +1,203 @@
+package com.puhovin.springopenai.prompt;
+
+import com.puhovin.springopenai.config.PromptProperties;
+import com.puhovin.springopenai.config.TemplateProperties;
+import com.puhovin.springopenai.dto.ChatMessage;
+import com.puhovin.springopenai.dto.ChatRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PromptAssembler Unit Tests")
+class PromptAssemblerTest {
+
+    @Nested
+    @DisplayName("assemble() tests")
+    class AssembleTests {
+
+        @Test
+        @DisplayName("Should put system prompt first, then history, then the current message")
+        void shouldOrderSystemHistoryAndMessage() {
+            PromptAssembler assembler = assembler(new PromptProperties("Be brief.", 8, 32));
+            ChatRequest request = new ChatRequest("Current", List.of(
+                    new ChatMessage(ChatMessage.Role.USER, "Question"),
+                    new ChatMessage(ChatMessage.Role.ASSISTANT, "Answer")
+            ));
+
+            Prompt prompt = assembler.assemble(request);
+
+            assertThat(prompt.getInstructions())
+                    .extracting(Message::getMessageType)
+                    .containsExactly(MessageType.SYSTEM, MessageType.USER, MessageType.ASSISTANT, MessageType.USER);
+            assertThat(prompt.getInstructions())
+                    .extracting(Message::getText)
+                    .containsExactly("Be brief.", "Question", "Answer", "Current");
+        }
+
+        @Test
+        @DisplayName("Should omit system message when system prompt is blank")
+        void shouldOmitSystemMessage_whenSystemPromptIsBlank() {
+            PromptAssembler assembler = assembler(new PromptProperties("  ", 8, 32));
+
+            Prompt prompt = assembler.assemble(new ChatRequest("Hello"));
+
+            assertThat(prompt.getInstructions()).hasSize(1);
+            assertThat(prompt.getContents()).isEqualTo("Hello");
+        }
+
+        @Test
+        @DisplayName("Should normalize line endings of system prompt and history")
+        void shouldNormalizeLineEndings() {
+            PromptAssembler assembler = assembler(new PromptProperties("Line1\r\nLine2\r\n", 8, 32));
+            ChatRequest request = new ChatRequest("Now", List.of(new ChatMessage(ChatMessage.Role.USER, "a\r\nb")));
+
+            Prompt prompt = assembler.assemble(request);
+
+            assertThat(prompt.getInstructions())
+                    .extracting(Message::getText)
+                    .containsExactly("Line1\nLine2", "a\nb", "Now");
+        }
+
+        @Test
+        @DisplayName("Should produce identical prefixes for identical input")
+        void shouldProduceIdenticalPrefixes_forIdenticalInput() {
+            PromptAssembler assembler = assembler(new PromptProperties("System", 8, 32));
+            List<ChatMessage> history = history(5);
+
+            Prompt first = assembler.assemble(new ChatRequest("First", history));
+            Prompt second = assembler.assemble(new ChatRequest("Second", history));
+
+            assertThat(first.getInstructions().subList(0, 6))
+                    .extracting(Message::getText)
+                    .isEqualTo(second.getInstructions().subList(0, 6).stream().map(Message::getText).toList());
+        }
+    }
+
+    @Nested
+    @DisplayName("Template tests")
+    class TemplateTests {
+
+        private final PromptAssembler assembler = new PromptAssembler(new PromptProperties("System", 8, 32),
+                templates(Map.of(
+                        "triage", new TemplateProperties.Definition("Triage tickets for {product}.", null),
+                        "wrapped", new TemplateProperties.Definition(null, "Ticket:\n{message}"))));
+
+        @Test
+        @DisplayName("Should put the template's system part after the system prompt and before history")
+        void shouldPlaceTemplateSystemPart_beforeHistory() {
+            ChatRequest request = new ChatRequest("Printer jams", history(2), "triage", Map.of("product", "Acme"));
+
+            Prompt prompt = assembler.assemble(request);
+
+            assertThat(prompt.getInstructions())
+                    .extracting(Message::getMessageType)
+                    .containsExactly(MessageType.SYSTEM, MessageType.SYSTEM, MessageType.USER, MessageType.ASSISTANT,
+                            MessageType.USER);
+            assertThat(prompt.getInstructions())
+                    .extracting(Message::getText)
+                    .containsExactly("System", "Triage tickets for Acme.", "Turn 0", "Turn 1", "Printer jams");
+        }
+
+        @Test
+        @DisplayName("Should wrap the message with the template's user part")
+        void shouldWrapMessage_withUserPart() {
+            Prompt prompt = assembler.assemble(new ChatRequest("Printer jams", List.of(), "wrapped", Map.of()));
+
+            assertThat(prompt.getInstructions())
+                    .extracting(Message::getText)
+                    .containsExactly("System", "Ticket:\nPrinter jams");
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown template with 400")
+        void shouldRejectUnknownTemplate() {
+            ChatRequest request = new ChatRequest("Hello", List.of(), "missing", Map.of());
+
+            assertThatThrownBy(() -> assembler.assemble(request))
+                    .isInstanceOf(PromptTemplateException.class)
+                    .satisfies(ex -> assertThat(((PromptTemplateException) ex).getStatusCode().value()).isEqualTo(400));
+        }
+
+        @Test
+        @DisplayName("Should route templated requests on the rendered template text")
+        void shouldExposeRenderedText_forRouting() {
+            ChatRequest request = new ChatRequest("Printer jams", history(2), "triage", Map.of("product", "Acme"));
+
+            ChatRequest view = assembler.routingView(request, assembler.render(request));
+
+            assertThat(view.message()).isEqualTo("Triage tickets for Acme.\n\nPrinter jams");
+            assertThat(view.history()).isEqualTo(request.history());
+            assertThat(view.template()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should route untemplated requests as they are")
+        void shouldKeepRequest_whenNoTemplate() {
+            ChatRequest request = new ChatRequest("Hello");
+
+            assertThat(assembler.routingView(request, assembler.render(request))).isSameAs(request);
+        }
+    }
+
+    @Nested
+    @DisplayName("compact() tests")
+    class CompactTests {
+
+        @Test
+        @DisplayName("Should keep history untouched when within the limit")
+        void shouldKeepHistory_whenWithinLimit() {
+            PromptAssembler assembler = assembler(new PromptProperties("", 4, 8));
+            List<ChatMessage> history = history(8);
+
+            assertThat(assembler.compact(history)).isEqualTo(history);
+        }
+
+        @Test
+        @DisplayName("Should drop oldest history in whole blocks when over the limit")
+        void shouldDropWholeBlocks_whenOverLimit() {
+            PromptAssembler assembler = assembler(new PromptProperties("", 4, 8));
+
+            assertThat(assembler.compact(history(9))).isEqualTo(history(9).subList(4, 9));
+            assertThat(assembler.compact(history(12))).isEqualTo(history(12).subList(4, 12));
+            assertThat(assembler.compact(history(13))).isEqualTo(history(13).subList(8, 13));
+        }
+
+        @Test
+        @DisplayName("Should keep the same first retained turn while history grows inside a block")
+        void shouldKeepStablePrefix_whileHistoryGrowsInsideBlock() {
+            PromptAssembler assembler = assembler(new PromptProperties("", 4, 8));
+
+            ChatMessage firstAfter9 = assembler.compact(history(9)).get(0);
+            ChatMessage firstAfter11 = assembler.compact(history(11)).get(0);
+
+            assertThat(firstAfter9).isEqualTo(firstAfter11);
+        }
+    }
+
+    private static PromptAssembler assembler(PromptProperties properties) {
+        return new PromptAssembler(properties, templates(Map.of()));
+    }
+
+    private static PromptTemplates templates(Map<String, TemplateProperties.Definition> definitions) {
+        return new PromptTemplates(new TemplateProperties(null, Duration.ofSeconds(5), definitions),
+                new SimpleMeterRegistry());
+    }
+
+    private static List<ChatMessage> history(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new ChatMessage(i % 2 == 0 ? ChatMessage.Role.USER : ChatMessage.Role.ASSISTANT, "Turn " + i))
+                .toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.puhovin.springopenai.prompt;
+
+import com.puhovin.springopenai.config.TemplateProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PromptTemplates Unit Tests")
+class PromptTemplatesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private PromptTemplates templates(Path directory, Map<String, TemplateProperties.Definition> definitions) {
+        return new PromptTemplates(new TemplateProperties(directory, Duration.ofSeconds(5), definitions), meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("Rendering tests")
+    class RenderTests {
+
+        @Test
+        @DisplayName("Should substitute every placeholder and leave other braces alone")
+        void shouldSubstitutePlaceholders_andKeepOtherBraces() {
+            CompiledTemplate template = CompiledTemplate.compile("t",
+                    "Answer as {\"lang\": \"{lang}\"} for {user.name}, not {} or { lang }.");
+
+            assertThat(template.render(Map.of("lang", "de", "user.name", "Ann"), "ignored"))
+                    .isEqualTo("Answer as {\"lang\": \"de\"} for Ann, not {} or { lang }.");
+            assertThat(template.variables()).containsExactly("lang", "user.name");
+        }
+
+        @Test
+        @DisplayName("Should insert values verbatim without expanding placeholders inside them")
+        void shouldInsertValuesVerbatim() {
+            CompiledTemplate template = CompiledTemplate.compile("t", "Q: {message}");
+
+            assertThat(template.render(Map.of("message", "other", "x", "y"), "{x}")).isEqualTo("Q: {x}");
+        }
+
+        @Test
+        @DisplayName("Should return the same instance for a template without placeholders")
+        void shouldReturnSameInstance_forStaticTemplate() {
+            CompiledTemplate template = CompiledTemplate.compile("t", "Be brief.");
+
+            assertThat(template.render(Map.of(), "a")).isSameAs(template.render(Map.of("k", "v"), "b"));
+        }
+
+        @Test
+        @DisplayName("Should reject a missing variable with 400")
+        void shouldRejectMissingVariable() {
+            PromptTemplates templates = templates(null,
+                    Map.of("triage", new TemplateProperties.Definition("For {product}", null)));
+
+            assertThatThrownBy(() -> templates.render("triage", Map.of(), "hi"))
+                    .isInstanceOf(PromptTemplateException.class)
+                    .hasMessageContaining("missing variable product")
+                    .satisfies(ex -> assertThat(((PromptTemplateException) ex).getStatusCode().value()).isEqualTo(400));
+        }
+
+        @Test
+        @DisplayName("Should record render time per template")
+        void shouldRecordRenderTime() {
+            PromptTemplates templates = templates(null,
+                    Map.of("triage", new TemplateProperties.Definition("For {product}", null)));
+
+            templates.render("triage", Map.of("product", "Acme"), "hi");
+
+            assertThat(meterRegistry.get("chat.template.render").tag("template", "triage").timer().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("Directory tests")
+    class DirectoryTests {
+
+        @TempDir
+        private Path directory;
+
+        @Test
+        @DisplayName("Should load system and user parts from files and override configured parts")
+        void shouldLoadFiles_overConfig() throws IOException {
+            Files.writeString(directory.resolve("triage.st"), "From file {product}\r\n");
+            Files.writeString(directory.resolve("triage.user.st"), "Ticket: {message}");
+            Files.writeString(directory.resolve("notes.txt"), "ignored");
+            PromptTemplates templates = templates(directory,
+                    Map.of("triage", new TemplateProperties.Definition("From config", null),
+                            "plain", new TemplateProperties.Definition("Plain", null)));
+
+            assertThat(templates.render("triage", Map.of("product", "Acme"), "Jam"))
+                    .isEqualTo(new PromptTemplates.Rendered("From file Acme", "Ticket: Jam"));
+            assertThat(templates.snapshot())
+                    .extracting(TemplateSnapshot::template)
+                    .containsExactly("plain", "triage");
+        }
+
+        @Test
+        @DisplayName("Should pick up changed, added and removed files on reload")
+        void shouldReloadChangedFiles() throws IOException {
+            Path file = directory.resolve("triage.st");
+            Files.writeString(file, "Version 1");
+            PromptTemplates templates = templates(directory, Map.of());
+
+            Files.writeString(file, "Version 2");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+            Files.writeString(directory.resolve("summary.st"), "Summarize");
+            templates.reloadIfChanged();
+
+            assertThat(templates.render("triage", Map.of(), "m").system()).isEqualTo("Version 2");
+            assertThat(templates.render("summary", Map.of(), "m").system()).isEqualTo("Summarize");
+
+            Files.delete(file);
+            templates.reloadIfChanged();
+
+            assertThatThrownBy(() -> templates.render("triage", Map.of(), "m"))
+                    .isInstanceOf(PromptTemplateException.class);
+            assertThat(meterRegistry.get("chat.template.reloads").tag("outcome", "applied").counter().count())
+                    .isEqualTo(2);
+            assertThat(meterRegistry.find("chat.template.render").timers())
+                    .extracting(timer -> timer.getId().getTag("template"))
+                    .containsExactly("summary");
+        }
+    }
+}
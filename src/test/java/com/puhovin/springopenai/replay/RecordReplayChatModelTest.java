@@ -0,0 +1,168 @@
+package com.puhovin.springopenai.replay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatGenerationMetadata;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RecordingChatModel and ReplayChatModel Unit Tests")
+class RecordReplayChatModelTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ChatModel delegate;
+
+    private RecordingStore store;
+
+    private final Prompt prompt = new Prompt("Tell me a story");
+
+    @BeforeEach
+    void setUp() {
+        store = new RecordingStore(directory);
+    }
+
+    @Nested
+    @DisplayName("recording tests")
+    class RecordingTests {
+
+        @Test
+        @DisplayName("Should store streamed chunks with the time between them")
+        void shouldStoreStreamedChunks_withTiming() {
+            doReturn(Flux.just(response("Once", null), response(" upon", null), response(" a time", "STOP"))
+                    .delayElements(Duration.ofMillis(40)))
+                    .when(delegate).stream(prompt);
+            RecordingChatModel recorder = new RecordingChatModel(delegate, store);
+
+            StepVerifier.create(recorder.stream(prompt))
+                    .expectNextCount(3)
+                    .verifyComplete();
+
+            List<RecordedChunk> chunks = store.load(prompt).orElseThrow();
+            assertThat(chunks).extracting(RecordedChunk::text).containsExactly("Once", " upon", " a time");
+            assertThat(chunks.get(2).finishReason()).isEqualTo("STOP");
+            assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.delayMicros()).isGreaterThanOrEqualTo(30_000));
+        }
+
+        @Test
+        @DisplayName("Should not store a stream that failed")
+        void shouldNotStoreFailedStream() {
+            doReturn(Flux.concat(Flux.just(response("Once", null)), Flux.error(new IllegalStateException("boom"))))
+                    .when(delegate).stream(prompt);
+            RecordingChatModel recorder = new RecordingChatModel(delegate, store);
+
+            StepVerifier.create(recorder.stream(prompt))
+                    .expectNextCount(1)
+                    .verifyError(IllegalStateException.class);
+
+            assertThat(store.load(prompt)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("replay tests")
+    class ReplayTests {
+
+        @BeforeEach
+        void record() {
+            store.save(prompt, List.of(
+                    new RecordedChunk(400_000, "Once", null, null, null),
+                    new RecordedChunk(100_000, " upon", null, null, null),
+                    new RecordedChunk(200_000, null, "STOP", 12, 2)));
+        }
+
+        @Test
+        @DisplayName("Should replay chunks with the recorded timing")
+        void shouldReplayChunks_withRecordedTiming() {
+            ReplayChatModel replay = new ReplayChatModel(store, 1.0, null);
+
+            StepVerifier.withVirtualTime(() -> replay.stream(prompt).map(response -> response.getResult().getOutput().getText()))
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofMillis(399))
+                    .thenAwait(Duration.ofMillis(1))
+                    .expectNext("Once")
+                    .expectNoEvent(Duration.ofMillis(99))
+                    .thenAwait(Duration.ofMillis(1))
+                    .expectNext(" upon")
+                    .thenAwait(Duration.ofMillis(200))
+                    .expectNext("")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should scale the recorded timing")
+        void shouldScaleRecordedTiming() {
+            ReplayChatModel replay = new ReplayChatModel(store, 0.5, null);
+
+            StepVerifier.withVirtualTime(() -> replay.stream(prompt))
+                    .expectSubscription()
+                    .expectNoEvent(Duration.ofMillis(199))
+                    .thenAwait(Duration.ofMillis(1))
+                    .expectNextCount(1)
+                    .thenAwait(Duration.ofMillis(150))
+                    .expectNextCount(2)
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should replay usage and finish reason on the last chunk")
+        void shouldReplayUsageAndFinishReason() {
+            ReplayChatModel replay = new ReplayChatModel(store, 0, null);
+
+            StepVerifier.create(replay.stream(prompt).last())
+                    .assertNext(response -> {
+                        assertThat(response.getResult().getMetadata().getFinishReason()).isEqualTo("STOP");
+                        assertThat(response.getMetadata().getUsage().getPromptTokens()).isEqualTo(12);
+                        assertThat(response.getMetadata().getUsage().getCompletionTokens()).isEqualTo(2);
+                    })
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should aggregate the recording for blocking calls")
+        void shouldAggregateRecording_forCall() {
+            ReplayChatModel replay = new ReplayChatModel(store, 0, null);
+
+            ChatResponse response = replay.call(prompt);
+
+            assertThat(response.getResult().getOutput().getText()).isEqualTo("Once upon");
+        }
+
+        @Test
+        @DisplayName("Should fail when the prompt was never recorded")
+        void shouldFail_whenPromptNotRecorded() {
+            ReplayChatModel replay = new ReplayChatModel(store, 0, null);
+
+            StepVerifier.create(replay.stream(new Prompt("Something else")))
+                    .expectErrorMatches(error -> error instanceof IllegalStateException
+                            && error.getMessage().startsWith("No recording for prompt"))
+                    .verify();
+        }
+    }
+
+    private static ChatResponse response(String text, String finishReason) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text),
+                ChatGenerationMetadata.builder().finishReason(finishReason).build())));
+    }
+}
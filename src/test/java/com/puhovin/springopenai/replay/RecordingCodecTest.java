@@ -0,0 +1,50 @@
+package com.puhovin.springopenai.replay;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RecordingCodec Unit Tests")
+class RecordingCodecTest {
+
+    @Test
+    @DisplayName("Should round-trip chunks with optional fields and non-ASCII text")
+    void shouldRoundTripChunks() throws IOException {
+        List<RecordedChunk> chunks = List.of(
+                new RecordedChunk(412_000, "Привет", null, null, null),
+                new RecordedChunk(35, ", мир", null, null, null),
+                new RecordedChunk(0, null, "STOP", 12, 3));
+
+        assertThat(roundTrip(chunks)).isEqualTo(chunks);
+    }
+
+    @Test
+    @DisplayName("Should keep small chunks compact")
+    void shouldKeepSmallChunksCompact() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordingCodec.write(List.of(new RecordedChunk(20_000, "Hi", null, null, null)), out);
+
+        assertThat(out.size()).isLessThanOrEqualTo(4 + 1 + 3 + 1 + 1 + 2);
+    }
+
+    @Test
+    @DisplayName("Should reject data that is not a recording")
+    void shouldRejectForeignData() {
+        assertThatThrownBy(() -> RecordingCodec.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not a chat recording");
+    }
+
+    private static List<RecordedChunk> roundTrip(List<RecordedChunk> chunks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RecordingCodec.write(chunks, out);
+        return RecordingCodec.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,128 @@
+package com.puhovin.springopenai.routing;
+
+import com.puhovin.springopenai.config.RoutingProperties;
+import com.puhovin.springopenai.dto.ChatMessage;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.metrics.ModelTierMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ModelRouter Unit Tests")
+class ModelRouterTest {
+
+    private static final RoutingProperties ROUTING =
+            new RoutingProperties("gpt-fast", "", 20, 2, List.of("explain", "```"));
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Nested
+    @DisplayName("route() tests")
+    class RouteTests {
+
+        @Test
+        @DisplayName("Should route a short plain question to the fast tier")
+        void shouldRouteShortQuestion_toFastTier() {
+            assertThat(createRouter(ROUTING, Map.of()).route(new ChatRequest("What is 2 + 2?")))
+                    .isEqualTo(ModelTier.FAST);
+        }
+
+        @Test
+        @DisplayName("Should route long prompts to the standard tier")
+        void shouldRouteLongPrompt_toStandardTier() {
+            ChatRequest request = new ChatRequest("word ".repeat(40));
+
+            assertThat(createRouter(ROUTING, Map.of()).route(request)).isEqualTo(ModelTier.STANDARD);
+        }
+
+        @Test
+        @DisplayName("Should route prompts with complexity keywords to the standard tier, ignoring case")
+        void shouldRouteKeywordPrompt_toStandardTier() {
+            assertThat(createRouter(ROUTING, Map.of()).route(new ChatRequest("EXPLAIN recursion")))
+                    .isEqualTo(ModelTier.STANDARD);
+        }
+
+        @Test
+        @DisplayName("Should route requests with long history to the standard tier")
+        void shouldRouteLongHistory_toStandardTier() {
+            List<ChatMessage> history = Collections.nCopies(3, new ChatMessage(ChatMessage.Role.USER, "hi"));
+
+            assertThat(createRouter(ROUTING, Map.of()).route(new ChatRequest("ok?", history)))
+                    .isEqualTo(ModelTier.STANDARD);
+        }
+
+        @Test
+        @DisplayName("Should keep everything on the standard tier when no fast model is configured")
+        void shouldKeepStandardTier_whenRoutingDisabled() {
+            RoutingProperties disabled = new RoutingProperties("", "", 20, 2, List.of());
+
+            assertThat(createRouter(disabled, Map.of()).route(new ChatRequest("Hi"))).isEqualTo(ModelTier.STANDARD);
+            assertThat(meterRegistry.get("chat.routing.decisions").tag("tier", "standard").counter().count())
+                    .isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("Should prefer a pluggable classifier and fall back to the heuristic when it abstains")
+        void shouldPreferPluggableClassifier() {
+            RequestClassifier classifier = request -> request.message().startsWith("!") ? ModelTier.STANDARD : null;
+            ModelRouter router = createRouter(ROUTING, Map.of("custom", classifier));
+
+            assertThat(router.route(new ChatRequest("!short"))).isEqualTo(ModelTier.STANDARD);
+            assertThat(router.route(new ChatRequest("short"))).isEqualTo(ModelTier.FAST);
+        }
+    }
+
+    @Nested
+    @DisplayName("apply() tests")
+    class ApplyTests {
+
+        @Test
+        @DisplayName("Should override the model per request for a configured tier")
+        void shouldOverrideModel_forConfiguredTier() {
+            Prompt prompt = createRouter(ROUTING, Map.of()).apply(ModelTier.FAST, new Prompt("Hi"));
+
+            assertThat(prompt.getOptions().getModel()).isEqualTo("gpt-fast");
+        }
+
+        @Test
+        @DisplayName("Should keep existing options when overriding the model")
+        void shouldKeepExistingOptions_whenOverridingModel() {
+            Prompt original = new Prompt("Hi", OpenAiChatOptions.builder().temperature(0.1).build());
+
+            Prompt prompt = createRouter(ROUTING, Map.of()).apply(ModelTier.FAST, original);
+
+            assertThat(prompt.getOptions().getModel()).isEqualTo("gpt-fast");
+            assertThat(prompt.getOptions().getTemperature()).isEqualTo(0.1);
+        }
+
+        @Test
+        @DisplayName("Should leave the prompt untouched for a tier without a model")
+        void shouldLeavePromptUntouched_forTierWithoutModel() {
+            Prompt original = new Prompt("Hi");
+
+            assertThat(createRouter(ROUTING, Map.of()).apply(ModelTier.STANDARD, original)).isSameAs(original);
+        }
+    }
+
+    private ModelRouter createRouter(RoutingProperties properties, Map<String, Object> classifiers) {
+        return new ModelRouter(properties,
+                new StaticListableBeanFactory(classifiers).getBeanProvider(RequestClassifier.class),
+                new ModelTierMetrics(meterRegistry));
+    }
+}
@@ -1,27 +1,75 @@
 package com.puhovin.springopenai.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puhovin.springopenai.config.BulkheadProperties;
+import com.puhovin.springopenai.config.DeadlineProperties;
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.config.PromptProperties;
+import com.puhovin.springopenai.config.RoutingProperties;
+import com.puhovin.springopenai.config.TemplateProperties;
+import com.puhovin.springopenai.config.ToolProperties;
+import com.puhovin.springopenai.config.TracingProperties;
+import com.puhovin.springopenai.config.UsageProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.context.PriorityClass;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.metrics.ModelTierMetrics;
+import com.puhovin.springopenai.metrics.PromptCacheMetrics;
+import com.puhovin.springopenai.output.OutputFilter;
+import com.puhovin.springopenai.output.OutputFilters;
+import com.puhovin.springopenai.prompt.PromptAssembler;
+import com.puhovin.springopenai.prompt.PromptTemplateException;
+import com.puhovin.springopenai.prompt.PromptTemplates;
+import com.puhovin.springopenai.routing.ModelRouter;
+import com.puhovin.springopenai.routing.RequestClassifier;
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import com.puhovin.springopenai.tenant.TenantChatModelFactory;
+import com.puhovin.springopenai.tool.ToolExecutor;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import com.puhovin.springopenai.upstream.DeadlineGuard;
+import com.puhovin.springopenai.upstream.WeightedFairQueue;
+import com.puhovin.springopenai.usage.UsageEntry;
+import com.puhovin.springopenai.usage.UsageLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("OpenAiChatService Unit Tests")
@@ -30,9 +78,53 @@ class OpenAiChatServiceTest {
     @Mock
     private OpenAiChatModel chatModel;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
+
+    private TenantBulkheads bulkheads;
+    private UsageLedger usageLedger;
+
+    private ObservationRegistry observationRegistry;
+
     private OpenAiChatService service;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheads = new TenantBulkheads(new BulkheadProperties(true, null, Duration.ofSeconds(10), Duration.ofSeconds(60),
+                new BulkheadProperties.Limits(8, 50, Duration.ofSeconds(10)), Map.of()),
+                new StandardEnvironment(), mock(TenantChatModelFactory.class), meterRegistry);
+        usageLedger = new UsageLedger(new UsageProperties(null, Duration.ofSeconds(60), Map.of()),
+                bulkheads, meterRegistry, new ObjectMapper(), "gpt-test");
+        observationRegistry = ObservationRegistry.create();
+        service = createService(Map.of());
+    }
+
+    private OpenAiChatService createService(Map<String, Object> tools) {
+        return createService(tools, new RoutingProperties("", "", 256, 4, List.of()));
+    }
+
+    private OpenAiChatService createService(Map<String, Object> tools, RoutingProperties routing) {
+        ModelTierMetrics tierMetrics = new ModelTierMetrics(meterRegistry);
+        return new OpenAiChatService(
+                chatModel,
+                new PromptAssembler(new PromptProperties("", 8, 32),
+                        new PromptTemplates(new TemplateProperties(null, Duration.ofSeconds(5), Map.of()), meterRegistry)),
+                new PromptCacheMetrics(meterRegistry),
+                new WeightedFairQueue(new PriorityProperties(PriorityClass.INTERACTIVE, 32, Map.of(), Map.of()), meterRegistry),
+                new DeadlineGuard(new DeadlineProperties(Duration.ofMillis(800), 0.2, Duration.ofSeconds(10)), Clock.systemUTC(), meterRegistry),
+                new ToolExecutor(new StaticListableBeanFactory(tools).getBeanProvider(ToolCallback.class),
+                        new ToolProperties(4, Duration.ofSeconds(5), 5, Duration.ofMinutes(5), 100, Map.of()),
+                        meterRegistry),
+                new ModelRouter(routing, new StaticListableBeanFactory().getBeanProvider(RequestClassifier.class), tierMetrics),
+                tierMetrics,
+                usageLedger,
+                new ChatObservations(observationRegistry,
+                        new TracingProperties(true, Duration.ofSeconds(5), 1000, 256, Duration.ofMinutes(5))),
+                bulkheads,
+                new OutputFilters(new StaticListableBeanFactory().getBeanProvider(OutputFilter.class))
+        );
+    }
+
     @Nested
     @DisplayName("chat() tests")
     class ChatTests {
@@ -46,7 +138,7 @@ class OpenAiChatServiceTest {
 
             doReturn(response).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(message);
+            Mono<String> result = service.chat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext(expectedResponse)
@@ -60,6 +152,18 @@ class OpenAiChatServiceTest {
             assertThat(capturedPrompt.getContents()).isEqualTo(message);
         }
 
+        @Test
+        @DisplayName("Should reject an unknown template before taking a queue slot")
+        void shouldRejectUnknownTemplate_beforeQueueing() {
+            StepVerifier.create(service.chat(new ChatRequest("Hello", List.of(), "missing", Map.of())))
+                    .expectError(PromptTemplateException.class)
+                    .verify();
+
+            verifyNoInteractions(chatModel);
+            assertThat(meterRegistry.get("chat.queue.time").timers())
+                    .allSatisfy(timer -> assertThat(timer.count()).isZero());
+        }
+
         @Test
         @DisplayName("Should return empty string when content is null")
         void shouldReturnEmptyString_whenContentIsNull() {
@@ -68,7 +172,7 @@ class OpenAiChatServiceTest {
 
             doReturn(response).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(message);
+            Mono<String> result = service.chat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext("")
@@ -85,7 +189,7 @@ class OpenAiChatServiceTest {
 
             doReturn(response).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(message);
+            Mono<String> result = service.chat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext("")
@@ -101,7 +205,7 @@ class OpenAiChatServiceTest {
             RuntimeException expectedException = new RuntimeException("Chat model error");
             doThrow(expectedException).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(message);
+            Mono<String> result = service.chat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectErrorMatches(throwable ->
@@ -121,7 +225,7 @@ class OpenAiChatServiceTest {
 
             doReturn(response).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(emptyMessage);
+            Mono<String> result = service.chat(new ChatRequest(emptyMessage));
 
             StepVerifier.create(result)
                     .expectNext(expectedResponse)
@@ -143,7 +247,7 @@ class OpenAiChatServiceTest {
 
             doReturn(response).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(longMessage);
+            Mono<String> result = service.chat(new ChatRequest(longMessage));
 
             StepVerifier.create(result)
                     .expectNext(expectedResponse)
@@ -161,7 +265,7 @@ class OpenAiChatServiceTest {
 
             doReturn(response).when(chatModel).call(any(Prompt.class));
 
-            Mono<String> result = service.chat(messageWithSpecialChars);
+            Mono<String> result = service.chat(new ChatRequest(messageWithSpecialChars));
 
             StepVerifier.create(result)
                     .expectNext(expectedResponse)
@@ -175,6 +279,101 @@ class OpenAiChatServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("tool calling tests")
+    class ToolCallingTests {
+
+        @Test
+        @DisplayName("Should execute requested tools and send their results back to the model")
+        void shouldExecuteTools_andSendResultsBack() {
+            ToolCallback weather = mock(ToolCallback.class);
+            ToolDefinition definition = mock(ToolDefinition.class);
+            doReturn("weather").when(definition).name();
+            doReturn(definition).when(weather).getToolDefinition();
+            doReturn("{\"sky\":\"clear\"}").when(weather).call("{\"city\":\"Paris\"}");
+            OpenAiChatService toolService = createService(Map.of("weather", weather));
+
+            AssistantMessage.ToolCall call = new AssistantMessage.ToolCall("call-1", "function", "weather", "{\"city\":\"Paris\"}");
+            doReturn(createToolCallResponse(call), createChatResponse("Clear skies in Paris"))
+                    .when(chatModel).call(any(Prompt.class));
+
+            StepVerifier.create(toolService.chat(new ChatRequest("Weather in Paris?")))
+                    .expectNext("Clear skies in Paris")
+                    .verifyComplete();
+
+            ArgumentCaptor<Prompt> promptCaptor = ArgumentCaptor.forClass(Prompt.class);
+            verify(chatModel, times(2)).call(promptCaptor.capture());
+            List<Message> followUp = promptCaptor.getAllValues().get(1).getInstructions();
+            assertThat(followUp).hasSize(3);
+            assertThat(((ToolResponseMessage) followUp.get(2)).getResponses())
+                    .extracting(ToolResponseMessage.ToolResponse::responseData)
+                    .containsExactly("{\"sky\":\"clear\"}");
+        }
+    }
+
+    @Nested
+    @DisplayName("model routing tests")
+    class ModelRoutingTests {
+
+        @Test
+        @DisplayName("Should send a simple prompt to the fast model and record the tier")
+        void shouldSendSimplePrompt_toFastModel() {
+            OpenAiChatService routedService = createService(Map.of(),
+                    new RoutingProperties("gpt-fast", "", 256, 4, List.of("explain")));
+            doReturn(createChatResponse("Paris")).when(chatModel).call(any(Prompt.class));
+
+            StepVerifier.create(routedService.chat(new ChatRequest("Capital of France?")))
+                    .expectNext("Paris")
+                    .verifyComplete();
+
+            ArgumentCaptor<Prompt> promptCaptor = ArgumentCaptor.forClass(Prompt.class);
+            verify(chatModel).call(promptCaptor.capture());
+            assertThat(promptCaptor.getValue().getOptions().getModel()).isEqualTo("gpt-fast");
+            assertThat(meterRegistry.get("chat.routing.decisions").tag("tier", "fast").counter().count())
+                    .isEqualTo(1.0);
+            assertThat(meterRegistry.get("chat.routing.latency").tag("tier", "fast").tag("mode", "chat").timer().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("usage accounting tests")
+    class UsageAccountingTests {
+
+        @Test
+        @DisplayName("Should charge reported usage to the client's tenant and the responding model")
+        void shouldChargeUsage_toTenantAndModel() {
+            ChatResponse response = createChatResponse("Hi");
+            ChatResponseMetadata metadata = mock(ChatResponseMetadata.class);
+            doReturn(new DefaultUsage(100, 20)).when(metadata).getUsage();
+            doReturn("gpt-responding").when(metadata).getModel();
+            doReturn(metadata).when(response).getMetadata();
+            doReturn(response).when(chatModel).call(any(Prompt.class));
+
+            StepVerifier.create(service.chat(new ChatRequest("Hello"))
+                            .contextWrite(Context.of(ChatRequestContext.class,
+                                    new ChatRequestContext("team-a", PriorityClass.INTERACTIVE, null))))
+                    .expectNext("Hi")
+                    .verifyComplete();
+
+            assertThat(usageLedger.entries()).containsExactly(
+                    new UsageEntry(TenantBulkheads.DEFAULT_TENANT, "gpt-responding", 1, 100, 0, 20, 0));
+        }
+    }
+
+    private ChatResponse createToolCallResponse(AssistantMessage.ToolCall call) {
+        ChatResponse chatResponse = mock(ChatResponse.class);
+        Generation generation = mock(Generation.class);
+        AssistantMessage output = mock(AssistantMessage.class);
+
+        doReturn(true).when(output).hasToolCalls();
+        doReturn(List.of(call)).when(output).getToolCalls();
+        doReturn(output).when(generation).getOutput();
+        doReturn(generation).when(chatResponse).getResult();
+
+        return chatResponse;
+    }
+
     private ChatResponse createChatResponse(String text) {
         ChatResponse chatResponse = mock(ChatResponse.class);
         Generation generation = mock(Generation.class);
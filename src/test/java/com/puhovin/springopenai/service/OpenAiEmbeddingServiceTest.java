@@ -0,0 +1,63 @@
+package com.puhovin.springopenai.service;
+
+import com.puhovin.springopenai.dto.EmbeddingsRequest;
+import com.puhovin.springopenai.embedding.EmbeddingBatcher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OpenAiEmbeddingService Unit Tests")
+class OpenAiEmbeddingServiceTest {
+
+    @Mock
+    private EmbeddingBatcher batcher;
+
+    @InjectMocks
+    private OpenAiEmbeddingService service;
+
+    @Test
+    @DisplayName("Should report vector dimensions in the JSON response")
+    void shouldReportDimensions_inJsonResponse() {
+        doReturn(Mono.just(List.of(new float[]{1f, 2f, 3f}))).when(batcher).embed(List.of("a"));
+
+        StepVerifier.create(service.embed(new EmbeddingsRequest(List.of("a"))))
+                .assertNext(response -> {
+                    assertThat(response.dimensions()).isEqualTo(3);
+                    assertThat(response.data()).hasSize(1);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should encode vectors as little-endian float32 with a count and dimensions header")
+    void shouldEncodeVectors_asLittleEndianFloat32() {
+        doReturn(Mono.just(List.of(new float[]{1.5f, -2f}, new float[]{0.25f, 3f})))
+                .when(batcher).embed(List.of("a", "b"));
+
+        StepVerifier.create(service.embedBinary(new EmbeddingsRequest(List.of("a", "b"))))
+                .assertNext(bytes -> {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                    assertThat(bytes).hasSize(8 + 4 * 4);
+                    assertThat(buffer.getInt()).isEqualTo(2);
+                    assertThat(buffer.getInt()).isEqualTo(2);
+                    assertThat(buffer.getFloat()).isEqualTo(1.5f);
+                    assertThat(buffer.getFloat()).isEqualTo(-2f);
+                    assertThat(buffer.getFloat()).isEqualTo(0.25f);
+                    assertThat(buffer.getFloat()).isEqualTo(3f);
+                })
+                .verifyComplete();
+    }
+}
@@ -1,26 +1,88 @@
 package com.puhovin.springopenai.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puhovin.springopenai.config.BulkheadProperties;
+import com.puhovin.springopenai.config.DeadlineProperties;
+import com.puhovin.springopenai.config.OutputFilterProperties;
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.config.PromptProperties;
+import com.puhovin.springopenai.config.RoutingProperties;
+import com.puhovin.springopenai.config.StreamProperties;
+import com.puhovin.springopenai.config.TemplateProperties;
+import com.puhovin.springopenai.config.ToolProperties;
+import com.puhovin.springopenai.config.TracingProperties;
+import com.puhovin.springopenai.config.UsageProperties;
+import com.puhovin.springopenai.context.PriorityClass;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.metrics.ModelTierMetrics;
+import com.puhovin.springopenai.metrics.PromptCacheMetrics;
+import com.puhovin.springopenai.metrics.StreamMetrics;
+import com.puhovin.springopenai.output.OutputFilter;
+import com.puhovin.springopenai.output.OutputFilters;
+import com.puhovin.springopenai.output.RedactingOutputFilter;
+import com.puhovin.springopenai.prompt.PromptAssembler;
+import com.puhovin.springopenai.prompt.PromptTemplates;
+import com.puhovin.springopenai.routing.ModelRouter;
+import com.puhovin.springopenai.routing.RequestClassifier;
+import com.puhovin.springopenai.stream.ActiveStreamRegistry;
+import com.puhovin.springopenai.stream.ActiveStreamSnapshot;
+import com.puhovin.springopenai.stream.ChatStreamEvent;
+import com.puhovin.springopenai.stream.DrainingException;
+import com.puhovin.springopenai.stream.StreamDrainedException;
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import com.puhovin.springopenai.tenant.TenantChatModelFactory;
+import com.puhovin.springopenai.tool.ToolEvent;
+import com.puhovin.springopenai.tool.ToolExecutor;
+import com.puhovin.springopenai.tracing.ChatObservations;
+import com.puhovin.springopenai.upstream.DeadlineGuard;
+import com.puhovin.springopenai.upstream.WeightedFairQueue;
+import com.puhovin.springopenai.usage.UsageEntry;
+import com.puhovin.springopenai.usage.UsageLedger;
+import com.puhovin.springopenai.upstream.CancellationTracker;
+import com.puhovin.springopenai.upstream.CompletionChunk;
+import com.puhovin.springopenai.upstream.DirectCompletionStreamClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("OpenAiStreamService Unit Tests")
@@ -29,9 +91,70 @@ class OpenAiStreamServiceTest {
     @Mock
     private OpenAiChatModel chatModel;
 
-    @InjectMocks
+    @Mock
+    private DirectCompletionStreamClient directClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TenantBulkheads bulkheads;
+    private UsageLedger usageLedger;
+
+    private ObservationRegistry observationRegistry;
+
+    private ActiveStreamRegistry activeStreams;
+
+    private Map<String, Object> outputFilters = Map.of();
+
     private OpenAiStreamService service;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheads = new TenantBulkheads(new BulkheadProperties(true, null, Duration.ofSeconds(10), Duration.ofSeconds(60),
+                new BulkheadProperties.Limits(8, 50, Duration.ofSeconds(10)), Map.of()),
+                new StandardEnvironment(), mock(TenantChatModelFactory.class), meterRegistry);
+        usageLedger = new UsageLedger(new UsageProperties(null, Duration.ofSeconds(60), Map.of()),
+                bulkheads, meterRegistry, new ObjectMapper(), "gpt-test");
+        observationRegistry = ObservationRegistry.create();
+        activeStreams = new ActiveStreamRegistry(meterRegistry, Clock.systemUTC(), "gpt-test");
+        service = createService(false);
+    }
+
+    private OpenAiStreamService createService(boolean directEnabled) {
+        return createService(directEnabled, Map.of());
+    }
+
+    private OpenAiStreamService createService(boolean directEnabled, Map<String, Object> tools) {
+        return createService(directEnabled, tools, new RoutingProperties("", "", 256, 4, List.of()));
+    }
+
+    private OpenAiStreamService createService(boolean directEnabled, Map<String, Object> tools, RoutingProperties routing) {
+        ModelTierMetrics tierMetrics = new ModelTierMetrics(meterRegistry);
+        return new OpenAiStreamService(
+                chatModel,
+                directClient,
+                new PromptAssembler(new PromptProperties("", 8, 32),
+                        new PromptTemplates(new TemplateProperties(null, Duration.ofSeconds(5), Map.of()), meterRegistry)),
+                new PromptCacheMetrics(meterRegistry),
+                new StreamMetrics(meterRegistry),
+                new CancellationTracker(meterRegistry, 512),
+                new WeightedFairQueue(new PriorityProperties(PriorityClass.INTERACTIVE, 32, Map.of(), Map.of()), meterRegistry),
+                new DeadlineGuard(new DeadlineProperties(Duration.ofMillis(800), 0.2, Duration.ofSeconds(10)), Clock.systemUTC(), meterRegistry),
+                new ToolExecutor(new StaticListableBeanFactory(tools).getBeanProvider(ToolCallback.class),
+                        new ToolProperties(4, Duration.ofSeconds(5), 5, Duration.ofMinutes(5), 100, Map.of()),
+                        meterRegistry),
+                new ModelRouter(routing, new StaticListableBeanFactory().getBeanProvider(RequestClassifier.class), tierMetrics),
+                tierMetrics,
+                activeStreams,
+                usageLedger,
+                new ChatObservations(observationRegistry,
+                        new TracingProperties(true, Duration.ofSeconds(5), 1000, 256, Duration.ofMinutes(5))),
+                bulkheads,
+                new OutputFilters(new StaticListableBeanFactory(outputFilters).getBeanProvider(OutputFilter.class)),
+                new StreamProperties(directEnabled, "/v1/chat/completions")
+        );
+    }
+
     @Nested
     @DisplayName("streamChat() tests")
     class StreamChatTests {
@@ -47,7 +170,7 @@ class OpenAiStreamServiceTest {
             Flux<ChatResponse> chatResponseFlux = Flux.just(response1, response2, response3);
             doReturn(chatResponseFlux).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(message);
+            Flux<String> result = service.streamChat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext("Hello")
@@ -78,7 +201,7 @@ class OpenAiStreamServiceTest {
             );
             doReturn(chatResponseFlux).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(message);
+            Flux<String> result = service.streamChat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext("Valid content")
@@ -103,7 +226,7 @@ class OpenAiStreamServiceTest {
             );
             doReturn(chatResponseFlux).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(message);
+            Flux<String> result = service.streamChat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext("Valid content")
@@ -123,7 +246,7 @@ class OpenAiStreamServiceTest {
             Flux<ChatResponse> chatResponseFlux = Flux.just(responseWithNull, responseWithEmpty);
             doReturn(chatResponseFlux).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(message);
+            Flux<String> result = service.streamChat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .verifyComplete();
@@ -138,7 +261,7 @@ class OpenAiStreamServiceTest {
             RuntimeException expectedException = new RuntimeException("Chat model error");
             doReturn(Flux.error(expectedException)).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(message);
+            Flux<String> result = service.streamChat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectErrorMatches(throwable ->
@@ -158,7 +281,7 @@ class OpenAiStreamServiceTest {
             Flux<ChatResponse> chatResponseFlux = Flux.just(response);
             doReturn(chatResponseFlux).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(emptyMessage);
+            Flux<String> result = service.streamChat(new ChatRequest(emptyMessage));
 
             StepVerifier.create(result)
                     .expectNext("Response to empty")
@@ -179,7 +302,7 @@ class OpenAiStreamServiceTest {
                     .map(i -> createChatResponse("Chunk " + i));
             doReturn(rapidResponses).when(chatModel).stream(any(Prompt.class));
 
-            Flux<String> result = service.streamChat(message);
+            Flux<String> result = service.streamChat(new ChatRequest(message));
 
             StepVerifier.create(result)
                     .expectNext("Chunk 1")
@@ -198,6 +321,417 @@ class OpenAiStreamServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("streamChat() cancellation tests")
+    class CancellationTests {
+
+        @Test
+        @DisplayName("Should cancel upstream stream when subscriber cancels")
+        void shouldCancelUpstream_whenSubscriberCancels() {
+            PublisherProbe<ChatResponse> upstream = PublisherProbe.of(
+                    Flux.just(createChatResponse("First")).concatWith(Flux.never()));
+            doReturn(upstream.flux()).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hi")))
+                    .expectNext("First")
+                    .thenCancel()
+                    .verify();
+
+            upstream.assertWasCancelled();
+            assertThat(meterRegistry.get("chat.stream.cancelled").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("chat.stream.cancelled.tokens.avoided").counter().count()).isEqualTo(511);
+            assertThat(meterRegistry.get("chat.stream.cancelled.propagation").timer().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not count completed streams as cancelled")
+        void shouldNotCountCompletedStreams_asCancelled() {
+            doReturn(Flux.just(createChatResponse("Done"))).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hi")))
+                    .expectNext("Done")
+                    .verifyComplete();
+
+            assertThat(meterRegistry.get("chat.stream.cancelled").counter().count()).isZero();
+            assertThat(meterRegistry.get("chat.stream.cancelled.propagation").timer().count()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("streamChat() direct mode tests")
+    class DirectStreamChatTests {
+
+        @Test
+        @DisplayName("Should stream content from decoded chunks without calling chat model")
+        void shouldStreamContentFromDecodedChunks() {
+            OpenAiStreamService directService = createService(true);
+            Flux<CompletionChunk> chunks = Flux.just(
+                    new CompletionChunk("Hello", null, null, null, null),
+                    new CompletionChunk("", null, null, null, null),
+                    new CompletionChunk(" there", null, null, null, null),
+                    new CompletionChunk(null, "stop", null, null, null),
+                    new CompletionChunk(null, null, 120, 2, 100)
+            );
+            doReturn(chunks).when(directClient).stream(any(Prompt.class));
+
+            Flux<String> result = directService.streamChat(new ChatRequest("Hi"));
+
+            StepVerifier.create(result)
+                    .expectNext("Hello")
+                    .expectNext(" there")
+                    .verifyComplete();
+
+            verify(directClient).stream(any(Prompt.class));
+            verifyNoInteractions(chatModel);
+        }
+
+        @Test
+        @DisplayName("Should surface finish reason and usage from the final chunks as metrics")
+        void shouldSurfaceFinishReasonAndUsage_asMetrics() {
+            OpenAiStreamService directService = createService(true);
+            Flux<CompletionChunk> chunks = Flux.just(
+                    new CompletionChunk("Done", null, null, null, null),
+                    new CompletionChunk(null, "stop", null, null, null),
+                    new CompletionChunk(null, null, 120, 1, 96)
+            );
+            doReturn(chunks).when(directClient).stream(any(Prompt.class));
+
+            StepVerifier.create(directService.streamChat(new ChatRequest("Hi")))
+                    .expectNext("Done")
+                    .verifyComplete();
+
+            assertThat(meterRegistry.get("chat.stream.finished").tag("reason", "stop").counter().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("chat.prompt.cached.tokens").counter().count()).isEqualTo(96);
+        }
+    }
+
+    @Nested
+    @DisplayName("tool calling tests")
+    class ToolCallingTests {
+
+        private ToolCallback weather;
+
+        @BeforeEach
+        void setUpTool() {
+            weather = mock(ToolCallback.class);
+            ToolDefinition definition = mock(ToolDefinition.class);
+            doReturn("weather").when(definition).name();
+            doReturn(definition).when(weather).getToolDefinition();
+        }
+
+        @Test
+        @DisplayName("Should stream tool progress and continue the answer with tool results")
+        void shouldStreamToolProgress_andContinueWithResults() {
+            doReturn("{\"sky\":\"clear\"}").when(weather).call("{}");
+            OpenAiStreamService toolService = createService(false, Map.of("weather", weather));
+            AssistantMessage.ToolCall call = new AssistantMessage.ToolCall("call-1", "function", "weather", "{}");
+            doReturn(Flux.just(createToolCallResponse(call)), Flux.just(createChatResponse("Clear skies")))
+                    .when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(toolService.streamEvents(new ChatRequest("Weather?")))
+                    .assertNext(event -> assertThat(((ChatStreamEvent.Tool) event).event().stage())
+                            .isEqualTo(ToolEvent.Stage.STARTED))
+                    .assertNext(event -> assertThat(((ChatStreamEvent.Tool) event).event().stage())
+                            .isEqualTo(ToolEvent.Stage.COMPLETED))
+                    .expectNext(new ChatStreamEvent.Text("Clear skies"))
+                    .verifyComplete();
+
+            ArgumentCaptor<Prompt> promptCaptor = ArgumentCaptor.forClass(Prompt.class);
+            verify(chatModel, times(2)).stream(promptCaptor.capture());
+            assertThat(promptCaptor.getAllValues().get(1).getInstructions().get(2))
+                    .isInstanceOf(ToolResponseMessage.class);
+        }
+
+        @Test
+        @DisplayName("Should expose only text through streamChat() when tools run")
+        void shouldExposeOnlyText_throughStreamChat() {
+            doReturn("{}").when(weather).call("{}");
+            OpenAiStreamService toolService = createService(false, Map.of("weather", weather));
+            AssistantMessage.ToolCall call = new AssistantMessage.ToolCall("call-1", "function", "weather", "{}");
+            doReturn(Flux.just(createToolCallResponse(call)), Flux.just(createChatResponse("Done")))
+                    .when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(toolService.streamChat(new ChatRequest("Weather?")))
+                    .expectNext("Done")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should use the chat model path instead of the direct client when tools are registered")
+        void shouldBypassDirectClient_whenToolsRegistered() {
+            OpenAiStreamService toolService = createService(true, Map.of("weather", weather));
+            doReturn(Flux.just(createChatResponse("Hi"))).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(toolService.streamChat(new ChatRequest("Hello")))
+                    .expectNext("Hi")
+                    .verifyComplete();
+
+            verifyNoInteractions(directClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("model routing tests")
+    class ModelRoutingTests {
+
+        @Test
+        @DisplayName("Should keep complex prompts on the standard model and record per-tier latency")
+        void shouldKeepComplexPrompt_onStandardModel() {
+            OpenAiStreamService routedService = createService(false, Map.of(),
+                    new RoutingProperties("gpt-fast", "gpt-large", 256, 4, List.of("explain")));
+            doReturn(Flux.just(createChatResponse("Because"))).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(routedService.streamChat(new ChatRequest("Explain why the sky is blue")))
+                    .expectNext("Because")
+                    .verifyComplete();
+
+            ArgumentCaptor<Prompt> promptCaptor = ArgumentCaptor.forClass(Prompt.class);
+            verify(chatModel).stream(promptCaptor.capture());
+            assertThat(promptCaptor.getValue().getOptions().getModel()).isEqualTo("gpt-large");
+            assertThat(meterRegistry.get("chat.routing.ttft").tag("tier", "standard").timer().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("chat.routing.latency").tag("tier", "standard").tag("mode", "stream").timer().count())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("active stream tracking tests")
+    class ActiveStreamTests {
+
+        @Test
+        @DisplayName("Should list an open stream with its counters and drop it on completion")
+        void shouldListOpenStream_andDropItOnCompletion() {
+            Sinks.Many<ChatResponse> upstream = Sinks.many().unicast().onBackpressureBuffer();
+            doReturn(upstream.asFlux()).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hello")))
+                    .then(() -> upstream.tryEmitNext(createChatResponse("Hé")))
+                    .expectNext("Hé")
+                    .then(() -> {
+                        List<ActiveStreamSnapshot> streams = activeStreams.list();
+                        assertThat(streams).hasSize(1);
+                        assertThat(streams.get(0).client()).isEqualTo("anonymous");
+                        assertThat(streams.get(0).model()).isEqualTo("gpt-test");
+                        assertThat(streams.get(0).chunksSent()).isEqualTo(1);
+                        assertThat(streams.get(0).bytesSent()).isEqualTo(3);
+                        assertThat(streams.get(0).upstreamState()).isEqualTo(ActiveStreamRegistry.UpstreamState.STREAMING);
+                        upstream.tryEmitComplete();
+                    })
+                    .verifyComplete();
+
+            assertThat(activeStreams.list()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should end the stream and cancel upstream when an operator cancels it")
+        void shouldEndStream_whenOperatorCancels() {
+            PublisherProbe<ChatResponse> upstream = PublisherProbe.of(Flux.never());
+            doReturn(upstream.flux()).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hello")))
+                    .then(() -> assertThat(activeStreams.cancelClient("anonymous")).isEqualTo(1))
+                    .verifyComplete();
+
+            upstream.assertWasCancelled();
+            assertThat(activeStreams.list()).isEmpty();
+            assertThat(meterRegistry.get("chat.stream.operator.cancelled").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("chat.stream.cancelled").counter().count()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should end with a reconnect event when the stream is cut short by a drain")
+        void shouldEndWithReconnect_whenDrained() {
+            doReturn(Flux.never()).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamEvents(new ChatRequest("Hello")))
+                    .then(() -> assertThat(activeStreams.drainAll(Duration.ofSeconds(3))).isEqualTo(1))
+                    .expectNext(new ChatStreamEvent.Reconnect(Duration.ofSeconds(3)))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should end the text stream with an error when it is cut short by a drain")
+        void shouldFailTextStream_whenDrained() {
+            doReturn(Flux.never()).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hello")))
+                    .then(() -> assertThat(activeStreams.drainAll(Duration.ofSeconds(3))).isEqualTo(1))
+                    .expectErrorSatisfies(error -> assertThat(error)
+                            .isInstanceOfSatisfying(StreamDrainedException.class,
+                                    drained -> assertThat(drained.retryAfter()).isEqualTo(Duration.ofSeconds(3))))
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        @Test
+        @DisplayName("Should reject new streams with 503 while draining")
+        void shouldRejectNewStreams_whileDraining() {
+            activeStreams.startDraining();
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hello")))
+                    .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(DrainingException.class))
+                    .verify();
+            verifyNoInteractions(chatModel);
+        }
+    }
+
+    @Nested
+    @DisplayName("usage accounting tests")
+    class UsageAccountingTests {
+
+        @Test
+        @DisplayName("Should charge usage from the final stream chunk to the default model")
+        void shouldChargeUsage_fromFinalChunk() {
+            ChatResponse usageChunk = createChatResponse(null);
+            ChatResponseMetadata metadata = mock(ChatResponseMetadata.class);
+            doReturn(new DefaultUsage(40, 8)).when(metadata).getUsage();
+            doReturn(metadata).when(usageChunk).getMetadata();
+            doReturn(Flux.just(createChatResponse("Hello"), usageChunk)).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hi")))
+                    .expectNext("Hello")
+                    .verifyComplete();
+
+            assertThat(usageLedger.entries()).containsExactly(
+                    new UsageEntry(TenantBulkheads.DEFAULT_TENANT, "gpt-test", 1, 40, 0, 8, 0));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tracing tests")
+    class TracingTests {
+
+        private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @BeforeEach
+        void recordObservations() {
+            observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+                @Override
+                public void onEvent(Observation.Event event, Observation.Context context) {
+                    events.add(context.getName() + ":" + event.getName());
+                }
+
+                @Override
+                public void onStop(Observation.Context context) {
+                    stopped.add(context);
+                }
+
+                @Override
+                public boolean supportsContext(Observation.Context context) {
+                    return true;
+                }
+            });
+        }
+
+        @Test
+        @DisplayName("Should nest the upstream call under the generation and summarize chunks on it")
+        void shouldNestUpstream_andSummarizeChunks() {
+            doReturn(Flux.just(createChatResponse("Hello"), createChatResponse(" world"), createChatResponse("!")))
+                    .when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hi")))
+                    .expectNext("Hello", " world", "!")
+                    .verifyComplete();
+
+            assertThat(stopped).extracting(Observation.Context::getName)
+                    .containsExactly(ChatObservations.UPSTREAM, ChatObservations.GENERATION);
+            Observation.Context upstream = stopped.get(0);
+            Observation.Context generation = stopped.get(1);
+            assertThat(upstream.getParentObservation().getContextView()).isSameAs(generation);
+            assertThat(generation.getLowCardinalityKeyValue("chat.mode").getValue()).isEqualTo("stream");
+            assertThat(generation.getLowCardinalityKeyValue("chat.outcome").getValue()).isEqualTo("completed");
+            assertThat(generation.getHighCardinalityKeyValue("chat.chunks").getValue()).isEqualTo("3");
+            assertThat(upstream.getLowCardinalityKeyValue("chat.round").getValue()).isEqualTo("1");
+            assertThat(events).containsExactly(
+                    ChatObservations.GENERATION + ":queue.acquired",
+                    ChatObservations.GENERATION + ":first.token");
+        }
+
+        @Test
+        @DisplayName("Should mark the generation as failed when the model errors")
+        void shouldMarkGenerationFailed_whenModelErrors() {
+            doReturn(Flux.error(new RuntimeException("boom"))).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hi")))
+                    .verifyError(RuntimeException.class);
+
+            assertThat(stopped).allSatisfy(context -> {
+                assertThat(context.getError()).hasMessage("boom");
+                assertThat(context.getLowCardinalityKeyValue("chat.outcome").getValue()).isEqualTo("error");
+            });
+        }
+    }
+
+    @Nested
+    @DisplayName("Output filter tests")
+    class OutputFilterTests {
+
+        @BeforeEach
+        void setUp() {
+            outputFilters = Map.of("redactor", new RedactingOutputFilter(new OutputFilterProperties(true,
+                    List.of("hunter2"), null, true, List.of("sk-[A-Za-z0-9]{8,32}"), 40, "[REDACTED]"), meterRegistry));
+            service = createService(false);
+        }
+
+        @Test
+        @DisplayName("Should redact terms and patterns split across chunks")
+        void shouldRedactAcrossChunks() {
+            doReturn(Flux.just(createChatResponse("The password is hun"), createChatResponse("TER2 and the key is sk-abc"),
+                            createChatResponse("def1234, done.")))
+                    .when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("secrets?")).collectList())
+                    .assertNext(chunks -> {
+                        assertThat(String.join("", chunks))
+                                .isEqualTo("The password is [REDACTED] and the key is [REDACTED], done.");
+                        assertThat(chunks).hasSizeGreaterThan(1);
+                    })
+                    .verifyComplete();
+            assertThat(meterRegistry.get("chat.output.redactions").counter().count()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should not count text held back by the filter as buffered")
+        void shouldNotCountHeldText_asBuffered() {
+            Sinks.Many<ChatResponse> upstream = Sinks.many().unicast().onBackpressureBuffer();
+            doReturn(upstream.asFlux()).when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("secrets?")))
+                    .then(() -> upstream.tryEmitNext(createChatResponse("The password is ")))
+                    .then(() -> upstream.tryEmitNext(createChatResponse("hun")))
+                    .then(() -> assertThat(activeStreams.list()).singleElement()
+                            .satisfies(stream -> assertThat(stream.bufferDepth()).isZero()))
+                    .then(upstream::tryEmitComplete)
+                    .expectNext("The password is hun")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should release held-back text when the stream completes")
+        void shouldReleaseHeldText_onCompletion() {
+            doReturn(Flux.just(createChatResponse("ends with hunt")))
+                    .when(chatModel).stream(any(Prompt.class));
+
+            StepVerifier.create(service.streamChat(new ChatRequest("Hi")).collectList())
+                    .assertNext(chunks -> assertThat(String.join("", chunks)).isEqualTo("ends with hunt"))
+                    .verifyComplete();
+        }
+    }
+
+    private ChatResponse createToolCallResponse(AssistantMessage.ToolCall call) {
+        ChatResponse chatResponse = mock(ChatResponse.class);
+        Generation generation = mock(Generation.class);
+        AssistantMessage output = mock(AssistantMessage.class);
+
+        doReturn(true).when(output).hasToolCalls();
+        doReturn(List.of(call)).when(output).getToolCalls();
+        doReturn(output).when(generation).getOutput();
+        doReturn(generation).when(chatResponse).getResult();
+
+        return chatResponse;
+    }
+
     private ChatResponse createChatResponse(String text) {
         ChatResponse chatResponse = mock(ChatResponse.class);
         Generation generation = mock(Generation.class);
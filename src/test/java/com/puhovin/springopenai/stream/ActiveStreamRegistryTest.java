@@ -0,0 +1,90 @@
+package com.puhovin.springopenai.stream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ActiveStreamRegistry Unit Tests")
+class ActiveStreamRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ActiveStreamRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new ActiveStreamRegistry(meterRegistry,
+                Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC), "gpt-default");
+    }
+
+    @Test
+    @DisplayName("Should report buffered chunks as received but not yet sent")
+    void shouldReportBufferDepth() {
+        ActiveStreamRegistry.ActiveStream stream = registry.register("client-a", "gpt-fast");
+        stream.received();
+        stream.received();
+        stream.received();
+        stream.sent("ab");
+
+        ActiveStreamSnapshot snapshot = registry.get(stream.id()).orElseThrow();
+        assertThat(snapshot.model()).isEqualTo("gpt-fast");
+        assertThat(snapshot.startedAt()).isEqualTo(Instant.parse("2025-01-01T00:00:00Z"));
+        assertThat(snapshot.chunksSent()).isEqualTo(1);
+        assertThat(snapshot.bytesSent()).isEqualTo(2);
+        assertThat(snapshot.bufferDepth()).isEqualTo(2);
+        assertThat(snapshot.upstreamState()).isEqualTo(ActiveStreamRegistry.UpstreamState.QUEUED);
+        assertThat(meterRegistry.get("chat.stream.active").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the default model when none is set on the prompt")
+    void shouldFallBackToDefaultModel() {
+        ActiveStreamRegistry.ActiveStream stream = registry.register("client-a", null);
+
+        assertThat(registry.get(stream.id()).orElseThrow().model()).isEqualTo("gpt-default");
+    }
+
+    @Test
+    @DisplayName("Should cancel only the streams of the given client")
+    void shouldCancelOnlyStreamsOfClient() {
+        ActiveStreamRegistry.ActiveStream first = registry.register("client-a", null);
+        ActiveStreamRegistry.ActiveStream second = registry.register("client-a", null);
+        ActiveStreamRegistry.ActiveStream other = registry.register("client-b", null);
+
+        assertThat(registry.cancelClient("client-a")).isEqualTo(2);
+
+        StepVerifier.create(first.cancelled()).verifyComplete();
+        StepVerifier.create(second.cancelled()).verifyComplete();
+        assertThat(registry.cancel(other.id())).isTrue();
+        assertThat(registry.cancel(other.id())).isFalse();
+        assertThat(meterRegistry.get("chat.stream.operator.cancelled").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should forget closed streams")
+    void shouldForgetClosedStreams() {
+        ActiveStreamRegistry.ActiveStream stream = registry.register("client-a", null);
+
+        stream.close();
+
+        assertThat(registry.list()).isEmpty();
+        assertThat(registry.cancel(stream.id())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should count UTF-8 bytes including surrogate pairs")
+    void shouldCountUtf8Bytes() {
+        assertThat(ActiveStreamRegistry.utf8Length("abc")).isEqualTo(3);
+        assertThat(ActiveStreamRegistry.utf8Length("é")).isEqualTo(2);
+        assertThat(ActiveStreamRegistry.utf8Length("€")).isEqualTo(3);
+        assertThat(ActiveStreamRegistry.utf8Length("😀")).isEqualTo(4);
+    }
+}
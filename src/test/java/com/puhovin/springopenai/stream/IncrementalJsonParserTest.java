@@ -0,0 +1,128 @@
+package com.puhovin.springopenai.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puhovin.springopenai.dto.JsonFragment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("IncrementalJsonParser Unit Tests")
+class IncrementalJsonParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private IncrementalJsonParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new IncrementalJsonParser(objectMapper);
+    }
+
+    @Test
+    @DisplayName("Should emit a top-level field as soon as it closes")
+    void shouldEmitTopLevelField_asSoonAsItCloses() {
+        assertThat(parser.feed("{\"title\": \"Du")).isEmpty();
+
+        List<JsonFragment> fragments = parser.feed("ne\", \"year\"");
+
+        assertThat(fragments).extracting(JsonFragment::path).containsExactly("$.title");
+        assertThat(fragments.get(0).value().asText()).isEqualTo("Dune");
+    }
+
+    @Test
+    @DisplayName("Should emit elements of top-level arrays individually")
+    void shouldEmitArrayElements_individually() {
+        List<JsonFragment> fragments = feedAll(
+                "{\"items\": [{\"id\": 1, \"tags\": [\"a\"]}", ", {\"id\": 2}], \"count\": 2}");
+
+        assertThat(fragments).extracting(JsonFragment::path)
+                .containsExactly("$.items[0]", "$.items[1]", "$.count");
+        assertThat(fragments.get(0).value().get("tags").get(0).asText()).isEqualTo("a");
+        assertThat(fragments.get(2).value().asInt()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should emit elements of a root array")
+    void shouldEmitElements_ofRootArray() {
+        List<JsonFragment> fragments = feedAll("[1, ", "[2, 3], ", "\"x\"]");
+
+        assertThat(fragments).extracting(JsonFragment::path).containsExactly("$[0]", "$[1]", "$[2]");
+        assertThat(fragments.get(1).value().size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should emit an empty top-level array as one fragment")
+    void shouldEmitEmptyArray_asOneFragment() {
+        List<JsonFragment> fragments = feedAll("{\"tags\": [", "], \"items\": [{\"id\": 1}]}");
+
+        assertThat(fragments).extracting(JsonFragment::path).containsExactly("$.tags", "$.items[0]");
+        assertThat(fragments.get(0).value().isArray()).isTrue();
+        assertThat(fragments.get(0).value().isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should emit an empty root array as one fragment")
+    void shouldEmitEmptyRootArray_asOneFragment() {
+        List<JsonFragment> fragments = feedAll("[]");
+
+        assertThat(fragments).extracting(JsonFragment::path).containsExactly("$");
+        assertThat(parser.finish()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should skip code fences around the JSON document")
+    void shouldSkipCodeFences_aroundDocument() {
+        List<JsonFragment> fragments = feedAll("```json\n", "{\"ok\": true}", "\n```");
+
+        assertThat(fragments).extracting(JsonFragment::path).containsExactly("$.ok");
+        assertThat(parser.finish()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep multi-byte characters intact across chunks")
+    void shouldKeepMultiByteCharacters_acrossChunks() {
+        List<JsonFragment> fragments = feedAll("{\"city\": \"Мо", "сква\"}");
+
+        assertThat(fragments.get(0).value().asText()).isEqualTo("Москва");
+    }
+
+    @Test
+    @DisplayName("Should fail with 502 when the output is truncated")
+    void shouldFail_whenOutputIsTruncated() {
+        parser.feed("{\"title\": \"Dune\"");
+
+        assertThatThrownBy(parser::finish)
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("502");
+    }
+
+    @Test
+    @DisplayName("Should fail with 502 when the output is malformed")
+    void shouldFail_whenOutputIsMalformed() {
+        assertThatThrownBy(() -> parser.feed("{\"title\" \"Dune\"}"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("not valid JSON");
+    }
+
+    @Test
+    @DisplayName("Should fail when the output contains no JSON value")
+    void shouldFail_whenNoJsonValue() {
+        parser.feed("I cannot answer that.");
+
+        assertThatThrownBy(parser::finish).isInstanceOf(ResponseStatusException.class);
+    }
+
+    private List<JsonFragment> feedAll(String... chunks) {
+        List<JsonFragment> fragments = new ArrayList<>();
+        for (String chunk : chunks) {
+            fragments.addAll(parser.feed(chunk));
+        }
+        return fragments;
+    }
+}
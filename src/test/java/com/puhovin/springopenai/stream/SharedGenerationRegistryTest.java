@@ -0,0 +1,147 @@
+package com.puhovin.springopenai.stream;
+
+import com.puhovin.springopenai.config.BroadcastProperties;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.service.OpenAiStreamService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SharedGenerationRegistry Unit Tests")
+class SharedGenerationRegistryTest {
+
+    @Mock
+    private OpenAiStreamService streamService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SharedGenerationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new SharedGenerationRegistry(streamService,
+                new BroadcastProperties(3, 2, Duration.ofMillis(200), Duration.ofSeconds(5), 2),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should fan out one upstream generation to every viewer")
+    void shouldFanOutOneGeneration_toEveryViewer() {
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        doReturn(upstream.asFlux()).when(streamService).streamChat(any(ChatRequest.class));
+        String streamId = registry.start(new ChatRequest("Hi")).block();
+
+        StepVerifier first = StepVerifier.create(registry.attach(streamId))
+                .expectNext(new StreamChunk(0, "Hello"), new StreamChunk(1, " world"))
+                .expectComplete()
+                .verifyLater();
+        StepVerifier second = StepVerifier.create(registry.attach(streamId))
+                .expectNext(new StreamChunk(0, "Hello"), new StreamChunk(1, " world"))
+                .expectComplete()
+                .verifyLater();
+        upstream.tryEmitNext("Hello");
+        upstream.tryEmitNext(" world");
+        upstream.tryEmitComplete();
+
+        first.verify(Duration.ofSeconds(1));
+        second.verify(Duration.ofSeconds(1));
+        verify(streamService, times(1)).streamChat(any(ChatRequest.class));
+    }
+
+    @Test
+    @DisplayName("Should replay only the most recent chunks to late joiners")
+    void shouldReplayBoundedHistory_toLateJoiners() {
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        doReturn(upstream.asFlux()).when(streamService).streamChat(any(ChatRequest.class));
+        String streamId = registry.start(new ChatRequest("Hi")).block();
+        for (String chunk : new String[]{"a", "b", "c", "d"}) {
+            upstream.tryEmitNext(chunk);
+        }
+        upstream.tryEmitComplete();
+
+        StepVerifier.create(registry.attach(streamId))
+                .expectNext(new StreamChunk(1, "b"), new StreamChunk(2, "c"), new StreamChunk(3, "d"))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should disconnect a slow viewer without stalling the others")
+    void shouldDisconnectSlowViewer_withoutStallingOthers() {
+        Sinks.Many<String> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        doReturn(upstream.asFlux()).when(streamService).streamChat(any(ChatRequest.class));
+        String streamId = registry.start(new ChatRequest("Hi")).block();
+
+        StepVerifier slow = StepVerifier.create(registry.attach(streamId), 0)
+                .expectErrorMatches(Exceptions::isOverflow)
+                .verifyLater();
+        StepVerifier fast = StepVerifier.create(registry.attach(streamId))
+                .expectNextCount(4)
+                .expectComplete()
+                .verifyLater();
+        for (String chunk : new String[]{"a", "b", "c", "d"}) {
+            upstream.tryEmitNext(chunk);
+        }
+        upstream.tryEmitComplete();
+
+        fast.verify(Duration.ofSeconds(1));
+        slow.verify(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("chat.broadcast.viewers.dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should cancel upstream when nobody watches for the idle timeout")
+    void shouldCancelUpstream_whenAbandoned() {
+        PublisherProbe<String> upstream = PublisherProbe.of(Flux.never());
+        doReturn(upstream.flux()).when(streamService).streamChat(any(ChatRequest.class));
+        String streamId = registry.start(new ChatRequest("Hi")).block();
+
+        StepVerifier.create(registry.attach(streamId))
+                .thenCancel()
+                .verify();
+
+        await().atMost(Duration.ofSeconds(2)).untilAsserted(upstream::assertWasCancelled);
+    }
+
+    @Test
+    @DisplayName("Should return 404 for unknown stream id")
+    void shouldReturn404_forUnknownStreamId() {
+        StepVerifier.create(registry.attach("missing"))
+                .expectErrorSatisfies(error ->
+                        assertThat(((ResponseStatusException) error).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should reject new generations over the active limit")
+    void shouldReject_whenTooManyActiveGenerations() {
+        doReturn(Flux.never()).when(streamService).streamChat(any(ChatRequest.class));
+        registry.start(new ChatRequest("One")).block();
+        registry.start(new ChatRequest("Two")).block();
+
+        StepVerifier.create(registry.start(new ChatRequest("Three")))
+                .expectErrorSatisfies(error ->
+                        assertThat(((ResponseStatusException) error).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS))
+                .verify();
+    }
+}
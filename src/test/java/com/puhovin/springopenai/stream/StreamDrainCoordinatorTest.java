@@ -0,0 +1,92 @@
+package com.puhovin.springopenai.stream;
+
+import com.puhovin.springopenai.config.DrainProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StreamDrainCoordinator Unit Tests")
+class StreamDrainCoordinatorTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ActiveStreamRegistry activeStreams;
+    private StreamDrainCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        activeStreams = new ActiveStreamRegistry(meterRegistry, Clock.systemUTC(), "gpt-test");
+        coordinator = new StreamDrainCoordinator(activeStreams,
+                new DrainProperties(Duration.ofMillis(300), Duration.ofMillis(10), Duration.ofSeconds(2)),
+                eventPublisher, meterRegistry);
+        coordinator.start();
+    }
+
+    @Test
+    @DisplayName("Should refuse traffic and new streams as soon as the drain starts")
+    void shouldRefuseTrafficAndNewStreams_whenDrainStarts() {
+        coordinator.drain().block(Duration.ofSeconds(1));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<AvailabilityChangeEvent<ReadinessState>> event = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getState()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+        assertThatThrownBy(() -> activeStreams.register("client-a", null)).isInstanceOf(DrainingException.class);
+        assertThat(coordinator.isRunning()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should let streams finish within the grace period and ask the rest to reconnect")
+    void shouldAskRemainingStreamsToReconnect_afterGracePeriod() {
+        ActiveStreamRegistry.ActiveStream finishing = activeStreams.register("client-a", null);
+        ActiveStreamRegistry.ActiveStream stuck = activeStreams.register("client-b", null);
+        Schedulers.parallel().schedule(finishing::close, 50, TimeUnit.MILLISECONDS);
+
+        StepVerifier.create(coordinator.drain())
+                .then(() -> assertThat(meterRegistry.get("chat.drain.active").gauge().value()).isEqualTo(1))
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        StepVerifier.create(stuck.cancelled()).verifyComplete();
+        assertThat(stuck.reconnectDelay()).isEqualTo(Duration.ofSeconds(2));
+        assertThat(finishing.reconnectDelay()).isNull();
+        assertThat(meterRegistry.get("chat.drain.streams").tag("outcome", "finished").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.drain.streams").tag("outcome", "reconnect").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.drain.duration").timer().totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("Should finish early once every stream has closed")
+    void shouldFinishEarly_whenAllStreamsClose() {
+        ActiveStreamRegistry.ActiveStream stream = activeStreams.register("client-a", null);
+        Schedulers.parallel().schedule(stream::close, 20, TimeUnit.MILLISECONDS);
+
+        StepVerifier.create(coordinator.drain())
+                .expectComplete()
+                .verify(Duration.ofMillis(250));
+
+        assertThat(meterRegistry.get("chat.drain.streams").tag("outcome", "reconnect").counter().count()).isZero();
+    }
+}
@@ -0,0 +1,218 @@
+package com.puhovin.springopenai.tenant;
+
+import com.puhovin.springopenai.config.BulkheadProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TenantBulkheads Unit Tests")
+class TenantBulkheadsTest {
+
+    private static final BulkheadProperties.Limits DEFAULTS = new BulkheadProperties.Limits(2, 1, Duration.ofSeconds(5));
+
+    @Mock
+    private TenantChatModelFactory modelFactory;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private TenantBulkheads bulkheads(Map<String, BulkheadProperties.Tenant> tenants) {
+        return new TenantBulkheads(new BulkheadProperties(true, null, Duration.ofSeconds(10), Duration.ofSeconds(60),
+                DEFAULTS, tenants), new MockEnvironment(), modelFactory, meterRegistry);
+    }
+
+    private static BulkheadProperties.Tenant limits(int maxConcurrency, int maxQueueDepth) {
+        return new BulkheadProperties.Tenant(maxConcurrency, maxQueueDepth, null, null, null, null, null);
+    }
+
+    private static Disposable hold(TenantBulkheads bulkheads, String clientId) {
+        return bulkheads.enqueue(clientId, Mono.never()).subscribe();
+    }
+
+    @Nested
+    @DisplayName("Isolation tests")
+    class IsolationTests {
+
+        @Test
+        @DisplayName("Should queue a tenant at its cap without holding up other tenants")
+        void shouldQueueTenantAtCap_withoutBlockingOthers() {
+            TenantBulkheads bulkheads = bulkheads(Map.of("acme", limits(1, 5)));
+            Disposable running = hold(bulkheads, "acme");
+            AtomicBoolean queuedRan = new AtomicBoolean();
+            Disposable queued = bulkheads.enqueue("acme", Mono.fromRunnable(() -> queuedRan.set(true))).subscribe();
+
+            StepVerifier.create(bulkheads.enqueue("globex", Mono.just("ok")))
+                    .expectNext("ok")
+                    .verifyComplete();
+            assertThat(queuedRan).isFalse();
+            assertThat(meterRegistry.get("chat.tenant.queue.depth").tag("tenant", "acme").gauge().value()).isEqualTo(1);
+            assertThat(meterRegistry.get("chat.tenant.saturation").tag("tenant", "acme").gauge().value()).isEqualTo(1.0);
+
+            running.dispose();
+
+            assertThat(queuedRan).isTrue();
+            queued.dispose();
+        }
+
+        @Test
+        @DisplayName("Should reject with 429 when the tenant queue is full")
+        void shouldReject_whenQueueFull() {
+            TenantBulkheads bulkheads = bulkheads(Map.of("acme", limits(1, 0)));
+            Disposable running = hold(bulkheads, "acme");
+
+            StepVerifier.create(bulkheads.enqueue("acme", Mono.just("late")))
+                    .expectErrorSatisfies(error -> assertThat(error)
+                            .isInstanceOf(TenantRejectedException.class)
+                            .extracting(ex -> ((TenantRejectedException) ex).getStatusCode())
+                            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS))
+                    .verify();
+            assertThat(meterRegistry.get("chat.tenant.rejected").tags("tenant", "acme", "reason", "full").counter().count())
+                    .isEqualTo(1);
+            running.dispose();
+        }
+
+        @Test
+        @DisplayName("Should reject with 503 when the queue wait runs out")
+        void shouldReject_whenQueueWaitExpires() {
+            TenantBulkheads bulkheads = bulkheads(Map.of("acme", new BulkheadProperties.Tenant(
+                    1, 5, Duration.ofMillis(50), null, null, null, null)));
+            Disposable running = hold(bulkheads, "acme");
+
+            StepVerifier.create(bulkheads.enqueue("acme", Mono.just("late")))
+                    .expectErrorSatisfies(error -> assertThat(((TenantRejectedException) error).getStatusCode())
+                            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE))
+                    .verify(Duration.ofSeconds(5));
+            assertThat(meterRegistry.get("chat.tenant.queue.depth").tag("tenant", "acme").gauge().value()).isZero();
+            running.dispose();
+        }
+
+        @Test
+        @DisplayName("Should give unconfigured clients their own default bulkhead and drop it when idle")
+        void shouldRetireIdleDefaultBulkheads() {
+            TenantBulkheads bulkheads = bulkheads(Map.of());
+            Disposable first = hold(bulkheads, "client-a");
+            Disposable second = hold(bulkheads, "client-b");
+
+            assertThat(bulkheads.trackedClients()).isEqualTo(2);
+            assertThat(meterRegistry.get("chat.tenant.in.flight").tag("tenant", TenantBulkheads.DEFAULT_TENANT)
+                    .gauge().value()).isEqualTo(2);
+
+            first.dispose();
+            second.dispose();
+
+            assertThat(bulkheads.trackedClients()).isZero();
+            StepVerifier.create(bulkheads.enqueue("client-a", Mono.just("again")))
+                    .expectNext("again")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should leave anonymous traffic to the global queue unless configured as a tenant")
+        void shouldExemptAnonymousClient_unlessConfigured() {
+            TenantBulkheads bulkheads = bulkheads(Map.of());
+            Disposable[] running = new Disposable[DEFAULTS.maxConcurrency() + DEFAULTS.maxQueueDepth()];
+            for (int i = 0; i < running.length; i++) {
+                running[i] = hold(bulkheads, ChatRequestContext.ANONYMOUS_CLIENT);
+            }
+
+            StepVerifier.create(bulkheads.enqueue(ChatRequestContext.ANONYMOUS_CLIENT, Mono.just("ok")))
+                    .expectNext("ok")
+                    .verifyComplete();
+            assertThat(bulkheads.trackedClients()).isZero();
+            for (Disposable disposable : running) {
+                disposable.dispose();
+            }
+
+            TenantBulkheads configured = bulkheads(Map.of(ChatRequestContext.ANONYMOUS_CLIENT, limits(1, 0)));
+            Disposable held = hold(configured, ChatRequestContext.ANONYMOUS_CLIENT);
+
+            StepVerifier.create(configured.enqueue(ChatRequestContext.ANONYMOUS_CLIENT, Mono.just("late")))
+                    .expectError(TenantRejectedException.class)
+                    .verify();
+            held.dispose();
+        }
+    }
+
+    @Nested
+    @DisplayName("Reload tests")
+    class ReloadTests {
+
+        @TempDir
+        private Path directory;
+
+        @Test
+        @DisplayName("Should apply a raised cap from the config file to waiting requests")
+        void shouldApplyRaisedCap_onReload() throws IOException {
+            Path file = directory.resolve("tenants.properties");
+            Files.writeString(file, "chat.bulkhead.tenants.acme.max-concurrency=1\n");
+            TenantBulkheads bulkheads = new TenantBulkheads(new BulkheadProperties(true, file, Duration.ofSeconds(10),
+                    Duration.ofSeconds(60), DEFAULTS, Map.of()), new MockEnvironment(), modelFactory, meterRegistry);
+            Disposable running = hold(bulkheads, "acme");
+            AtomicBoolean queuedRan = new AtomicBoolean();
+            bulkheads.enqueue("acme", Mono.fromRunnable(() -> queuedRan.set(true))).subscribe();
+            assertThat(queuedRan).isFalse();
+
+            Files.writeString(file, "chat.bulkhead.tenants.acme.max-concurrency=2\n");
+            assertThat(bulkheads.reload())
+                    .filteredOn(snapshot -> snapshot.tenant().equals("acme"))
+                    .singleElement()
+                    .satisfies(snapshot -> assertThat(snapshot.maxConcurrency()).isEqualTo(2));
+
+            assertThat(queuedRan).isTrue();
+            running.dispose();
+        }
+
+        @Test
+        @DisplayName("Should route a tenant with its own key to a dedicated model and drop it once unconfigured")
+        void shouldSwapDedicatedModels_onReload() throws IOException {
+            Path file = directory.resolve("tenants.properties");
+            Files.writeString(file, "chat.bulkhead.tenants.acme.api-key=sk-acme\n"
+                    + "chat.bulkhead.tenants.acme.max-connections=4\n");
+            ChatModel dedicated = mock(ChatModel.class);
+            doReturn(new DedicatedChatModel(null, dedicated, null)).when(modelFactory).create(eq("acme"), any());
+            ChatModel shared = mock(ChatModel.class);
+            TenantBulkheads bulkheads = new TenantBulkheads(new BulkheadProperties(true, file, Duration.ofSeconds(10),
+                    Duration.ofSeconds(60), DEFAULTS, Map.of()), new MockEnvironment(), modelFactory, meterRegistry);
+
+            assertThat(bulkheads.chatModel("acme", shared)).isSameAs(dedicated);
+            assertThat(bulkheads.chatModel("globex", shared)).isSameAs(shared);
+
+            Files.writeString(file, "chat.bulkhead.tenants.acme.max-concurrency=3\n");
+            bulkheads.reload();
+
+            assertThat(bulkheads.dedicated("acme")).isFalse();
+            assertThat(bulkheads.chatModel("acme", shared)).isSameAs(shared);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.puhovin.springopenai.tool;
+
+import com.puhovin.springopenai.config.ToolProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("ToolExecutor Unit Tests")
+class ToolExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Nested
+    @DisplayName("execute() tests")
+    class ExecuteTests {
+
+        @Test
+        @DisplayName("Should run independent calls from one turn concurrently")
+        void shouldRunIndependentCalls_concurrently() {
+            CountDownLatch bothStarted = new CountDownLatch(2);
+            Function<String, String> rendezvous = args -> {
+                bothStarted.countDown();
+                try {
+                    return bothStarted.await(5, TimeUnit.SECONDS) ? "ok" : "alone";
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return "interrupted";
+                }
+            };
+            ToolExecutor executor = createExecutor(properties(2, Map.of()),
+                    tool("a", rendezvous), tool("b", rendezvous));
+
+            StepVerifier.create(executor.execute(List.of(call("1", "a"), call("2", "b")))
+                            .filter(ToolEvent::finished))
+                    .expectNextMatches(event -> event.stage() == ToolEvent.Stage.COMPLETED
+                            && event.response().responseData().equals("ok"))
+                    .expectNextMatches(event -> event.stage() == ToolEvent.Stage.COMPLETED
+                            && event.response().responseData().equals("ok"))
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should report a timed out tool as failed without failing the turn")
+        void shouldReportTimedOutTool_asFailed() {
+            ToolExecutor executor = createExecutor(
+                    properties(4, Map.of("slow", new ToolProperties.ToolSettings(Duration.ofMillis(50), false))),
+                    tool("slow", args -> {
+                        try {
+                            Thread.sleep(2_000);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return "late";
+                    }));
+
+            StepVerifier.create(executor.execute(List.of(call("1", "slow"))))
+                    .expectNextMatches(event -> event.stage() == ToolEvent.Stage.STARTED)
+                    .assertNext(event -> {
+                        assertThat(event.stage()).isEqualTo(ToolEvent.Stage.FAILED);
+                        assertThat(event.error()).contains("Timed out after 50 ms");
+                        assertThat(event.response().responseData()).startsWith("{\"error\":");
+                    })
+                    .verifyComplete();
+
+            assertThat(meterRegistry.get("chat.tool.execution").tag("outcome", "timeout").timer().count())
+                    .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should serve repeated calls of an idempotent tool from the cache")
+        void shouldServeIdempotentTool_fromCache() {
+            ToolCallback weather = tool("weather", args -> "sunny");
+            ToolExecutor executor = createExecutor(
+                    properties(4, Map.of("weather", new ToolProperties.ToolSettings(null, true))), weather);
+
+            executor.execute(List.of(call("1", "weather"))).blockLast();
+
+            StepVerifier.create(executor.execute(List.of(call("2", "weather"))))
+                    .assertNext(event -> {
+                        assertThat(event.stage()).isEqualTo(ToolEvent.Stage.COMPLETED);
+                        assertThat(event.cached()).isTrue();
+                        assertThat(event.callId()).isEqualTo("2");
+                        assertThat(event.response().responseData()).isEqualTo("sunny");
+                    })
+                    .verifyComplete();
+
+            verify(weather, times(1)).call(anyString());
+        }
+
+        @Test
+        @DisplayName("Should not cache results of tools that are not idempotent")
+        void shouldNotCache_nonIdempotentTool() {
+            ToolCallback clock = tool("clock", args -> "now");
+            ToolExecutor executor = createExecutor(properties(4, Map.of()), clock);
+
+            executor.execute(List.of(call("1", "clock"))).blockLast();
+            executor.execute(List.of(call("2", "clock"))).blockLast();
+
+            verify(clock, times(2)).call(anyString());
+        }
+
+        @Test
+        @DisplayName("Should report failing and unknown tools as failed results")
+        void shouldReportFailingAndUnknownTools_asFailed() {
+            ToolExecutor executor = createExecutor(properties(1, Map.of()),
+                    tool("broken", args -> {
+                        throw new IllegalStateException("backend down");
+                    }));
+
+            StepVerifier.create(executor.execute(List.of(call("1", "broken"), call("2", "missing")))
+                            .filter(ToolEvent::finished))
+                    .assertNext(event -> {
+                        assertThat(event.stage()).isEqualTo(ToolEvent.Stage.FAILED);
+                        assertThat(event.error()).isEqualTo("backend down");
+                    })
+                    .assertNext(event -> {
+                        assertThat(event.stage()).isEqualTo(ToolEvent.Stage.FAILED);
+                        assertThat(event.error()).isEqualTo("Unknown tool");
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("prompt tests")
+    class PromptTests {
+
+        @Test
+        @DisplayName("Should leave the prompt untouched when no tools are registered")
+        void shouldLeavePromptUntouched_whenNoTools() {
+            ToolExecutor executor = createExecutor(properties(4, Map.of()));
+            Prompt prompt = new Prompt("Hi");
+
+            assertThat(executor.hasTools()).isFalse();
+            assertThat(executor.withTools(prompt)).isSameAs(prompt);
+        }
+
+        @Test
+        @DisplayName("Should offer tools with internal execution disabled")
+        void shouldOfferTools_withInternalExecutionDisabled() {
+            ToolCallback weather = tool("weather", args -> "sunny");
+            ToolExecutor executor = createExecutor(properties(4, Map.of()), weather);
+
+            Prompt prompt = executor.withTools(new Prompt("Hi"));
+
+            OpenAiChatOptions options = (OpenAiChatOptions) prompt.getOptions();
+            assertThat(options.getToolCallbacks()).containsExactly(weather);
+            assertThat(options.getInternalToolExecutionEnabled()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should append tool results in call order regardless of completion order")
+        void shouldAppendToolResults_inCallOrder() {
+            ToolExecutor executor = createExecutor(properties(4, Map.of()));
+            AssistantMessage toolCalls = mock(AssistantMessage.class);
+            doReturn(List.of(call("1", "a"), call("2", "b"))).when(toolCalls).getToolCalls();
+            List<ToolEvent> results = List.of(
+                    ToolEvent.completed("2", "b", 5, false, "B"),
+                    ToolEvent.completed("1", "a", 9, false, "A"));
+
+            Prompt followUp = executor.followUp(new Prompt(new UserMessage("Hi")), List.of(toolCalls), results);
+
+            List<Message> messages = followUp.getInstructions();
+            assertThat(messages).hasSize(3);
+            assertThat(messages.get(1)).isSameAs(toolCalls);
+            assertThat(((ToolResponseMessage) messages.get(2)).getResponses())
+                    .extracting(ToolResponseMessage.ToolResponse::responseData)
+                    .containsExactly("A", "B");
+        }
+    }
+
+    private ToolExecutor createExecutor(ToolProperties properties, ToolCallback... tools) {
+        Map<String, Object> beans = new LinkedHashMap<>();
+        for (ToolCallback tool : tools) {
+            beans.put(tool.getToolDefinition().name(), tool);
+        }
+        return new ToolExecutor(new StaticListableBeanFactory(beans).getBeanProvider(ToolCallback.class),
+                properties, meterRegistry);
+    }
+
+    private static ToolProperties properties(int maxConcurrency, Map<String, ToolProperties.ToolSettings> tools) {
+        return new ToolProperties(maxConcurrency, Duration.ofSeconds(5), 5, Duration.ofMinutes(5), 100, tools);
+    }
+
+    private static ToolCallback tool(String name, Function<String, String> body) {
+        ToolCallback callback = mock(ToolCallback.class);
+        ToolDefinition definition = mock(ToolDefinition.class);
+        lenient().doReturn(name).when(definition).name();
+        lenient().doReturn(definition).when(callback).getToolDefinition();
+        lenient().doAnswer(invocation -> body.apply(invocation.getArgument(0))).when(callback).call(anyString());
+        return callback;
+    }
+
+    private static AssistantMessage.ToolCall call(String id, String name) {
+        return new AssistantMessage.ToolCall(id, "function", name, "{}");
+    }
+}
@@ -0,0 +1,131 @@
+package com.puhovin.springopenai.tracing;
+
+import com.puhovin.springopenai.config.TracingProperties;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChatObservations Unit Tests")
+class ChatObservationsTest {
+
+    private final List<Observation.Context> started = new CopyOnWriteArrayList<>();
+    private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+
+    private ObservationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStart(Observation.Context context) {
+                started.add(context);
+            }
+
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+    }
+
+    private ChatObservations observations(boolean enabled) {
+        return new ChatObservations(registry,
+                new TracingProperties(enabled, Duration.ofSeconds(5), 1000, 256, Duration.ofMinutes(5)));
+    }
+
+    @Test
+    @DisplayName("Should start the parent before a nested observation and link them")
+    void shouldStartParentFirst_andLinkNestedObservation() {
+        ChatObservations observations = observations(true);
+
+        Flux<Integer> flux = observations.flux("outer", KeyValues.empty(),
+                outer -> observations.flux("inner", KeyValues.empty(), inner -> Flux.range(1, 3)));
+
+        StepVerifier.create(flux)
+                .expectNext(1, 2, 3)
+                .verifyComplete();
+
+        assertThat(started).extracting(Observation.Context::getName).containsExactly("outer", "inner");
+        assertThat(stopped).extracting(Observation.Context::getName).containsExactly("inner", "outer");
+        assertThat(started.get(1).getParentObservation().getContextView()).isSameAs(started.get(0));
+    }
+
+    @Test
+    @DisplayName("Should summarize elements as key values instead of per-element observations")
+    void shouldSummarizeElements() {
+        ChatObservations observations = observations(true);
+
+        StepVerifier.create(observations.flux("chunks", KeyValues.of("chat.round", "1"), observation -> Flux.range(1, 5)))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertThat(stopped).hasSize(1);
+        Observation.Context context = stopped.get(0);
+        assertThat(context.getLowCardinalityKeyValue("chat.round").getValue()).isEqualTo("1");
+        assertThat(context.getLowCardinalityKeyValue(ChatObservations.OUTCOME).getValue()).isEqualTo("completed");
+        assertThat(context.getHighCardinalityKeyValue(ChunkSummary.CHUNKS).getValue()).isEqualTo("5");
+        assertThat(context.getHighCardinalityKeyValue(ChunkSummary.FIRST_CHUNK)).isNotNull();
+        assertThat(context.getHighCardinalityKeyValue(ChunkSummary.MAX_GAP)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should record cancel as the outcome")
+    void shouldRecordCancel() {
+        ChatObservations observations = observations(true);
+
+        StepVerifier.create(observations.flux("stream", KeyValues.empty(), observation -> Flux.never()))
+                .thenCancel()
+                .verify();
+
+        assertThat(stopped).singleElement()
+                .satisfies(context -> assertThat(context.getLowCardinalityKeyValue(ChatObservations.OUTCOME).getValue())
+                        .isEqualTo("cancelled"));
+    }
+
+    @Test
+    @DisplayName("Should record the error of a failed mono")
+    void shouldRecordMonoError() {
+        ChatObservations observations = observations(true);
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        StepVerifier.create(observations.mono("call", KeyValues.empty(), observation -> Mono.error(failure)))
+                .verifyErrorMatches(failure::equals);
+
+        assertThat(stopped).singleElement().satisfies(context -> {
+            assertThat(context.getError()).isSameAs(failure);
+            assertThat(context.getLowCardinalityKeyValue(ChatObservations.OUTCOME).getValue()).isEqualTo("error");
+        });
+    }
+
+    @Test
+    @DisplayName("Should return the publisher untouched when disabled")
+    void shouldPassThrough_whenDisabled() {
+        ChatObservations observations = observations(false);
+        Flux<Integer> source = Flux.range(1, 3);
+
+        assertThat(observations.flux("stream", KeyValues.empty(), observation -> {
+            assertThat(observation.isNoop()).isTrue();
+            return source;
+        })).isSameAs(source);
+        assertThat(started).isEmpty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.puhovin.springopenai.tracing;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("SlowTraceSampler Unit Tests")
+class SlowTraceSamplerTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+    private static final String SPAN_ID = "b7ad6b7169203331";
+
+    private static SamplingDecision decide(Sampler sampler, Context parent) {
+        return sampler.shouldSample(parent, TRACE_ID, "chat.generation", SpanKind.INTERNAL, Attributes.empty(), List.of())
+                .getDecision();
+    }
+
+    private static Context parent(boolean sampled, boolean remote, boolean recording) {
+        TraceFlags flags = sampled ? TraceFlags.getSampled() : TraceFlags.getDefault();
+        SpanContext spanContext = remote
+                ? SpanContext.createFromRemoteParent(TRACE_ID, SPAN_ID, flags, TraceState.getDefault())
+                : SpanContext.create(TRACE_ID, SPAN_ID, flags, TraceState.getDefault());
+        Span span = mock(Span.class);
+        doReturn(spanContext).when(span).getSpanContext();
+        doReturn(recording).when(span).isRecording();
+        return Context.root().with(span);
+    }
+
+    @Test
+    @DisplayName("Should record roots dropped by the head sampler when tail sampling is on")
+    void shouldRecordDroppedRoots_whenTailSamplingOn() {
+        assertThat(decide(new SlowTraceSampler(Sampler.alwaysOff(), true), Context.root()))
+                .isEqualTo(SamplingDecision.RECORD_ONLY);
+        assertThat(decide(new SlowTraceSampler(Sampler.alwaysOn(), true), Context.root()))
+                .isEqualTo(SamplingDecision.RECORD_AND_SAMPLE);
+    }
+
+    @Test
+    @DisplayName("Should drop unsampled roots outright when tail sampling is off")
+    void shouldDropRoots_whenTailSamplingOff() {
+        assertThat(decide(new SlowTraceSampler(Sampler.alwaysOff(), false), Context.root()))
+                .isEqualTo(SamplingDecision.DROP);
+    }
+
+    @Test
+    @DisplayName("Should follow a sampled parent regardless of the head sampler")
+    void shouldFollowSampledParent() {
+        assertThat(decide(new SlowTraceSampler(Sampler.alwaysOff(), false), parent(true, true, false)))
+                .isEqualTo(SamplingDecision.RECORD_AND_SAMPLE);
+    }
+
+    @Test
+    @DisplayName("Should keep recording children of a recorded local parent")
+    void shouldRecordChildren_ofRecordedLocalParent() {
+        SlowTraceSampler sampler = new SlowTraceSampler(Sampler.alwaysOn(), true);
+
+        assertThat(decide(sampler, parent(false, false, true))).isEqualTo(SamplingDecision.RECORD_ONLY);
+        assertThat(decide(sampler, parent(false, false, false))).isEqualTo(SamplingDecision.DROP);
+    }
+
+    @Test
+    @DisplayName("Should respect an unsampled remote parent")
+    void shouldRespectUnsampledRemoteParent() {
+        assertThat(decide(new SlowTraceSampler(Sampler.alwaysOn(), true), parent(false, true, false)))
+                .isEqualTo(SamplingDecision.DROP);
+    }
+}
@@ -0,0 +1,124 @@
+package com.puhovin.springopenai.tracing;
+
+import com.puhovin.springopenai.config.TracingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SlowTraceSpanProcessor Unit Tests")
+class SlowTraceSpanProcessorTest {
+
+    private static final String TRACE_A = "0af7651916cd43dd8448eb211c80319c";
+    private static final String TRACE_B = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Mock
+    private SpanExporter exporter;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SlowTraceSpanProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processor = new SlowTraceSpanProcessor(exporter,
+                new TracingProperties(true, Duration.ofSeconds(2), 1, 2, Duration.ofMinutes(1)),
+                meterRegistry, nanos::get);
+    }
+
+    private static ReadableSpan span(String traceId, String spanId, String parentSpanId, boolean sampled, Duration latency) {
+        ReadableSpan span = mock(ReadableSpan.class);
+        TraceFlags flags = sampled ? TraceFlags.getSampled() : TraceFlags.getDefault();
+        doReturn(SpanContext.create(traceId, spanId, flags, TraceState.getDefault())).when(span).getSpanContext();
+        if (sampled) {
+            return span;
+        }
+        doReturn(parentSpanId != null
+                ? SpanContext.create(traceId, parentSpanId, flags, TraceState.getDefault())
+                : SpanContext.getInvalid()).when(span).getParentSpanContext();
+        if (parentSpanId == null) {
+            doReturn(latency.toNanos()).when(span).getLatencyNanos();
+        }
+        lenient().doReturn(mock(SpanData.class)).when(span).toSpanData();
+        return span;
+    }
+
+    @Test
+    @DisplayName("Should export the buffered trace once a slow root ends")
+    @SuppressWarnings("unchecked")
+    void shouldExportTrace_whenRootIsSlow() {
+        processor.onEnd(span(TRACE_A, "00f067aa0ba902b7", "b7ad6b7169203331", false, null));
+        processor.onEnd(span(TRACE_A, "b7ad6b7169203331", null, false, Duration.ofSeconds(3)));
+
+        ArgumentCaptor<Collection<SpanData>> exported = ArgumentCaptor.forClass(Collection.class);
+        verify(exporter).export(exported.capture());
+        assertThat(exported.getValue()).hasSize(2);
+        assertThat(processor.pendingTraces()).isZero();
+        assertThat(meterRegistry.get("chat.tracing.tail.traces").tag("outcome", "exported").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop the buffered trace when the root is fast")
+    void shouldDropTrace_whenRootIsFast() {
+        processor.onEnd(span(TRACE_A, "00f067aa0ba902b7", "b7ad6b7169203331", false, null));
+        processor.onEnd(span(TRACE_A, "b7ad6b7169203331", null, false, Duration.ofMillis(300)));
+
+        verifyNoInteractions(exporter);
+        assertThat(processor.pendingTraces()).isZero();
+        assertThat(meterRegistry.get("chat.tracing.tail.traces").tag("outcome", "discarded").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave sampled spans to the regular exporter")
+    void shouldIgnoreSampledSpans() {
+        processor.onEnd(span(TRACE_A, "b7ad6b7169203331", null, true, null));
+
+        verifyNoInteractions(exporter);
+        assertThat(processor.pendingTraces()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should bound the buffer and sweep traces past their TTL")
+    void shouldBoundBuffer_andSweepExpiredTraces() {
+        processor.onEnd(span(TRACE_A, "00f067aa0ba902b7", "b7ad6b7169203331", false, null));
+        processor.onEnd(span(TRACE_B, "00f067aa0ba902b8", "b7ad6b7169203332", false, null));
+
+        assertThat(processor.pendingTraces()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.tracing.tail.spans.dropped").counter().count()).isEqualTo(1);
+
+        nanos.set(Duration.ofMinutes(2).toNanos());
+        processor.onEnd(span(TRACE_B, "00f067aa0ba902b8", "b7ad6b7169203332", false, null));
+
+        assertThat(processor.pendingTraces()).isEqualTo(1);
+        processor.onEnd(span(TRACE_B, "b7ad6b7169203332", null, false, Duration.ofSeconds(5)));
+        verify(exporter).export(any());
+    }
+}
@@ -0,0 +1,63 @@
+package com.puhovin.springopenai.upstream;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.SignalType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CancellationTracker Unit Tests")
+class CancellationTrackerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CancellationTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new CancellationTracker(meterRegistry, 1000);
+    }
+
+    @Test
+    @DisplayName("Should expect max tokens before any generation completed")
+    void shouldExpectMaxTokens_beforeAnyCompletion() {
+        assertThat(tracker.expectedCompletionTokens()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should expect average completion tokens capped by max tokens")
+    void shouldExpectAverageCompletionTokens() {
+        tracker.recordCompletion(100);
+        tracker.recordCompletion(300);
+        tracker.recordCompletion(0);
+
+        assertThat(tracker.expectedCompletionTokens()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should estimate avoided tokens from emitted characters on cancel")
+    void shouldEstimateAvoidedTokens_onCancel() {
+        tracker.recordCompletion(200);
+        CancellationTracker.Generation generation = tracker.start();
+        generation.emitted("x".repeat(400));
+
+        generation.clientCancelled();
+        generation.upstreamTerminated(SignalType.CANCEL);
+
+        assertThat(meterRegistry.get("chat.stream.cancelled").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.stream.cancelled.tokens.avoided").counter().count()).isEqualTo(100);
+        assertThat(meterRegistry.get("chat.stream.cancelled.propagation").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not record cancel propagation when upstream completes on its own")
+    void shouldNotRecordCancelPropagation_whenUpstreamCompletes() {
+        CancellationTracker.Generation generation = tracker.start();
+
+        generation.upstreamTerminated(SignalType.ON_COMPLETE);
+
+        assertThat(meterRegistry.get("chat.stream.cancelled.propagation").timer().count()).isZero();
+    }
+}
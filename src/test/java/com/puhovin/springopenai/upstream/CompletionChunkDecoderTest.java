@@ -0,0 +1,96 @@
+package com.puhovin.springopenai.upstream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CompletionChunkDecoder Unit Tests")
+class CompletionChunkDecoderTest {
+
+    private static final String CONTENT_FRAME = "data: {\"id\":\"c1\",\"object\":\"chat.completion.chunk\",\"model\":\"gpt\","
+            + "\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\",\"content\":\"%s\"},\"finish_reason\":null}]}\n\n";
+
+    private CompletionChunkDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new CompletionChunkDecoder(new JsonFactory());
+    }
+
+    @Test
+    @DisplayName("Should decode delta content from complete frames")
+    void shouldDecodeDeltaContent_fromCompleteFrames() {
+        List<CompletionChunk> chunks = decoder.decode(buffer(CONTENT_FRAME.formatted("Hello") + CONTENT_FRAME.formatted(" world")));
+
+        assertThat(chunks).extracting(CompletionChunk::content).containsExactly("Hello", " world");
+    }
+
+    @Test
+    @DisplayName("Should reassemble frames split across buffers")
+    void shouldReassembleFrames_splitAcrossBuffers() {
+        String frames = CONTENT_FRAME.formatted("Split") + CONTENT_FRAME.formatted("Frames");
+        List<CompletionChunk> chunks = new ArrayList<>();
+
+        for (int i = 0; i < frames.length(); i += 7) {
+            chunks.addAll(decoder.decode(buffer(frames.substring(i, Math.min(frames.length(), i + 7)))));
+        }
+
+        assertThat(chunks).extracting(CompletionChunk::content).containsExactly("Split", "Frames");
+    }
+
+    @Test
+    @DisplayName("Should surface finish reason and usage and ignore the DONE sentinel")
+    void shouldSurfaceFinishReasonAndUsage() {
+        String frames = "data: {\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}]}\r\n\r\n"
+                + "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":8,"
+                + "\"total_tokens\":128,\"prompt_tokens_details\":{\"cached_tokens\":64}}}\n\n"
+                + "data: [DONE]\n\n";
+
+        List<CompletionChunk> chunks = decoder.decode(buffer(frames));
+
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0).finishReason()).isEqualTo("stop");
+        assertThat(chunks.get(0).hasUsage()).isFalse();
+        assertThat(chunks.get(1)).isEqualTo(new CompletionChunk(null, null, 120, 8, 64));
+    }
+
+    @Test
+    @DisplayName("Should decode escaped and multi-byte content")
+    void shouldDecodeEscapedAndMultiByteContent() {
+        List<CompletionChunk> chunks = decoder.decode(buffer(CONTENT_FRAME.formatted("line\\n\\\"quoted\\\" 世界")));
+
+        assertThat(chunks).extracting(CompletionChunk::content).containsExactly("line\n\"quoted\" 世界");
+    }
+
+    @Test
+    @DisplayName("Should skip comments, event fields and empty frames")
+    void shouldSkipNonDataLines() {
+        String frames = ": keep-alive\n\nevent: message\n" + CONTENT_FRAME.formatted("Only") + "data: {}\n\n";
+
+        List<CompletionChunk> chunks = decoder.decode(buffer(frames));
+
+        assertThat(chunks).extracting(CompletionChunk::content).containsExactly("Only");
+    }
+
+    @Test
+    @DisplayName("Should fail on malformed JSON payload")
+    void shouldFail_onMalformedPayload() {
+        assertThatThrownBy(() -> decoder.decode(buffer("data: {\"choices\":[\n\n")))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,199 @@
+package com.puhovin.springopenai.upstream;
+
+import com.puhovin.springopenai.config.DeadlineProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.context.PriorityClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DeadlineGuard Unit Tests")
+class DeadlineGuardTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeadlineGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new DeadlineGuard(new DeadlineProperties(Duration.ofMillis(100), 0.5, Duration.ofSeconds(10)),
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    @Nested
+    @DisplayName("guard(Mono) tests")
+    class MonoTests {
+
+        @Test
+        @DisplayName("Should pass through when request has no deadline")
+        void shouldPassThrough_whenNoDeadline() {
+            StepVerifier.create(guard.guard(ChatRequestContext.DEFAULT, Mono.just("ok")))
+                    .expectNext("ok")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should shed without subscribing upstream when budget is below expected TTFT")
+        void shouldShed_whenBudgetBelowExpectedTtft() {
+            PublisherProbe<String> upstream = PublisherProbe.of(Mono.just("late"));
+
+            StepVerifier.create(guard.guard(context(Duration.ofMillis(50)), upstream.mono()))
+                    .expectError(DeadlineExceededException.class)
+                    .verify();
+
+            upstream.assertWasNotSubscribed();
+            assertThat(meterRegistry.get("chat.deadline.shed").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should cancel upstream and fail when deadline expires")
+        void shouldCancelUpstream_whenDeadlineExpires() {
+            PublisherProbe<String> upstream = PublisherProbe.of(Mono.never());
+
+            StepVerifier.create(guard.guard(context(Duration.ofMillis(300)), upstream.mono()))
+                    .expectError(DeadlineExceededException.class)
+                    .verify(Duration.ofSeconds(2));
+
+            upstream.assertWasCancelled();
+            assertThat(meterRegistry.get("chat.deadline.exceeded").counter().count()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("guard(Flux) tests")
+    class FluxTests {
+
+        @Test
+        @DisplayName("Should apply the deadline to the whole stream, not per item")
+        void shouldApplyDeadlineToWholeStream() {
+            Flux<Long> slowStream = Flux.interval(Duration.ofMillis(200));
+
+            StepVerifier.create(guard.guard(context(Duration.ofMillis(500)), slowStream))
+                    .expectNextCount(2)
+                    .expectError(DeadlineExceededException.class)
+                    .verify(Duration.ofSeconds(2));
+        }
+
+        @Test
+        @DisplayName("Should complete normally when stream finishes before the deadline")
+        void shouldComplete_whenStreamFinishesInTime() {
+            StepVerifier.create(guard.guard(context(Duration.ofSeconds(5)), Flux.just("a", "b")))
+                    .expectNext("a", "b")
+                    .verifyComplete();
+
+            assertThat(meterRegistry.get("chat.deadline.exceeded").counter().count()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("bound() tests")
+    class BoundTests {
+
+        @Test
+        @DisplayName("Should cancel the upstream call when the remaining budget runs out")
+        void shouldCancelUpstreamCall_whenBudgetRunsOut() {
+            PublisherProbe<String> upstream = PublisherProbe.of(Mono.never());
+
+            StepVerifier.create(guard.bound(context(Duration.ofMillis(200)), upstream.mono()))
+                    .expectError(DeadlineExceededException.class)
+                    .verify(Duration.ofSeconds(2));
+
+            upstream.assertWasCancelled();
+            assertThat(meterRegistry.get("chat.deadline.exceeded").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should pass through when request has no deadline")
+        void shouldPassThrough_whenNoDeadline() {
+            StepVerifier.create(guard.bound(ChatRequestContext.DEFAULT, Mono.just("ok")))
+                    .expectNext("ok")
+                    .verifyComplete();
+        }
+    }
+
+    @Nested
+    @DisplayName("observe tests")
+    class ObserveTests {
+
+        @Test
+        @DisplayName("Should smooth expected TTFT from the first item with content")
+        void shouldSmoothExpectedTtft() {
+            StepVerifier.create(guard.observeFirstContent(Mono.delay(Duration.ofMillis(300)).flux(), item -> true))
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+            assertThat(guard.expectedTtft()).isGreaterThan(Duration.ofMillis(150));
+        }
+
+        @Test
+        @DisplayName("Should keep timing past empty items")
+        void shouldSkipEmptyItems() {
+            Flux<String> stream = Flux.just("").concatWith(Mono.delay(Duration.ofMillis(300)).thenReturn("token"));
+
+            StepVerifier.create(guard.observeFirstContent(stream, item -> !item.isEmpty()))
+                    .expectNext("", "token")
+                    .verifyComplete();
+
+            assertThat(guard.expectedTtft()).isGreaterThan(Duration.ofMillis(150));
+        }
+
+        @Test
+        @DisplayName("Should start timing on subscription rather than at assembly")
+        void shouldStartTiming_onSubscription() throws InterruptedException {
+            Flux<String> observed = guard.observeFirstContent(Flux.just("token"), item -> true);
+            Thread.sleep(300);
+
+            StepVerifier.create(observed)
+                    .expectNext("token")
+                    .verifyComplete();
+
+            assertThat(guard.expectedTtft()).isLessThan(Duration.ofMillis(100));
+        }
+
+        @Test
+        @DisplayName("Should decay an inflated estimate back toward the initial value while no samples arrive")
+        void shouldDecayInflatedEstimate_whenIdle() throws InterruptedException {
+            DeadlineGuard decaying = new DeadlineGuard(new DeadlineProperties(Duration.ofMillis(100), 0.5,
+                    Duration.ofMillis(50)), Clock.systemUTC(), meterRegistry);
+            StepVerifier.create(decaying.observeFirstContent(Mono.delay(Duration.ofMillis(300)).flux(), item -> true))
+                    .expectNextCount(1)
+                    .verifyComplete();
+            assertThat(decaying.expectedTtft()).isGreaterThan(Duration.ofMillis(150));
+
+            Thread.sleep(500);
+
+            assertThat(decaying.expectedTtft()).isBetween(Duration.ofMillis(100), Duration.ofMillis(110));
+            StepVerifier.create(decaying.guard(context(Duration.ofMillis(150)), Flux.just("ok")))
+                    .expectNext("ok")
+                    .verifyComplete();
+        }
+
+        @Test
+        @DisplayName("Should smooth expected response time for blocking calls separately")
+        void shouldSmoothExpectedResponse() {
+            StepVerifier.create(guard.observeResponse(Mono.delay(Duration.ofMillis(300)).thenReturn("answer"),
+                            content -> !content.isEmpty()))
+                    .expectNext("answer")
+                    .verifyComplete();
+
+            assertThat(guard.expectedResponse()).isGreaterThan(Duration.ofMillis(150));
+            assertThat(guard.expectedTtft()).isEqualTo(Duration.ofMillis(100));
+        }
+    }
+
+    private static ChatRequestContext context(Duration budget) {
+        return new ChatRequestContext("client", PriorityClass.INTERACTIVE, Instant.now().plus(budget));
+    }
+}
@@ -0,0 +1,134 @@
+package com.puhovin.springopenai.upstream;
+
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.context.PriorityClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("WeightedFairQueue Unit Tests")
+class WeightedFairQueueTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WeightedFairQueue fairQueue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fairQueue = new WeightedFairQueue(new PriorityProperties(PriorityClass.INTERACTIVE, 1, Map.of(), Map.of(
+                PriorityClass.INTERACTIVE, new PriorityProperties.ClassLimits(3, 10, Duration.ofSeconds(10)),
+                PriorityClass.BATCH, new PriorityProperties.ClassLimits(1, 4, Duration.ofMillis(100))
+        )), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should run calls immediately while under the concurrency limit")
+    void shouldRunImmediately_whenUnderLimit() {
+        StepVerifier.create(fairQueue.enqueue(PriorityClass.BATCH, Flux.just("a", "b")))
+                .expectNext("a", "b")
+                .verifyComplete();
+
+        assertThat(fairQueue.inFlight()).isZero();
+        assertThat(meterRegistry.get("chat.queue.time").tag("class", "batch").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should dispatch waiting calls in proportion to class weights")
+    void shouldDispatchByWeight_whenSaturated() {
+        Sinks.Empty<Void> blocker = Sinks.empty();
+        fairQueue.enqueue(PriorityClass.INTERACTIVE, blocker.asMono()).subscribe();
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            fairQueue.enqueue(PriorityClass.BATCH, Mono.fromRunnable(() -> order.add("B"))).subscribe();
+        }
+        for (int i = 0; i < 4; i++) {
+            fairQueue.enqueue(PriorityClass.INTERACTIVE, Mono.fromRunnable(() -> order.add("I"))).subscribe();
+        }
+        assertThat(order).isEmpty();
+
+        blocker.tryEmitEmpty();
+
+        assertThat(order).containsExactly("I", "B", "I", "I", "I", "B", "B", "B");
+        assertThat(fairQueue.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject with 429 when class queue is full")
+    void shouldReject_whenQueueIsFull() {
+        Sinks.Empty<Void> blocker = Sinks.empty();
+        fairQueue.enqueue(PriorityClass.INTERACTIVE, blocker.asMono()).subscribe();
+        for (int i = 0; i < 4; i++) {
+            fairQueue.enqueue(PriorityClass.BATCH, Mono.empty()).subscribe();
+        }
+
+        StepVerifier.create(fairQueue.enqueue(PriorityClass.BATCH, Mono.just("late")))
+                .expectErrorSatisfies(error -> {
+                    assertThat(error).isInstanceOf(QueueRejectedException.class);
+                    assertThat(((QueueRejectedException) error).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                })
+                .verify();
+
+        assertThat(meterRegistry.get("chat.queue.rejected").tag("class", "batch").tag("reason", "full").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail with 503 and leave the queue when max wait elapses")
+    void shouldTimeOut_whenMaxWaitElapses() {
+        Sinks.Empty<Void> blocker = Sinks.empty();
+        fairQueue.enqueue(PriorityClass.INTERACTIVE, blocker.asMono()).subscribe();
+
+        StepVerifier.create(fairQueue.enqueue(PriorityClass.BATCH, Mono.just("slow")))
+                .expectErrorSatisfies(error ->
+                        assertThat(((QueueRejectedException) error).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE))
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(meterRegistry.get("chat.queue.depth").tag("class", "batch").gauge().value()).isZero();
+        blocker.tryEmitEmpty();
+        assertThat(fairQueue.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should remove cancelled waiters without consuming a permit")
+    void shouldRemoveCancelledWaiters() {
+        Sinks.Empty<Void> blocker = Sinks.empty();
+        fairQueue.enqueue(PriorityClass.INTERACTIVE, blocker.asMono()).subscribe();
+        List<String> order = new ArrayList<>();
+        Disposable cancelled = fairQueue.enqueue(PriorityClass.INTERACTIVE, Mono.fromRunnable(() -> order.add("cancelled")))
+                .subscribe();
+        fairQueue.enqueue(PriorityClass.INTERACTIVE, Mono.fromRunnable(() -> order.add("kept"))).subscribe();
+
+        cancelled.dispose();
+        blocker.tryEmitEmpty();
+
+        assertThat(order).containsExactly("kept");
+        assertThat(fairQueue.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should release the permit when the upstream call fails or is cancelled")
+    void shouldReleasePermit_onErrorOrCancel() {
+        StepVerifier.create(fairQueue.enqueue(PriorityClass.INTERACTIVE, Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(fairQueue.enqueue(PriorityClass.INTERACTIVE, Flux.never()))
+                .thenCancel()
+                .verify();
+
+        assertThat(fairQueue.inFlight()).isZero();
+    }
+}
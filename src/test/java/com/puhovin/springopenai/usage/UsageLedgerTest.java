@@ -0,0 +1,160 @@
+package com.puhovin.springopenai.usage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.puhovin.springopenai.config.BulkheadProperties;
+import com.puhovin.springopenai.config.UsageProperties;
+import com.puhovin.springopenai.tenant.TenantBulkheads;
+import com.puhovin.springopenai.tenant.TenantChatModelFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("UsageLedger Unit Tests")
+class UsageLedgerTest {
+
+    private static final Map<String, UsageProperties.Price> PRICES =
+            Map.of("gpt-large", new UsageProperties.Price(2.0, 0.5, 8.0));
+
+    @TempDir
+    private Path directory;
+
+    private UsageLedger ledger(SimpleMeterRegistry meterRegistry, Path snapshotFile) {
+        BulkheadProperties.Limits limits = new BulkheadProperties.Limits(8, 50, Duration.ofSeconds(10));
+        BulkheadProperties.Tenant tenant = new BulkheadProperties.Tenant(8, 50, null, null, null, null, null);
+        TenantBulkheads tenants = new TenantBulkheads(new BulkheadProperties(true, null, Duration.ofSeconds(10),
+                Duration.ofSeconds(60), limits, Map.of("team-a", tenant, "team-b", tenant)),
+                new MockEnvironment(), mock(TenantChatModelFactory.class), meterRegistry);
+        return new UsageLedger(new UsageProperties(snapshotFile, Duration.ofSeconds(60), PRICES),
+                tenants, meterRegistry, new ObjectMapper(), "gpt-default");
+    }
+
+    @Test
+    @DisplayName("Should aggregate concurrent usage per tenant and model")
+    void shouldAggregateConcurrentUsage() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UsageLedger ledger = ledger(meterRegistry, null);
+
+        IntStream.range(0, 1000).parallel().forEach(i -> ledger.record("team-a", "gpt-large", 10, 4, 2));
+        ledger.record("team-b", "gpt-large", 5, 0, 1);
+
+        assertThat(ledger.entries()).extracting(UsageEntry::client).containsExactly("team-a", "team-b");
+        UsageEntry teamA = ledger.entries().get(0);
+        assertThat(teamA.calls()).isEqualTo(1000);
+        assertThat(teamA.promptTokens()).isEqualTo(10_000);
+        assertThat(teamA.cachedTokens()).isEqualTo(4_000);
+        assertThat(teamA.completionTokens()).isEqualTo(2_000);
+        assertThat(meterRegistry.get("chat.usage.tokens").tag("client", "team-a").tag("type", "prompt")
+                .functionCounter().count()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("Should price uncached, cached and completion tokens separately")
+    void shouldPriceTokenKindsSeparately() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UsageLedger ledger = ledger(meterRegistry, null);
+
+        ledger.record("team-a", "gpt-large", 1_000_000, 400_000, 100_000);
+        ledger.record("team-a", "gpt-unpriced", 1_000, 0, 1_000);
+
+        double expected = 0.6 * 2.0 + 0.4 * 0.5 + 0.1 * 8.0;
+        assertThat(ledger.entries().get(0).cost()).isCloseTo(expected, within(1e-9));
+        assertThat(ledger.entries().get(1).cost()).isZero();
+        assertThat(meterRegistry.get("chat.usage.cost").tag("model", "gpt-large").functionCounter().count())
+                .isCloseTo(expected, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should ignore responses without reported tokens")
+    void shouldIgnoreEmptyUsage() {
+        UsageLedger ledger = ledger(new SimpleMeterRegistry(), null);
+
+        ledger.record("team-a", "gpt-large", 0, 0, 0);
+
+        assertThat(ledger.entries()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should restore totals from the last snapshot")
+    void shouldRestoreTotals_fromSnapshot() {
+        Path snapshot = directory.resolve("usage.json");
+        UsageLedger first = ledger(new SimpleMeterRegistry(), snapshot);
+        first.record("team-a", "gpt-large", 100, 10, 50);
+        first.snapshot();
+
+        UsageLedger restarted = ledger(new SimpleMeterRegistry(), snapshot);
+        restarted.record("team-a", "gpt-large", 1, 0, 1);
+
+        assertThat(restarted.entries()).singleElement().satisfies(entry -> {
+            assertThat(entry.calls()).isEqualTo(2);
+            assertThat(entry.promptTokens()).isEqualTo(101);
+            assertThat(entry.cachedTokens()).isEqualTo(10);
+            assertThat(entry.completionTokens()).isEqualTo(51);
+        });
+    }
+
+    @Test
+    @DisplayName("Should account unconfigured clients to the default tenant")
+    void shouldAccountUnconfiguredClients_toDefaultTenant() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UsageLedger ledger = ledger(meterRegistry, null);
+
+        ledger.record("team-a", "gpt-large", 10, 0, 1);
+        ledger.record("anonymous-1", "gpt-large", 10, 0, 1);
+        ledger.record("anonymous-2", "gpt-large", 5, 0, 1);
+
+        assertThat(ledger.entries()).extracting(UsageEntry::client)
+                .containsExactly(TenantBulkheads.DEFAULT_TENANT, "team-a");
+        assertThat(ledger.entries().get(0).calls()).isEqualTo(2);
+        assertThat(meterRegistry.find("chat.usage.calls").functionCounters())
+                .extracting(counter -> counter.getId().getTag("client"))
+                .containsExactlyInAnyOrder("team-a", TenantBulkheads.DEFAULT_TENANT);
+        assertThat(meterRegistry.get("chat.usage.tokens").tag("client", TenantBulkheads.DEFAULT_TENANT)
+                .tag("type", "prompt").functionCounter().count()).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Should start empty and move a corrupt snapshot aside")
+    void shouldStartEmpty_whenSnapshotIsCorrupt() throws IOException {
+        Path snapshot = directory.resolve("usage.json");
+        Files.writeString(snapshot, "{not json");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        UsageLedger ledger = ledger(meterRegistry, snapshot);
+
+        assertThat(ledger.entries()).isEmpty();
+        assertThat(snapshot).doesNotExist();
+        try (var files = Files.list(directory)) {
+            assertThat(files).singleElement().satisfies(file ->
+                    assertThat(file.getFileName().toString()).startsWith("usage.json.corrupt-"));
+        }
+        assertThat(meterRegistry.get("chat.usage.snapshots").tag("operation", "restore").tag("outcome", "failed")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count a failed snapshot write without throwing")
+    void shouldCountFailedWrite() throws IOException {
+        Path blocked = Files.writeString(directory.resolve("blocked"), "");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        UsageLedger ledger = ledger(meterRegistry, blocked.resolve("usage.json"));
+        ledger.record("team-a", "gpt-large", 1, 0, 1);
+
+        ledger.snapshot();
+
+        assertThat(meterRegistry.get("chat.usage.snapshots").tag("operation", "write").tag("outcome", "failed")
+                .counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,108 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.PriorityProperties;
+import com.puhovin.springopenai.context.ChatRequestContext;
+import com.puhovin.springopenai.context.PriorityClass;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChatRequestContextFilter Unit Tests")
+class ChatRequestContextFilterTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private ChatRequestContextFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new ChatRequestContextFilter(new PriorityProperties(
+                PriorityClass.INTERACTIVE, 32, Map.of("indexer", PriorityClass.BATCH), Map.of()),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should use default class and anonymous client when no headers are sent")
+    void shouldUseDefaults_whenNoHeaders() {
+        assertThat(filterAndCapture(MockServerHttpRequest.post("/chat/stream")))
+                .isEqualTo(new ChatRequestContext(ChatRequestContext.ANONYMOUS_CLIENT, PriorityClass.INTERACTIVE, null));
+    }
+
+    @Test
+    @DisplayName("Should map known client to its configured class")
+    void shouldMapClientToConfiguredClass() {
+        assertThat(filterAndCapture(MockServerHttpRequest.post("/chat").header("X-Client-Id", "indexer")))
+                .isEqualTo(new ChatRequestContext("indexer", PriorityClass.BATCH, null));
+    }
+
+    @Test
+    @DisplayName("Should let priority header override the client mapping")
+    void shouldLetHeaderOverrideClientMapping() {
+        ChatRequestContext context = filterAndCapture(MockServerHttpRequest.post("/chat/stream-sse")
+                .header("X-Client-Id", "indexer")
+                .header("X-Priority", "interactive"));
+
+        assertThat(context.priority()).isEqualTo(PriorityClass.INTERACTIVE);
+    }
+
+    @Test
+    @DisplayName("Should ignore unknown priority header values")
+    void shouldIgnoreUnknownPriority() {
+        ChatRequestContext context = filterAndCapture(MockServerHttpRequest.post("/chat").header("X-Priority", "urgent"));
+
+        assertThat(context.priority()).isEqualTo(PriorityClass.INTERACTIVE);
+    }
+
+    @Test
+    @DisplayName("Should read absolute deadline header")
+    void shouldReadAbsoluteDeadline() {
+        ChatRequestContext context = filterAndCapture(MockServerHttpRequest.post("/chat")
+                .header("X-Request-Deadline", String.valueOf(NOW.plusSeconds(3).toEpochMilli())));
+
+        assertThat(context.deadline()).isEqualTo(NOW.plusSeconds(3));
+    }
+
+    @Test
+    @DisplayName("Should use the earlier of absolute deadline and relative timeout")
+    void shouldUseEarlierOfDeadlineAndTimeout() {
+        ChatRequestContext context = filterAndCapture(MockServerHttpRequest.post("/chat/stream")
+                .header("X-Request-Deadline", String.valueOf(NOW.plusSeconds(3).toEpochMilli()))
+                .header("X-Request-Timeout-Ms", "1500"));
+
+        assertThat(context.deadline()).isEqualTo(NOW.plusMillis(1500));
+    }
+
+    @Test
+    @DisplayName("Should ignore malformed deadline headers")
+    void shouldIgnoreMalformedDeadline() {
+        ChatRequestContext context = filterAndCapture(MockServerHttpRequest.post("/chat")
+                .header("X-Request-Deadline", "tomorrow"));
+
+        assertThat(context.hasDeadline()).isFalse();
+    }
+
+    private ChatRequestContext filterAndCapture(MockServerHttpRequest.BaseBuilder<?> request) {
+        AtomicReference<ChatRequestContext> captured = new AtomicReference<>();
+        WebFilterChain chain = exchange -> Mono.deferContextual(ctx -> {
+            captured.set(ChatRequestContext.from(ctx));
+            return Mono.empty();
+        });
+
+        StepVerifier.create(filter.filter(MockServerWebExchange.from(request), chain)).verifyComplete();
+
+        return captured.get();
+    }
+}
@@ -0,0 +1,83 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.OverloadProperties;
+import com.puhovin.springopenai.overload.OverloadDetector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OverloadSheddingFilter Unit Tests")
+class OverloadSheddingFilterTest {
+
+    @Mock
+    private OverloadDetector detector;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OverloadSheddingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new OverloadSheddingFilter(detector, new OverloadProperties(true, Duration.ofMillis(100),
+                Duration.ofMillis(250), Duration.ofMillis(50), 10_000, 1_000, 0.9, 0.75,
+                Duration.ofSeconds(5), Duration.ofSeconds(7)), meterRegistry, "/monitor");
+    }
+
+    @Test
+    @DisplayName("Should pass requests through when not overloaded")
+    void shouldPassThrough_whenNotOverloaded() {
+        doReturn(false).when(detector).overloaded();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream"));
+
+        assertThat(filterAndCheckChainCalled(exchange)).isTrue();
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject new requests with 503 and Retry-After while overloaded")
+    void shouldReject_whileOverloaded() {
+        doReturn(true).when(detector).overloaded();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream"));
+
+        assertThat(filterAndCheckChainCalled(exchange)).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("7");
+        assertThat(meterRegistry.get("chat.overload.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep serving management endpoints while overloaded")
+    void shouldServeManagementEndpoints_whileOverloaded() {
+        doReturn(true).when(detector).overloaded();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/monitor/health/readiness"));
+
+        assertThat(filterAndCheckChainCalled(exchange)).isTrue();
+    }
+
+    private boolean filterAndCheckChainCalled(MockServerWebExchange exchange) {
+        AtomicBoolean called = new AtomicBoolean();
+        WebFilterChain chain = ex -> {
+            called.set(true);
+            return Mono.empty();
+        };
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+        return called.get();
+    }
+}
@@ -0,0 +1,138 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.IngestionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RequestSizeLimitFilter Unit Tests")
+class RequestSizeLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestSizeLimitFilter filter;
+    private AtomicBoolean chainCalled;
+    private WebFilterChain readingChain;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestSizeLimitFilter(
+                new IngestionProperties(DataSize.ofBytes(100), DataSize.ofBytes(1000), 10), meterRegistry);
+        chainCalled = new AtomicBoolean();
+        readingChain = exchange -> {
+            chainCalled.set(true);
+            return DataBufferUtils.join(exchange.getRequest().getBody())
+                    .doOnNext(DataBufferUtils::release)
+                    .then();
+        };
+    }
+
+    @Test
+    @DisplayName("Should pass bodies within the limits and record their size")
+    void shouldPassBodiesWithinLimits() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"message\":\"Hello there\"}"));
+
+        StepVerifier.create(filter.filter(exchange, readingChain)).verifyComplete();
+
+        assertThat(meterRegistry.get("chat.request.size").tag("kind", "json").summary().totalAmount()).isEqualTo(25);
+        assertThat(meterRegistry.get("chat.request.tokens").tag("kind", "json").summary().totalAmount())
+                .isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should reject an oversized Content-Length with 413 without reading the body")
+    void shouldRejectDeclaredLength_beforeReading() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat")
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(101)
+                .body("{}"));
+
+        StepVerifier.create(filter.filter(exchange, readingChain)).verifyComplete();
+
+        assertThat(chainCalled).isFalse();
+        assertThat(exchange.getResponse().getStatusCode().value()).isEqualTo(413);
+        assertThat(meterRegistry.get("chat.request.rejected").tag("limit", "bytes").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail a streamed body with 413 once it crosses the byte limit")
+    void shouldFailStreamedBody_whenBytesExceeded() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"message\":\"" + "x ".repeat(60) + "\"}"));
+
+        StepVerifier.create(filter.filter(exchange, readingChain))
+                .expectErrorSatisfies(error -> assertThat(((ResponseStatusException) error).getStatusCode().value())
+                        .isEqualTo(413))
+                .verify();
+    }
+
+    @Test
+    @DisplayName("Should count only JSON string content towards the token limit")
+    void shouldCountJsonStringContent() {
+        String message = "a".repeat(26);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"message\" :  \"" + message + "\",   \"history\": [ ] }"));
+
+        StepVerifier.create(filter.filter(exchange, readingChain)).verifyComplete();
+
+        assertThat(meterRegistry.get("chat.request.tokens").summary().totalAmount()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should reject a body whose estimated tokens exceed the limit")
+    void shouldReject_whenTokensExceeded() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("{\"message\":\"" + "é".repeat(41) + "\"}"));
+
+        StepVerifier.create(filter.filter(exchange, readingChain))
+                .expectErrorSatisfies(error -> assertThat(error).isInstanceOf(RequestTooLargeException.class)
+                        .hasMessageContaining("10 tokens"))
+                .verify();
+        assertThat(meterRegistry.get("chat.request.rejected").tag("limit", "tokens").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply the document limit to uploads")
+    void shouldApplyDocumentLimit_toUploads() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post(RequestSizeLimitFilter.DOCUMENT_PATH)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body("word ".repeat(7)));
+
+        StepVerifier.create(filter.filter(exchange, readingChain)).verifyComplete();
+
+        assertThat(meterRegistry.get("chat.request.size").tag("kind", "document").summary().totalAmount())
+                .isEqualTo(35);
+    }
+
+    @Test
+    @DisplayName("Should leave other paths and methods alone")
+    void shouldIgnoreOtherRequests() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/embeddings")
+                .contentLength(10_000)
+                .body("{}"));
+
+        StepVerifier.create(filter.filter(exchange, readingChain)).verifyComplete();
+
+        assertThat(chainCalled).isTrue();
+        assertThat(meterRegistry.find("chat.request.size").summary()).isNull();
+    }
+}
@@ -0,0 +1,89 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.HeartbeatProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SseHeartbeatFilter Unit Tests")
+class SseHeartbeatFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SseHeartbeatFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SseHeartbeatFilter(new HeartbeatProperties(true, Duration.ofMillis(100), Duration.ofMillis(10)),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.destroy();
+    }
+
+    @Test
+    @DisplayName("Should write comment heartbeats between events while the stream is idle")
+    void shouldWriteHeartbeats_whileIdle() {
+        String body = writeEvents(MediaType.TEXT_EVENT_STREAM, Flux.concat(
+                Mono.just("data:first\n\n"),
+                Mono.just("data:second\n\n").delaySubscription(Duration.ofMillis(350))));
+
+        assertThat(body).startsWith("data:first\n\n").endsWith("data:second\n\n");
+        assertThat(body).contains(": keep-alive\n\n");
+        assertThat(body.replace(": keep-alive\n\n", "")).isEqualTo("data:first\n\ndata:second\n\n");
+        assertThat(meterRegistry.get("chat.stream.heartbeats").counter().count()).isBetween(1.0, 4.0);
+    }
+
+    @Test
+    @DisplayName("Should not write heartbeats while events keep flowing")
+    void shouldNotWriteHeartbeats_whileEventsFlow() {
+        String body = writeEvents(MediaType.TEXT_EVENT_STREAM,
+                Flux.interval(Duration.ofMillis(20)).take(15).map(i -> "data:" + i + "\n\n"));
+
+        assertThat(body).doesNotContain("keep-alive");
+        assertThat(meterRegistry.get("chat.stream.heartbeats").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave non-SSE streaming responses untouched")
+    void shouldLeaveNonSseResponsesUntouched() {
+        String body = writeEvents(MediaType.APPLICATION_NDJSON, Flux.concat(
+                Mono.just("{}\n"),
+                Mono.just("{}\n").delaySubscription(Duration.ofMillis(250))));
+
+        assertThat(body).isEqualTo("{}\n{}\n");
+    }
+
+    private String writeEvents(MediaType contentType, Flux<String> events) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream-sse"));
+        WebFilterChain chain = ex -> {
+            ex.getResponse().getHeaders().setContentType(contentType);
+            return ex.getResponse().writeAndFlushWith(events.map(event -> Mono.just(buffer(event))));
+        };
+
+        StepVerifier.create(filter.filter(exchange, chain)).expectComplete().verify(Duration.ofSeconds(5));
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5));
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
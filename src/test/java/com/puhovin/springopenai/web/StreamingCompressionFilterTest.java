@@ -0,0 +1,132 @@
+package com.puhovin.springopenai.web;
+
+import com.puhovin.springopenai.config.CompressionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StreamingCompressionFilter Unit Tests")
+class StreamingCompressionFilterTest {
+
+    private static final List<String> EVENTS = List.of(
+            "data:The quick brown fox\n\n",
+            "data:jumps over the lazy dog\n\n",
+            "data:The quick brown fox jumps again\n\n");
+
+    private SimpleMeterRegistry meterRegistry;
+    private StreamingCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StreamingCompressionFilter(new CompressionProperties(true, 6, 4), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should make every event decodable as soon as its write arrives")
+    void shouldMakeEveryEventDecodable_onArrival() throws DataFormatException {
+        MockServerWebExchange exchange = exchange("gzip, deflate");
+        List<byte[]> writes = write(exchange, MediaType.TEXT_EVENT_STREAM);
+
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(writes).hasSize(EVENTS.size() + 2);
+        Inflater inflater = new Inflater(true);
+        for (int i = 0; i < EVENTS.size(); i++) {
+            inflater.setInput(writes.get(i + 1));
+            byte[] out = new byte[256];
+            int length = inflater.inflate(out);
+            assertThat(new String(out, 0, length, StandardCharsets.UTF_8)).isEqualTo(EVENTS.get(i));
+        }
+        inflater.end();
+    }
+
+    @Test
+    @DisplayName("Should produce a complete gzip stream and record compression metrics")
+    void shouldProduceValidGzip_andRecordMetrics() throws IOException {
+        MockServerWebExchange exchange = exchange("gzip");
+        List<byte[]> writes = write(exchange, MediaType.APPLICATION_NDJSON);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writes.forEach(body::writeBytes);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(String.join("", EVENTS));
+        }
+        assertThat(meterRegistry.get("chat.compression.bytes").tag("stage", "in").counter().count())
+                .isEqualTo(String.join("", EVENTS).length());
+        assertThat(meterRegistry.get("chat.compression.ratio").summary().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("chat.compression.time").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave the stream uncompressed when the client does not accept gzip")
+    void shouldNotCompress_whenGzipNotAccepted() {
+        MockServerWebExchange exchange = exchange("gzip;q=0, br");
+        List<byte[]> writes = write(exchange, MediaType.TEXT_EVENT_STREAM);
+
+        assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(writes).extracting(bytes -> new String(bytes, StandardCharsets.UTF_8)).containsExactlyElementsOf(EVENTS);
+    }
+
+    @Test
+    @DisplayName("Should parse Accept-Encoding quality values")
+    void shouldParseAcceptEncoding() {
+        assertThat(StreamingCompressionFilter.acceptsGzip(headers("GZIP"))).isTrue();
+        assertThat(StreamingCompressionFilter.acceptsGzip(headers("br, gzip;q=0.5"))).isTrue();
+        assertThat(StreamingCompressionFilter.acceptsGzip(headers("gzip; q=0.0"))).isFalse();
+        assertThat(StreamingCompressionFilter.acceptsGzip(headers("identity"))).isFalse();
+    }
+
+    private static HttpHeaders headers(String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return headers;
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/chat/stream-sse")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+    }
+
+    private List<byte[]> write(MockServerWebExchange exchange, MediaType contentType) {
+        List<byte[]> writes = new ArrayList<>();
+        exchange.getResponse().setWriteHandler(buffers -> buffers
+                .doOnNext(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    writes.add(bytes);
+                })
+                .then());
+        WebFilterChain chain = ex -> {
+            ex.getResponse().getHeaders().setContentType(contentType);
+            return ex.getResponse().writeAndFlushWith(Flux.fromIterable(EVENTS)
+                    .map(event -> Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(event.getBytes(StandardCharsets.UTF_8)))));
+        };
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+        return writes;
+    }
+}
@@ -0,0 +1,72 @@
+package com.puhovin.springopenai.config;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StubOpenAiServer implements AutoCloseable {
+
+    public static final String COMPLETIONS_PATH = "/v1/chat/completions";
+
+    private static final String CHUNK = "{\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion.chunk\",\"created\":1730000000,"
+            + "\"model\":\"stub-model\",\"choices\":[{\"index\":0,\"delta\":{\"content\":\"token%d \"},\"finish_reason\":null}]}";
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile CountDownLatch connectionClosed = new CountDownLatch(1);
+    private final DisposableServer server;
+
+    public StubOpenAiServer(Duration chunkInterval) {
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .doOnConnection(connection -> {
+                    openConnections.incrementAndGet();
+                    connection.onDispose(() -> {
+                        openConnections.decrementAndGet();
+                        connectionClosed.countDown();
+                    });
+                })
+                .route(routes -> routes.post(COMPLETIONS_PATH, (request, response) -> {
+                    requests.incrementAndGet();
+                    return response
+                            .header(HttpHeaderNames.CONTENT_TYPE, "text/event-stream")
+                            .sendString(request.receive().then()
+                                    .thenMany(Flux.interval(chunkInterval)
+                                            .map(i -> "data: " + CHUNK.formatted(i) + "\n\n")));
+                }))
+                .bindNow();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int openConnections() {
+        return openConnections.get();
+    }
+
+    public void reset() {
+        requests.set(0);
+        connectionClosed = new CountDownLatch(1);
+    }
+
+    public boolean awaitConnectionClosed(Duration timeout) throws InterruptedException {
+        return connectionClosed.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
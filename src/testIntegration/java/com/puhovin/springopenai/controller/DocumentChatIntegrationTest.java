@@ -0,0 +1,151 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.config.TestConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@AutoConfigureWebTestClient
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "chat.ingestion.max-document-size=64KB")
+@DisplayName("DocumentChatController Integration Tests")
+class DocumentChatIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private OpenAiChatModel chatModel;
+
+    @BeforeEach
+    void setup() {
+        reset(chatModel);
+    }
+
+    @Test
+    @DisplayName("POST /chat/document should put the plain-text document into the prompt")
+    void shouldStreamAnswer_forPlainTextDocument() {
+        doReturn(Flux.just(createChatResponse("Summary"))).when(chatModel).stream(any(Prompt.class));
+
+        Flux<String> result = webTestClient.post()
+                .uri("/chat/document?message=Summarize")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("The quick brown fox.")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody();
+
+        StepVerifier.create(result)
+                .expectNext("Summary")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Prompt> prompt = ArgumentCaptor.forClass(Prompt.class);
+        verify(chatModel).stream(prompt.capture());
+        assertThat(prompt.getValue().getUserMessage().getText()).isEqualTo("Summarize\n\nThe quick brown fox.");
+    }
+
+    @Test
+    @DisplayName("POST /chat/document should accept a multipart upload")
+    void shouldStreamAnswer_forMultipartDocument() {
+        doReturn(Flux.just(createChatResponse("Done"))).when(chatModel).stream(any(Prompt.class));
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("document", "Report body").filename("report.txt").contentType(MediaType.TEXT_PLAIN);
+        body.part("message", "Review this");
+
+        Flux<String> result = webTestClient.post()
+                .uri("/chat/document")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody();
+
+        StepVerifier.create(result)
+                .expectNext("Done")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Prompt> prompt = ArgumentCaptor.forClass(Prompt.class);
+        verify(chatModel).stream(prompt.capture());
+        assertThat(prompt.getValue().getUserMessage().getText()).isEqualTo("Review this\n\nReport body");
+    }
+
+    @Test
+    @DisplayName("POST /chat/document should return 400 for a multipart upload without a document part")
+    void shouldReturn400_forMissingDocumentPart() {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("message", "Review this");
+
+        webTestClient.post()
+                .uri("/chat/document")
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("POST /chat/document should return 413 for a document over the limit")
+    void shouldReturn413_forOversizedDocument() {
+        webTestClient.post()
+                .uri("/chat/document")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("x".repeat(70 * 1024))
+                .exchange()
+                .expectStatus().isEqualTo(413);
+    }
+
+    @Test
+    @DisplayName("POST /chat/document should return 400 for an empty document")
+    void shouldReturn400_forEmptyDocument() {
+        webTestClient.post()
+                .uri("/chat/document")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue("   ")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private ChatResponse createChatResponse(String text) {
+        ChatResponse chatResponse = mock(ChatResponse.class);
+        Generation generation = mock(Generation.class);
+        AssistantMessage output = mock(AssistantMessage.class);
+
+        doReturn(text).when(output).getText();
+        doReturn(output).when(generation).getOutput();
+        doReturn(generation).when(chatResponse).getResult();
+
+        return chatResponse;
+    }
+}
@@ -0,0 +1,164 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.config.TestConfig;
+import com.puhovin.springopenai.dto.ChatRequest;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.http2.enabled=true")
+@DisplayName("HTTP/2 Streaming Integration Tests")
+class Http2StreamingIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private OpenAiChatModel chatModel;
+
+    private final List<HttpVersion> versions = new CopyOnWriteArrayList<>();
+    private final Set<Channel> connections = ConcurrentHashMap.newKeySet();
+    private ConnectionProvider provider;
+
+    @BeforeEach
+    void setup() {
+        reset(chatModel);
+        versions.clear();
+        connections.clear();
+        provider = ConnectionProvider.builder("http2-test").maxConnections(1).pendingAcquireMaxCount(-1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.disposeLater().block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("POST /chat/stream should stream over h2c with prior knowledge")
+    void shouldStreamOverH2c() {
+        doReturn(Flux.just(createChatResponse("Hello"), createChatResponse("world")))
+                .when(chatModel).stream(any(Prompt.class));
+
+        StepVerifier.create(stream(client(HttpProtocol.H2C)))
+                .expectNext("Hello")
+                .expectNext("world")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(versions).extracting(HttpVersion::text).containsExactly("HTTP/2.0");
+    }
+
+    @Test
+    @DisplayName("POST /chat/stream should flush each event before the answer completes")
+    void shouldFlushEachEvent_beforeCompletion() {
+        doReturn(Flux.just(createChatResponse("first")).concatWith(Flux.never()))
+                .when(chatModel).stream(any(Prompt.class));
+
+        StepVerifier.create(stream(client(HttpProtocol.H2C)))
+                .expectNext("first")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("POST /chat/stream should multiplex concurrent streams over one connection")
+    void shouldMultiplexConcurrentStreams_overOneConnection() {
+        doReturn(Flux.just(createChatResponse("a"), createChatResponse("b"), createChatResponse("c"))
+                .delayElements(Duration.ofMillis(50)))
+                .when(chatModel).stream(any(Prompt.class));
+        WebClient client = client(HttpProtocol.H2C);
+
+        StepVerifier.create(Flux.range(0, 32).flatMap(i -> stream(client).collectList(), 32))
+                .expectNextCount(32)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(versions).hasSize(32).extracting(HttpVersion::text).containsOnly("HTTP/2.0");
+        assertThat(connections).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("POST /chat/stream should still serve HTTP/1.1 clients")
+    void shouldServeHttp11Clients() {
+        doReturn(Flux.just(createChatResponse("Hello"))).when(chatModel).stream(any(Prompt.class));
+
+        StepVerifier.create(stream(client(HttpProtocol.HTTP11)))
+                .expectNext("Hello")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(versions).containsExactly(HttpVersion.HTTP_1_1);
+    }
+
+    private WebClient client(HttpProtocol protocol) {
+        HttpClient httpClient = HttpClient.create(provider)
+                .protocol(protocol)
+                .doOnResponse((response, connection) -> {
+                    versions.add(response.version());
+                    Channel channel = connection.channel();
+                    connections.add(channel.parent() != null ? channel.parent() : channel);
+                });
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    private Flux<String> stream(WebClient client) {
+        return client.post()
+                .uri("/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(new ChatRequest("Hello, chat!"))
+                .retrieve()
+                .bodyToFlux(String.class);
+    }
+
+    private ChatResponse createChatResponse(String text) {
+        ChatResponse chatResponse = mock(ChatResponse.class);
+        Generation generation = mock(Generation.class);
+        AssistantMessage output = mock(AssistantMessage.class);
+
+        doReturn(text).when(output).getText();
+        doReturn(output).when(generation).getOutput();
+        doReturn(generation).when(chatResponse).getResult();
+
+        return chatResponse;
+    }
+}
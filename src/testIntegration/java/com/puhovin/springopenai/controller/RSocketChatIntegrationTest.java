@@ -0,0 +1,137 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.config.RSocketConfig;
+import com.puhovin.springopenai.config.TestConfig;
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.dto.ChatTurnChunk;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.rsocket.context.LocalRSocketServerPort;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("RSocketChatController Integration Tests")
+class RSocketChatIntegrationTest {
+
+    @Autowired
+    private OpenAiChatModel chatModel;
+
+    @Autowired
+    private RSocketStrategies strategies;
+
+    @LocalRSocketServerPort
+    private int rsocketPort;
+
+    @LocalServerPort
+    private int httpPort;
+
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setup() {
+        reset(chatModel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (requester != null) {
+            requester.dispose();
+        }
+    }
+
+    private RSocketRequester.Builder requesterBuilder() {
+        return RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .dataMimeType(MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    @DisplayName("chat.stream over TCP should stream CBOR-encoded chunks")
+    void shouldStreamChunks_overTcp() {
+        doReturn(Flux.just(createChatResponse("Hello"), createChatResponse(" world")))
+                .when(chatModel).stream(any(Prompt.class));
+        requester = requesterBuilder().tcp("127.0.0.1", rsocketPort);
+
+        Flux<String> result = requester.route("chat.stream")
+                .metadata("indexer", RSocketConfig.CLIENT_ID_MIME_TYPE)
+                .data(new ChatRequest("Hi"))
+                .retrieveFlux(String.class);
+
+        StepVerifier.create(result)
+                .expectNext("Hello", " world")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("chat.stream should reject a blank message")
+    void shouldRejectBlankMessage() {
+        requester = requesterBuilder().tcp("127.0.0.1", rsocketPort);
+
+        Flux<String> result = requester.route("chat.stream")
+                .data(new ChatRequest(""))
+                .retrieveFlux(String.class);
+
+        StepVerifier.create(result)
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("chat.channel over WebSocket should close every answer")
+    void shouldAnswerChannelTurns_overWebSocket() {
+        doReturn(Flux.just(createChatResponse("one")), Flux.just(createChatResponse("two")))
+                .when(chatModel).stream(any(Prompt.class));
+        requester = requesterBuilder().websocket(URI.create("ws://127.0.0.1:" + httpPort + "/rsocket"));
+
+        Flux<ChatTurnChunk> result = requester.route("chat.channel")
+                .data(Flux.just(new ChatRequest("first"), new ChatRequest("second")), ChatRequest.class)
+                .retrieveFlux(ChatTurnChunk.class);
+
+        StepVerifier.create(result)
+                .expectNext(new ChatTurnChunk(0, "one", false))
+                .expectNext(new ChatTurnChunk(0, "", true))
+                .expectNext(new ChatTurnChunk(1, "two", false))
+                .expectNext(new ChatTurnChunk(1, "", true))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private ChatResponse createChatResponse(String text) {
+        ChatResponse chatResponse = mock(ChatResponse.class);
+        Generation generation = mock(Generation.class);
+        AssistantMessage output = mock(AssistantMessage.class);
+
+        doReturn(text).when(output).getText();
+        doReturn(output).when(generation).getOutput();
+        doReturn(generation).when(chatResponse).getResult();
+
+        return chatResponse;
+    }
+}
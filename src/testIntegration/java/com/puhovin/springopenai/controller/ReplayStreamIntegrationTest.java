@@ -0,0 +1,90 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.dto.ChatRequest;
+import com.puhovin.springopenai.replay.RecordedChunk;
+import com.puhovin.springopenai.replay.RecordingStore;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Replayed streaming Integration Tests")
+class ReplayStreamIntegrationTest {
+
+    private static final Path recordings = createDirectory();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void replayProperties(DynamicPropertyRegistry registry) {
+        registry.add("chat.replay.mode", () -> "replay");
+        registry.add("chat.replay.directory", recordings::toString);
+        registry.add("chat.replay.time-scale", () -> "1.0");
+    }
+
+    @BeforeAll
+    static void recordConversation() {
+        new RecordingStore(recordings).save(new Prompt(new UserMessage("Tell me a story")), List.of(
+                new RecordedChunk(50_000, "Once", null, null, null),
+                new RecordedChunk(150_000, " upon", null, null, null),
+                new RecordedChunk(150_000, " a time", "STOP", 5, 3)));
+    }
+
+    @Test
+    @DisplayName("POST /chat/stream should reproduce the recorded inter-chunk latency")
+    void streamChat_shouldReproduceRecordedLatency() {
+        var result = webTestClient.post()
+                .uri("/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ChatRequest("Tell me a story"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody()
+                .elapsed();
+
+        StepVerifier.create(result)
+                .assertNext(chunk -> assertThat(chunk.getT2()).isEqualTo("Once"))
+                .assertNext(chunk -> {
+                    assertThat(chunk.getT2()).isEqualTo(" upon");
+                    assertThat(chunk.getT1()).isGreaterThanOrEqualTo(100);
+                })
+                .assertNext(chunk -> {
+                    assertThat(chunk.getT2()).isEqualTo(" a time");
+                    assertThat(chunk.getT1()).isGreaterThanOrEqualTo(100);
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("chat-recordings");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.puhovin.springopenai.controller;
+
+import com.puhovin.springopenai.config.StubOpenAiServer;
+import com.puhovin.springopenai.dto.ChatRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Stream cancellation Integration Tests")
+class StreamCancellationIntegrationTest {
+
+    private static final StubOpenAiServer upstream = new StubOpenAiServer(Duration.ofMillis(20));
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.ai.openai.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @BeforeEach
+    void setup() {
+        upstream.reset();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/chat/stream", "/chat/stream-sse"})
+    @DisplayName("Client disconnect should close the upstream connection")
+    void clientDisconnect_shouldCloseUpstreamConnection(String uri) throws InterruptedException {
+        double cancelledBefore = meterRegistry.get("chat.stream.cancelled").counter().count();
+
+        Flux<String> result = webTestClient.post()
+                .uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ChatRequest("Tell me everything"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseBody();
+
+        StepVerifier.create(result)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(upstream.awaitConnectionClosed(Duration.ofSeconds(5))).isTrue();
+        assertThat(upstream.requests()).isEqualTo(1);
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            assertThat(meterRegistry.get("chat.stream.cancelled").counter().count()).isEqualTo(cancelledBefore + 1);
+            assertThat(meterRegistry.get("chat.stream.cancelled.propagation").timer().count()).isPositive();
+        });
+    }
+}